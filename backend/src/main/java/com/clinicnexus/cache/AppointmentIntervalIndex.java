@@ -0,0 +1,343 @@
+package com.clinicnexus.cache;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.clinicnexus.dao.AppointmentDAO;
+import com.clinicnexus.model.Appointment;
+
+/**
+ * In-memory index of booked appointment intervals, per doctor and per day.
+ * A day is loaded lazily from the database the first time it is queried and is
+ * then kept in sync by the appointment write paths. Loaded days are re-read after
+ * ttl-seconds so bookings made by other instances show up; a day whose load fails
+ * stays unloaded, answers as empty and is retried on the next query. The database
+ * remains the final arbiter; this index only lets obvious conflicts be rejected early.
+ */
+@Component
+public class AppointmentIntervalIndex {
+
+    private static final int MAX_LOAD_ATTEMPTS = 3;
+
+    @Autowired
+    private AppointmentDAO appointmentDAO;
+
+    @Value("${clinic.appointment-index.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    private final Map<LocalDate, DayCalendar> days = new ConcurrentHashMap<>();
+    private final Map<Integer, LocalDate> appointmentDates = new ConcurrentHashMap<>();
+    private final AtomicLong removals = new AtomicLong();
+
+    /**
+     * Check if doctor has an appointment overlapping the requested interval
+     * @param doctorID ID of doctor
+     * @param date Date of appointment
+     * @param time Start time of appointment
+     * @param duration Duration in minutes
+     * @param excludeAppointmentID Appointment ID to exclude from check (for updates)
+     * @return true if an overlapping appointment exists, false otherwise
+     */
+    public boolean hasConflict(int doctorID, Date date, Time time, int duration, Integer excludeAppointmentID) {
+        int start = toMinuteOfDay(time);
+        int end = start + effectiveDuration(duration);
+        int exclude = excludeAppointmentID != null ? excludeAppointmentID : -1;
+        return getLoadedDay(date.toLocalDate()).hasConflict(doctorID, start, end, exclude);
+    }
+
+    /**
+     * Get the booked intervals of a doctor on a day, sorted by start minute
+     * @param doctorID ID of doctor
+     * @param date Date to look up
+     * @return List of {startMinute, endMinute} pairs
+     */
+    public List<int[]> getBookedIntervals(int doctorID, LocalDate date) {
+        return getLoadedDay(date).getIntervals(doctorID);
+    }
+
+    /**
+     * Load every not-yet-cached or expired day in a range with a single query
+     * If the query fails the days stay unloaded and are loaded one by one when queried
+     * @param startDate First day (inclusive)
+     * @param endDate Last day (inclusive)
+     */
+    public void preload(LocalDate startDate, LocalDate endDate) {
+        List<DayCalendar> pending = new ArrayList<>();
+        pruneBefore(LocalDate.now());
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            DayCalendar day = days.computeIfAbsent(date, DayCalendar::new);
+            if (!day.isFresh()) {
+                pending.add(day);
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        long stamp = removals.get();
+        LocalDate from = pending.get(0).date;
+        LocalDate to = pending.get(pending.size() - 1).date;
+        Map<LocalDate, List<Appointment>> byDate = new HashMap<>();
+        try {
+            for (Appointment appointment : appointmentDAO.getAppointmentsByDateRange(Date.valueOf(from), Date.valueOf(to))) {
+                byDate.computeIfAbsent(appointment.getDate().toLocalDate(), d -> new ArrayList<>()).add(appointment);
+            }
+        } catch (SQLException e) {
+            System.err.println("Error preloading appointment intervals: " + e.getMessage());
+            return;
+        }
+        for (DayCalendar day : pending) {
+            day.loadFrom(byDate.getOrDefault(day.date, new ArrayList<>()), stamp);
+        }
+    }
+
+    /**
+     * Record a created or updated appointment. Canceled appointments are removed.
+     * @param appointment Appointment as persisted
+     */
+    public void onAppointmentSaved(Appointment appointment) {
+        if (appointment == null || appointment.getDate() == null || appointment.getTime() == null) {
+            return;
+        }
+        onAppointmentDeleted(appointment.getAppointmentID());
+        if (appointment.isCanceled()) {
+            return;
+        }
+
+        LocalDate date = appointment.getDate().toLocalDate();
+        DayCalendar day = days.computeIfAbsent(date, DayCalendar::new);
+        if (day.add(appointment)) {
+            appointmentDates.put(appointment.getAppointmentID(), date);
+        }
+    }
+
+    /**
+     * Remove an appointment from the index
+     * @param appointmentID ID of appointment
+     */
+    public void onAppointmentDeleted(int appointmentID) {
+        // Bumped before the lookup so a concurrent load can tell it may have read a stale row
+        removals.incrementAndGet();
+        LocalDate date = appointmentDates.remove(appointmentID);
+        if (date != null) {
+            DayCalendar day = days.get(date);
+            if (day != null) {
+                day.remove(appointmentID);
+            }
+        }
+    }
+
+    /**
+     * Drop a day so it is reloaded from the database on next use
+     * @param date Date to evict
+     */
+    public void evictDate(Date date) {
+        if (date != null) {
+            days.remove(date.toLocalDate());
+        }
+    }
+
+    /**
+     * Drop every loaded day (e.g. after cascading deletes)
+     */
+    public void clear() {
+        days.clear();
+        appointmentDates.clear();
+    }
+
+    private DayCalendar getLoadedDay(LocalDate date) {
+        DayCalendar day = days.get(date);
+        if (day == null) {
+            pruneBefore(LocalDate.now());
+            day = days.computeIfAbsent(date, DayCalendar::new);
+        }
+        day.ensureLoaded();
+        return day;
+    }
+
+    /**
+     * Past days can no longer be booked, so they are dropped to bound memory
+     */
+    private void pruneBefore(LocalDate cutoff) {
+        days.keySet().removeIf(date -> date.isBefore(cutoff));
+        appointmentDates.values().removeIf(date -> date.isBefore(cutoff));
+    }
+
+    private static int toMinuteOfDay(Time time) {
+        return time.toLocalTime().toSecondOfDay() / 60;
+    }
+
+    private static int effectiveDuration(int duration) {
+        return duration > 0 ? duration : Appointment.DEFAULT_DURATION;
+    }
+
+    /**
+     * All doctors' intervals for one day. Loading and mutation share the same
+     * monitor so a write applied after commit can never be lost to a concurrent load.
+     */
+    private final class DayCalendar {
+        private final LocalDate date;
+        private final Map<Integer, DoctorDay> doctors = new HashMap<>();
+        private long loadedAt;
+        private boolean loaded;
+
+        DayCalendar(LocalDate date) {
+            this.date = date;
+        }
+
+        /**
+         * True if the day was loaded and has not yet reached its TTL
+         */
+        synchronized boolean isFresh() {
+            return loaded && System.currentTimeMillis() - loadedAt < TimeUnit.SECONDS.toMillis(ttlSeconds);
+        }
+
+        synchronized void ensureLoaded() {
+            if (isFresh()) {
+                return;
+            }
+            Date sqlDate = Date.valueOf(date);
+            try {
+                for (int attempt = 0; attempt < MAX_LOAD_ATTEMPTS; attempt++) {
+                    long stamp = removals.get();
+                    List<Appointment> appointments = appointmentDAO.getAppointmentsByDateRange(sqlDate, sqlDate);
+                    fill(appointments);
+                    if (removals.get() == stamp) {
+                        break;
+                    }
+                }
+                markLoaded();
+            } catch (SQLException e) {
+                // Answer as empty until a later query loads the day; the booking guard still checks the database
+                System.err.println("Error loading appointment intervals for " + date + ": " + e.getMessage());
+                doctors.clear();
+                loaded = false;
+            }
+        }
+
+        /**
+         * Adopt rows read by a bulk preload, unless a removal raced with that read;
+         * in that case the day is left for ensureLoaded to fetch again
+         */
+        synchronized void loadFrom(List<Appointment> appointments, long stamp) {
+            if (isFresh() || removals.get() != stamp) {
+                return;
+            }
+            fill(appointments);
+            markLoaded();
+        }
+
+        private void markLoaded() {
+            loaded = true;
+            loadedAt = System.currentTimeMillis();
+        }
+
+        private void fill(List<Appointment> appointments) {
+            doctors.clear();
+            for (Appointment appointment : appointments) {
+                if (!appointment.isCanceled()) {
+                    insert(appointment);
+                    appointmentDates.put(appointment.getAppointmentID(), date);
+                }
+            }
+        }
+
+        synchronized boolean hasConflict(int doctorID, int start, int end, int excludeAppointmentID) {
+            DoctorDay doctor = doctors.get(doctorID);
+            return doctor != null && doctor.overlaps(start, end, excludeAppointmentID);
+        }
+
+        synchronized List<int[]> getIntervals(int doctorID) {
+            DoctorDay doctor = doctors.get(doctorID);
+            return doctor != null ? doctor.intervals() : new ArrayList<>();
+        }
+
+        synchronized boolean add(Appointment appointment) {
+            // An unloaded or expired day will pick the row up from the database when it is next queried
+            if (!isFresh()) {
+                return false;
+            }
+            insert(appointment);
+            return true;
+        }
+
+        synchronized void remove(int appointmentID) {
+            for (DoctorDay doctor : doctors.values()) {
+                if (doctor.remove(appointmentID)) {
+                    return;
+                }
+            }
+        }
+
+        private void insert(Appointment appointment) {
+            int start = toMinuteOfDay(appointment.getTime());
+            int end = start + effectiveDuration(appointment.getDuration());
+            doctors.computeIfAbsent(appointment.getDoctorID(), id -> new DoctorDay())
+                   .add(appointment.getAppointmentID(), start, end);
+        }
+    }
+
+    /**
+     * Intervals of one doctor on one day, ordered by start minute.
+     * Keys pack (start, appointmentID) so equal start times stay distinct.
+     */
+    private static final class DoctorDay {
+        private final TreeMap<Long, int[]> byStart = new TreeMap<>();
+        private final Map<Integer, Long> keysById = new HashMap<>();
+        private int maxDuration;
+
+        void add(int appointmentID, int start, int end) {
+            long key = key(start, appointmentID);
+            byStart.put(key, new int[] {start, end, appointmentID});
+            keysById.put(appointmentID, key);
+            maxDuration = Math.max(maxDuration, end - start);
+        }
+
+        boolean remove(int appointmentID) {
+            Long key = keysById.remove(appointmentID);
+            if (key == null) {
+                return false;
+            }
+            byStart.remove(key);
+            return true;
+        }
+
+        boolean overlaps(int start, int end, int excludeAppointmentID) {
+            // Only intervals starting within maxDuration before 'start' can reach into it
+            long from = key(Math.max(0, start - maxDuration), 0);
+            long to = key(end, 0);
+            for (int[] interval : byStart.subMap(from, true, to, false).values()) {
+                if (interval[1] > start && interval[2] != excludeAppointmentID) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        List<int[]> intervals() {
+            List<int[]> result = new ArrayList<>(byStart.size());
+            for (int[] interval : byStart.values()) {
+                result.add(new int[] {interval[0], interval[1]});
+            }
+            return result;
+        }
+
+        private static long key(int start, int appointmentID) {
+            return ((long) start << 32) | (appointmentID & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.clinicnexus.cache;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.clinicnexus.dao.InventoryDAO;
+import com.clinicnexus.model.Inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory copy of the slowly changing inventory fields: name, type, unit price,
+ * supplier, reorder threshold and active status. Stock quantity changes on every
+ * visit and is deliberately not cached; anything that needs it still reads the row.
+ * Items are held in arrays sorted by ItemID and found by binary search, so lookups
+ * by int ID neither box nor allocate. The catalog is loaded with one query and
+ * replaced as a unit; catalog writes through InventoryService and restocking
+ * invalidate it, writes from other application instances are picked up when the
+ * TTL expires, or sooner for item IDs this instance has not seen yet.
+ * Lookups are counted under cache.gets (result=hit/miss) and invalidations and
+ * expiries under cache.evictions, tagged cache=inventory.
+ */
+@Component
+public class InventoryCatalog {
+
+    @Autowired
+    private InventoryDAO inventoryDAO;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clinic.inventory-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${clinic.inventory-cache.miss-reload-ms:1000}")
+    private long missReloadMillis;
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong generation = new AtomicLong();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    /**
+     * Immutable catalog at one point in time, one array slot per item in ItemID order
+     */
+    private static final class Snapshot {
+        final long loadedAt;
+        final int[] itemIDs;
+        final String[] names;
+        final String[] types;
+        final String[] suppliers;
+        final double[] unitPrices;
+        final int[] reorderThresholds;
+        final boolean[] active;
+
+        Snapshot(List<Inventory> items, long loadedAt) {
+            items.sort(Comparator.comparingInt(Inventory::getItemID));
+            int size = items.size();
+            this.loadedAt = loadedAt;
+            itemIDs = new int[size];
+            names = new String[size];
+            types = new String[size];
+            suppliers = new String[size];
+            unitPrices = new double[size];
+            reorderThresholds = new int[size];
+            active = new boolean[size];
+            for (int i = 0; i < size; i++) {
+                Inventory item = items.get(i);
+                itemIDs[i] = item.getItemID();
+                names[i] = item.getName();
+                types[i] = item.getType();
+                suppliers[i] = item.getSupplierInfo();
+                unitPrices[i] = item.getUnitPrice();
+                reorderThresholds[i] = item.getReorderThreshold();
+                active[i] = item.isActiveStatus();
+            }
+        }
+
+        int indexOf(int itemID) {
+            return Arrays.binarySearch(itemIDs, itemID);
+        }
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        hits = meterRegistry.counter("cache.gets", "cache", "inventory", "result", "hit");
+        misses = meterRegistry.counter("cache.gets", "cache", "inventory", "result", "miss");
+        evictions = meterRegistry.counter("cache.evictions", "cache", "inventory");
+    }
+
+    /**
+     * @return true if the item exists, active or not
+     */
+    public boolean contains(int itemID) {
+        return lookup(itemID) != null;
+    }
+
+    /**
+     * @return Item name, or null if the item does not exist
+     */
+    public String getName(int itemID) {
+        Snapshot catalog = lookup(itemID);
+        return catalog != null ? catalog.names[catalog.indexOf(itemID)] : null;
+    }
+
+    /**
+     * @return Item type, or null if the item does not exist
+     */
+    public String getType(int itemID) {
+        Snapshot catalog = lookup(itemID);
+        return catalog != null ? catalog.types[catalog.indexOf(itemID)] : null;
+    }
+
+    /**
+     * @return Supplier information, or null if the item does not exist or has none
+     */
+    public String getSupplierInfo(int itemID) {
+        Snapshot catalog = lookup(itemID);
+        return catalog != null ? catalog.suppliers[catalog.indexOf(itemID)] : null;
+    }
+
+    /**
+     * @return Unit price, or 0 if the item does not exist
+     */
+    public double getUnitPrice(int itemID) {
+        Snapshot catalog = lookup(itemID);
+        return catalog != null ? catalog.unitPrices[catalog.indexOf(itemID)] : 0.0;
+    }
+
+    /**
+     * @return Reorder threshold, or -1 if the item does not exist
+     */
+    public int getReorderThreshold(int itemID) {
+        Snapshot catalog = lookup(itemID);
+        return catalog != null ? catalog.reorderThresholds[catalog.indexOf(itemID)] : -1;
+    }
+
+    /**
+     * @return true if the item exists and is active
+     */
+    public boolean isActive(int itemID) {
+        Snapshot catalog = lookup(itemID);
+        return catalog != null && catalog.active[catalog.indexOf(itemID)];
+    }
+
+    /**
+     * Price a set of used items; unknown items and missing quantities contribute nothing,
+     * as they did with the IN (...) query
+     * @param usage Map of item ID to quantity used
+     * @return Sum of unit price times quantity
+     */
+    public double priceOf(Map<Integer, Integer> usage) {
+        double total = 0.0;
+        for (Map.Entry<Integer, Integer> entry : usage.entrySet()) {
+            if (entry.getValue() != null) {
+                total += getUnitPrice(entry.getKey()) * entry.getValue();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Drop the catalog after an inventory write; the next read reloads it
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (snapshot != null) {
+            snapshot = null;
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Find the snapshot holding an item; an unknown ID reloads the catalog at most once per miss-reload interval,
+     * so items added on another instance are found without waiting for the TTL
+     */
+    private Snapshot lookup(int itemID) {
+        Snapshot cached = snapshot;
+        Snapshot current = current();
+        if (current.indexOf(itemID) < 0 && System.currentTimeMillis() - current.loadedAt >= missReloadMillis) {
+            current = reload(current);
+        }
+        if (current.indexOf(itemID) < 0) {
+            return null;
+        }
+        // Only an item found without a load is a hit; loads are counted as misses
+        if (current == cached) {
+            hits.increment();
+        }
+        return current;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < TimeUnit.SECONDS.toMillis(ttlSeconds)) {
+            return current;
+        }
+        if (current != null) {
+            evictions.increment();
+        }
+        return reload(current);
+    }
+
+    /**
+     * Load the catalog unless another thread already replaced the stale snapshot
+     */
+    private synchronized Snapshot reload(Snapshot stale) {
+        Snapshot current = snapshot;
+        if (current != null && current != stale) {
+            return current;
+        }
+        misses.increment();
+        long loadGeneration = generation.get();
+        List<Inventory> items = new ArrayList<>();
+        try {
+            inventoryDAO.loadInventory(null, items::add);
+        } catch (SQLException | IOException e) {
+            // Keep serving the previous catalog rather than caching an empty one
+            System.err.println("Error loading inventory catalog: " + e.getMessage());
+            return stale != null ? stale : new Snapshot(new ArrayList<>(), 0L);
+        }
+        Snapshot loaded = new Snapshot(items, System.currentTimeMillis());
+        // A write that invalidated during the load may not be in these rows; serve them once but do not keep them
+        if (generation.get() == loadGeneration) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+}
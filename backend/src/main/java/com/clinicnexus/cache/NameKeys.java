@@ -0,0 +1,63 @@
+package com.clinicnexus.cache;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Lookup keys for person names, so spellings that differ only in accents, case or
+ * spacing find the same person: accents are stripped, case is folded and runs of
+ * whitespace collapse to one space.
+ */
+final class NameKeys {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SPACES = Pattern.compile("\\s+");
+
+    private NameKeys() {}
+
+    static String fold(String name) {
+        if (name == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SPACES.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return ids with id added, kept sorted; the array passed in is not modified
+     */
+    static int[] with(int[] ids, int id) {
+        if (ids == null) {
+            return new int[] {id};
+        }
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        int insertAt = -index - 1;
+        int[] grown = new int[ids.length + 1];
+        System.arraycopy(ids, 0, grown, 0, insertAt);
+        grown[insertAt] = id;
+        System.arraycopy(ids, insertAt, grown, insertAt + 1, ids.length - insertAt);
+        return grown;
+    }
+
+    /**
+     * @return ids without id, or null if none remain; the array passed in is not modified
+     */
+    static int[] without(int[] ids, int id) {
+        int index = ids != null ? Arrays.binarySearch(ids, id) : -1;
+        if (index < 0) {
+            return ids;
+        }
+        if (ids.length == 1) {
+            return null;
+        }
+        int[] shrunk = new int[ids.length - 1];
+        System.arraycopy(ids, 0, shrunk, 0, index);
+        System.arraycopy(ids, index + 1, shrunk, index, ids.length - index - 1);
+        return shrunk;
+    }
+}
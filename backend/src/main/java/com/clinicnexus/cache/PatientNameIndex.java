@@ -0,0 +1,199 @@
+package com.clinicnexus.cache;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.clinicnexus.dao.PatientDAO;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Maps folded patient names (see NameKeys) to every matching PatientID, so a name
+ * resolves in one hash lookup and duplicates are visible instead of hidden behind
+ * the first row. Loaded with one pass over the Patient table, then kept current by
+ * PatientService as patients are created, renamed and deleted. Writes from other
+ * application instances are picked up when the TTL expires; a name this instance
+ * has not seen yet is looked up with an indexed Name = ? query and merged in, so a
+ * miss costs one point query rather than a rebuild. Writers and reloads share one
+ * lock; readers take none, and the miss query runs outside it. Lookups are counted
+ * under cache.gets (result=hit/miss) and expiries under cache.evictions, tagged
+ * cache=patient-names.
+ */
+@Component
+public class PatientNameIndex {
+
+    private static final int[] NONE = new int[0];
+
+    @Autowired
+    private PatientDAO patientDAO;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clinic.patient-names.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    private volatile Entries entries;
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    /**
+     * Both directions of the index; the arrays are sorted and replaced, never modified
+     */
+    private static final class Entries {
+        final long loadedAt;
+        final Map<String, int[]> idsByName = new ConcurrentHashMap<>();
+        final Map<Integer, String> nameByID = new ConcurrentHashMap<>();
+        /** Saves and deletes applied since the load, so a miss query that raced one is not merged */
+        int writes;
+
+        Entries(long loadedAt) {
+            this.loadedAt = loadedAt;
+        }
+
+        void put(int patientID, String name) {
+            remove(patientID);
+            String key = NameKeys.fold(name);
+            nameByID.put(patientID, key);
+            idsByName.compute(key, (k, ids) -> NameKeys.with(ids, patientID));
+        }
+
+        void remove(int patientID) {
+            String key = nameByID.remove(patientID);
+            if (key != null) {
+                idsByName.computeIfPresent(key, (k, ids) -> NameKeys.without(ids, patientID));
+            }
+        }
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        hits = meterRegistry.counter("cache.gets", "cache", "patient-names", "result", "hit");
+        misses = meterRegistry.counter("cache.gets", "cache", "patient-names", "result", "miss");
+        evictions = meterRegistry.counter("cache.evictions", "cache", "patient-names");
+    }
+
+    /**
+     * Get the IDs of every patient with this name
+     * @param name Patient name; case, accents and extra spaces are ignored
+     * @return Matching patient IDs in ascending order, empty if none
+     */
+    public int[] getPatientIds(String name) {
+        String key = NameKeys.fold(name);
+        Entries cached = entries;
+        Entries current = current();
+        int[] ids = current.idsByName.get(key);
+        if (ids == null) {
+            return resolve(current, key, name);
+        }
+        // Only a name found without a load is a hit; loads are counted as misses
+        if (current == cached) {
+            hits.increment();
+        }
+        return ids.clone();
+    }
+
+    /**
+     * Record a created or updated patient
+     */
+    public synchronized void onPatientSaved(int patientID, String name) {
+        Entries current = entries;
+        if (current != null) {
+            current.put(patientID, name);
+            current.writes++;
+        }
+    }
+
+    /**
+     * Forget a deleted patient
+     */
+    public synchronized void onPatientDeleted(int patientID) {
+        Entries current = entries;
+        if (current != null) {
+            current.remove(patientID);
+            current.writes++;
+        }
+    }
+
+    /**
+     * Look up a name the index does not have, e.g. a patient added on another instance,
+     * and merge the matches unless a save or delete landed while the query ran
+     */
+    private int[] resolve(Entries current, String key, String name) {
+        if (key.isEmpty()) {
+            return NONE;
+        }
+        misses.increment();
+        int writes;
+        synchronized (this) {
+            writes = current.writes;
+        }
+        Map<Integer, String> found = new LinkedHashMap<>();
+        try {
+            patientDAO.loadPatientsByName(name.trim().replaceAll("\\s+", " "), patient -> {
+                // The collation ignores case and accents; NameKeys decides what counts as the same name
+                if (NameKeys.fold(patient.getName()).equals(key)) {
+                    found.put(patient.getPatientID(), patient.getName());
+                }
+            });
+        } catch (SQLException | IOException e) {
+            System.err.println("Error looking up patient name: " + e.getMessage());
+            return NONE;
+        }
+        int[] ids = NONE;
+        for (int patientID : found.keySet()) {
+            ids = NameKeys.with(ids, patientID);
+        }
+        synchronized (this) {
+            if (entries == current && current.writes == writes) {
+                found.forEach(current::put);
+            }
+        }
+        return ids;
+    }
+
+    private Entries current() {
+        Entries current = entries;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < TimeUnit.SECONDS.toMillis(ttlSeconds)) {
+            return current;
+        }
+        if (current != null) {
+            evictions.increment();
+        }
+        return reload(current);
+    }
+
+    /**
+     * Rebuild the index unless another thread already replaced the stale one
+     * Holding the writers' lock means no save or delete can be lost between the read and the swap
+     */
+    private synchronized Entries reload(Entries stale) {
+        Entries current = entries;
+        if (current != null && current != stale) {
+            return current;
+        }
+        misses.increment();
+        Entries loaded = new Entries(System.currentTimeMillis());
+        try {
+            patientDAO.loadPatients(null, patient -> loaded.put(patient.getPatientID(), patient.getName()));
+        } catch (SQLException | IOException e) {
+            // Keep serving the previous index rather than caching an empty one
+            System.err.println("Error loading patient names: " + e.getMessage());
+            return stale != null ? stale : new Entries(0L);
+        }
+        entries = loaded;
+        return loaded;
+    }
+}
@@ -0,0 +1,445 @@
+package com.clinicnexus.cache;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.clinicnexus.dao.PatientDAO;
+import com.clinicnexus.model.Patient;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Trigram index over patient name, phone, email and insurance, for substring and
+ * typo-tolerant search without LIKE '%x%' table scans.
+ * Each field is folded (see NameKeys) and cut into overlapping three-character
+ * grams; each gram maps to a sorted int[] of the PatientIDs containing it. A query
+ * is cut the same way and a patient matches when enough of the query's grams hit:
+ * all of them for short queries, all but one or two typos' worth for longer ones.
+ * The best-scoring candidates are then read by ID and checked against their
+ * current row, which also drops postings left behind by renames and deletes.
+ * Saves and deletes through PatientService are applied as they happen; a deleted
+ * patient is masked out of the postings rather than removed from them, and the
+ * whole index is rebuilt in the background on an interval, which clears stale
+ * postings and picks up writes made by other application instances. Until the first build finishes,
+ * search returns null and callers fall back to SQL.
+ */
+@Component
+public class PatientSearchIndex {
+
+    /**
+     * Shorter queries form no gram; longer ones are truncated, which keeps the per-query counts within a byte
+     */
+    static final int MIN_QUERY_LENGTH = 3;
+    static final int MAX_QUERY_LENGTH = 64;
+
+    /**
+     * Candidates read back per requested result, to cover stale postings that fail the row check
+     */
+    private static final int OVERFETCH = 2;
+
+    /**
+     * Rough cost of one binary search relative to one step of a sequential scan
+     */
+    private static final int PROBE_COST = 16;
+
+    @Autowired
+    private PatientDAO patientDAO;
+
+    @Value("${clinic.patient-search.rebuild-interval-ms:600000}")
+    private long rebuildIntervalMillis;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ThreadLocal<byte[]> hitCounts = ThreadLocal.withInitial(() -> new byte[0]);
+
+    private static final Postings EMPTY = new Postings();
+
+    private volatile Grams grams;
+    private List<Patient> savedDuringRebuild;
+    private ScheduledExecutorService rebuilder;
+
+    /**
+     * PatientIDs holding one gram; sorted and duplicate-free outside a bulk build
+     */
+    private static final class Postings {
+        int[] ids = new int[4];
+        int size;
+
+        void append(int id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size + (size >> 1) + 1);
+            }
+            ids[size++] = id;
+        }
+
+        void insert(int id) {
+            if (size == 0 || ids[size - 1] < id) {
+                append(id);
+                return;
+            }
+            int index = Arrays.binarySearch(ids, 0, size, id);
+            if (index >= 0) {
+                return;
+            }
+            append(0);
+            int insertAt = -index - 1;
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - 1 - insertAt);
+            ids[insertAt] = id;
+        }
+
+        void sortAndTrim() {
+            Arrays.sort(ids, 0, size);
+            int unique = 0;
+            for (int i = 0; i < size; i++) {
+                if (unique == 0 || ids[unique - 1] != ids[i]) {
+                    ids[unique++] = ids[i];
+                }
+            }
+            size = unique;
+            ids = Arrays.copyOf(ids, size);
+        }
+    }
+
+    private static final class Grams {
+        final Map<Integer, Postings> byGram = new HashMap<>();
+        final BitSet deleted = new BitSet();
+        int maxID;
+
+        void add(Patient patient, boolean bulk) {
+            int id = patient.getPatientID();
+            maxID = Math.max(maxID, id);
+            deleted.clear(id);
+            for (int gram : gramsOf(patient)) {
+                Postings postings = byGram.computeIfAbsent(gram, g -> new Postings());
+                if (bulk) {
+                    postings.append(id);
+                } else {
+                    postings.insert(id);
+                }
+            }
+        }
+    }
+
+    private static final class Candidate {
+        final int patientID;
+        final int hits;
+
+        Candidate(int patientID, int hits) {
+            this.patientID = patientID;
+            this.hits = hits;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "patient-search-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        rebuilder.execute(this::rebuild);
+        if (rebuildIntervalMillis > 0) {
+            rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMillis, rebuildIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    /**
+     * Search patients by any part of their name, phone, email or insurance
+     * @param query Text to look for; case, accents and extra spaces are ignored
+     * @param limit Maximum number of patients to return
+     * @return Patients ranked by how well they match, or null if the query is too short or the index is not built yet
+     */
+    public List<Patient> search(String query, int limit) {
+        String folded = NameKeys.fold(query);
+        if (folded.length() > MAX_QUERY_LENGTH) {
+            folded = folded.substring(0, MAX_QUERY_LENGTH);
+        }
+        if (folded.length() < MIN_QUERY_LENGTH || grams == null) {
+            return null;
+        }
+        int[] queryGrams = distinctGrams(folded);
+        int required = requiredHits(folded, queryGrams.length);
+
+        int[] ids = candidates(queryGrams, required, limit * OVERFETCH).stream().mapToInt(c -> c.patientID).toArray();
+
+        // Rank on the current rows; a posting whose row no longer matches is dropped here
+        Map<Integer, Integer> scores = new HashMap<>();
+        List<Patient> ranked = new ArrayList<>();
+        for (Patient patient : patientDAO.getPatientsByIds(ids)) {
+            int score = score(patient, folded, queryGrams);
+            if (score >= required) {
+                scores.put(patient.getPatientID(), score);
+                ranked.add(patient);
+            }
+        }
+        ranked.sort(Comparator.comparingInt((Patient p) -> scores.get(p.getPatientID())).reversed()
+            .thenComparing(Patient::getName, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingInt(Patient::getPatientID));
+        return ranked.size() > limit ? new ArrayList<>(ranked.subList(0, limit)) : ranked;
+    }
+
+    /**
+     * Index a created or updated patient; grams the patient no longer has stay until the next rebuild
+     */
+    public void onPatientSaved(Patient patient) {
+        lock.writeLock().lock();
+        try {
+            if (savedDuringRebuild != null) {
+                savedDuringRebuild.add(patient);
+            }
+            if (grams != null) {
+                grams.add(patient, false);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stop returning a deleted patient
+     */
+    public void onPatientDeleted(int patientID) {
+        lock.writeLock().lock();
+        try {
+            if (grams != null) {
+                grams.deleted.set(patientID);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuild the index from the Patient table and swap it in
+     */
+    void rebuild() {
+        lock.writeLock().lock();
+        try {
+            savedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Grams built = new Grams();
+        try {
+            patientDAO.loadPatients(null, patient -> built.add(patient, true));
+        } catch (SQLException | IOException e) {
+            // Keep serving the previous index; until a first build succeeds callers use SQL
+            System.err.println("Error building patient search index: " + e.getMessage());
+            lock.writeLock().lock();
+            try {
+                savedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return;
+        }
+        for (Postings postings : built.byGram.values()) {
+            postings.sortAndTrim();
+        }
+        lock.writeLock().lock();
+        try {
+            // Saves that landed while the table was being read may be missing from it
+            for (Patient patient : savedDuringRebuild) {
+                built.add(patient, false);
+            }
+            savedDuringRebuild = null;
+            grams = built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Best-scoring patients holding at least the required number of query grams
+     * A patient with enough hits can miss at most (grams - required) lists, so it appears in at least one
+     * of the shortest (grams - required + 1): only those collect candidates, and the longer lists, such as
+     * the grams of a common surname, just add hits to them
+     */
+    private List<Candidate> candidates(int[] queryGrams, int required, int wanted) {
+        lock.readLock().lock();
+        try {
+            Grams current = grams;
+            Postings[] lists = new Postings[queryGrams.length];
+            for (int i = 0; i < queryGrams.length; i++) {
+                lists[i] = current.byGram.getOrDefault(queryGrams[i], EMPTY);
+            }
+            Arrays.sort(lists, Comparator.comparingInt((Postings p) -> p.size));
+            int shortLists = lists.length - required + 1;
+
+            byte[] counts = hitCounts.get();
+            if (counts.length <= current.maxID) {
+                counts = new byte[current.maxID + 1 + (current.maxID >> 3)];
+                hitCounts.set(counts);
+            }
+            int touchedSize = 0;
+            for (int i = 0; i < shortLists; i++) {
+                touchedSize += lists[i].size;
+            }
+            int[] touched = new int[touchedSize];
+            int size = 0;
+            for (int i = 0; i < shortLists; i++) {
+                Postings postings = lists[i];
+                for (int j = 0; j < postings.size; j++) {
+                    int id = postings.ids[j];
+                    if (counts[id]++ == 0) {
+                        touched[size++] = id;
+                    }
+                }
+            }
+            for (int i = shortLists; i < lists.length; i++) {
+                Postings postings = lists[i];
+                if (postings.size <= size * PROBE_COST) {
+                    // Cheaper to walk the list and bump only IDs already seen
+                    for (int j = 0; j < postings.size; j++) {
+                        int id = postings.ids[j];
+                        if (counts[id] != 0) {
+                            counts[id]++;
+                        }
+                    }
+                } else {
+                    for (int j = 0; j < size; j++) {
+                        if (Arrays.binarySearch(postings.ids, 0, postings.size, touched[j]) >= 0) {
+                            counts[touched[j]]++;
+                        }
+                    }
+                }
+            }
+            byte[] hits = new byte[size];
+            for (int j = 0; j < size; j++) {
+                // Read and reset, so the array is clean for the next query on this thread
+                hits[j] = current.deleted.get(touched[j]) ? 0 : counts[touched[j]];
+                counts[touched[j]] = 0;
+            }
+            return best(touched, hits, size, required, wanted);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to wanted candidates with the most hits, chosen with a histogram of hit counts instead of a full sort
+     */
+    private static List<Candidate> best(int[] ids, byte[] hits, int size, int required, int wanted) {
+        int[] atLeast = new int[MAX_QUERY_LENGTH + 2];
+        for (int j = 0; j < size; j++) {
+            if (hits[j] >= required) {
+                atLeast[hits[j]]++;
+            }
+        }
+        int cutoff = MAX_QUERY_LENGTH;
+        int taken = atLeast[cutoff];
+        while (cutoff > required && taken < wanted) {
+            taken += atLeast[--cutoff];
+        }
+        int atCutoff = wanted - (taken - atLeast[cutoff]);
+        List<Candidate> best = new ArrayList<>();
+        for (int j = 0; j < size; j++) {
+            if (hits[j] < cutoff) {
+                continue;
+            }
+            if (hits[j] == cutoff && atCutoff-- <= 0) {
+                continue;
+            }
+            best.add(new Candidate(ids[j], hits[j]));
+        }
+        best.sort(Comparator.comparingInt((Candidate c) -> c.hits).reversed().thenComparingInt(c -> c.patientID));
+        return best;
+    }
+
+    /**
+     * Number of query grams the patient's fields contain, plus one more per gram when a field
+     * contains the query itself, so exact substrings rank above typo matches
+     */
+    private static int score(Patient patient, String folded, int[] queryGrams) {
+        int[] patientGrams = gramsOf(patient);
+        int hits = 0;
+        for (int gram : queryGrams) {
+            if (Arrays.binarySearch(patientGrams, gram) >= 0) {
+                hits++;
+            }
+        }
+        for (String field : fieldsOf(patient)) {
+            if (field != null && NameKeys.fold(field).contains(folded)) {
+                return hits + queryGrams.length;
+            }
+        }
+        return hits;
+    }
+
+    /**
+     * All grams are required for queries under five characters; from five, one typo, which
+     * can break up to three grams, is tolerated, and two from nine. At least half the grams
+     * must always hit, so a short query with a typo does not match on a single common gram.
+     */
+    static int requiredHits(String folded, int gramCount) {
+        int typos = folded.length() >= 9 ? 2 : folded.length() >= 5 ? 1 : 0;
+        return Math.max((gramCount + 1) / 2, gramCount - 3 * typos);
+    }
+
+    private static int[] gramsOf(Patient patient) {
+        StringBuilder text = new StringBuilder();
+        for (String field : fieldsOf(patient)) {
+            if (field != null && !field.isBlank()) {
+                // Padding lets a query that starts or ends a word match on the boundary; the separator keeps grams from spanning fields
+                text.append('\u0001').append(' ').append(NameKeys.fold(field)).append(' ');
+            }
+        }
+        return distinctGrams(text.toString());
+    }
+
+    private static String[] fieldsOf(Patient patient) {
+        return new String[] {patient.getName(), patient.getPhone(), patient.getEmail(), patient.getInsuranceInfo()};
+    }
+
+    /**
+     * @return Sorted, distinct grams of the text, skipping any that span a field separator
+     */
+    static int[] distinctGrams(String text) {
+        if (text.length() < 3) {
+            return new int[0];
+        }
+        int[] grams = new int[text.length() - 2];
+        int count = 0;
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            char a = text.charAt(i);
+            char b = text.charAt(i + 1);
+            char c = text.charAt(i + 2);
+            if (a == '\u0001' || b == '\u0001' || c == '\u0001') {
+                continue;
+            }
+            grams[count++] = gram(a, b, c);
+        }
+        return Arrays.stream(grams, 0, count).sorted().distinct().toArray();
+    }
+
+    /**
+     * Packs three characters into an int; characters beyond the first 1024 share slots,
+     * which can only add candidates that the row check then rejects
+     */
+    private static int gram(char a, char b, char c) {
+        return ((a & 0x3FF) << 20) | ((b & 0x3FF) << 10) | (c & 0x3FF);
+    }
+}
@@ -0,0 +1,293 @@
+package com.clinicnexus.cache;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.clinicnexus.dao.StaffDAO;
+import com.clinicnexus.model.Staff;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+/**
+ * In-memory copy of the staff roster, with an index from folded names (see NameKeys)
+ * to every matching staff ID and the list of active doctors. The whole roster is
+ * loaded with one query and replaced as a unit, so readers always see a consistent
+ * snapshot without locking. Staff writes through StaffService invalidate it; writes
+ * made by other application instances are picked up when the TTL expires, or sooner
+ * for staff IDs and names this instance has not seen yet. The booking guard in the database still
+ * checks the doctor, so a stale snapshot can only reject early, never double-book.
+ * Lookups are counted under cache.gets (result=hit/miss) and invalidations and
+ * expiries under cache.evictions, tagged cache=staff.
+ */
+@Component
+public class StaffDirectory {
+
+    @Autowired
+    private StaffDAO staffDAO;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clinic.staff-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    @Value("${clinic.staff-cache.miss-reload-ms:1000}")
+    private long missReloadMillis;
+
+    private volatile Snapshot snapshot;
+    private final AtomicLong generation = new AtomicLong();
+
+    private Counter hits;
+    private Counter misses;
+    private Counter evictions;
+
+    /**
+     * Immutable view of the roster at one point in time
+     */
+    private static final class Snapshot {
+        final long loadedAt;
+        final List<Staff> roster;
+        final Map<Integer, Staff> byID = new HashMap<>();
+        final Map<String, int[]> idsByName = new HashMap<>();
+        final List<Staff> activeDoctors = new ArrayList<>();
+
+        Snapshot(List<Staff> roster, long loadedAt) {
+            this.roster = Collections.unmodifiableList(roster);
+            this.loadedAt = loadedAt;
+            for (Staff staff : roster) {
+                byID.put(staff.getStaffID(), staff);
+                if (staff.getName() != null) {
+                    idsByName.compute(NameKeys.fold(staff.getName()), (key, ids) -> NameKeys.with(ids, staff.getStaffID()));
+                }
+                if ("Doctor".equals(staff.getJobType()) && staff.isActiveStatus()) {
+                    activeDoctors.add(staff);
+                }
+            }
+        }
+    }
+
+    @PostConstruct
+    void registerMeters() {
+        hits = meterRegistry.counter("cache.gets", "cache", "staff", "result", "hit");
+        misses = meterRegistry.counter("cache.gets", "cache", "staff", "result", "miss");
+        evictions = meterRegistry.counter("cache.evictions", "cache", "staff");
+    }
+
+    /**
+     * Get a staff member by ID
+     * @param staffID ID of staff member
+     * @return Copy of the staff member, or null if not found
+     */
+    public Staff getStaff(int staffID) {
+        Staff staff = lookup(staffID);
+        return staff != null ? copyOf(staff) : null;
+    }
+
+    /**
+     * Get the IDs of every staff member with this name
+     * @param name Name of staff member; case, accents and extra spaces are ignored
+     * @param jobType Only staff with this job type (null for any)
+     * @return Matching staff IDs in ascending order, empty if none
+     */
+    public int[] getStaffIdsByName(String name, String jobType) {
+        String key = NameKeys.fold(name);
+        Snapshot cached = snapshot;
+        Snapshot current = current();
+        int[] ids = current.idsByName.get(key);
+        if (ids == null && System.currentTimeMillis() - current.loadedAt >= missReloadMillis) {
+            current = reload(current);
+            ids = current.idsByName.get(key);
+        }
+        if (ids == null) {
+            return new int[0];
+        }
+        if (current == cached) {
+            hits.increment();
+        }
+        Map<Integer, Staff> byID = current.byID;
+        return Arrays.stream(ids).filter(id -> jobType == null || jobType.equals(byID.get(id).getJobType())).toArray();
+    }
+
+    /**
+     * @return true if the staff member exists and is active
+     */
+    public boolean isActiveStaff(int staffID) {
+        Staff staff = lookup(staffID);
+        return staff != null && staff.isActiveStatus();
+    }
+
+    /**
+     * @return true if the staff member is an active doctor with working days, the same rule as the booking guard
+     */
+    public boolean isBookableDoctor(int doctorID) {
+        Staff staff = lookup(doctorID);
+        return staff != null && isBookable(staff);
+    }
+
+    /**
+     * Get active doctors ordered by name
+     * @param specialization Substring of the specialization, case-insensitive (null for all)
+     * @return Copies of the matching doctors
+     */
+    public List<Staff> getActiveDoctors(String specialization) {
+        String filter = specialization != null && !specialization.trim().isEmpty() ? specialization.toLowerCase(Locale.ROOT) : null;
+        List<Staff> doctors = new ArrayList<>();
+        for (Staff staff : scan().activeDoctors) {
+            if (filter == null || (staff.getSpecialization() != null && staff.getSpecialization().toLowerCase(Locale.ROOT).contains(filter))) {
+                doctors.add(copyOf(staff));
+            }
+        }
+        return doctors;
+    }
+
+    /**
+     * Find staff whose name contains the given text; the roster is small enough to scan
+     * @param name Part of the name; case, accents and extra spaces are ignored
+     * @return Copies of the matching staff members, ordered by name
+     */
+    public List<Staff> searchByName(String name) {
+        String key = NameKeys.fold(name);
+        List<Staff> matches = new ArrayList<>();
+        for (Staff staff : scan().roster) {
+            if (NameKeys.fold(staff.getName()).contains(key)) {
+                matches.add(copyOf(staff));
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Get all doctors, active or not, ordered by name
+     * @return Copies of the doctors
+     */
+    public List<Staff> getDoctors() {
+        List<Staff> doctors = new ArrayList<>();
+        for (Staff staff : scan().roster) {
+            if ("Doctor".equals(staff.getJobType())) {
+                doctors.add(copyOf(staff));
+            }
+        }
+        return doctors;
+    }
+
+    /**
+     * Get all active staff ordered by name
+     * @return Copies of the active staff members
+     */
+    public List<Staff> getActiveStaff() {
+        List<Staff> active = new ArrayList<>();
+        for (Staff staff : scan().roster) {
+            if (staff.isActiveStatus()) {
+                active.add(copyOf(staff));
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Drop the snapshot after a staff write; the next read reloads the roster
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        if (snapshot != null) {
+            snapshot = null;
+            evictions.increment();
+        }
+    }
+
+    /**
+     * Find by ID; an unknown ID reloads the roster at most once per miss-reload interval,
+     * so staff added on another instance are found without waiting for the TTL
+     */
+    private Staff lookup(int staffID) {
+        Snapshot cached = snapshot;
+        Snapshot current = current();
+        Staff staff = current.byID.get(staffID);
+        if (staff == null && System.currentTimeMillis() - current.loadedAt >= missReloadMillis) {
+            current = reload(current);
+            staff = current.byID.get(staffID);
+        }
+        // Only a staff member found without a load is a hit; loads are counted as misses
+        if (staff != null && current == cached) {
+            hits.increment();
+        }
+        return staff;
+    }
+
+    /**
+     * Snapshot for reads that scan the whole roster; served without a load is a hit
+     */
+    private Snapshot scan() {
+        Snapshot cached = snapshot;
+        Snapshot current = current();
+        if (current == cached) {
+            hits.increment();
+        }
+        return current;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current != null && System.currentTimeMillis() - current.loadedAt < TimeUnit.SECONDS.toMillis(ttlSeconds)) {
+            return current;
+        }
+        if (current != null) {
+            evictions.increment();
+        }
+        return reload(current);
+    }
+
+    /**
+     * Load the roster unless another thread already replaced the stale snapshot
+     */
+    private synchronized Snapshot reload(Snapshot stale) {
+        Snapshot current = snapshot;
+        if (current != null && current != stale) {
+            return current;
+        }
+        misses.increment();
+        long loadGeneration = generation.get();
+        List<Staff> roster = new ArrayList<>();
+        try {
+            staffDAO.loadStaff(null, roster::add);
+        } catch (SQLException | IOException e) {
+            // Keep serving the previous roster rather than caching an empty one
+            System.err.println("Error loading staff roster: " + e.getMessage());
+            return stale != null ? stale : new Snapshot(new ArrayList<>(), 0L);
+        }
+        Snapshot loaded = new Snapshot(roster, System.currentTimeMillis());
+        // A write that invalidated during the load may not be in these rows; serve them once but do not keep them
+        if (generation.get() == loadGeneration) {
+            snapshot = loaded;
+        }
+        return loaded;
+    }
+
+    private static boolean isBookable(Staff staff) {
+        return "Doctor".equals(staff.getJobType()) && staff.isActiveStatus()
+            && staff.getWorkingDays() != null && !staff.getWorkingDays().trim().isEmpty();
+    }
+
+    private static Staff copyOf(Staff staff) {
+        Staff copy = new Staff(staff.getStaffID(), staff.getName(), staff.getJobType(), staff.getSpecialization(),
+                               staff.getLicenseNumber(), staff.getPhone(), staff.getEmail(), staff.getHireDate(),
+                               staff.getWorkingDays(), staff.isActiveStatus());
+        copy.setVersion(staff.getVersion());
+        return copy;
+    }
+}
@@ -0,0 +1,467 @@
+package com.clinicnexus.cache;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.clinicnexus.dao.InventoryDAO;
+import com.clinicnexus.dao.PatientDAO;
+import com.clinicnexus.dao.StaffDAO;
+import com.clinicnexus.model.Inventory;
+import com.clinicnexus.model.Patient;
+import com.clinicnexus.model.Staff;
+import com.clinicnexus.util.Suggestion;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Prefix index for type-ahead over active patients (name), staff (name and
+ * specialization) and inventory items (name and purpose).
+ * Every field is folded (see NameKeys) and split into words; a query matches a
+ * record when each of its words starts some word of the record, so "ca gon" finds
+ * "Carla Gonzalez". Words live in one sorted String[] with the records holding
+ * each word in a parallel long[], so a prefix is a binary search followed by a
+ * short forward scan. The arrays are immutable: saves through the services go to
+ * a small sorted overlay that is searched alongside them and folded into new
+ * arrays in the background once it grows past compact-threshold words. Renamed,
+ * deactivated and deleted records are checked against the current record map, so
+ * words they no longer have are skipped until the next fold. The whole index is
+ * also reloaded from the database every rebuild-interval-ms to pick up writes made
+ * by other application instances.
+ */
+@Component
+public class SuggestIndex {
+
+    /**
+     * Records looked at per type and query; a one- or two-letter prefix of a common word stops here, nearest words first
+     */
+    static final int MAX_SCAN = 500;
+
+    private static final String[] TYPES = {Suggestion.PATIENT, Suggestion.STAFF, Suggestion.INVENTORY};
+
+    @Autowired
+    private PatientDAO patientDAO;
+
+    @Autowired
+    private StaffDAO staffDAO;
+
+    @Autowired
+    private InventoryDAO inventoryDAO;
+
+    @Value("${clinic.suggest.rebuild-interval-ms:600000}")
+    private long rebuildIntervalMillis;
+
+    @Value("${clinic.suggest.compact-threshold:10000}")
+    private int compactThreshold;
+
+    private final Object rebuildLock = new Object();
+    private volatile State state;
+    private List<Change> savedDuringRebuild;
+    private int overlayWords;
+    private boolean compactScheduled;
+    private ScheduledExecutorService rebuilder;
+
+    /**
+     * A record with its folded name and the words it is found under
+     */
+    private static final class Entry {
+        final Suggestion suggestion;
+        final String name;
+        final String[] nameWords;
+        final String[] words;
+
+        Entry(Suggestion suggestion) {
+            this.suggestion = suggestion;
+            name = NameKeys.fold(suggestion.getLabel());
+            nameWords = split(name);
+            String detail = NameKeys.fold(suggestion.getDetail());
+            words = detail.isEmpty() ? nameWords : distinct(nameWords, split(detail));
+        }
+    }
+
+    /**
+     * Words of one record type in ascending order; the records holding words[i] are refs[starts[i]] up to refs[starts[i + 1]]
+     */
+    private static final class Words {
+        final String[] words;
+        final int[] starts;
+        final long[] refs;
+
+        Words(Map<Long, Entry> entries, int kind) {
+            Map<String, List<Long>> byWord = new HashMap<>();
+            for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+                if (entry.getKey() >>> 32 != kind) {
+                    continue;
+                }
+                for (String word : entry.getValue().words) {
+                    byWord.computeIfAbsent(word, w -> new ArrayList<>(1)).add(entry.getKey());
+                }
+            }
+            words = byWord.keySet().toArray(new String[0]);
+            Arrays.sort(words);
+            starts = new int[words.length + 1];
+            int total = 0;
+            for (int i = 0; i < words.length; i++) {
+                starts[i] = total;
+                total += byWord.get(words[i]).size();
+            }
+            starts[words.length] = total;
+            refs = new long[total];
+            for (int i = 0; i < words.length; i++) {
+                int at = starts[i];
+                for (long ref : byWord.get(words[i])) {
+                    refs[at++] = ref;
+                }
+            }
+        }
+    }
+
+    /**
+     * The arrays for each record type, the overlays written since, and the current record for every key
+     * frozen is the overlay being folded into the next arrays, null outside a compaction
+     */
+    private static final class State {
+        final Words[] words;
+        final Map<Long, Entry> entries;
+        final NavigableMap<String, Set<Long>> frozen;
+        final NavigableMap<String, Set<Long>> overlay;
+
+        State(Words[] words, Map<Long, Entry> entries, NavigableMap<String, Set<Long>> frozen, NavigableMap<String, Set<Long>> overlay) {
+            this.words = words;
+            this.entries = entries;
+            this.frozen = frozen;
+            this.overlay = overlay;
+        }
+    }
+
+    /**
+     * A save (entry set) or delete (entry null) made while the database was being read
+     */
+    private static final class Change {
+        final long key;
+        final Entry entry;
+
+        Change(long key, Entry entry) {
+            this.key = key;
+            this.entry = entry;
+        }
+    }
+
+    private static final class Match {
+        final Entry entry;
+        final int rank;
+
+        Match(Entry entry, int rank) {
+            this.entry = entry;
+            this.rank = rank;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "suggest-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (rebuildIntervalMillis > 0) {
+            rebuilder.scheduleWithFixedDelay(this::rebuild, rebuildIntervalMillis, rebuildIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (rebuilder != null) {
+            rebuilder.shutdownNow();
+        }
+    }
+
+    /**
+     * Find records whose words start with every word of the query
+     * @param query Prefix typed so far; case, accents and extra spaces are ignored
+     * @param types Record types to search: Suggestion.PATIENT, STAFF and INVENTORY
+     * @param filter Which records of those types may be returned
+     * @param limit Maximum number of suggestions
+     * @return Names starting with the query first, then other name matches, then specialization or purpose matches
+     */
+    public List<Suggestion> suggest(String query, Set<String> types, Predicate<Suggestion> filter, int limit) {
+        String folded = NameKeys.fold(query);
+        if (folded.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String[] terms = split(folded);
+        // The longest word narrows the scan the most; the others are checked per record
+        String lead = terms[0];
+        for (String term : terms) {
+            if (term.length() > lead.length()) {
+                lead = term;
+            }
+        }
+        State current = loaded();
+        Set<Long> seen = new HashSet<>();
+        List<Match> matches = new ArrayList<>();
+
+        for (int kind = 0; kind < TYPES.length; kind++) {
+            if (!types.contains(TYPES[kind])) {
+                continue;
+            }
+            Words words = current.words[kind];
+            int scanned = 0;
+            int index = Arrays.binarySearch(words.words, lead);
+            for (int i = index >= 0 ? index : -index - 1; i < words.words.length && words.words[i].startsWith(lead) && scanned < MAX_SCAN; i++) {
+                for (int r = words.starts[i]; r < words.starts[i + 1] && scanned < MAX_SCAN; r++, scanned++) {
+                    consider(current, words.refs[r], folded, terms, filter, seen, matches);
+                }
+            }
+        }
+        for (NavigableMap<String, Set<Long>> overlay : Arrays.asList(current.frozen, current.overlay)) {
+            if (overlay == null) {
+                continue;
+            }
+            for (Set<Long> keys : overlay.subMap(lead, true, lead + Character.MAX_VALUE, false).values()) {
+                for (long key : keys) {
+                    if (types.contains(TYPES[(int) (key >>> 32)])) {
+                        consider(current, key, folded, terms, filter, seen, matches);
+                    }
+                }
+            }
+        }
+
+        matches.sort(Comparator.comparingInt((Match m) -> m.rank)
+            .thenComparingInt(m -> m.entry.name.length())
+            .thenComparing(m -> m.entry.name)
+            .thenComparing(m -> m.entry.suggestion.getType())
+            .thenComparingInt(m -> m.entry.suggestion.getId()));
+        List<Suggestion> suggestions = new ArrayList<>();
+        for (int i = 0; i < matches.size() && i < limit; i++) {
+            suggestions.add(matches.get(i).entry.suggestion);
+        }
+        return suggestions;
+    }
+
+    /**
+     * Record a created or updated patient; inactive patients are dropped from suggestions
+     */
+    public void onPatientSaved(Patient patient) {
+        save(key(Suggestion.PATIENT, patient.getPatientID()), patient.isActiveStatus()
+            ? new Suggestion(Suggestion.PATIENT, patient.getPatientID(), patient.getName(), null, null) : null);
+    }
+
+    public void onPatientDeleted(int patientID) {
+        save(key(Suggestion.PATIENT, patientID), null);
+    }
+
+    /**
+     * Record a created or updated staff member; inactive staff are dropped from suggestions
+     */
+    public void onStaffSaved(Staff staff) {
+        save(key(Suggestion.STAFF, staff.getStaffID()), staff.isActiveStatus() ? suggestionOf(staff) : null);
+    }
+
+    public void onStaffDeleted(int staffID) {
+        save(key(Suggestion.STAFF, staffID), null);
+    }
+
+    /**
+     * Record a created or updated inventory item; inactive items are dropped from suggestions
+     */
+    public void onInventorySaved(Inventory item) {
+        save(key(Suggestion.INVENTORY, item.getItemID()), item.isActiveStatus() ? suggestionOf(item) : null);
+    }
+
+    public void onInventoryDeleted(int itemID) {
+        save(key(Suggestion.INVENTORY, itemID), null);
+    }
+
+    /**
+     * Reload every active patient, staff member and inventory item and swap the new index in
+     */
+    void rebuild() {
+        synchronized (rebuildLock) {
+            synchronized (this) {
+                savedDuringRebuild = new ArrayList<>();
+            }
+            Map<Long, Entry> entries = new ConcurrentHashMap<>();
+            try {
+                patientDAO.loadPatients(true, patient -> entries.put(key(Suggestion.PATIENT, patient.getPatientID()),
+                    new Entry(new Suggestion(Suggestion.PATIENT, patient.getPatientID(), patient.getName(), null, null))));
+                staffDAO.loadStaff(true, staff -> entries.put(key(Suggestion.STAFF, staff.getStaffID()), new Entry(suggestionOf(staff))));
+                inventoryDAO.loadInventory(true, item -> entries.put(key(Suggestion.INVENTORY, item.getItemID()), new Entry(suggestionOf(item))));
+            } catch (SQLException | IOException e) {
+                // Keep serving the previous index; the first load falls back to an empty one until the next attempt
+                System.err.println("Error building suggestion index: " + e.getMessage());
+                synchronized (this) {
+                    savedDuringRebuild = null;
+                    if (state == null) {
+                        state = new State(wordsOf(new HashMap<>()), new ConcurrentHashMap<>(), null, new ConcurrentSkipListMap<>());
+                    }
+                }
+                return;
+            }
+            Words[] words = wordsOf(entries);
+            synchronized (this) {
+                State built = new State(words, entries, null, new ConcurrentSkipListMap<>());
+                overlayWords = 0;
+                // Saves that landed while the tables were being read may be missing from them
+                for (Change change : savedDuringRebuild) {
+                    apply(built, change.key, change.entry);
+                }
+                savedDuringRebuild = null;
+                state = built;
+            }
+        }
+    }
+
+    /**
+     * Fold the overlay into new arrays; saves made meanwhile go to a fresh overlay
+     */
+    void compact() {
+        synchronized (rebuildLock) {
+            State folding;
+            synchronized (this) {
+                compactScheduled = false;
+                State current = state;
+                if (current == null || current.overlay.isEmpty()) {
+                    return;
+                }
+                folding = new State(current.words, current.entries, current.overlay, new ConcurrentSkipListMap<>());
+                overlayWords = 0;
+                state = folding;
+            }
+            Words[] words = wordsOf(folding.entries);
+            synchronized (this) {
+                State current = state;
+                state = new State(words, current.entries, null, current.overlay);
+            }
+        }
+    }
+
+    private State loaded() {
+        State current = state;
+        if (current != null) {
+            return current;
+        }
+        synchronized (rebuildLock) {
+            if (state == null) {
+                rebuild();
+            }
+        }
+        return state;
+    }
+
+    private synchronized void save(long key, Suggestion suggestion) {
+        Entry entry = suggestion != null ? new Entry(suggestion) : null;
+        if (savedDuringRebuild != null) {
+            savedDuringRebuild.add(new Change(key, entry));
+        }
+        State current = state;
+        if (current == null) {
+            return;
+        }
+        apply(current, key, entry);
+        if (overlayWords >= compactThreshold && !compactScheduled && rebuilder != null) {
+            compactScheduled = true;
+            rebuilder.execute(this::compact);
+        }
+    }
+
+    /**
+     * Callers hold the lock on this index
+     */
+    private void apply(State target, long key, Entry entry) {
+        if (entry == null) {
+            target.entries.remove(key);
+            return;
+        }
+        target.entries.put(key, entry);
+        for (String word : entry.words) {
+            target.overlay.computeIfAbsent(word, w -> ConcurrentHashMap.newKeySet()).add(key);
+            overlayWords++;
+        }
+    }
+
+    private static void consider(State current, long key, String folded, String[] terms, Predicate<Suggestion> filter,
+                                 Set<Long> seen, List<Match> matches) {
+        if (!seen.add(key)) {
+            return;
+        }
+        Entry entry = current.entries.get(key);
+        if (entry == null || !filter.test(entry.suggestion)) {
+            return;
+        }
+        int rank = entry.name.startsWith(folded) ? 0 : startsAll(entry.nameWords, terms) ? 1 : startsAll(entry.words, terms) ? 2 : -1;
+        // -1: the record was renamed since this word was indexed
+        if (rank >= 0) {
+            matches.add(new Match(entry, rank));
+        }
+    }
+
+    private static boolean startsAll(String[] words, String[] terms) {
+        for (String term : terms) {
+            boolean found = false;
+            for (String word : words) {
+                if (word.startsWith(term)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Suggestion suggestionOf(Staff staff) {
+        return new Suggestion(Suggestion.STAFF, staff.getStaffID(), staff.getName(), staff.getSpecialization(), staff.getJobType());
+    }
+
+    private static Suggestion suggestionOf(Inventory item) {
+        return new Suggestion(Suggestion.INVENTORY, item.getItemID(), item.getName(), item.getPurpose(), item.getType());
+    }
+
+    private static Words[] wordsOf(Map<Long, Entry> entries) {
+        Words[] words = new Words[TYPES.length];
+        for (int kind = 0; kind < TYPES.length; kind++) {
+            words[kind] = new Words(entries, kind);
+        }
+        return words;
+    }
+
+    /**
+     * Record type in the high half, ID in the low half
+     */
+    private static long key(String type, int id) {
+        return ((long) Arrays.asList(TYPES).indexOf(type) << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private static String[] split(String folded) {
+        return folded.isEmpty() ? new String[0] : folded.split(" ");
+    }
+
+    private static String[] distinct(String[] first, String[] second) {
+        Set<String> words = new LinkedHashSet<>(Arrays.asList(first));
+        words.addAll(Arrays.asList(second));
+        return words.toArray(new String[0]);
+    }
+}
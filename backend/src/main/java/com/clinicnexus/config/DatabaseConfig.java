@@ -1,15 +1,20 @@
 package com.clinicnexus.config;
 
-import javax.sql.DataSource;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 
+import com.zaxxer.hikari.HikariDataSource;
+
 /**
  * Spring Boot Database Configuration
- * Replaces the custom DatabaseConnection class with proper Spring Boot configuration
+ * Provides the pooled DataSource shared by every DAO and transactional service, plus a
+ * small separate pool for report queries and streamed list downloads, so long-running
+ * reads cannot take the connections booking traffic needs.
+ * Pool settings are bound from spring.datasource.hikari.* and clinic.reports.datasource.hikari.*
+ * and pool gauges are published through Actuator under hikaricp.connections.*
  */
 @Configuration
 public class DatabaseConfig {
@@ -23,7 +28,14 @@ public class DatabaseConfig {
 
     @Bean
     @Primary
-    public DataSource dataSource(DataSourceProperties properties) {
-        return properties.initializeDataSourceBuilder().build();
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    @ConfigurationProperties("clinic.reports.datasource.hikari")
+    public HikariDataSource reportDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
     }
-} 
\ No newline at end of file
+}
@@ -1,36 +0,0 @@
-package com.clinicnexus.config;
-
-import java.sql.Connection;
-import java.sql.DriverManager;
-import java.sql.SQLException;
-
-/**
- * Database connection utility class for the Clinic Management System
- */
-public class DatabaseConnection {
-    private static final String URL = "jdbc:mysql://localhost:3306/clinic_db";
-    private static final String USERNAME = "app";
-    private static final String PASSWORD = "password";
-    
-    /**
-     * Get a connection to the database
-     * @return Connection object
-     * @throws SQLException if connection fails
-     */
-    public static Connection getConnection() throws SQLException {
-        return DriverManager.getConnection(URL, USERNAME, PASSWORD);
-    }
-    
-    /**
-     * Test database connection
-     * @return true if connection successful, false otherwise
-     */
-    public static boolean testConnection() {
-        try (Connection conn = getConnection()) {
-            return conn != null && !conn.isClosed();
-        } catch (SQLException e) {
-            System.err.println("Database connection failed: " + e.getMessage());
-            return false;
-        }
-    }
-}
@@ -1,9 +1,14 @@
 package com.clinicnexus.controller;
 
-import java.util.List;
-import java.util.Map;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -11,12 +16,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.clinicnexus.dto.CreateAppointmentDTO;
 import com.clinicnexus.model.Appointment;
+import com.clinicnexus.projection.AppointmentDetails;
 import com.clinicnexus.service.AppointmentService;
+import com.clinicnexus.service.AvailabilityService;
+import com.clinicnexus.service.BookingExecutor;
+import com.clinicnexus.service.IdempotencyService;
+import com.clinicnexus.util.AppointmentResult;
+import com.clinicnexus.util.UpdateResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/appointments")
@@ -25,9 +40,37 @@ public class AppointmentController {
     @Autowired
     private AppointmentService appointmentService;
 
+    @Autowired
+    private BookingExecutor bookingExecutor;
+
+    @Autowired
+    private AvailabilityService availabilityService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public List<Appointment> getAllAppointments() {
-        return appointmentService.listAppointments(null, null, null, null);
+    public ResponseEntity<?> getAllAppointments(@RequestParam(required = false) String date,
+                                                @RequestParam(required = false) Integer doctorID,
+                                                @RequestParam(required = false) String status,
+                                                @RequestParam(required = false) String visitType,
+                                                @RequestParam(required = false) String after,
+                                                @RequestParam(required = false) Integer limit) {
+        try {
+            Date dateFilter = date != null ? Date.valueOf(date) : null;
+            if (!PageResponses.isPaged(after, limit)) {
+                return JsonStreams.<Appointment>array(objectMapper,
+                    callback -> appointmentService.streamAppointments(dateFilter, doctorID, status, visitType, callback));
+            }
+            return PageResponses.of(appointmentService.listAppointmentPage(dateFilter, doctorID, status, visitType, after, limit));
+        } catch (IllegalArgumentException e) {
+            // Date.valueOf carries no message; the cursor check does
+            String message = e.getMessage() != null ? e.getMessage() : "date must be like 2025-03-01";
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(message);
+        }
     }
 
     @GetMapping("/{id}")
@@ -41,25 +84,30 @@ public class AppointmentController {
     }
 
     @PostMapping
-    public ResponseEntity<Appointment> createAppointment(@RequestBody Appointment appointment) {
-        int id = appointmentService.createAppointment(appointment);
-        if (id > 0) {
-            Appointment created = appointmentService.getAppointment(id);
-            return ResponseEntity.ok(created);
-        } else {
-            return ResponseEntity.badRequest().build();
-        }
+    public CompletableFuture<ResponseEntity<?>> createAppointment(@RequestHeader(value = IdempotentRequests.KEY_HEADER, required = false) String idempotencyKey,
+                                                                  @RequestBody Appointment appointment) {
+        return IdempotentRequests.<Object>runAsync(idempotencyService, objectMapper, "POST /api/appointments", idempotencyKey, appointment,
+            () -> bookingExecutor.submit(appointment).thenApply(result -> {
+                if (result.isSuccess()) {
+                    return ResponseEntity.<Object>ok(result.getAppointment());
+                } else if (result.isBusy()) {
+                    // The mailbox is full, not the slot taken, so the same booking can be retried shortly
+                    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1")
+                        .contentType(MediaType.TEXT_PLAIN).<Object>body(result.getMessage());
+                } else {
+                    return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).<Object>body(result.getMessage());
+                }
+            }));
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<Appointment> updateAppointment(@PathVariable int id, @RequestBody Appointment appointment) {
+    public ResponseEntity<?> updateAppointment(@PathVariable int id, @RequestBody Appointment appointment) {
         appointment.setAppointmentID(id);
-        boolean updated = appointmentService.updateAppointment(appointment);
-        if (updated) {
-            return ResponseEntity.ok(appointmentService.getAppointment(id));
-        } else {
-            return ResponseEntity.notFound().build();
+        UpdateResult result = appointmentService.updateAppointment(appointment);
+        if (result.getStatus() == UpdateResult.Status.REJECTED) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(result.getMessage());
         }
+        return UpdateResponses.of(result, () -> appointmentService.getAppointment(id));
     }
 
     @DeleteMapping("/{id}")
@@ -73,35 +121,40 @@ public class AppointmentController {
     }
     
     @GetMapping("/with-names")
-    public ResponseEntity<List<Map<String, Object>>> getAppointmentsWithNames() {
-        List<Map<String, Object>> appointments = appointmentService.getAppointmentsWithNames();
-        return ResponseEntity.ok(appointments);
+    public ResponseEntity<StreamingResponseBody> getAppointmentsWithNames() {
+        return JsonStreams.array(objectMapper, appointmentService::streamAppointmentsWithNames);
     }
     
     @PostMapping("/with-names")
-    public ResponseEntity<Map<String, Object>> createAppointmentWithNames(@RequestBody CreateAppointmentDTO appointmentDTO) {
+    public ResponseEntity<?> createAppointmentWithNames(@RequestHeader(value = IdempotentRequests.KEY_HEADER, required = false) String idempotencyKey,
+                                                        @RequestBody CreateAppointmentDTO appointmentDTO) {
+        return IdempotentRequests.run(idempotencyService, objectMapper, "POST /api/appointments/with-names", idempotencyKey, appointmentDTO,
+            () -> createAppointmentWithNames(appointmentDTO));
+    }
+    
+    private ResponseEntity<?> createAppointmentWithNames(CreateAppointmentDTO appointmentDTO) {
         try {
             // Validate DTO
             if (appointmentDTO == null) {
-                return ResponseEntity.badRequest().build();
+                return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("Request body is required");
             }
             
-            int id = appointmentService.createAppointmentWithNames(
+            AppointmentResult result = appointmentService.createAppointmentWithNames(
                 appointmentDTO.getPatientName(),
                 appointmentDTO.getDoctorName(),
                 appointmentDTO.getDate(),
                 appointmentDTO.getTime(),
                 appointmentDTO.getDuration(),
                 appointmentDTO.getVisitType(),
-                appointmentDTO.getStatus(),
                 appointmentDTO.getNotes()
             );
             
-            if (id > 0) {
-                Map<String, Object> created = appointmentService.getAppointmentWithRelatedRecords(id);
+            if (result.isSuccess()) {
+                AppointmentDetails created = appointmentService.getAppointmentWithRelatedRecords(result.getAppointmentID());
                 return ResponseEntity.ok(created);
             } else {
-                return ResponseEntity.badRequest().build();
+                // Unknown or ambiguous names are reported so the client can ask which person was meant
+                return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body(result.getMessage());
             }
         } catch (Exception e) {
             System.err.println("Error in createAppointmentWithNames controller: " + e.getMessage());
@@ -109,4 +162,23 @@ public class AppointmentController {
             return ResponseEntity.internalServerError().build();
         }
     }
+    
+    @GetMapping("/available-slots")
+    public ResponseEntity<?> findAvailableSlots(
+            @RequestParam(required = false) String specialization,
+            @RequestParam(required = false) String from,
+            @RequestParam(defaultValue = "7") int days,
+            @RequestParam(defaultValue = "30") int duration,
+            @RequestParam(defaultValue = "5") int count) {
+        if (days <= 0 || days > 90 || duration <= 0 || count <= 0 || count > 100) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN)
+                .body("days must be 1-90, count 1-100 and duration positive");
+        }
+        try {
+            LocalDate startDate = from != null ? LocalDate.parse(from) : LocalDate.now();
+            return ResponseEntity.ok(availabilityService.findEarliestSlots(specialization, startDate, days, duration, count));
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().contentType(MediaType.TEXT_PLAIN).body("from must be a date like 2025-03-01");
+        }
+    }
 }
\ No newline at end of file
@@ -10,11 +10,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.clinicnexus.model.Billing;
 import com.clinicnexus.service.BillingService;
+import com.clinicnexus.service.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/billing")
@@ -23,9 +27,25 @@ public class BillingController {
     @Autowired
     private BillingService billingService;
 
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public List<Billing> getAllBilling() {
-        return billingService.listBilling(null, null);
+    public ResponseEntity<?> getAllBilling(@RequestParam(required = false) Integer appointmentID,
+                                           @RequestParam(required = false) Boolean paid,
+                                           @RequestParam(required = false) String after,
+                                           @RequestParam(required = false) Integer limit) {
+        if (!PageResponses.isPaged(after, limit)) {
+            return JsonStreams.<Billing>array(objectMapper, callback -> billingService.streamBilling(appointmentID, paid, callback));
+        }
+        try {
+            return PageResponses.of(billingService.listBillingPage(appointmentID, paid, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -39,25 +59,23 @@ public class BillingController {
     }
 
     @PostMapping
-    public ResponseEntity<Billing> createBilling(@RequestBody Billing billing) {
-        int id = billingService.createBilling(billing);
-        if (id > 0) {
-            Billing created = billingService.getBilling(id);
-            return ResponseEntity.ok(created);
-        } else {
-            return ResponseEntity.badRequest().build();
-        }
+    public ResponseEntity<?> createBilling(@RequestHeader(value = IdempotentRequests.KEY_HEADER, required = false) String idempotencyKey,
+                                           @RequestBody Billing billing) {
+        return IdempotentRequests.run(idempotencyService, objectMapper, "POST /api/billing", idempotencyKey, billing, () -> {
+            int id = billingService.createBilling(billing);
+            if (id > 0) {
+                Billing created = billingService.getBilling(id);
+                return ResponseEntity.ok(created);
+            } else {
+                return ResponseEntity.badRequest().build();
+            }
+        });
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<Billing> updateBilling(@PathVariable int id, @RequestBody Billing billing) {
         billing.setBillingID(id);
-        boolean updated = billingService.updateBilling(billing);
-        if (updated) {
-            return ResponseEntity.ok(billingService.getBilling(id));
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return UpdateResponses.of(billingService.updateBilling(billing), () -> billingService.getBilling(id));
     }
 
     @DeleteMapping("/{id}")
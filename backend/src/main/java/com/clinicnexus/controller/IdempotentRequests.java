@@ -0,0 +1,143 @@
+package com.clinicnexus.controller;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import com.clinicnexus.service.IdempotencyService;
+import com.clinicnexus.util.StoredResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Runs a POST at most once per Idempotency-Key.
+ * Without the header the request runs as before. With it, the first request's 2xx
+ * response is recorded as JSON, with its headers, and replayed verbatim, plus
+ * Idempotent-Replayed: true, for any later request carrying the same key and body;
+ * a request with the key still running gets 409 with Retry-After, and the key reused
+ * with a different body gets 422. Non-2xx responses are not recorded, so a retry runs
+ * again. If the key store cannot be reached the request is refused with 503.
+ */
+final class IdempotentRequests {
+
+    static final String KEY_HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private static final int MAX_KEY_LENGTH = 255;
+
+    private static final TypeReference<Map<String, List<String>>> HEADERS_TYPE = new TypeReference<>() {};
+
+    private IdempotentRequests() {}
+
+    /**
+     * @param requestBody Deserialized request body; its JSON form fingerprints the request
+     */
+    static ResponseEntity<?> run(IdempotencyService service, ObjectMapper objectMapper, String scope, String key,
+                                 Object requestBody, Supplier<? extends ResponseEntity<?>> request) {
+        if (key == null) {
+            return request.get();
+        }
+        ResponseEntity<?> recorded = claim(service, objectMapper, scope, key, requestBody);
+        if (recorded != null) {
+            return recorded;
+        }
+        ResponseEntity<?> response;
+        try {
+            response = request.get();
+        } catch (RuntimeException e) {
+            service.release(scope, key);
+            throw e;
+        }
+        record(service, objectMapper, scope, key, response);
+        return response;
+    }
+
+    static <T> CompletableFuture<ResponseEntity<?>> runAsync(IdempotencyService service, ObjectMapper objectMapper, String scope, String key,
+                                                             Object requestBody, Supplier<CompletableFuture<ResponseEntity<T>>> request) {
+        if (key == null) {
+            return request.get().<ResponseEntity<?>>thenApply(response -> response);
+        }
+        ResponseEntity<?> recorded = claim(service, objectMapper, scope, key, requestBody);
+        if (recorded != null) {
+            return CompletableFuture.completedFuture(recorded);
+        }
+        CompletableFuture<ResponseEntity<T>> pending;
+        try {
+            pending = request.get();
+        } catch (RuntimeException e) {
+            service.release(scope, key);
+            throw e;
+        }
+        return pending.<ResponseEntity<?>>thenApply(response -> response).whenComplete((response, error) -> {
+            if (error != null) {
+                service.release(scope, key);
+            } else {
+                record(service, objectMapper, scope, key, response);
+            }
+        });
+    }
+
+    /**
+     * @return Response to send instead of running the request, or null if the caller now owns the key
+     */
+    private static ResponseEntity<?> claim(IdempotencyService service, ObjectMapper objectMapper, String scope, String key, Object requestBody) {
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().build();
+        }
+        StoredResponse stored;
+        try {
+            stored = service.claim(scope, key, objectMapper.writeValueAsString(requestBody));
+        } catch (JsonProcessingException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (SQLException e) {
+            // Running without the key could apply the request twice, so the client retries later
+            System.err.println("Error claiming idempotency key: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        if (stored == null) {
+            return null;
+        }
+        if (stored.isMismatch()) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).contentType(MediaType.TEXT_PLAIN)
+                .body(KEY_HEADER + " was already used with a different request body");
+        }
+        if (stored.isInProgress()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (stored.getHeaders() != null) {
+            try {
+                headers.putAll(objectMapper.readValue(stored.getHeaders(), HEADERS_TYPE));
+            } catch (JsonProcessingException e) {
+                System.err.println("Error reading recorded response headers: " + e.getMessage());
+            }
+        }
+        if (headers.getContentType() == null) {
+            headers.setContentType(MediaType.APPLICATION_JSON);
+        }
+        headers.set(REPLAYED_HEADER, "true");
+        return ResponseEntity.status(stored.getStatus()).headers(headers).body(stored.getBody());
+    }
+
+    private static void record(IdempotencyService service, ObjectMapper objectMapper, String scope, String key, ResponseEntity<?> response) {
+        if (response.getStatusCode().is2xxSuccessful()) {
+            try {
+                String headers = response.getHeaders().isEmpty() ? null : objectMapper.writeValueAsString(response.getHeaders());
+                String body = objectMapper.writeValueAsString(response.getBody());
+                service.complete(scope, key, response.getStatusCode().value(), headers, body);
+                return;
+            } catch (JsonProcessingException e) {
+                System.err.println("Error recording idempotent response: " + e.getMessage());
+            }
+        }
+        service.release(scope, key);
+    }
+}
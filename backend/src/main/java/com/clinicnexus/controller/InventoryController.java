@@ -11,10 +11,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.clinicnexus.model.Inventory;
 import com.clinicnexus.service.InventoryService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/inventory")
@@ -23,9 +25,23 @@ public class InventoryController {
     @Autowired
     private InventoryService inventoryService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public List<Inventory> getAllInventory() {
-        return inventoryService.listInventory(null, null, null);
+    public ResponseEntity<?> getAllInventory(@RequestParam(required = false) String name,
+                                             @RequestParam(required = false) String type,
+                                             @RequestParam(required = false) Boolean active,
+                                             @RequestParam(required = false) String after,
+                                             @RequestParam(required = false) Integer limit) {
+        if (!PageResponses.isPaged(after, limit)) {
+            return JsonStreams.<Inventory>array(objectMapper, callback -> inventoryService.streamInventory(name, type, active, callback));
+        }
+        try {
+            return PageResponses.of(inventoryService.listInventoryPage(name, type, active, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -51,12 +67,7 @@ public class InventoryController {
     @PutMapping("/{id}")
     public ResponseEntity<Inventory> updateInventory(@PathVariable int id, @RequestBody Inventory inventory) {
         inventory.setItemID(id);
-        boolean updated = inventoryService.updateInventory(inventory);
-        if (updated) {
-            return ResponseEntity.ok(inventoryService.getInventory(id));
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return UpdateResponses.of(inventoryService.updateInventory(inventory), () -> inventoryService.getInventory(id));
     }
 
     @DeleteMapping("/{id}")
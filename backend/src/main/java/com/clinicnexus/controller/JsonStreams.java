@@ -0,0 +1,51 @@
+package com.clinicnexus.controller;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.clinicnexus.util.RowCallback;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Writes a streamed DAO read to the response as a JSON array, one row at a time.
+ * Rows are serialized with the application ObjectMapper, so the output matches
+ * what the equivalent List endpoint produced, but no list is ever built and the
+ * first rows reach the client while the query is still running. The DAO stream
+ * methods read through the report pool, since a slow client keeps the connection
+ * for the whole download.
+ */
+final class JsonStreams {
+
+    private JsonStreams() {}
+
+    /**
+     * Source of streamed rows, typically a service stream method
+     */
+    @FunctionalInterface
+    interface RowSource<T> {
+        void stream(RowCallback<T> callback) throws SQLException, IOException;
+    }
+
+    static <T> ResponseEntity<StreamingResponseBody> array(ObjectMapper objectMapper, RowSource<T> source) {
+        StreamingResponseBody body = out -> {
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+            // A failed read must leave the array unterminated so clients see a broken response, not a short one
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            try (generator) {
+                generator.writeStartArray();
+                source.stream(generator::writeObject);
+                generator.writeEndArray();
+            } catch (SQLException e) {
+                System.err.println("Error streaming rows: " + e.getMessage());
+                throw new IOException(e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
@@ -0,0 +1,24 @@
+package com.clinicnexus.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Builds responses for name-to-ID lookups.
+ * A unique name returns its ID; a name shared by several people returns 409 with
+ * all of their IDs, so the client asks which one was meant instead of guessing.
+ */
+final class NameResponses {
+
+    private NameResponses() {}
+
+    static ResponseEntity<?> of(int[] ids) {
+        if (ids.length == 0) {
+            return ResponseEntity.notFound().build();
+        }
+        if (ids.length == 1) {
+            return ResponseEntity.ok(ids[0]);
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(ids);
+    }
+}
@@ -0,0 +1,35 @@
+package com.clinicnexus.controller;
+
+import java.util.List;
+
+import org.springframework.http.ResponseEntity;
+
+import com.clinicnexus.util.Page;
+
+/**
+ * Builds list responses for keyset-paginated endpoints.
+ * The body stays a plain JSON array; the cursor for the next page,
+ * if any, is returned in the X-Next-Cursor header.
+ */
+final class PageResponses {
+
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
+    private PageResponses() {}
+
+    static <T> ResponseEntity<List<T>> of(Page<T> page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.hasMore()) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
+    }
+
+    /**
+     * A request is paginated once either a cursor or a page size is given;
+     * otherwise the full list is streamed as before
+     */
+    static boolean isPaged(String after, Integer limit) {
+        return after != null || limit != null;
+    }
+}
@@ -11,10 +11,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.clinicnexus.model.Patient;
 import com.clinicnexus.service.PatientService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/patients")
@@ -23,9 +25,23 @@ public class PatientController {
     @Autowired
     private PatientService patientService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public List<Patient> getAllPatients() {
-        return patientService.listPatients(null, null, null);
+    public ResponseEntity<?> getAllPatients(@RequestParam(required = false) String name,
+                                            @RequestParam(required = false) String insurance,
+                                            @RequestParam(required = false) Boolean active,
+                                            @RequestParam(required = false) String after,
+                                            @RequestParam(required = false) Integer limit) {
+        if (!PageResponses.isPaged(after, limit)) {
+            return JsonStreams.<Patient>array(objectMapper, callback -> patientService.streamPatients(name, insurance, active, callback));
+        }
+        try {
+            return PageResponses.of(patientService.listPatientPage(name, insurance, active, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -52,12 +68,7 @@ public class PatientController {
     @PutMapping("/{id}")
     public ResponseEntity<Patient> updatePatient(@PathVariable int id, @RequestBody Patient patient) {
         patient.setPatientID(id);
-        boolean updated = patientService.updatePatient(patient);
-        if (updated) {
-            return ResponseEntity.ok(patientService.getPatient(id));
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return UpdateResponses.of(patientService.updatePatient(patient), () -> patientService.getPatient(id));
     }
 
     @DeleteMapping("/{id}")
@@ -71,18 +82,14 @@ public class PatientController {
     }
     
     @GetMapping("/search/{name}")
-    public ResponseEntity<List<Patient>> searchPatientsByName(@PathVariable String name) {
-        List<Patient> patients = patientService.searchPatientsByName(name);
+    public ResponseEntity<List<Patient>> searchPatientsByName(@PathVariable String name,
+                                                              @RequestParam(required = false) Integer limit) {
+        List<Patient> patients = patientService.searchPatients(name, limit);
         return ResponseEntity.ok(patients);
     }
     
     @GetMapping("/id/{name}")
-    public ResponseEntity<Integer> getPatientIdByName(@PathVariable String name) {
-        int patientId = patientService.getPatientIdByName(name);
-        if (patientId != -1) {
-            return ResponseEntity.ok(patientId);
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<?> getPatientIdByName(@PathVariable String name) {
+        return NameResponses.of(patientService.getPatientIdsByName(name));
     }
 }
\ No newline at end of file
@@ -0,0 +1,172 @@
+package com.clinicnexus.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.clinicnexus.service.ReportJobService;
+import com.clinicnexus.service.ReportService;
+import com.clinicnexus.util.ExportWriter;
+import com.clinicnexus.util.ReportJob;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@RestController
+@RequestMapping("/api/reports")
+public class ReportController {
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    /**
+     * Start a report job, e.g. POST /api/reports/financial-operations?year=2025&month=3
+     * Answers 202 with the job status; an identical request still in progress returns the same job
+     */
+    @PostMapping("/{type}")
+    public ResponseEntity<?> submitReport(@PathVariable String type,
+                                          @RequestParam(required = false) Integer year,
+                                          @RequestParam(required = false) Integer month,
+                                          @RequestParam(required = false) Integer quarter) {
+        try {
+            ReportJob job = reportJobService.submit(type, year, month, quarter);
+            return ResponseEntity.accepted().location(URI.create("/api/reports/jobs/" + job.getJobID())).body(job);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header("Retry-After", "30").build();
+        }
+    }
+
+    @GetMapping("/jobs/{jobID}")
+    public ResponseEntity<ReportJob> getJob(@PathVariable String jobID) {
+        ReportJob job = reportJobService.getJob(jobID);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    /**
+     * Stream the rows of a finished job as a JSON array; 202 with the job status while it is still queued or running
+     */
+    @GetMapping("/jobs/{jobID}/result")
+    public ResponseEntity<?> getJobResult(@PathVariable String jobID) {
+        ReportJob job = reportJobService.getJob(jobID);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        switch (job.getStatus()) {
+            case ReportJob.DONE:
+                List<?> rows = job.rows();
+                return JsonStreams.array(objectMapper, callback -> {
+                    for (Object row : rows) {
+                        callback.accept(row);
+                    }
+                });
+            case ReportJob.FAILED:
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(job);
+            default:
+                return ResponseEntity.accepted().body(job);
+        }
+    }
+
+    /**
+     * Recompute a report rollup from the source tables for days in [from, to), e.g.
+     * POST /api/reports/rollups/doctor-quarters?from=2025-01-01&to=2025-04-01
+     * daily-revenue rebuilds one month per transaction; doctor-quarters rebuilds every quarter
+     * that overlaps the days. Answers with the number of rows rebuilt, or 500 if a step failed
+     */
+    @PostMapping("/rollups/{rollup}")
+    public ResponseEntity<Integer> rebuildRollup(@PathVariable String rollup,
+                                                 @RequestParam String from,
+                                                 @RequestParam String to) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!fromDate.isBefore(toDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        int rebuilt;
+        switch (rollup) {
+            case "daily-revenue":
+                rebuilt = reportService.rebuildDailyRevenue(fromDate, toDate);
+                break;
+            case "doctor-quarters":
+                rebuilt = reportService.rebuildDoctorQuarters(fromDate, toDate);
+                break;
+            default:
+                return ResponseEntity.notFound().build();
+        }
+        if (rebuilt < 0) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        return ResponseEntity.ok(rebuilt);
+    }
+
+    /**
+     * Download raw rows as a file, e.g. /api/reports/export/billing?from=2020-01-01&to=2025-01-01&format=ndjson&gzip=true
+     * Rows are written as they are read, so multi-year exports do not build up in memory
+     */
+    @GetMapping("/export/{dataset}")
+    public ResponseEntity<StreamingResponseBody> export(@PathVariable String dataset,
+                                                        @RequestParam String from,
+                                                        @RequestParam String to,
+                                                        @RequestParam(defaultValue = "csv") String format,
+                                                        @RequestParam(defaultValue = "false") boolean gzip) {
+        LocalDate fromDate;
+        LocalDate toDate;
+        ExportWriter.Format exportFormat;
+        try {
+            fromDate = LocalDate.parse(from);
+            toDate = LocalDate.parse(to);
+            exportFormat = ExportWriter.Format.valueOf(format.toUpperCase());
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (!ReportService.isExportDataset(dataset) || !fromDate.isBefore(toDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        String filename = dataset + "-" + fromDate + "-" + toDate + "." + exportFormat.getExtension() + (gzip ? ".gz" : "");
+        StreamingResponseBody body = out -> {
+            try {
+                reportService.exportReport(dataset, fromDate, toDate, exportFormat, gzip, Channels.newChannel(out));
+            } catch (SQLException e) {
+                System.err.println("Error exporting " + dataset + ": " + e.getMessage());
+                throw new IOException(e);
+            }
+        };
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : exportFormat.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+            .body(body);
+    }
+}
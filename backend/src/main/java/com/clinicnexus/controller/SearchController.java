@@ -0,0 +1,35 @@
+package com.clinicnexus.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.clinicnexus.service.SearchService;
+import com.clinicnexus.util.Suggestion;
+
+@RestController
+@RequestMapping("/api/search")
+public class SearchController {
+
+    @Autowired
+    private SearchService searchService;
+
+    /**
+     * Type-ahead suggestions, e.g. /api/search/suggest?q=car&types=patient,doctor
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<List<Suggestion>> suggest(@RequestParam String q,
+                                                    @RequestParam(required = false) List<String> types,
+                                                    @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(searchService.suggest(q, types, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
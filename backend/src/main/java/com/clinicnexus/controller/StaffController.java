@@ -11,10 +11,12 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.clinicnexus.model.Staff;
 import com.clinicnexus.service.StaffService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 @RestController
 @RequestMapping("/api/staff")
@@ -23,9 +25,23 @@ public class StaffController {
     @Autowired
     private StaffService staffService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @GetMapping
-    public List<Staff> getAllStaff() {
-        return staffService.listStaff(null, null, null);
+    public ResponseEntity<?> getAllStaff(@RequestParam(required = false) String jobType,
+                                         @RequestParam(required = false) String specialization,
+                                         @RequestParam(required = false) Boolean active,
+                                         @RequestParam(required = false) String after,
+                                         @RequestParam(required = false) Integer limit) {
+        if (!PageResponses.isPaged(after, limit)) {
+            return JsonStreams.<Staff>array(objectMapper, callback -> staffService.streamStaff(jobType, specialization, active, callback));
+        }
+        try {
+            return PageResponses.of(staffService.listStaffPage(jobType, specialization, active, after, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     @GetMapping("/{id}")
@@ -51,12 +67,7 @@ public class StaffController {
     @PutMapping("/{id}")
     public ResponseEntity<Staff> updateStaff(@PathVariable int id, @RequestBody Staff staff) {
         staff.setStaffID(id);
-        boolean updated = staffService.updateStaff(staff);
-        if (updated) {
-            return ResponseEntity.ok(staffService.getStaff(id));
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+        return UpdateResponses.of(staffService.updateStaff(staff), () -> staffService.getStaff(id));
     }
 
     @DeleteMapping("/{id}")
@@ -76,12 +87,7 @@ public class StaffController {
     }
     
     @GetMapping("/id/{name}")
-    public ResponseEntity<Integer> getStaffIdByName(@PathVariable String name) {
-        int staffId = staffService.getStaffIdByName(name);
-        if (staffId != -1) {
-            return ResponseEntity.ok(staffId);
-        } else {
-            return ResponseEntity.notFound().build();
-        }
+    public ResponseEntity<?> getStaffIdByName(@PathVariable String name) {
+        return NameResponses.of(staffService.getStaffIdsByName(name));
     }
 }
\ No newline at end of file
@@ -0,0 +1,39 @@
+package com.clinicnexus.controller;
+
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.clinicnexus.util.UpdateResult;
+
+/**
+ * Builds PUT responses for versioned updates.
+ * A successful update returns the saved row; an update made against a stale
+ * version returns 409 with the current row, so the client can merge and retry
+ * with its Version. Both carry the row version in the ETag header.
+ * A database failure is 503 with Retry-After when it is transient, 500 otherwise.
+ */
+final class UpdateResponses {
+
+    private UpdateResponses() {}
+
+    static <T> ResponseEntity<T> of(UpdateResult result, Supplier<T> current) {
+        if (result.getStatus() == UpdateResult.Status.NOT_FOUND) {
+            return ResponseEntity.notFound().build();
+        }
+        if (result.getStatus() == UpdateResult.Status.BUSY) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+        }
+        if (result.getStatus() == UpdateResult.Status.ERROR) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+        T row = current.get();
+        if (row == null) {
+            return ResponseEntity.notFound().build();
+        }
+        HttpStatus status = result.isUpdated() ? HttpStatus.OK : HttpStatus.CONFLICT;
+        return ResponseEntity.status(status).eTag(String.valueOf(result.getVersion())).body(row);
+    }
+}
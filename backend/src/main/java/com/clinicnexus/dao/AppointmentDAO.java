@@ -1,57 +1,45 @@
 package com.clinicnexus.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
 import java.sql.Time;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import com.clinicnexus.config.DatabaseConnection;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
 import com.clinicnexus.model.Appointment;
+import com.clinicnexus.projection.AppointmentDetails;
+import com.clinicnexus.projection.AppointmentWithNames;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 /**
  * Data Access Object for Appointment operations
  */
+@Repository
 public class AppointmentDAO {
     
-    /**
-     * Add new appointment
-     * @param appointment Appointment object to add
-     * @return Generated appointment ID or -1 if failed
-     */
-    public int addAppointment(Appointment appointment) {
-        String sql = "INSERT INTO Appointment (PatientID, DoctorID, Date, Time, Duration, VisitType, Status, Notes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setInt(1, appointment.getPatientID());
-            pstmt.setInt(2, appointment.getDoctorID());
-            pstmt.setDate(3, appointment.getDate());
-            pstmt.setTime(4, appointment.getTime());
-            pstmt.setInt(5, appointment.getDuration());
-            pstmt.setString(6, appointment.getVisitType());
-            pstmt.setString(7, appointment.getStatus());
-            pstmt.setString(8, appointment.getNotes());
-            
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                ResultSet rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    return rs.getInt(1);
-                }
-            }
-        } catch (SQLException e) {
-            System.err.println("Error adding appointment: " + e.getMessage());
-        }
-        return -1;
-    }
+    /** Tells MySQL Connector/J to stream rows one at a time instead of buffering the result */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    /** Client downloads hold their connection until the client has read the last row, so they use the read-only report pool */
+    @Autowired
+    @Qualifier("reportDataSource")
+    private DataSource streamDataSource;
+    
+    @Autowired
+    private TransactionRunner transactionRunner;
     
     /**
      * Get appointment by ID
@@ -61,24 +49,14 @@ public class AppointmentDAO {
     public Appointment getAppointment(int appointmentID) {
         String sql = "SELECT * FROM Appointment WHERE AppointmentID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, appointmentID);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return new Appointment(
-                    rs.getInt("AppointmentID"),
-                    rs.getInt("PatientID"),
-                    rs.getInt("DoctorID"),
-                    rs.getDate("Date"),
-                    rs.getTime("Time"),
-                    rs.getInt("Duration"),
-                    rs.getString("VisitType"),
-                    rs.getString("Status"),
-                    rs.getString("Notes")
-                );
+                return RowMappers.appointment(rs).mapRow(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving appointment: " + e.getMessage());
@@ -87,16 +65,21 @@ public class AppointmentDAO {
     }
     
     /**
-     * Update appointment
+     * Update appointment on the caller's connection
+     * Applies only if the row still has the caller's version, which it then increments
+     * Changes to the doctor, patient, date or status are applied to the report rollups in the same transaction
+     * @param conn Connection with an open transaction; the caller commits
      * @param appointment Appointment object with updated information
-     * @return true if successful, false otherwise
+     * @return UPDATED with the new version, CONFLICT with the current version if the row
+     *         changed since it was read, or NOT_FOUND
      */
-    public boolean updateAppointment(Appointment appointment) {
-        String sql = "UPDATE Appointment SET PatientID = ?, DoctorID = ?, Date = ?, Time = ?, Duration = ?, VisitType = ?, Status = ?, Notes = ? WHERE AppointmentID = ?";
+    public UpdateResult updateAppointment(Connection conn, Appointment appointment) throws SQLException {
+        String sql = "UPDATE Appointment SET PatientID = ?, DoctorID = ?, Date = ?, Time = ?, Duration = ?, VisitType = ?, Status = ?, Notes = ?, Version = Version + 1 WHERE AppointmentID = ? AND Version = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
+        List<ReportRollups.Fact> before = ReportRollups.snapshot(conn, ReportRollups.Scope.APPOINTMENT, appointment.getAppointmentID());
+        
+        UpdateResult result;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, appointment.getPatientID());
             pstmt.setInt(2, appointment.getDoctorID());
             pstmt.setDate(3, appointment.getDate());
@@ -106,12 +89,16 @@ public class AppointmentDAO {
             pstmt.setString(7, appointment.getStatus());
             pstmt.setString(8, appointment.getNotes());
             pstmt.setInt(9, appointment.getAppointmentID());
+            pstmt.setInt(10, appointment.getVersion());
             
-            return pstmt.executeUpdate() > 0;
-        } catch (SQLException e) {
-            System.err.println("Error updating appointment: " + e.getMessage());
-            return false;
+            result = RowVersions.afterUpdate(conn, pstmt.executeUpdate(), appointment.getVersion(),
+                                             "SELECT Version FROM Appointment WHERE AppointmentID = ?", appointment.getAppointmentID());
+        }
+        
+        if (result.isUpdated()) {
+            ReportRollups.apply(conn, before, ReportRollups.snapshot(conn, ReportRollups.Scope.APPOINTMENT, appointment.getAppointmentID()));
         }
+        return result;
     }
     
     /**
@@ -120,67 +107,51 @@ public class AppointmentDAO {
      * @return true if successful, false otherwise
      */
     public boolean deleteAppointment(int appointmentID) {
-        Connection conn = null;
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false); // Start transaction
-            
-            // Delete related records first (in order of dependencies)
-            // 1. Delete appointment inventory records
-            String deleteAppointmentInventorySql = "DELETE FROM Appointment_Inventory WHERE AppointmentID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentInventorySql)) {
-                pstmt.setInt(1, appointmentID);
-                pstmt.executeUpdate();
-            }
-            
-            // 2. Delete billing records
-            String deleteBillingSql = "DELETE FROM Billing WHERE AppointmentID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteBillingSql)) {
-                pstmt.setInt(1, appointmentID);
-                pstmt.executeUpdate();
-            }
-            
-            // 3. Delete feedback records
-            String deleteFeedbackSql = "DELETE FROM Feedback WHERE AppointmentID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteFeedbackSql)) {
-                pstmt.setInt(1, appointmentID);
-                pstmt.executeUpdate();
-            }
-            
-            // 4. Finally delete the appointment
-            String deleteAppointmentSql = "DELETE FROM Appointment WHERE AppointmentID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentSql)) {
-                pstmt.setInt(1, appointmentID);
-                int result = pstmt.executeUpdate();
+            return transactionRunner.inTransaction("deleteAppointment", conn -> {
+                // Read what the appointment adds to the report rollups before any of it goes
+                List<ReportRollups.Fact> before = ReportRollups.snapshot(conn, ReportRollups.Scope.APPOINTMENT, appointmentID);
                 
-                if (result > 0) {
-                    conn.commit(); // Commit transaction
-                    return true;
-                } else {
-                    conn.rollback(); // Rollback if no appointment was deleted
-                    return false;
+                // Delete related records first (in order of dependencies)
+                // 1. Delete appointment inventory records
+                String deleteAppointmentInventorySql = "DELETE FROM Appointment_Inventory WHERE AppointmentID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentInventorySql)) {
+                    pstmt.setInt(1, appointmentID);
+                    pstmt.executeUpdate();
                 }
-            }
-            
+                
+                // 2. Delete billing records
+                String deleteBillingSql = "DELETE FROM Billing WHERE AppointmentID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteBillingSql)) {
+                    pstmt.setInt(1, appointmentID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 3. Delete feedback records
+                String deleteFeedbackSql = "DELETE FROM Feedback WHERE AppointmentID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteFeedbackSql)) {
+                    pstmt.setInt(1, appointmentID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 4. Finally delete the appointment
+                String deleteAppointmentSql = "DELETE FROM Appointment WHERE AppointmentID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentSql)) {
+                    pstmt.setInt(1, appointmentID);
+                    int result = pstmt.executeUpdate();
+                    
+                    if (result > 0) {
+                        ReportRollups.apply(conn, before, ReportRollups.NONE);
+                        return true;
+                    } else {
+                        conn.rollback(); // Rollback if no appointment was deleted
+                        return false;
+                    }
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting appointment: " + e.getMessage());
-            if (conn != null) {
-                try {
-                    conn.rollback(); // Rollback on error
-                } catch (SQLException rollbackEx) {
-                    System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
-                }
-            }
             return false;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true); // Reset auto-commit
-                    conn.close();
-                } catch (SQLException e) {
-                    System.err.println("Error closing connection: " + e.getMessage());
-                }
-            }
         }
     }
     
@@ -193,6 +164,52 @@ public class AppointmentDAO {
      * @return List of Appointment objects
      */
     public List<Appointment> getAppointmentList(Date dateFilter, Integer doctorID, String statusFilter, String visitTypeFilter) {
+        return getAppointmentPage(dateFilter, doctorID, statusFilter, visitTypeFilter, null, 0);
+    }
+    
+    /**
+     * Get one page of appointments ordered by Date, Time, AppointmentID descending
+     * Uses a seek predicate on the last row of the previous page instead of OFFSET
+     * @param dateFilter Filter by date (null for no filter)
+     * @param doctorID Filter by doctor ID (null for no filter)
+     * @param statusFilter Filter by status (null for no filter)
+     * @param visitTypeFilter Filter by visit type (null for no filter)
+     * @param after Last appointment of the previous page (null for the first page)
+     * @param limit Maximum number of rows (0 for no limit)
+     * @return List of Appointment objects
+     */
+    public List<Appointment> getAppointmentPage(Date dateFilter, Integer doctorID, String statusFilter, String visitTypeFilter,
+                                                Appointment after, int limit) {
+        List<Appointment> appointmentList = new ArrayList<>();
+        
+        try {
+            queryAppointments(dataSource, dateFilter, doctorID, statusFilter, visitTypeFilter, after, limit, 0, appointmentList::add);
+        } catch (SQLException | IOException e) {
+            System.err.println("Error retrieving appointment list: " + e.getMessage());
+        }
+        
+        return appointmentList;
+    }
+    
+    /**
+     * Stream appointments ordered by Date, Time, AppointmentID descending without materializing a list
+     * Rows are read with MySQL row streaming, so the callback runs while the query is still open
+     * @param dateFilter Filter by date (null for no filter)
+     * @param doctorID Filter by doctor ID (null for no filter)
+     * @param statusFilter Filter by status (null for no filter)
+     * @param visitTypeFilter Filter by visit type (null for no filter)
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void streamAppointments(Date dateFilter, Integer doctorID, String statusFilter, String visitTypeFilter,
+                                   RowCallback<Appointment> callback) throws SQLException, IOException {
+        queryAppointments(streamDataSource, dateFilter, doctorID, statusFilter, visitTypeFilter, null, 0, STREAMING_FETCH_SIZE, callback);
+    }
+    
+    private void queryAppointments(DataSource source, Date dateFilter, Integer doctorID, String statusFilter, String visitTypeFilter,
+                                   Appointment after, int limit, int fetchSize, RowCallback<Appointment> callback)
+            throws SQLException, IOException {
         StringBuilder sql = new StringBuilder("SELECT * FROM Appointment WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
@@ -216,121 +233,107 @@ public class AppointmentDAO {
             params.add(visitTypeFilter);
         }
         
-        sql.append(" ORDER BY Date DESC, Time DESC");
+        if (after != null) {
+            sql.append(" AND (Date < ? OR (Date = ? AND (Time < ? OR (Time = ? AND AppointmentID < ?))))");
+            params.add(after.getDate());
+            params.add(after.getDate());
+            params.add(after.getTime());
+            params.add(after.getTime());
+            params.add(after.getAppointmentID());
+        }
         
-        List<Appointment> appointmentList = new ArrayList<>();
+        sql.append(" ORDER BY Date DESC, Time DESC, AppointmentID DESC");
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
+        
+        try (Connection conn = source.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             
+            pstmt.setFetchSize(fetchSize);
             for (int i = 0; i < params.size(); i++) {
                 pstmt.setObject(i + 1, params.get(i));
             }
             
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Appointment> mapper = RowMappers.appointment(rs);
             while (rs.next()) {
-                appointmentList.add(new Appointment(
-                    rs.getInt("AppointmentID"),
-                    rs.getInt("PatientID"),
-                    rs.getInt("DoctorID"),
-                    rs.getDate("Date"),
-                    rs.getTime("Time"),
-                    rs.getInt("Duration"),
-                    rs.getString("VisitType"),
-                    rs.getString("Status"),
-                    rs.getString("Notes")
-                ));
+                callback.accept(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving appointment list: " + e.getMessage());
         }
-        
-        return appointmentList;
     }
     
     /**
      * Get appointment with related patient and doctor records
      * @param appointmentID ID of appointment
-     * @return Map containing appointment info and related records
+     * @return AppointmentDetails or null if not found
      */
-    public Map<String, Object> getAppointmentWithRelatedRecords(int appointmentID) {
-        Map<String, Object> result = new HashMap<>();
-        
-        String sql = "SELECT a.*, " +
-                    "p.Name as PatientName, p.Phone as PatientPhone, p.Email as PatientEmail, " +
-                    "s.Name as DoctorName, s.Specialization as DoctorSpecialization, s.Phone as DoctorPhone " +
+    public AppointmentDetails getAppointmentWithRelatedRecords(int appointmentID) {
+        String sql = "SELECT a.AppointmentID, a.Date, a.Time, a.Duration, a.VisitType, a.Status, a.Notes, " +
+                    "a.PatientID, p.Name as PatientName, p.Phone as PatientPhone, p.Email as PatientEmail, " +
+                    "a.DoctorID, s.Name as DoctorName, s.Specialization as DoctorSpecialization, s.Phone as DoctorPhone " +
                     "FROM Appointment a " +
                     "JOIN Patient p ON a.PatientID = p.PatientID " +
                     "JOIN Staff s ON a.DoctorID = s.StaffID " +
                     "WHERE a.AppointmentID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, appointmentID);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                // Appointment details
-                Map<String, Object> appointment = new HashMap<>();
-                appointment.put("appointmentID", rs.getInt("AppointmentID"));
-                appointment.put("date", rs.getDate("Date"));
-                appointment.put("time", rs.getTime("Time"));
-                appointment.put("duration", rs.getInt("Duration"));
-                appointment.put("visitType", rs.getString("VisitType"));
-                appointment.put("status", rs.getString("Status"));
-                appointment.put("notes", rs.getString("Notes"));
-                
-                // Patient details
-                Map<String, Object> patient = new HashMap<>();
-                patient.put("patientID", rs.getInt("PatientID"));
-                patient.put("name", rs.getString("PatientName"));
-                patient.put("phone", rs.getString("PatientPhone"));
-                patient.put("email", rs.getString("PatientEmail"));
-                
-                // Doctor details
-                Map<String, Object> doctor = new HashMap<>();
-                doctor.put("doctorID", rs.getInt("DoctorID"));
-                doctor.put("name", rs.getString("DoctorName"));
-                doctor.put("specialization", rs.getString("DoctorSpecialization"));
-                doctor.put("phone", rs.getString("DoctorPhone"));
-                
-                result.put("appointment", appointment);
-                result.put("patient", patient);
-                result.put("doctor", doctor);
+                // Columns are selected in record order, so they can be read by position
+                return new AppointmentDetails(
+                    new AppointmentDetails.Visit(rs.getInt(1), rs.getDate(2), rs.getTime(3), rs.getInt(4),
+                                                 rs.getString(5), rs.getString(6), rs.getString(7)),
+                    new AppointmentDetails.PatientContact(rs.getInt(8), rs.getString(9), rs.getString(10), rs.getString(11)),
+                    new AppointmentDetails.DoctorContact(rs.getInt(12), rs.getString(13), rs.getString(14), rs.getString(15))
+                );
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving appointment with related records: " + e.getMessage());
         }
         
-        return result;
+        return null;
     }
     
     /**
      * Check if doctor has conflicting appointments
+     * Two appointments conflict when their [Time, Time + Duration) intervals overlap
      * @param doctorID ID of doctor
      * @param date Date of appointment
      * @param time Time of appointment
+     * @param duration Duration in minutes
      * @param excludeAppointmentID Appointment ID to exclude from check (for updates)
      * @return true if conflict exists, false otherwise
      */
-    public boolean hasAppointmentConflict(int doctorID, Date date, Time time, Integer excludeAppointmentID) {
-        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM Appointment WHERE DoctorID = ? AND Date = ? AND Time = ? AND Status != 'Canceled'");
+    public boolean hasAppointmentConflict(int doctorID, Date date, Time time, int duration, Integer excludeAppointmentID) {
+        StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM Appointment WHERE DoctorID = ? AND Date = ? AND Status != 'Canceled'" +
+                                              " AND TIME_TO_SEC(Time) < ? AND TIME_TO_SEC(Time) + COALESCE(NULLIF(Duration, 0), ?) * 60 > ?");
         
         if (excludeAppointmentID != null) {
             sql.append(" AND AppointmentID != ?");
         }
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        int startSeconds = time.toLocalTime().toSecondOfDay();
+        int endSeconds = startSeconds + (duration > 0 ? duration : Appointment.DEFAULT_DURATION) * 60;
+        
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
             
             pstmt.setInt(1, doctorID);
             pstmt.setDate(2, date);
-            pstmt.setTime(3, time);
+            pstmt.setInt(3, endSeconds);
+            pstmt.setInt(4, Appointment.DEFAULT_DURATION);
+            pstmt.setInt(5, startSeconds);
             
             if (excludeAppointmentID != null) {
-                pstmt.setInt(4, excludeAppointmentID);
+                pstmt.setInt(6, excludeAppointmentID);
             }
             
             ResultSet rs = pstmt.executeQuery();
@@ -346,33 +349,23 @@ public class AppointmentDAO {
      * @param startDate Start date
      * @param endDate End date
      * @return List of appointments within the date range
+     * @throws SQLException if the read fails, so callers caching the result can tell an empty range from an error
      */
-    public List<Appointment> getAppointmentsByDateRange(Date startDate, Date endDate) {
+    public List<Appointment> getAppointmentsByDateRange(Date startDate, Date endDate) throws SQLException {
         String sql = "SELECT * FROM Appointment WHERE Date BETWEEN ? AND ? ORDER BY Date, Time";
         List<Appointment> appointments = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setDate(1, startDate);
             pstmt.setDate(2, endDate);
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Appointment> mapper = RowMappers.appointment(rs);
             while (rs.next()) {
-                appointments.add(new Appointment(
-                    rs.getInt("AppointmentID"),
-                    rs.getInt("PatientID"),
-                    rs.getInt("DoctorID"),
-                    rs.getDate("Date"),
-                    rs.getTime("Time"),
-                    rs.getInt("Duration"),
-                    rs.getString("VisitType"),
-                    rs.getString("Status"),
-                    rs.getString("Notes")
-                ));
+                appointments.add(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving appointments by date range: " + e.getMessage());
         }
         
         return appointments;
@@ -380,20 +373,29 @@ public class AppointmentDAO {
     
     /**
      * Update appointment status
+     * The status change is applied to the report rollups in the same transaction
      * @param appointmentID ID of appointment
      * @param newStatus New status
      * @return true if successful, false otherwise
      */
     public boolean updateAppointmentStatus(int appointmentID, String newStatus) {
-        String sql = "UPDATE Appointment SET Status = ? WHERE AppointmentID = ?";
+        String sql = "UPDATE Appointment SET Status = ?, Version = Version + 1 WHERE AppointmentID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, newStatus);
-            pstmt.setInt(2, appointmentID);
-            
-            return pstmt.executeUpdate() > 0;
+        try {
+            return transactionRunner.inTransaction("updateAppointmentStatus", conn -> {
+                List<ReportRollups.Fact> before = ReportRollups.snapshot(conn, ReportRollups.Scope.APPOINTMENT, appointmentID);
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setString(1, newStatus);
+                    pstmt.setInt(2, appointmentID);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                
+                ReportRollups.apply(conn, before, ReportRollups.snapshot(conn, ReportRollups.Scope.APPOINTMENT, appointmentID));
+                return true;
+            });
         } catch (SQLException e) {
             System.err.println("Error updating appointment status: " + e.getMessage());
             return false;
@@ -404,34 +406,12 @@ public class AppointmentDAO {
      * Get appointments with patient and doctor names
      * @return List of appointments with names
      */
-    public List<Map<String, Object>> getAppointmentsWithNames() {
-        String sql = "SELECT a.*, p.Name as PatientName, s.Name as DoctorName " +
-                    "FROM Appointment a " +
-                    "JOIN Patient p ON a.PatientID = p.PatientID " +
-                    "JOIN Staff s ON a.DoctorID = s.StaffID " +
-                    "ORDER BY a.Date DESC, a.Time DESC";
-        
-        List<Map<String, Object>> appointments = new ArrayList<>();
+    public List<AppointmentWithNames> getAppointmentsWithNames() {
+        List<AppointmentWithNames> appointments = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                Map<String, Object> appointment = new HashMap<>();
-                appointment.put("appointmentID", rs.getInt("AppointmentID"));
-                appointment.put("patientName", rs.getString("PatientName"));
-                appointment.put("doctorName", rs.getString("DoctorName"));
-                appointment.put("date", rs.getDate("Date"));
-                appointment.put("time", rs.getTime("Time"));
-                appointment.put("duration", rs.getInt("Duration"));
-                appointment.put("visitType", rs.getString("VisitType"));
-                appointment.put("status", rs.getString("Status"));
-                appointment.put("notes", rs.getString("Notes"));
-                appointments.add(appointment);
-            }
-        } catch (SQLException e) {
+        try {
+            queryAppointmentsWithNames(dataSource, 0, appointments::add);
+        } catch (SQLException | IOException e) {
             System.err.println("Error retrieving appointments with names: " + e.getMessage());
         }
         
@@ -439,86 +419,33 @@ public class AppointmentDAO {
     }
     
     /**
-     * Add appointment using patient and doctor names
-     * @param patientName Name of patient
-     * @param doctorName Name of doctor
-     * @param date Date of appointment
-     * @param time Time of appointment
-     * @param duration Duration in minutes
-     * @param visitType Type of visit
-     * @param status Status of appointment
-     * @param notes Notes
-     * @return Generated appointment ID or -1 if failed
+     * Stream all appointments with patient and doctor names without materializing a list
+     * Rows are read with MySQL row streaming, so the callback runs while the query is still open
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
      */
-    public int addAppointmentWithNames(String patientName, String doctorName, Date date, 
-                                      Time time, Integer duration, String visitType, 
-                                      String status, String notes) {
-        // First get patient and doctor IDs directly using SQL queries
-        int patientID = getPatientIdByName(patientName);
-        int doctorID = getStaffIdByName(doctorName);
-        
-        if (patientID == -1 || doctorID == -1) {
-            System.err.println("Patient or doctor not found. Patient: " + patientName + ", Doctor: " + doctorName);
-            return -1;
-        }
-        
-        // Create appointment object
-        Appointment appointment = new Appointment();
-        appointment.setPatientID(patientID);
-        appointment.setDoctorID(doctorID);
-        appointment.setDate(date);
-        appointment.setTime(time);
-        appointment.setDuration(duration);
-        appointment.setVisitType(visitType);
-        appointment.setStatus(status);
-        appointment.setNotes(notes);
-        
-        return addAppointment(appointment);
+    public void streamAppointmentsWithNames(RowCallback<AppointmentWithNames> callback) throws SQLException, IOException {
+        queryAppointmentsWithNames(streamDataSource, STREAMING_FETCH_SIZE, callback);
     }
     
-    /**
-     * Get patient ID by name
-     * @param name Name of patient
-     * @return Patient ID or -1 if not found
-     */
-    private int getPatientIdByName(String name) {
-        String sql = "SELECT PatientID FROM Patient WHERE Name = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, name);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt("PatientID");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting patient ID by name: " + e.getMessage());
-        }
-        return -1;
-    }
-    
-    /**
-     * Get staff ID by name
-     * @param name Name of staff member
-     * @return Staff ID or -1 if not found
-     */
-    private int getStaffIdByName(String name) {
-        String sql = "SELECT StaffID FROM Staff WHERE Name = ?";
+    private void queryAppointmentsWithNames(DataSource source, int fetchSize, RowCallback<AppointmentWithNames> callback) throws SQLException, IOException {
+        String sql = "SELECT a.*, p.Name as PatientName, s.Name as DoctorName " +
+                    "FROM Appointment a " +
+                    "JOIN Patient p ON a.PatientID = p.PatientID " +
+                    "JOIN Staff s ON a.DoctorID = s.StaffID " +
+                    "ORDER BY a.Date DESC, a.Time DESC";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = source.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             
-            pstmt.setString(1, name);
+            pstmt.setFetchSize(fetchSize);
             ResultSet rs = pstmt.executeQuery();
             
-            if (rs.next()) {
-                return rs.getInt("StaffID");
+            RowMapper<AppointmentWithNames> mapper = RowMappers.appointmentWithNames(rs);
+            while (rs.next()) {
+                callback.accept(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error getting staff ID by name: " + e.getMessage());
         }
-        return -1;
     }
 }
\ No newline at end of file
@@ -7,14 +7,21 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.clinicnexus.config.DatabaseConnection;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
 import com.clinicnexus.model.AppointmentInventory;
 
 /**
  * Data Access Object for Appointment_Inventory operations
  */
+@Repository
 public class AppointmentInventoryDAO {
     
+    @Autowired
+    private DataSource dataSource;
+    
     /**
      * Add new appointment inventory record
      * @param appointmentInventory AppointmentInventory object to add
@@ -23,7 +30,7 @@ public class AppointmentInventoryDAO {
     public boolean addAppointmentInventory(AppointmentInventory appointmentInventory) {
         String sql = "INSERT INTO Appointment_Inventory (AppointmentID, ItemID, QuantityUsed) VALUES (?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, appointmentInventory.getAppointmentID());
@@ -46,7 +53,7 @@ public class AppointmentInventoryDAO {
     public AppointmentInventory getAppointmentInventory(int appointmentID, int itemID) {
         String sql = "SELECT * FROM Appointment_Inventory WHERE AppointmentID = ? AND ItemID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, appointmentID);
@@ -54,11 +61,7 @@ public class AppointmentInventoryDAO {
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return new AppointmentInventory(
-                    rs.getInt("AppointmentID"),
-                    rs.getInt("ItemID"),
-                    rs.getInt("QuantityUsed")
-                );
+                return RowMappers.appointmentInventory(rs).mapRow(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving appointment inventory: " + e.getMessage());
@@ -74,7 +77,7 @@ public class AppointmentInventoryDAO {
     public boolean updateAppointmentInventory(AppointmentInventory appointmentInventory) {
         String sql = "UPDATE Appointment_Inventory SET QuantityUsed = ? WHERE AppointmentID = ? AND ItemID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, appointmentInventory.getQuantityUsed());
@@ -97,7 +100,7 @@ public class AppointmentInventoryDAO {
     public boolean deleteAppointmentInventory(int appointmentID, int itemID) {
         String sql = "DELETE FROM Appointment_Inventory WHERE AppointmentID = ? AND ItemID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, appointmentID);
@@ -133,7 +136,7 @@ public class AppointmentInventoryDAO {
         
         List<AppointmentInventory> appointmentInventoryList = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
             
             for (int i = 0; i < params.size(); i++) {
@@ -142,12 +145,9 @@ public class AppointmentInventoryDAO {
             
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<AppointmentInventory> mapper = RowMappers.appointmentInventory(rs);
             while (rs.next()) {
-                appointmentInventoryList.add(new AppointmentInventory(
-                    rs.getInt("AppointmentID"),
-                    rs.getInt("ItemID"),
-                    rs.getInt("QuantityUsed")
-                ));
+                appointmentInventoryList.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving appointment inventory list: " + e.getMessage());
@@ -170,18 +170,15 @@ public class AppointmentInventoryDAO {
         
         List<AppointmentInventory> usageList = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, appointmentID);
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<AppointmentInventory> mapper = RowMappers.appointmentInventory(rs);
             while (rs.next()) {
-                AppointmentInventory usage = new AppointmentInventory(
-                    rs.getInt("AppointmentID"),
-                    rs.getInt("ItemID"),
-                    rs.getInt("QuantityUsed")
-                );
+                AppointmentInventory usage = mapper.mapRow(rs);
                 // Note: If you want to include item details, you'd need to extend the model
                 usageList.add(usage);
             }
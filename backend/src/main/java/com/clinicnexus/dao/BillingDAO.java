@@ -1,5 +1,6 @@
 package com.clinicnexus.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -7,37 +8,67 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 
-import com.clinicnexus.config.DatabaseConnection;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
 import com.clinicnexus.model.Billing;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 /**
  * Data Access Object for Billing operations
  */
+@Repository
 public class BillingDAO {
     
+    /** Tells MySQL Connector/J to stream rows one at a time instead of buffering the result */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    /** Client downloads hold their connection until the client has read the last row, so they use the read-only report pool */
+    @Autowired
+    @Qualifier("reportDataSource")
+    private DataSource streamDataSource;
+    
+    @Autowired
+    private TransactionRunner transactionRunner;
+    
     /**
      * Add new billing record
+     * The bill is added to the report rollups in the same transaction
      * @param billing Billing object to add
      * @return billing ID if successful, -1 otherwise
      */
     public int addBilling(Billing billing) {
         String sql = "INSERT INTO Billing (AppointmentID, Amount, Paid, PaymentDate) VALUES (?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
-            
-            pstmt.setInt(1, billing.getAppointmentID());
-            pstmt.setDouble(2, billing.getAmount());
-            pstmt.setBoolean(3, billing.isPaid());
-            pstmt.setDate(4, billing.getPaymentDate());
-            
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
-                ResultSet rs = pstmt.getGeneratedKeys();
-                if (rs.next()) {
-                    return rs.getInt(1);
+        try {
+            return transactionRunner.inTransaction("addBilling", conn -> {
+                int billingID = -1;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql, PreparedStatement.RETURN_GENERATED_KEYS)) {
+                    pstmt.setInt(1, billing.getAppointmentID());
+                    pstmt.setDouble(2, billing.getAmount());
+                    pstmt.setBoolean(3, billing.isPaid());
+                    pstmt.setDate(4, billing.getPaymentDate());
+                    
+                    int affectedRows = pstmt.executeUpdate();
+                    if (affectedRows > 0) {
+                        ResultSet rs = pstmt.getGeneratedKeys();
+                        if (rs.next()) {
+                            billingID = rs.getInt(1);
+                        }
+                    }
                 }
-            }
+                
+                if (billingID != -1) {
+                    ReportRollups.apply(conn, ReportRollups.NONE, ReportRollups.snapshot(conn, ReportRollups.Scope.BILL, billingID));
+                }
+                return billingID;
+            });
         } catch (SQLException e) {
             System.err.println("Error adding billing: " + e.getMessage());
         }
@@ -52,20 +83,14 @@ public class BillingDAO {
     public Billing getBilling(int billingID) {
         String sql = "SELECT * FROM Billing WHERE BillingID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, billingID);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return new Billing(
-                    rs.getInt("BillingID"),
-                    rs.getInt("AppointmentID"),
-                    rs.getDouble("Amount"),
-                    rs.getBoolean("Paid"),
-                    rs.getDate("PaymentDate")
-                );
+                return RowMappers.billing(rs).mapRow(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving billing: " + e.getMessage());
@@ -75,41 +100,66 @@ public class BillingDAO {
     
     /**
      * Update billing information
+     * Applies only if the row still has the caller's version, which it then increments
+     * A changed amount, paid flag or appointment is moved in the report rollups in the same transaction
      * @param billing Billing object with updated information
-     * @return true if successful, false otherwise
+     * @return UPDATED with the new version, CONFLICT with the current version if the row
+     *         changed since it was read, or NOT_FOUND
      */
-    public boolean updateBilling(Billing billing) {
-        String sql = "UPDATE Billing SET AppointmentID = ?, Amount = ?, Paid = ?, PaymentDate = ? WHERE BillingID = ?";
+    public UpdateResult updateBilling(Billing billing) {
+        String sql = "UPDATE Billing SET AppointmentID = ?, Amount = ?, Paid = ?, PaymentDate = ?, Version = Version + 1 WHERE BillingID = ? AND Version = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, billing.getAppointmentID());
-            pstmt.setDouble(2, billing.getAmount());
-            pstmt.setBoolean(3, billing.isPaid());
-            pstmt.setDate(4, billing.getPaymentDate());
-            pstmt.setInt(5, billing.getBillingID());
-            
-            return pstmt.executeUpdate() > 0;
+        try {
+            return transactionRunner.inTransaction("updateBilling", conn -> {
+                List<ReportRollups.Fact> before = ReportRollups.snapshot(conn, ReportRollups.Scope.BILL, billing.getBillingID());
+                
+                UpdateResult result;
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, billing.getAppointmentID());
+                    pstmt.setDouble(2, billing.getAmount());
+                    pstmt.setBoolean(3, billing.isPaid());
+                    pstmt.setDate(4, billing.getPaymentDate());
+                    pstmt.setInt(5, billing.getBillingID());
+                    pstmt.setInt(6, billing.getVersion());
+                    
+                    result = RowVersions.afterUpdate(conn, pstmt.executeUpdate(), billing.getVersion(),
+                                                     "SELECT Version FROM Billing WHERE BillingID = ?", billing.getBillingID());
+                }
+                
+                if (result.isUpdated()) {
+                    ReportRollups.apply(conn, before, ReportRollups.snapshot(conn, ReportRollups.Scope.BILL, billing.getBillingID()));
+                }
+                return result;
+            });
         } catch (SQLException e) {
             System.err.println("Error updating billing: " + e.getMessage());
-            return false;
+            return UpdateResult.notFound();
         }
     }
     
     /**
      * Delete billing record
+     * The bill is removed from the report rollups in the same transaction
      * @param billingID ID of billing to delete
      * @return true if successful, false otherwise
      */
     public boolean deleteBilling(int billingID) {
         String sql = "DELETE FROM Billing WHERE BillingID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, billingID);
-            return pstmt.executeUpdate() > 0;
+        try {
+            return transactionRunner.inTransaction("deleteBilling", conn -> {
+                List<ReportRollups.Fact> before = ReportRollups.snapshot(conn, ReportRollups.Scope.BILL, billingID);
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, billingID);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                
+                ReportRollups.apply(conn, before, ReportRollups.NONE);
+                return true;
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting billing: " + e.getMessage());
             return false;
@@ -123,6 +173,45 @@ public class BillingDAO {
      * @return List of Billing objects
      */
     public List<Billing> getBillingList(Integer appointmentID, Boolean paidFilter) {
+        return getBillingPage(appointmentID, paidFilter, null, 0);
+    }
+    
+    /**
+     * Get one page of billing records ordered by BillingID descending
+     * Uses a seek predicate on the last row of the previous page instead of OFFSET
+     * @param appointmentID Filter by appointment ID (null for no filter)
+     * @param paidFilter Filter by paid status (null for no filter)
+     * @param afterBillingID BillingID of the last row of the previous page (null for the first page)
+     * @param limit Maximum number of rows (0 for no limit)
+     * @return List of Billing objects
+     */
+    public List<Billing> getBillingPage(Integer appointmentID, Boolean paidFilter, Integer afterBillingID, int limit) {
+        List<Billing> billingList = new ArrayList<>();
+        
+        try {
+            queryBilling(dataSource, appointmentID, paidFilter, afterBillingID, limit, 0, billingList::add);
+        } catch (SQLException | IOException e) {
+            System.err.println("Error retrieving billing list: " + e.getMessage());
+        }
+        
+        return billingList;
+    }
+    
+    /**
+     * Stream billing records ordered by BillingID descending without materializing a list
+     * Rows are read with MySQL row streaming, so the callback runs while the query is still open
+     * @param appointmentID Filter by appointment ID (null for no filter)
+     * @param paidFilter Filter by paid status (null for no filter)
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void streamBilling(Integer appointmentID, Boolean paidFilter, RowCallback<Billing> callback) throws SQLException, IOException {
+        queryBilling(streamDataSource, appointmentID, paidFilter, null, 0, STREAMING_FETCH_SIZE, callback);
+    }
+    
+    private void queryBilling(DataSource source, Integer appointmentID, Boolean paidFilter, Integer afterBillingID, int limit, int fetchSize, RowCallback<Billing> callback)
+            throws SQLException, IOException {
         StringBuilder sql = new StringBuilder("SELECT * FROM Billing WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
@@ -136,33 +225,33 @@ public class BillingDAO {
             params.add(paidFilter);
         }
         
+        if (afterBillingID != null) {
+            sql.append(" AND BillingID < ?");
+            params.add(afterBillingID);
+        }
+        
         sql.append(" ORDER BY BillingID DESC");
         
-        List<Billing> billingList = new ArrayList<>();
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        try (Connection conn = source.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             
+            pstmt.setFetchSize(fetchSize);
             for (int i = 0; i < params.size(); i++) {
                 pstmt.setObject(i + 1, params.get(i));
             }
             
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Billing> mapper = RowMappers.billing(rs);
             while (rs.next()) {
-                billingList.add(new Billing(
-                    rs.getInt("BillingID"),
-                    rs.getInt("AppointmentID"),
-                    rs.getDouble("Amount"),
-                    rs.getBoolean("Paid"),
-                    rs.getDate("PaymentDate")
-                ));
+                callback.accept(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving billing list: " + e.getMessage());
         }
-        
-        return billingList;
     }
     
     /**
@@ -173,20 +262,14 @@ public class BillingDAO {
     public Billing getBillingByAppointment(int appointmentID) {
         String sql = "SELECT * FROM Billing WHERE AppointmentID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, appointmentID);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return new Billing(
-                    rs.getInt("BillingID"),
-                    rs.getInt("AppointmentID"),
-                    rs.getDouble("Amount"),
-                    rs.getBoolean("Paid"),
-                    rs.getDate("PaymentDate")
-                );
+                return RowMappers.billing(rs).mapRow(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving billing by appointment: " + e.getMessage());
@@ -0,0 +1,173 @@
+package com.clinicnexus.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Repository;
+
+import com.clinicnexus.util.StoredResponse;
+
+/**
+ * Data Access Object for the IdempotencyKey table.
+ * Each statement is atomic on its own, so no transaction is needed: the claim is
+ * an INSERT IGNORE on the primary key, and taking over an expired row is a
+ * conditional UPDATE that only one request can match. Claim and find report
+ * database errors to the caller rather than answering as if the key were held.
+ */
+@Repository
+public class IdempotencyKeyDAO {
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    /**
+     * Claim a key for the calling request
+     * @param keyHash SHA-256 of the scoped key
+     * @param requestHash SHA-256 of the request body, kept to detect reuse of the key with another body
+     * @param now Current time; rows expiring before it may be taken over
+     * @param leaseUntil How long the claim holds unless renewed
+     * @return true if the caller now owns the key and must run the request
+     * @throws SQLException if the key table cannot be reached, so the caller does not mistake it for a held key
+     */
+    public boolean claim(byte[] keyHash, byte[] requestHash, Timestamp now, Timestamp leaseUntil) throws SQLException {
+        String insertSql = "INSERT IGNORE INTO IdempotencyKey (KeyHash, RequestHash, ExpiresAt) VALUES (?, ?, ?)";
+        String takeOverSql = "UPDATE IdempotencyKey SET RequestHash = ?, ResponseStatus = NULL, ResponseHeaders = NULL, ResponseBody = NULL, ExpiresAt = ? " +
+                             "WHERE KeyHash = ? AND ExpiresAt < ?";
+        
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(insertSql)) {
+                pstmt.setBytes(1, keyHash);
+                pstmt.setBytes(2, requestHash);
+                pstmt.setTimestamp(3, leaseUntil);
+                if (pstmt.executeUpdate() > 0) {
+                    return true;
+                }
+            }
+            // Abandoned claim or completed key past its expiry, not yet swept
+            try (PreparedStatement pstmt = conn.prepareStatement(takeOverSql)) {
+                pstmt.setBytes(1, requestHash);
+                pstmt.setTimestamp(2, leaseUntil);
+                pstmt.setBytes(3, keyHash);
+                pstmt.setTimestamp(4, now);
+                return pstmt.executeUpdate() > 0;
+            }
+        }
+    }
+    
+    /**
+     * Get the response recorded for a key
+     * @param keyHash SHA-256 of the scoped key
+     * @return Stored response, in-progress placeholder if the first request is still running, or null if absent
+     * @throws SQLException if the key table cannot be read
+     */
+    public StoredResponse find(byte[] keyHash) throws SQLException {
+        String sql = "SELECT RequestHash, ResponseStatus, ResponseHeaders, ResponseBody FROM IdempotencyKey WHERE KeyHash = ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setBytes(1, keyHash);
+            ResultSet rs = pstmt.executeQuery();
+            
+            if (rs.next()) {
+                byte[] requestHash = rs.getBytes("RequestHash");
+                int status = rs.getInt("ResponseStatus");
+                if (rs.wasNull()) {
+                    return StoredResponse.inProgress(requestHash);
+                }
+                return new StoredResponse(status, rs.getString("ResponseHeaders"), rs.getString("ResponseBody"), requestHash);
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Push back the lease of a claim whose request is still running (queued or executing)
+     * @param keyHash SHA-256 of the scoped key
+     * @param leaseUntil New end of the lease
+     */
+    public void renew(byte[] keyHash, Timestamp leaseUntil) {
+        String sql = "UPDATE IdempotencyKey SET ExpiresAt = ? WHERE KeyHash = ? AND ResponseStatus IS NULL";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setTimestamp(1, leaseUntil);
+            pstmt.setBytes(2, keyHash);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error renewing idempotency key: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Record the response of the request that owns a key
+     * @param keyHash SHA-256 of the scoped key
+     * @param response Response to replay
+     * @param expiresAt When the key may be swept
+     * @return true if successful, false otherwise
+     */
+    public boolean complete(byte[] keyHash, StoredResponse response, Timestamp expiresAt) {
+        String sql = "UPDATE IdempotencyKey SET ResponseStatus = ?, ResponseHeaders = ?, ResponseBody = ?, ExpiresAt = ? WHERE KeyHash = ? AND ResponseStatus IS NULL";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, response.getStatus());
+            pstmt.setString(2, response.getHeaders());
+            pstmt.setString(3, response.getBody());
+            pstmt.setTimestamp(4, expiresAt);
+            pstmt.setBytes(5, keyHash);
+            
+            return pstmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            System.err.println("Error completing idempotency key: " + e.getMessage());
+            return false;
+        }
+    }
+    
+    /**
+     * Drop an unfinished claim so a retry runs the request again
+     * @param keyHash SHA-256 of the scoped key
+     */
+    public void release(byte[] keyHash) {
+        String sql = "DELETE FROM IdempotencyKey WHERE KeyHash = ? AND ResponseStatus IS NULL";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setBytes(1, keyHash);
+            pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error releasing idempotency key: " + e.getMessage());
+        }
+    }
+    
+    /**
+     * Delete up to batchSize expired keys
+     * Small batches keep each DELETE short, so it never holds many row locks at once
+     * @param now Current time
+     * @param batchSize Maximum rows to delete
+     * @return Number of rows deleted
+     */
+    public int deleteExpired(Timestamp now, int batchSize) {
+        String sql = "DELETE FROM IdempotencyKey WHERE ExpiresAt < ? ORDER BY ExpiresAt LIMIT ?";
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setTimestamp(1, now);
+            pstmt.setInt(2, batchSize);
+            
+            return pstmt.executeUpdate();
+        } catch (SQLException e) {
+            System.err.println("Error sweeping idempotency keys: " + e.getMessage());
+            return 0;
+        }
+    }
+}
@@ -1,32 +1,51 @@
 package com.clinicnexus.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import com.clinicnexus.config.DatabaseConnection;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
 import com.clinicnexus.model.Inventory;
+import com.clinicnexus.projection.InventoryWithUsage;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 /**
  * Data Access Object for Inventory operations
  */
+@Repository
 public class InventoryDAO {
     
+    /** Tells MySQL Connector/J to stream rows one at a time instead of buffering the result */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    /** Client downloads hold their connection until the client has read the last row, so they use the read-only report pool */
+    @Autowired
+    @Qualifier("reportDataSource")
+    private DataSource streamDataSource;
+    
     /**
      * Add new inventory item
-     * @param inventory Inventory object to add
+     * @param inventory Inventory object to add; receives the generated item ID
      * @return true if successful, false otherwise
      */
     public boolean addInventory(Inventory inventory) {
         String sql = "INSERT INTO Inventory (Name, Type, Purpose, StockQuantity, ReorderThreshold, UnitPrice, SupplierInfo, ExpiryDate, ActiveStatus) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, inventory.getName());
             pstmt.setString(2, inventory.getType());
@@ -38,7 +57,14 @@ public class InventoryDAO {
             pstmt.setDate(8, inventory.getExpiryDate());
             pstmt.setBoolean(9, inventory.isActiveStatus());
             
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            ResultSet rs = pstmt.getGeneratedKeys();
+            if (rs.next()) {
+                inventory.setItemID(rs.getInt(1));
+            }
+            return true;
         } catch (SQLException e) {
             System.err.println("Error adding inventory: " + e.getMessage());
             return false;
@@ -53,25 +79,14 @@ public class InventoryDAO {
     public Inventory getInventory(int itemID) {
         String sql = "SELECT * FROM Inventory WHERE ItemID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemID);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return new Inventory(
-                    rs.getInt("ItemID"),
-                    rs.getString("Name"),
-                    rs.getString("Type"),
-                    rs.getString("Purpose"),
-                    rs.getInt("StockQuantity"),
-                    rs.getInt("ReorderThreshold"),
-                    rs.getDouble("UnitPrice"),
-                    rs.getString("SupplierInfo"),
-                    rs.getDate("ExpiryDate"),
-                    rs.getBoolean("ActiveStatus")
-                );
+                return RowMappers.inventory(rs).mapRow(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving inventory: " + e.getMessage());
@@ -81,13 +96,15 @@ public class InventoryDAO {
     
     /**
      * Update inventory item
+     * Applies only if the row still has the caller's version, which it then increments
      * @param inventory Inventory object with updated information
-     * @return true if successful, false otherwise
+     * @return UPDATED with the new version, CONFLICT with the current version if the row
+     *         changed since it was read, or NOT_FOUND
      */
-    public boolean updateInventory(Inventory inventory) {
-        String sql = "UPDATE Inventory SET Name = ?, Type = ?, Purpose = ?, StockQuantity = ?, ReorderThreshold = ?, UnitPrice = ?, SupplierInfo = ?, ExpiryDate = ?, ActiveStatus = ? WHERE ItemID = ?";
+    public UpdateResult updateInventory(Inventory inventory) {
+        String sql = "UPDATE Inventory SET Name = ?, Type = ?, Purpose = ?, StockQuantity = ?, ReorderThreshold = ?, UnitPrice = ?, SupplierInfo = ?, ExpiryDate = ?, ActiveStatus = ?, Version = Version + 1 WHERE ItemID = ? AND Version = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, inventory.getName());
@@ -100,11 +117,13 @@ public class InventoryDAO {
             pstmt.setDate(8, inventory.getExpiryDate());
             pstmt.setBoolean(9, inventory.isActiveStatus());
             pstmt.setInt(10, inventory.getItemID());
+            pstmt.setInt(11, inventory.getVersion());
             
-            return pstmt.executeUpdate() > 0;
+            return RowVersions.afterUpdate(conn, pstmt.executeUpdate(), inventory.getVersion(),
+                                           "SELECT Version FROM Inventory WHERE ItemID = ?", inventory.getItemID());
         } catch (SQLException e) {
             System.err.println("Error updating inventory: " + e.getMessage());
-            return false;
+            return UpdateResult.notFound();
         }
     }
     
@@ -116,7 +135,7 @@ public class InventoryDAO {
     public boolean deleteInventory(int itemID) {
         String sql = "DELETE FROM Inventory WHERE ItemID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, itemID);
@@ -135,6 +154,60 @@ public class InventoryDAO {
      * @return List of Inventory objects
      */
     public List<Inventory> getInventoryList(String nameFilter, String typeFilter, Boolean activeFilter) {
+        return getInventoryPage(nameFilter, typeFilter, activeFilter, null, 0);
+    }
+    
+    /**
+     * Get one page of inventory items ordered by Name, ItemID
+     * Uses a seek predicate on the last row of the previous page instead of OFFSET
+     * @param nameFilter Filter by name (null for no filter)
+     * @param typeFilter Filter by type (null for no filter)
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param after Last item of the previous page (null for the first page)
+     * @param limit Maximum number of rows (0 for no limit)
+     * @return List of Inventory objects
+     */
+    public List<Inventory> getInventoryPage(String nameFilter, String typeFilter, Boolean activeFilter, Inventory after, int limit) {
+        List<Inventory> inventoryList = new ArrayList<>();
+        
+        try {
+            queryInventory(dataSource, nameFilter, typeFilter, activeFilter, after, limit, 0, inventoryList::add);
+        } catch (SQLException | IOException e) {
+            System.err.println("Error retrieving inventory list: " + e.getMessage());
+        }
+        
+        return inventoryList;
+    }
+    
+    /**
+     * Stream inventory items ordered by Name, ItemID without materializing a list
+     * Rows are read with MySQL row streaming, so the callback runs while the query is still open
+     * @param nameFilter Filter by name (null for no filter)
+     * @param typeFilter Filter by type (null for no filter)
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void streamInventory(String nameFilter, String typeFilter, Boolean activeFilter, RowCallback<Inventory> callback) throws SQLException, IOException {
+        queryInventory(streamDataSource, nameFilter, typeFilter, activeFilter, null, 0, STREAMING_FETCH_SIZE, callback);
+    }
+    
+    /**
+     * Stream every row, or only active or inactive ones, to build an in-memory index
+     * Unlike streamInventory, this reads on the main pool: cache loads sit on request paths and are
+     * short, so they must not queue behind report queries and client downloads
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void loadInventory(Boolean activeFilter, RowCallback<Inventory> callback) throws SQLException, IOException {
+        queryInventory(dataSource, null, null, activeFilter, null, 0, STREAMING_FETCH_SIZE, callback);
+    }
+    
+    private void queryInventory(DataSource source, String nameFilter, String typeFilter, Boolean activeFilter, Inventory after, int limit, int fetchSize, RowCallback<Inventory> callback)
+            throws SQLException, IOException {
         StringBuilder sql = new StringBuilder("SELECT * FROM Inventory WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
@@ -153,85 +226,72 @@ public class InventoryDAO {
             params.add(activeFilter);
         }
         
-        sql.append(" ORDER BY Name");
+        if (after != null) {
+            sql.append(" AND (Name > ? OR (Name = ? AND ItemID > ?))");
+            params.add(after.getName());
+            params.add(after.getName());
+            params.add(after.getItemID());
+        }
         
-        List<Inventory> inventoryList = new ArrayList<>();
+        sql.append(" ORDER BY Name, ItemID");
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
+        
+        try (Connection conn = source.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             
+            pstmt.setFetchSize(fetchSize);
             for (int i = 0; i < params.size(); i++) {
                 pstmt.setObject(i + 1, params.get(i));
             }
             
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Inventory> mapper = RowMappers.inventory(rs);
             while (rs.next()) {
-                inventoryList.add(new Inventory(
-                    rs.getInt("ItemID"),
-                    rs.getString("Name"),
-                    rs.getString("Type"),
-                    rs.getString("Purpose"),
-                    rs.getInt("StockQuantity"),
-                    rs.getInt("ReorderThreshold"),
-                    rs.getDouble("UnitPrice"),
-                    rs.getString("SupplierInfo"),
-                    rs.getDate("ExpiryDate"),
-                    rs.getBoolean("ActiveStatus")
-                ));
+                callback.accept(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving inventory list: " + e.getMessage());
         }
-        
-        return inventoryList;
     }
     
     /**
      * Get inventory item with usage history
      * @param itemID ID of inventory item
-     * @return Map containing inventory info and usage history
+     * @return InventoryWithUsage or null if the item does not exist
      */
-    public Map<String, Object> getInventoryWithUsage(int itemID) {
-        Map<String, Object> result = new HashMap<>();
-        
+    public InventoryWithUsage getInventoryWithUsage(int itemID) {
         Inventory inventory = getInventory(itemID);
-        if (inventory != null) {
-            result.put("inventory", inventory);
-            
-            String sql = "SELECT ai.*, a.Date, a.Time, p.Name as PatientName, s.Name as DoctorName " +
-                        "FROM Appointment_Inventory ai " +
-                        "JOIN Appointment a ON ai.AppointmentID = a.AppointmentID " +
-                        "JOIN Patient p ON a.PatientID = p.PatientID " +
-                        "JOIN Staff s ON a.DoctorID = s.StaffID " +
-                        "WHERE ai.ItemID = ? ORDER BY a.Date DESC, a.Time DESC";
+        if (inventory == null) {
+            return null;
+        }
+        
+        String sql = "SELECT ai.*, a.Date, a.Time, p.Name as PatientName, s.Name as DoctorName " +
+                    "FROM Appointment_Inventory ai " +
+                    "JOIN Appointment a ON ai.AppointmentID = a.AppointmentID " +
+                    "JOIN Patient p ON a.PatientID = p.PatientID " +
+                    "JOIN Staff s ON a.DoctorID = s.StaffID " +
+                    "WHERE ai.ItemID = ? ORDER BY a.Date DESC, a.Time DESC";
+        
+        List<InventoryWithUsage.Usage> usageHistory = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            List<Map<String, Object>> usageHistory = new ArrayList<>();
+            pstmt.setInt(1, itemID);
+            ResultSet rs = pstmt.executeQuery();
             
-            try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                
-                pstmt.setInt(1, itemID);
-                ResultSet rs = pstmt.executeQuery();
-                
-                while (rs.next()) {
-                    Map<String, Object> usage = new HashMap<>();
-                    usage.put("appointmentID", rs.getInt("AppointmentID"));
-                    usage.put("quantityUsed", rs.getInt("QuantityUsed"));
-                    usage.put("date", rs.getDate("Date"));
-                    usage.put("time", rs.getTime("Time"));
-                    usage.put("patientName", rs.getString("PatientName"));
-                    usage.put("doctorName", rs.getString("DoctorName"));
-                    usageHistory.add(usage);
-                }
-            } catch (SQLException e) {
-                System.err.println("Error retrieving inventory usage: " + e.getMessage());
+            RowMapper<InventoryWithUsage.Usage> mapper = RowMappers.itemUsage(rs);
+            while (rs.next()) {
+                usageHistory.add(mapper.mapRow(rs));
             }
-            
-            result.put("usageHistory", usageHistory);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving inventory usage: " + e.getMessage());
         }
         
-        return result;
+        return new InventoryWithUsage(inventory, usageHistory);
     }
     
     /**
@@ -243,24 +303,14 @@ public class InventoryDAO {
         
         List<Inventory> needReorderList = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Inventory> mapper = RowMappers.inventory(rs);
             while (rs.next()) {
-                needReorderList.add(new Inventory(
-                    rs.getInt("ItemID"),
-                    rs.getString("Name"),
-                    rs.getString("Type"),
-                    rs.getString("Purpose"),
-                    rs.getInt("StockQuantity"),
-                    rs.getInt("ReorderThreshold"),
-                    rs.getDouble("UnitPrice"),
-                    rs.getString("SupplierInfo"),
-                    rs.getDate("ExpiryDate"),
-                    rs.getBoolean("ActiveStatus")
-                ));
+                needReorderList.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving items needing reorder: " + e.getMessage());
@@ -278,24 +328,14 @@ public class InventoryDAO {
         
         List<Inventory> expiredList = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Inventory> mapper = RowMappers.inventory(rs);
             while (rs.next()) {
-                expiredList.add(new Inventory(
-                    rs.getInt("ItemID"),
-                    rs.getString("Name"),
-                    rs.getString("Type"),
-                    rs.getString("Purpose"),
-                    rs.getInt("StockQuantity"),
-                    rs.getInt("ReorderThreshold"),
-                    rs.getDouble("UnitPrice"),
-                    rs.getString("SupplierInfo"),
-                    rs.getDate("ExpiryDate"),
-                    rs.getBoolean("ActiveStatus")
-                ));
+                expiredList.add(mapper.mapRow(rs));
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving expired items: " + e.getMessage());
@@ -311,9 +351,9 @@ public class InventoryDAO {
      * @return true if successful, false otherwise
      */
     public boolean updateStockQuantity(int itemID, int newQuantity) {
-        String sql = "UPDATE Inventory SET StockQuantity = ? WHERE ItemID = ?";
+        String sql = "UPDATE Inventory SET StockQuantity = ?, Version = Version + 1 WHERE ItemID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, newQuantity);
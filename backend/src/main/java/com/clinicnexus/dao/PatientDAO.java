@@ -1,19 +1,23 @@
 package com.clinicnexus.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import javax.sql.DataSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Repository;
 
 import com.clinicnexus.model.Patient;
+import com.clinicnexus.projection.PatientWithAppointments;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 /**
  * Data Access Object for Patient operations
@@ -21,19 +25,30 @@ import com.clinicnexus.model.Patient;
 @Repository
 public class PatientDAO {
     
+    /** Tells MySQL Connector/J to stream rows one at a time instead of buffering the result */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    
     @Autowired
     private DataSource dataSource;
     
+    /** Client downloads hold their connection until the client has read the last row, so they use the read-only report pool */
+    @Autowired
+    @Qualifier("reportDataSource")
+    private DataSource streamDataSource;
+    
+    @Autowired
+    private TransactionRunner transactionRunner;
+    
     /**
      * Add new patient
-     * @param patient Patient object to add
+     * @param patient Patient object to add; receives the generated patient ID
      * @return true if successful, false otherwise
      */
     public boolean addPatient(Patient patient) {
         String sql = "INSERT INTO Patient (Name, BirthDate, Phone, Email, InsuranceInfo, FirstVisitDate, PrimaryDoctorID, ActiveStatus) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
         
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, patient.getName());
             pstmt.setDate(2, patient.getBirthDate());
@@ -44,7 +59,14 @@ public class PatientDAO {
             pstmt.setInt(7, patient.getPrimaryDoctorID());
             pstmt.setBoolean(8, patient.isActiveStatus());
             
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            ResultSet rs = pstmt.getGeneratedKeys();
+            if (rs.next()) {
+                patient.setPatientID(rs.getInt(1));
+            }
+            return true;
         } catch (SQLException e) {
             System.err.println("Error adding patient: " + e.getMessage());
             return false;
@@ -66,17 +88,7 @@ public class PatientDAO {
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return new Patient(
-                    rs.getInt("PatientID"),
-                    rs.getString("Name"),
-                    rs.getDate("BirthDate"),
-                    rs.getString("Phone"),
-                    rs.getString("Email"),
-                    rs.getString("InsuranceInfo"),
-                    rs.getDate("FirstVisitDate"),
-                    rs.getInt("PrimaryDoctorID"),
-                    rs.getBoolean("ActiveStatus")
-                );
+                return RowMappers.patient(rs).mapRow(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving patient: " + e.getMessage());
@@ -86,11 +98,13 @@ public class PatientDAO {
     
     /**
      * Update patient information
+     * Applies only if the row still has the caller's version, which it then increments
      * @param patient Patient object with updated information
-     * @return true if successful, false otherwise
+     * @return UPDATED with the new version, CONFLICT with the current version if the row
+     *         changed since it was read, or NOT_FOUND
      */
-    public boolean updatePatient(Patient patient) {
-        String sql = "UPDATE Patient SET Name = ?, BirthDate = ?, Phone = ?, Email = ?, InsuranceInfo = ?, FirstVisitDate = ?, PrimaryDoctorID = ?, ActiveStatus = ? WHERE PatientID = ?";
+    public UpdateResult updatePatient(Patient patient) {
+        String sql = "UPDATE Patient SET Name = ?, BirthDate = ?, Phone = ?, Email = ?, InsuranceInfo = ?, FirstVisitDate = ?, PrimaryDoctorID = ?, ActiveStatus = ?, Version = Version + 1 WHERE PatientID = ? AND Version = ?";
         
         try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
@@ -104,11 +118,13 @@ public class PatientDAO {
             pstmt.setInt(7, patient.getPrimaryDoctorID());
             pstmt.setBoolean(8, patient.isActiveStatus());
             pstmt.setInt(9, patient.getPatientID());
+            pstmt.setInt(10, patient.getVersion());
             
-            return pstmt.executeUpdate() > 0;
+            return RowVersions.afterUpdate(conn, pstmt.executeUpdate(), patient.getVersion(),
+                                           "SELECT Version FROM Patient WHERE PatientID = ?", patient.getPatientID());
         } catch (SQLException e) {
             System.err.println("Error updating patient: " + e.getMessage());
-            return false;
+            return UpdateResult.notFound();
         }
     }
     
@@ -118,87 +134,71 @@ public class PatientDAO {
      * @return true if successful, false otherwise
      */
     public boolean deletePatient(int patientID) {
-        Connection conn = null;
         try {
-            conn = dataSource.getConnection();
-            conn.setAutoCommit(false); // Start transaction
-            
-            // Delete related records first (in order of dependencies)
-            // 1. Delete feedback records
-            String deleteFeedbackSql = "DELETE FROM Feedback WHERE PatientID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteFeedbackSql)) {
-                pstmt.setInt(1, patientID);
-                pstmt.executeUpdate();
-            }
-            
-            // 2. Delete appointment inventory records for this patient's appointments
-            String deleteAppointmentInventorySql = "DELETE ai FROM Appointment_Inventory ai " +
-                                                  "JOIN Appointment a ON ai.AppointmentID = a.AppointmentID " +
-                                                  "WHERE a.PatientID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentInventorySql)) {
-                pstmt.setInt(1, patientID);
-                pstmt.executeUpdate();
-            }
-            
-            // 3. Delete billing records for this patient's appointments
-            String deleteBillingSql = "DELETE b FROM Billing b " +
-                                     "JOIN Appointment a ON b.AppointmentID = a.AppointmentID " +
-                                     "WHERE a.PatientID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteBillingSql)) {
-                pstmt.setInt(1, patientID);
-                pstmt.executeUpdate();
-            }
-            
-            // 4. Delete feedback records for this patient's appointments
-            String deleteAppointmentFeedbackSql = "DELETE f FROM Feedback f " +
-                                                 "JOIN Appointment a ON f.AppointmentID = a.AppointmentID " +
-                                                 "WHERE a.PatientID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentFeedbackSql)) {
-                pstmt.setInt(1, patientID);
-                pstmt.executeUpdate();
-            }
-            
-            // 5. Delete appointments
-            String deleteAppointmentsSql = "DELETE FROM Appointment WHERE PatientID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentsSql)) {
-                pstmt.setInt(1, patientID);
-                pstmt.executeUpdate();
-            }
-            
-            // 6. Finally delete the patient
-            String deletePatientSql = "DELETE FROM Patient WHERE PatientID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deletePatientSql)) {
-                pstmt.setInt(1, patientID);
-                int result = pstmt.executeUpdate();
+            return transactionRunner.inTransaction("deletePatient", conn -> {
+                // Read what the appointments add to the report rollups before any of it goes
+                List<ReportRollups.Fact> before = ReportRollups.snapshot(conn, ReportRollups.Scope.PATIENT, patientID);
                 
-                if (result > 0) {
-                    conn.commit(); // Commit transaction
-                    return true;
-                } else {
-                    conn.rollback(); // Rollback if no patient was deleted
-                    return false;
+                // Delete related records first (in order of dependencies)
+                // 1. Delete feedback records
+                String deleteFeedbackSql = "DELETE FROM Feedback WHERE PatientID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteFeedbackSql)) {
+                    pstmt.setInt(1, patientID);
+                    pstmt.executeUpdate();
                 }
-            }
-            
+                
+                // 2. Delete appointment inventory records for this patient's appointments
+                String deleteAppointmentInventorySql = "DELETE ai FROM Appointment_Inventory ai " +
+                                                      "JOIN Appointment a ON ai.AppointmentID = a.AppointmentID " +
+                                                      "WHERE a.PatientID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentInventorySql)) {
+                    pstmt.setInt(1, patientID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 3. Delete billing records for this patient's appointments
+                String deleteBillingSql = "DELETE b FROM Billing b " +
+                                         "JOIN Appointment a ON b.AppointmentID = a.AppointmentID " +
+                                         "WHERE a.PatientID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteBillingSql)) {
+                    pstmt.setInt(1, patientID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 4. Delete feedback records for this patient's appointments
+                String deleteAppointmentFeedbackSql = "DELETE f FROM Feedback f " +
+                                                     "JOIN Appointment a ON f.AppointmentID = a.AppointmentID " +
+                                                     "WHERE a.PatientID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentFeedbackSql)) {
+                    pstmt.setInt(1, patientID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 5. Delete appointments
+                String deleteAppointmentsSql = "DELETE FROM Appointment WHERE PatientID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentsSql)) {
+                    pstmt.setInt(1, patientID);
+                    pstmt.executeUpdate();
+                }
+                ReportRollups.apply(conn, before, ReportRollups.NONE);
+                
+                // 6. Finally delete the patient
+                String deletePatientSql = "DELETE FROM Patient WHERE PatientID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deletePatientSql)) {
+                    pstmt.setInt(1, patientID);
+                    int result = pstmt.executeUpdate();
+                    
+                    if (result > 0) {
+                        return true;
+                    } else {
+                        conn.rollback(); // Rollback if no patient was deleted
+                        return false;
+                    }
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting patient: " + e.getMessage());
-            if (conn != null) {
-                try {
-                    conn.rollback(); // Rollback on error
-                } catch (SQLException rollbackEx) {
-                    System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
-                }
-            }
             return false;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true); // Reset auto-commit
-                    conn.close();
-                } catch (SQLException e) {
-                    System.err.println("Error closing connection: " + e.getMessage());
-                }
-            }
         }
     }
     
@@ -210,6 +210,82 @@ public class PatientDAO {
      * @return List of Patient objects
      */
     public List<Patient> getPatientList(String nameFilter, String insuranceFilter, Boolean activeFilter) {
+        return getPatientPage(nameFilter, insuranceFilter, activeFilter, null, 0);
+    }
+    
+    /**
+     * Get one page of patients ordered by Name, PatientID
+     * Uses a seek predicate on the last row of the previous page instead of OFFSET
+     * @param nameFilter Filter by name (null for no filter)
+     * @param insuranceFilter Filter by insurance info (null for no filter)
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param after Last patient of the previous page (null for the first page)
+     * @param limit Maximum number of rows (0 for no limit)
+     * @return List of Patient objects
+     */
+    public List<Patient> getPatientPage(String nameFilter, String insuranceFilter, Boolean activeFilter, Patient after, int limit) {
+        List<Patient> patientList = new ArrayList<>();
+        
+        try {
+            queryPatients(dataSource, nameFilter, insuranceFilter, activeFilter, after, limit, 0, patientList::add);
+        } catch (SQLException | IOException e) {
+            System.err.println("Error retrieving patient list: " + e.getMessage());
+        }
+        
+        return patientList;
+    }
+    
+    /**
+     * Stream patients ordered by Name, PatientID without materializing a list
+     * Rows are read with MySQL row streaming, so the callback runs while the query is still open
+     * @param nameFilter Filter by name (null for no filter)
+     * @param insuranceFilter Filter by insurance info (null for no filter)
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void streamPatients(String nameFilter, String insuranceFilter, Boolean activeFilter, RowCallback<Patient> callback) throws SQLException, IOException {
+        queryPatients(streamDataSource, nameFilter, insuranceFilter, activeFilter, null, 0, STREAMING_FETCH_SIZE, callback);
+    }
+    
+    /**
+     * Stream every row, or only active or inactive ones, to build an in-memory index
+     * Unlike streamPatients, this reads on the main pool: cache loads sit on request paths and are
+     * short, so they must not queue behind report queries and client downloads
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void loadPatients(Boolean activeFilter, RowCallback<Patient> callback) throws SQLException, IOException {
+        queryPatients(dataSource, null, null, activeFilter, null, 0, STREAMING_FETCH_SIZE, callback);
+    }
+    
+    /**
+     * Read the patients whose Name equals the given one under the column's collation
+     * (case- and accent-insensitive) through idx_patient_name, on the main pool
+     * @param name Name to match, with runs of spaces collapsed
+     * @param callback Receives each row
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void loadPatientsByName(String name, RowCallback<Patient> callback) throws SQLException, IOException {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement("SELECT * FROM Patient WHERE Name = ?")) {
+            
+            pstmt.setString(1, name);
+            ResultSet rs = pstmt.executeQuery();
+            
+            RowMapper<Patient> mapper = RowMappers.patient(rs);
+            while (rs.next()) {
+                callback.accept(mapper.mapRow(rs));
+            }
+        }
+    }
+    
+    private void queryPatients(DataSource source, String nameFilter, String insuranceFilter, Boolean activeFilter, Patient after, int limit, int fetchSize, RowCallback<Patient> callback)
+            throws SQLException, IOException {
         StringBuilder sql = new StringBuilder("SELECT * FROM Patient WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
@@ -228,83 +304,104 @@ public class PatientDAO {
             params.add(activeFilter);
         }
         
-        sql.append(" ORDER BY Name");
+        if (after != null) {
+            sql.append(" AND (Name > ? OR (Name = ? AND PatientID > ?))");
+            params.add(after.getName());
+            params.add(after.getName());
+            params.add(after.getPatientID());
+        }
         
-        List<Patient> patientList = new ArrayList<>();
+        sql.append(" ORDER BY Name, PatientID");
         
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
+        
+        try (Connection conn = source.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             
+            pstmt.setFetchSize(fetchSize);
             for (int i = 0; i < params.size(); i++) {
                 pstmt.setObject(i + 1, params.get(i));
             }
             
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Patient> mapper = RowMappers.patient(rs);
             while (rs.next()) {
-                patientList.add(new Patient(
-                    rs.getInt("PatientID"),
-                    rs.getString("Name"),
-                    rs.getDate("BirthDate"),
-                    rs.getString("Phone"),
-                    rs.getString("Email"),
-                    rs.getString("InsuranceInfo"),
-                    rs.getDate("FirstVisitDate"),
-                    rs.getInt("PrimaryDoctorID"),
-                    rs.getBoolean("ActiveStatus")
-                ));
+                callback.accept(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving patient list: " + e.getMessage());
         }
-        
-        return patientList;
     }
     
     /**
      * Get patient with their appointments
      * @param patientID ID of patient
-     * @return Map containing patient info and related appointments
+     * @return PatientWithAppointments or null if the patient does not exist
      */
-    public Map<String, Object> getPatientWithAppointments(int patientID) {
-        Map<String, Object> result = new HashMap<>();
-        
+    public PatientWithAppointments getPatientWithAppointments(int patientID) {
         Patient patient = getPatient(patientID);
-        if (patient != null) {
-            result.put("patient", patient);
+        if (patient == null) {
+            return null;
+        }
+        
+        String sql = "SELECT a.*, s.Name as DoctorName FROM Appointment a " +
+                    "JOIN Staff s ON a.DoctorID = s.StaffID " +
+                    "WHERE a.PatientID = ? ORDER BY a.Date DESC, a.Time DESC";
+        
+        List<PatientWithAppointments.Visit> appointments = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            String sql = "SELECT a.*, s.Name as DoctorName FROM Appointment a " +
-                        "JOIN Staff s ON a.DoctorID = s.StaffID " +
-                        "WHERE a.PatientID = ? ORDER BY a.Date DESC, a.Time DESC";
+            pstmt.setInt(1, patientID);
+            ResultSet rs = pstmt.executeQuery();
             
-            List<Map<String, Object>> appointments = new ArrayList<>();
+            RowMapper<PatientWithAppointments.Visit> mapper = RowMappers.patientVisit(rs);
+            while (rs.next()) {
+                appointments.add(mapper.mapRow(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving patient appointments: " + e.getMessage());
+        }
+        
+        return new PatientWithAppointments(patient, appointments);
+    }
+    
+    /**
+     * Get several patients by ID in one query
+     * @param patientIDs IDs of patients to retrieve
+     * @return Patients that exist, in no particular order
+     */
+    public List<Patient> getPatientsByIds(int[] patientIDs) {
+        List<Patient> patients = new ArrayList<>();
+        if (patientIDs.length == 0) {
+            return patients;
+        }
+        
+        StringBuilder sql = new StringBuilder("SELECT * FROM Patient WHERE PatientID IN (");
+        for (int i = 0; i < patientIDs.length; i++) {
+            sql.append(i == 0 ? "?" : ", ?");
+        }
+        sql.append(")");
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
             
-            try (Connection conn = dataSource.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                
-                pstmt.setInt(1, patientID);
-                ResultSet rs = pstmt.executeQuery();
-                
-                while (rs.next()) {
-                    Map<String, Object> appointment = new HashMap<>();
-                    appointment.put("appointmentID", rs.getInt("AppointmentID"));
-                    appointment.put("doctorName", rs.getString("DoctorName"));
-                    appointment.put("date", rs.getDate("Date"));
-                    appointment.put("time", rs.getTime("Time"));
-                    appointment.put("duration", rs.getInt("Duration"));
-                    appointment.put("visitType", rs.getString("VisitType"));
-                    appointment.put("status", rs.getString("Status"));
-                    appointment.put("notes", rs.getString("Notes"));
-                    appointments.add(appointment);
-                }
-            } catch (SQLException e) {
-                System.err.println("Error retrieving patient appointments: " + e.getMessage());
+            for (int i = 0; i < patientIDs.length; i++) {
+                pstmt.setInt(i + 1, patientIDs[i]);
             }
+            ResultSet rs = pstmt.executeQuery();
             
-            result.put("appointments", appointments);
+            RowMapper<Patient> mapper = RowMappers.patient(rs);
+            while (rs.next()) {
+                patients.add(mapper.mapRow(rs));
+            }
+        } catch (SQLException e) {
+            System.err.println("Error retrieving patients: " + e.getMessage());
         }
-        
-        return result;
+        return patients;
     }
     
     /**
@@ -324,27 +421,4 @@ public class PatientDAO {
     public List<Patient> searchPatientsByName(String name) {
         return getPatientList(name, null, null);
     }
-    
-    /**
-     * Get patient ID by name
-     * @param name Name of patient
-     * @return Patient ID or -1 if not found
-     */
-    public int getPatientIdByName(String name) {
-        String sql = "SELECT PatientID FROM Patient WHERE Name = ?";
-        
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, name);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt("PatientID");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting patient ID by name: " + e.getMessage());
-        }
-        return -1;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,497 @@
+package com.clinicnexus.dao;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Keeps the report rollups in step with Appointment, Billing and Feedback, on the
+ * caller's connection, so the rollups commit or roll back with the rest of the transaction:
+ * DailyRevenue (bills by appointment date and doctor), DoctorQuarterStats (per doctor and quarter)
+ * and DoctorQuarterPatient (visits per doctor, quarter and patient, behind UniquePatients).
+ * A writer takes a snapshot of what it is about to touch, makes its change, takes a
+ * second snapshot of the same scope and applies the difference. Differences are added
+ * to the stored totals rather than overwriting them, so concurrent writers to the same
+ * day or doctor commute; the snapshot locks the rows it read until commit.
+ * Every rollup row a write touches belongs to one doctor, so bookings for different
+ * doctors on the same day never wait on each other's rollup rows.
+ */
+public final class ReportRollups {
+
+    /**
+     * What a snapshot covers. Appointment scopes count the appointments themselves with
+     * their bill and feedback; BILL counts only the bill, for writes that change nothing else.
+     */
+    public enum Scope {
+        APPOINTMENT("a.AppointmentID = ?"),
+        PATIENT("a.PatientID = ?"),
+        DOCTOR("a.DoctorID = ?"),
+        BILL("b.BillingID = ?");
+
+        private final String condition;
+
+        Scope(String condition) {
+            this.condition = condition;
+        }
+    }
+
+    /** Snapshot of nothing, for inserts (before) and deletes (after) */
+    public static final List<Fact> NONE = Collections.emptyList();
+
+    // Feedback is summed per appointment in subqueries so several rows for one visit do not repeat it
+    private static final String APPOINTMENT_SNAPSHOT_SQL = "SELECT a.DoctorID, a.PatientID, a.Date, a.Status, b.Amount, b.Paid, " +
+                                                           "(SELECT COUNT(*) FROM Feedback f WHERE f.AppointmentID = a.AppointmentID) as Feedbacks, " +
+                                                           "(SELECT COALESCE(SUM(f.Rating), 0) FROM Feedback f WHERE f.AppointmentID = a.AppointmentID) as RatingSum, " +
+                                                           "(SELECT COUNT(f.Rating) FROM Feedback f WHERE f.AppointmentID = a.AppointmentID) as Ratings " +
+                                                           "FROM Appointment a " +
+                                                           "LEFT JOIN Billing b ON b.AppointmentID = a.AppointmentID " +
+                                                           "WHERE %s FOR UPDATE";
+
+    private static final String BILL_SNAPSHOT_SQL = "SELECT a.DoctorID, a.PatientID, a.Date, a.Status, b.Amount, b.Paid " +
+                                                    "FROM Billing b " +
+                                                    "JOIN Appointment a ON a.AppointmentID = b.AppointmentID " +
+                                                    "WHERE %s FOR UPDATE";
+
+    // VALUES() instead of a placeholder in the UPDATE clause keeps the statement rewritable as one multi-row INSERT
+    private static final String ADD_REVENUE_SQL = "INSERT INTO DailyRevenue (Date, DoctorID, TotalBills, PaidBills, TotalRevenue, PaidRevenue) VALUES (?, ?, ?, ?, ?, ?) " +
+                                                  "ON DUPLICATE KEY UPDATE TotalBills = TotalBills + VALUES(TotalBills), PaidBills = PaidBills + VALUES(PaidBills), " +
+                                                  "TotalRevenue = TotalRevenue + VALUES(TotalRevenue), PaidRevenue = PaidRevenue + VALUES(PaidRevenue)";
+
+    private static final String ADD_DOCTOR_SQL = "INSERT INTO DoctorQuarterStats (QuarterStart, DoctorID, Appointments, Completed, Canceled, UniquePatients, Feedbacks, RatingSum, Ratings, Revenue) " +
+                                                 "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                                                 "ON DUPLICATE KEY UPDATE Appointments = Appointments + VALUES(Appointments), Completed = Completed + VALUES(Completed), " +
+                                                 "Canceled = Canceled + VALUES(Canceled), UniquePatients = UniquePatients + VALUES(UniquePatients), " +
+                                                 "Feedbacks = Feedbacks + VALUES(Feedbacks), RatingSum = RatingSum + VALUES(RatingSum), " +
+                                                 "Ratings = Ratings + VALUES(Ratings), Revenue = Revenue + VALUES(Revenue)";
+
+    // Affected rows tell the two apart: 1 when the patient is new to the doctor's quarter, 2 when the row already existed
+    private static final String ADD_VISITS_SQL = "INSERT INTO DoctorQuarterPatient (QuarterStart, DoctorID, PatientID, Visits) VALUES (?, ?, ?, ?) " +
+                                                 "ON DUPLICATE KEY UPDATE Visits = Visits + VALUES(Visits)";
+
+    private static final String REMOVE_VISITS_SQL = "UPDATE DoctorQuarterPatient SET Visits = Visits - ? WHERE QuarterStart = ? AND DoctorID = ? AND PatientID = ?";
+
+    private static final String DROP_PATIENT_SQL = "DELETE FROM DoctorQuarterPatient WHERE QuarterStart = ? AND DoctorID = ? AND PatientID = ? AND Visits <= 0";
+
+    private static final String CLEAR_REVENUE_SQL = "DELETE FROM DailyRevenue WHERE Date >= ? AND Date < ?";
+
+    private static final String REBUILD_REVENUE_SQL = "INSERT INTO DailyRevenue (Date, DoctorID, TotalBills, PaidBills, TotalRevenue, PaidRevenue) " +
+                                                      "SELECT a.Date, a.DoctorID, COUNT(*), COUNT(CASE WHEN b.Paid = true THEN 1 END), " +
+                                                      "SUM(b.Amount), COALESCE(SUM(CASE WHEN b.Paid = true THEN b.Amount END), 0) " +
+                                                      "FROM Billing b " +
+                                                      "JOIN Appointment a ON a.AppointmentID = b.AppointmentID " +
+                                                      "WHERE a.Date >= ? AND a.Date < ? " +
+                                                      "GROUP BY a.Date, a.DoctorID";
+
+    private static final String CLEAR_DOCTOR_SQL = "DELETE FROM DoctorQuarterStats WHERE QuarterStart = ?";
+
+    private static final String CLEAR_PATIENTS_SQL = "DELETE FROM DoctorQuarterPatient WHERE QuarterStart = ?";
+
+    private static final String REBUILD_PATIENTS_SQL = "INSERT INTO DoctorQuarterPatient (QuarterStart, DoctorID, PatientID, Visits) " +
+                                                       "SELECT ?, a.DoctorID, a.PatientID, COUNT(*) " +
+                                                       "FROM Appointment a " +
+                                                       "WHERE a.Date >= ? AND a.Date < ? " +
+                                                       "GROUP BY a.DoctorID, a.PatientID";
+
+    // Billing has at most one row per appointment and feedback is pre-aggregated per appointment, so nothing fans out
+    private static final String REBUILD_DOCTOR_SQL = "INSERT INTO DoctorQuarterStats (QuarterStart, DoctorID, Appointments, Completed, Canceled, UniquePatients, Feedbacks, RatingSum, Ratings, Revenue) " +
+                                                     "SELECT ?, a.DoctorID, COUNT(*), " +
+                                                     "COUNT(CASE WHEN a.Status = 'Done' THEN 1 END), " +
+                                                     "COUNT(CASE WHEN a.Status = 'Canceled' THEN 1 END), " +
+                                                     "COUNT(DISTINCT a.PatientID), " +
+                                                     "COALESCE(SUM(f.Feedbacks), 0), COALESCE(SUM(f.RatingSum), 0), COALESCE(SUM(f.Ratings), 0), " +
+                                                     "COALESCE(SUM(b.Amount), 0) " +
+                                                     "FROM Appointment a " +
+                                                     "LEFT JOIN Billing b ON b.AppointmentID = a.AppointmentID " +
+                                                     "LEFT JOIN (SELECT fb.AppointmentID, COUNT(*) as Feedbacks, SUM(fb.Rating) as RatingSum, COUNT(fb.Rating) as Ratings " +
+                                                     "           FROM Feedback fb " +
+                                                     "           JOIN Appointment fa ON fa.AppointmentID = fb.AppointmentID " +
+                                                     "           WHERE fa.Date >= ? AND fa.Date < ? " +
+                                                     "           GROUP BY fb.AppointmentID) f ON f.AppointmentID = a.AppointmentID " +
+                                                     "WHERE a.Date >= ? AND a.Date < ? " +
+                                                     "GROUP BY a.DoctorID";
+
+    private ReportRollups() {}
+
+    /**
+     * What one appointment, or only its bill, contributes to the rollups
+     */
+    public static final class Fact {
+        final int doctorID;
+        final int patientID;
+        final Date date;
+        final String status;
+        /** False when only the bill is covered (Scope.BILL) */
+        final boolean appointment;
+        /** Null when there is no bill */
+        final BigDecimal amount;
+        final boolean paid;
+        final int feedbacks;
+        final int ratingSum;
+        final int ratings;
+
+        Fact(int doctorID, int patientID, Date date, String status, boolean appointment,
+             BigDecimal amount, boolean paid, int feedbacks, int ratingSum, int ratings) {
+            this.doctorID = doctorID;
+            this.patientID = patientID;
+            this.date = date;
+            this.status = status;
+            this.appointment = appointment;
+            this.amount = amount;
+            this.paid = paid;
+            this.feedbacks = feedbacks;
+            this.ratingSum = ratingSum;
+            this.ratings = ratings;
+        }
+    }
+
+    /**
+     * A new appointment whose values the caller already knows, so no snapshot is needed
+     * @param amount Amount of the bill created with it, or null if none
+     */
+    public static Fact newAppointment(int doctorID, int patientID, Date date, String status, Double amount) {
+        return new Fact(doctorID, patientID, date, status, true,
+                        amount != null ? BigDecimal.valueOf(amount) : null, false, 0, 0, 0);
+    }
+
+    /**
+     * Bill count and amounts for one day, or the difference between two of them
+     */
+    static final class DayTotals {
+        int bills;
+        int paidBills;
+        BigDecimal revenue = BigDecimal.ZERO;
+        BigDecimal paidRevenue = BigDecimal.ZERO;
+
+        void add(int sign, BigDecimal amount, boolean paid) {
+            BigDecimal signed = sign < 0 ? amount.negate() : amount;
+            bills += sign;
+            revenue = revenue.add(signed);
+            if (paid) {
+                paidBills += sign;
+                paidRevenue = paidRevenue.add(signed);
+            }
+        }
+
+        boolean isZero() {
+            return bills == 0 && paidBills == 0 && revenue.signum() == 0 && paidRevenue.signum() == 0;
+        }
+    }
+
+    /**
+     * One doctor's counters for a quarter, or the difference between two of them
+     * UniquePatients is not here; it follows from the DoctorQuarterPatient rows
+     */
+    static final class DoctorTotals {
+        int appointments;
+        int completed;
+        int canceled;
+        int feedbacks;
+        int ratingSum;
+        int ratings;
+        BigDecimal revenue = BigDecimal.ZERO;
+
+        void add(int sign, Fact fact) {
+            if (fact.appointment) {
+                appointments += sign;
+                if ("Done".equals(fact.status)) {
+                    completed += sign;
+                } else if ("Canceled".equals(fact.status)) {
+                    canceled += sign;
+                }
+                feedbacks += sign * fact.feedbacks;
+                ratingSum += sign * fact.ratingSum;
+                ratings += sign * fact.ratings;
+            }
+            if (fact.amount != null) {
+                revenue = sign < 0 ? revenue.subtract(fact.amount) : revenue.add(fact.amount);
+            }
+        }
+
+        boolean isZero() {
+            return appointments == 0 && completed == 0 && canceled == 0 && feedbacks == 0
+                && ratingSum == 0 && ratings == 0 && revenue.signum() == 0;
+        }
+    }
+
+    record DoctorDay(Date date, int doctorID) {}
+
+    record DoctorQuarter(Date quarterStart, int doctorID) {}
+
+    record DoctorVisit(Date quarterStart, int doctorID, int patientID) {}
+
+    private static final Comparator<DoctorDay> DOCTOR_DAY_ORDER =
+        Comparator.comparing(DoctorDay::date).thenComparingInt(DoctorDay::doctorID);
+
+    private static final Comparator<DoctorQuarter> DOCTOR_QUARTER_ORDER =
+        Comparator.comparing(DoctorQuarter::quarterStart).thenComparingInt(DoctorQuarter::doctorID);
+
+    private static final Comparator<DoctorVisit> DOCTOR_VISIT_ORDER =
+        Comparator.comparing(DoctorVisit::quarterStart).thenComparingInt(DoctorVisit::doctorID).thenComparingInt(DoctorVisit::patientID);
+
+    /**
+     * First day of the quarter a date falls in
+     */
+    public static Date quarterStart(Date date) {
+        LocalDate day = date.toLocalDate();
+        return Date.valueOf(LocalDate.of(day.getYear(), (day.getMonthValue() - 1) / 3 * 3 + 1, 1));
+    }
+
+    /**
+     * Read and lock the rows in a scope
+     * @param conn Connection with auto-commit off
+     * @param scope What to read
+     * @param id Appointment, patient, doctor or bill ID the scope refers to
+     * @return One fact per appointment (or bill)
+     * @throws SQLException if the query fails
+     */
+    public static List<Fact> snapshot(Connection conn, Scope scope, int id) throws SQLException {
+        boolean appointments = scope != Scope.BILL;
+        String sql = String.format(appointments ? APPOINTMENT_SNAPSHOT_SQL : BILL_SNAPSHOT_SQL, scope.condition);
+        List<Fact> facts = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                facts.add(new Fact(rs.getInt(1), rs.getInt(2), rs.getDate(3), rs.getString(4), appointments,
+                                   rs.getBigDecimal(5), rs.getBoolean(6),
+                                   appointments ? rs.getInt(7) : 0,
+                                   appointments ? rs.getInt(8) : 0,
+                                   appointments ? rs.getInt(9) : 0));
+            }
+        }
+        return facts;
+    }
+
+    /**
+     * Add the difference between two snapshots of the same scope to the rollups.
+     * Tables are written in a fixed order (DailyRevenue, DoctorQuarterPatient,
+     * DoctorQuarterStats) and rows in key order, so concurrent transactions lock rollup
+     * rows in the same order; rows that did not change are skipped.
+     * @param conn Connection with auto-commit off
+     * @param before Snapshot taken before the change, or NONE
+     * @param after Snapshot taken after the change, or NONE
+     * @throws SQLException if a statement fails
+     */
+    public static void apply(Connection conn, List<Fact> before, List<Fact> after) throws SQLException {
+        Map<DoctorDay, DayTotals> revenue = revenueChanges(before, after);
+        if (!revenue.isEmpty()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(ADD_REVENUE_SQL)) {
+                for (Map.Entry<DoctorDay, DayTotals> entry : revenue.entrySet()) {
+                    DayTotals change = entry.getValue();
+                    pstmt.setDate(1, entry.getKey().date());
+                    pstmt.setInt(2, entry.getKey().doctorID());
+                    pstmt.setInt(3, change.bills);
+                    pstmt.setInt(4, change.paidBills);
+                    pstmt.setBigDecimal(5, change.revenue);
+                    pstmt.setBigDecimal(6, change.paidRevenue);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+
+        Map<DoctorQuarter, Integer> newPatients = applyVisits(conn, visitChanges(before, after));
+        Map<DoctorQuarter, DoctorTotals> doctors = doctorChanges(before, after);
+        for (DoctorQuarter key : newPatients.keySet()) {
+            doctors.putIfAbsent(key, new DoctorTotals());
+        }
+        if (!doctors.isEmpty()) {
+            try (PreparedStatement pstmt = conn.prepareStatement(ADD_DOCTOR_SQL)) {
+                for (Map.Entry<DoctorQuarter, DoctorTotals> entry : doctors.entrySet()) {
+                    DoctorTotals change = entry.getValue();
+                    pstmt.setDate(1, entry.getKey().quarterStart());
+                    pstmt.setInt(2, entry.getKey().doctorID());
+                    pstmt.setInt(3, change.appointments);
+                    pstmt.setInt(4, change.completed);
+                    pstmt.setInt(5, change.canceled);
+                    pstmt.setInt(6, newPatients.getOrDefault(entry.getKey(), 0));
+                    pstmt.setInt(7, change.feedbacks);
+                    pstmt.setInt(8, change.ratingSum);
+                    pstmt.setInt(9, change.ratings);
+                    pstmt.setBigDecimal(10, change.revenue);
+                    pstmt.addBatch();
+                }
+                pstmt.executeBatch();
+            }
+        }
+    }
+
+    /**
+     * Add visit changes to DoctorQuarterPatient one row at a time, since each row's
+     * update count says whether the patient was added to or dropped from the quarter
+     * @return Change in distinct patients per doctor and quarter, leaving out zeros
+     */
+    private static Map<DoctorQuarter, Integer> applyVisits(Connection conn, Map<DoctorVisit, Integer> visits) throws SQLException {
+        Map<DoctorQuarter, Integer> patients = new TreeMap<>(DOCTOR_QUARTER_ORDER);
+        Map<DoctorVisit, Integer> removed = new TreeMap<>(DOCTOR_VISIT_ORDER);
+        if (visits.isEmpty()) {
+            return patients;
+        }
+
+        PreparedStatement add = null;
+        try {
+            for (Map.Entry<DoctorVisit, Integer> entry : visits.entrySet()) {
+                DoctorVisit visit = entry.getKey();
+                if (entry.getValue() < 0) {
+                    removed.put(visit, -entry.getValue());
+                    continue;
+                }
+                if (add == null) {
+                    add = conn.prepareStatement(ADD_VISITS_SQL);
+                }
+                add.setDate(1, visit.quarterStart());
+                add.setInt(2, visit.doctorID());
+                add.setInt(3, visit.patientID());
+                add.setInt(4, entry.getValue());
+                if (add.executeUpdate() == 1) {
+                    patients.merge(new DoctorQuarter(visit.quarterStart(), visit.doctorID()), 1, Integer::sum);
+                }
+            }
+        } finally {
+            if (add != null) {
+                add.close();
+            }
+        }
+
+        if (!removed.isEmpty()) {
+            try (PreparedStatement remove = conn.prepareStatement(REMOVE_VISITS_SQL);
+                 PreparedStatement drop = conn.prepareStatement(DROP_PATIENT_SQL)) {
+                for (Map.Entry<DoctorVisit, Integer> entry : removed.entrySet()) {
+                    DoctorVisit visit = entry.getKey();
+                    remove.setInt(1, entry.getValue());
+                    remove.setDate(2, visit.quarterStart());
+                    remove.setInt(3, visit.doctorID());
+                    remove.setInt(4, visit.patientID());
+                    remove.executeUpdate();
+                    drop.setDate(1, visit.quarterStart());
+                    drop.setInt(2, visit.doctorID());
+                    drop.setInt(3, visit.patientID());
+                    if (drop.executeUpdate() > 0) {
+                        patients.merge(new DoctorQuarter(visit.quarterStart(), visit.doctorID()), -1, Integer::sum);
+                    }
+                }
+            }
+        }
+        patients.values().removeIf(change -> change == 0);
+        return patients;
+    }
+
+    /**
+     * Per doctor-day bill changes from one snapshot to another, leaving out those that did not change
+     */
+    static Map<DoctorDay, DayTotals> revenueChanges(List<Fact> before, List<Fact> after) {
+        Map<DoctorDay, DayTotals> changes = new TreeMap<>(DOCTOR_DAY_ORDER);
+        addRevenue(changes, 1, after);
+        addRevenue(changes, -1, before);
+        changes.values().removeIf(DayTotals::isZero);
+        return changes;
+    }
+
+    private static void addRevenue(Map<DoctorDay, DayTotals> changes, int sign, List<Fact> facts) {
+        for (Fact fact : facts) {
+            if (fact.amount != null) {
+                changes.computeIfAbsent(new DoctorDay(fact.date, fact.doctorID), d -> new DayTotals()).add(sign, fact.amount, fact.paid);
+            }
+        }
+    }
+
+    /**
+     * Per doctor and quarter counter changes, leaving out those that did not change
+     */
+    static Map<DoctorQuarter, DoctorTotals> doctorChanges(List<Fact> before, List<Fact> after) {
+        Map<DoctorQuarter, DoctorTotals> changes = new TreeMap<>(DOCTOR_QUARTER_ORDER);
+        for (Fact fact : after) {
+            changes.computeIfAbsent(new DoctorQuarter(quarterStart(fact.date), fact.doctorID), k -> new DoctorTotals()).add(1, fact);
+        }
+        for (Fact fact : before) {
+            changes.computeIfAbsent(new DoctorQuarter(quarterStart(fact.date), fact.doctorID), k -> new DoctorTotals()).add(-1, fact);
+        }
+        changes.values().removeIf(DoctorTotals::isZero);
+        return changes;
+    }
+
+    /**
+     * Per doctor, quarter and patient visit changes, leaving out those that did not change
+     */
+    static Map<DoctorVisit, Integer> visitChanges(List<Fact> before, List<Fact> after) {
+        Map<DoctorVisit, Integer> changes = new TreeMap<>(DOCTOR_VISIT_ORDER);
+        for (Fact fact : after) {
+            if (fact.appointment) {
+                changes.merge(new DoctorVisit(quarterStart(fact.date), fact.doctorID, fact.patientID), 1, Integer::sum);
+            }
+        }
+        for (Fact fact : before) {
+            if (fact.appointment) {
+                changes.merge(new DoctorVisit(quarterStart(fact.date), fact.doctorID, fact.patientID), -1, Integer::sum);
+            }
+        }
+        changes.values().removeIf(change -> change == 0);
+        return changes;
+    }
+
+    /**
+     * Recompute DailyRevenue for a date range from Billing and Appointment.
+     * At REPEATABLE READ the INSERT ... SELECT share-locks the range's source rows, so
+     * writers to those days wait for it to commit; run it at READ COMMITTED (a snapshot
+     * read with row-based binlogging) and keep ranges short (a month at a time).
+     * @param conn Connection with auto-commit off
+     * @param from First day, inclusive
+     * @param to Last day, exclusive
+     * @return Number of doctor-days that have bills
+     * @throws SQLException if a statement fails
+     */
+    public static int rebuildRevenue(Connection conn, Date from, Date to) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CLEAR_REVENUE_SQL)) {
+            pstmt.setDate(1, from);
+            pstmt.setDate(2, to);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(REBUILD_REVENUE_SQL)) {
+            pstmt.setDate(1, from);
+            pstmt.setDate(2, to);
+            return pstmt.executeUpdate();
+        }
+    }
+
+    /**
+     * Recompute DoctorQuarterStats and DoctorQuarterPatient for one quarter from
+     * Appointment, Billing and Feedback. Locks as rebuildRevenue does, for a quarter.
+     * @param conn Connection with auto-commit off
+     * @param quarterStart First day of the quarter
+     * @return Number of doctors with appointments in the quarter
+     * @throws SQLException if a statement fails
+     */
+    public static int rebuildDoctorQuarter(Connection conn, Date quarterStart) throws SQLException {
+        Date quarterEnd = Date.valueOf(quarterStart.toLocalDate().plusMonths(3));
+        for (String sql : new String[] { CLEAR_DOCTOR_SQL, CLEAR_PATIENTS_SQL }) {
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                pstmt.setDate(1, quarterStart);
+                pstmt.executeUpdate();
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(REBUILD_PATIENTS_SQL)) {
+            pstmt.setDate(1, quarterStart);
+            pstmt.setDate(2, quarterStart);
+            pstmt.setDate(3, quarterEnd);
+            pstmt.executeUpdate();
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(REBUILD_DOCTOR_SQL)) {
+            pstmt.setDate(1, quarterStart);
+            pstmt.setDate(2, quarterStart);
+            pstmt.setDate(3, quarterEnd);
+            pstmt.setDate(4, quarterStart);
+            pstmt.setDate(5, quarterEnd);
+            return pstmt.executeUpdate();
+        }
+    }
+}
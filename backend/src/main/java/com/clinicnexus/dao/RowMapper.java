@@ -0,0 +1,22 @@
+package com.clinicnexus.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an object.
+ * Instances come from RowMappers, which resolve column labels to indexes once
+ * per ResultSet so per-row reads are plain positional getters.
+ * @param <T> Row type
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+    
+    /**
+     * Map the current row
+     * @param rs ResultSet positioned on a row
+     * @return Mapped object
+     * @throws SQLException if a column cannot be read
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
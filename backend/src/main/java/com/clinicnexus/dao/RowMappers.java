@@ -0,0 +1,314 @@
+package com.clinicnexus.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.clinicnexus.model.Appointment;
+import com.clinicnexus.model.AppointmentInventory;
+import com.clinicnexus.model.Billing;
+import com.clinicnexus.model.Inventory;
+import com.clinicnexus.model.Patient;
+import com.clinicnexus.model.Staff;
+import com.clinicnexus.projection.AppointmentWithNames;
+import com.clinicnexus.projection.InventoryWithUsage;
+import com.clinicnexus.projection.PatientWithAppointments;
+import com.clinicnexus.projection.StaffWithAppointments;
+
+/**
+ * Row mappers shared by the DAOs and transactional services.
+ * Each factory resolves its column labels against the ResultSet once; call it
+ * after executeQuery and reuse the returned mapper for every row.
+ */
+public final class RowMappers {
+    
+    private RowMappers() {}
+    
+    /**
+     * Appointment table row
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for Appointment rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<Appointment> appointment(ResultSet rs) throws SQLException {
+        int appointmentID = rs.findColumn("AppointmentID");
+        int patientID = rs.findColumn("PatientID");
+        int doctorID = rs.findColumn("DoctorID");
+        int date = rs.findColumn("Date");
+        int time = rs.findColumn("Time");
+        int duration = rs.findColumn("Duration");
+        int visitType = rs.findColumn("VisitType");
+        int status = rs.findColumn("Status");
+        int notes = rs.findColumn("Notes");
+        int version = rs.findColumn("Version");
+        return r -> {
+            Appointment appointment = new Appointment(
+                r.getInt(appointmentID),
+                r.getInt(patientID),
+                r.getInt(doctorID),
+                r.getDate(date),
+                r.getTime(time),
+                r.getInt(duration),
+                r.getString(visitType),
+                r.getString(status),
+                r.getString(notes)
+            );
+            appointment.setVersion(r.getInt(version));
+            return appointment;
+        };
+    }
+    
+    /**
+     * Patient table row
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for Patient rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<Patient> patient(ResultSet rs) throws SQLException {
+        int patientID = rs.findColumn("PatientID");
+        int name = rs.findColumn("Name");
+        int birthDate = rs.findColumn("BirthDate");
+        int phone = rs.findColumn("Phone");
+        int email = rs.findColumn("Email");
+        int insuranceInfo = rs.findColumn("InsuranceInfo");
+        int firstVisitDate = rs.findColumn("FirstVisitDate");
+        int primaryDoctorID = rs.findColumn("PrimaryDoctorID");
+        int activeStatus = rs.findColumn("ActiveStatus");
+        int version = rs.findColumn("Version");
+        return r -> {
+            Patient patient = new Patient(
+                r.getInt(patientID),
+                r.getString(name),
+                r.getDate(birthDate),
+                r.getString(phone),
+                r.getString(email),
+                r.getString(insuranceInfo),
+                r.getDate(firstVisitDate),
+                r.getInt(primaryDoctorID),
+                r.getBoolean(activeStatus)
+            );
+            patient.setVersion(r.getInt(version));
+            return patient;
+        };
+    }
+    
+    /**
+     * Staff table row
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for Staff rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<Staff> staff(ResultSet rs) throws SQLException {
+        int staffID = rs.findColumn("StaffID");
+        int name = rs.findColumn("Name");
+        int jobType = rs.findColumn("JobType");
+        int specialization = rs.findColumn("Specialization");
+        int licenseNumber = rs.findColumn("LicenseNumber");
+        int phone = rs.findColumn("Phone");
+        int email = rs.findColumn("Email");
+        int hireDate = rs.findColumn("HireDate");
+        int workingDays = rs.findColumn("WorkingDays");
+        int activeStatus = rs.findColumn("ActiveStatus");
+        int version = rs.findColumn("Version");
+        return r -> {
+            Staff staff = new Staff(
+                r.getInt(staffID),
+                r.getString(name),
+                r.getString(jobType),
+                r.getString(specialization),
+                r.getString(licenseNumber),
+                r.getString(phone),
+                r.getString(email),
+                r.getDate(hireDate),
+                r.getString(workingDays),
+                r.getBoolean(activeStatus)
+            );
+            staff.setVersion(r.getInt(version));
+            return staff;
+        };
+    }
+    
+    /**
+     * Inventory table row
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for Inventory rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<Inventory> inventory(ResultSet rs) throws SQLException {
+        int itemID = rs.findColumn("ItemID");
+        int name = rs.findColumn("Name");
+        int type = rs.findColumn("Type");
+        int purpose = rs.findColumn("Purpose");
+        int stockQuantity = rs.findColumn("StockQuantity");
+        int reorderThreshold = rs.findColumn("ReorderThreshold");
+        int unitPrice = rs.findColumn("UnitPrice");
+        int supplierInfo = rs.findColumn("SupplierInfo");
+        int expiryDate = rs.findColumn("ExpiryDate");
+        int activeStatus = rs.findColumn("ActiveStatus");
+        int version = rs.findColumn("Version");
+        return r -> {
+            Inventory inventory = new Inventory(
+                r.getInt(itemID),
+                r.getString(name),
+                r.getString(type),
+                r.getString(purpose),
+                r.getInt(stockQuantity),
+                r.getInt(reorderThreshold),
+                r.getDouble(unitPrice),
+                r.getString(supplierInfo),
+                r.getDate(expiryDate),
+                r.getBoolean(activeStatus)
+            );
+            inventory.setVersion(r.getInt(version));
+            return inventory;
+        };
+    }
+    
+    /**
+     * Billing table row
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for Billing rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<Billing> billing(ResultSet rs) throws SQLException {
+        int billingID = rs.findColumn("BillingID");
+        int appointmentID = rs.findColumn("AppointmentID");
+        int amount = rs.findColumn("Amount");
+        int paid = rs.findColumn("Paid");
+        int paymentDate = rs.findColumn("PaymentDate");
+        int version = rs.findColumn("Version");
+        return r -> {
+            Billing billing = new Billing(
+                r.getInt(billingID),
+                r.getInt(appointmentID),
+                r.getDouble(amount),
+                r.getBoolean(paid),
+                r.getDate(paymentDate)
+            );
+            billing.setVersion(r.getInt(version));
+            return billing;
+        };
+    }
+    
+    /**
+     * Appointment_Inventory table row
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for AppointmentInventory rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<AppointmentInventory> appointmentInventory(ResultSet rs) throws SQLException {
+        int appointmentID = rs.findColumn("AppointmentID");
+        int itemID = rs.findColumn("ItemID");
+        int quantityUsed = rs.findColumn("QuantityUsed");
+        return r -> new AppointmentInventory(
+            r.getInt(appointmentID),
+            r.getInt(itemID),
+            r.getInt(quantityUsed)
+        );
+    }
+    
+    /**
+     * Appointment row joined with PatientName and DoctorName
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for AppointmentWithNames rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<AppointmentWithNames> appointmentWithNames(ResultSet rs) throws SQLException {
+        int appointmentID = rs.findColumn("AppointmentID");
+        int patientName = rs.findColumn("PatientName");
+        int doctorName = rs.findColumn("DoctorName");
+        int date = rs.findColumn("Date");
+        int time = rs.findColumn("Time");
+        int duration = rs.findColumn("Duration");
+        int visitType = rs.findColumn("VisitType");
+        int status = rs.findColumn("Status");
+        int notes = rs.findColumn("Notes");
+        return r -> new AppointmentWithNames(
+            r.getInt(appointmentID),
+            r.getString(patientName),
+            r.getString(doctorName),
+            r.getDate(date),
+            r.getTime(time),
+            r.getInt(duration),
+            r.getString(visitType),
+            r.getString(status),
+            r.getString(notes)
+        );
+    }
+    
+    /**
+     * Appointment row joined with DoctorName
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for PatientWithAppointments.Visit rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<PatientWithAppointments.Visit> patientVisit(ResultSet rs) throws SQLException {
+        int appointmentID = rs.findColumn("AppointmentID");
+        int doctorName = rs.findColumn("DoctorName");
+        int date = rs.findColumn("Date");
+        int time = rs.findColumn("Time");
+        int duration = rs.findColumn("Duration");
+        int visitType = rs.findColumn("VisitType");
+        int status = rs.findColumn("Status");
+        int notes = rs.findColumn("Notes");
+        return r -> new PatientWithAppointments.Visit(
+            r.getInt(appointmentID),
+            r.getString(doctorName),
+            r.getDate(date),
+            r.getTime(time),
+            r.getInt(duration),
+            r.getString(visitType),
+            r.getString(status),
+            r.getString(notes)
+        );
+    }
+    
+    /**
+     * Appointment row joined with PatientName
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for StaffWithAppointments.Visit rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<StaffWithAppointments.Visit> staffVisit(ResultSet rs) throws SQLException {
+        int appointmentID = rs.findColumn("AppointmentID");
+        int patientName = rs.findColumn("PatientName");
+        int date = rs.findColumn("Date");
+        int time = rs.findColumn("Time");
+        int duration = rs.findColumn("Duration");
+        int visitType = rs.findColumn("VisitType");
+        int status = rs.findColumn("Status");
+        int notes = rs.findColumn("Notes");
+        return r -> new StaffWithAppointments.Visit(
+            r.getInt(appointmentID),
+            r.getString(patientName),
+            r.getDate(date),
+            r.getTime(time),
+            r.getInt(duration),
+            r.getString(visitType),
+            r.getString(status),
+            r.getString(notes)
+        );
+    }
+    
+    /**
+     * Appointment_Inventory row joined with appointment Date, Time, PatientName and DoctorName
+     * @param rs ResultSet whose columns are resolved
+     * @return Mapper for InventoryWithUsage.Usage rows
+     * @throws SQLException if a column is missing
+     */
+    public static RowMapper<InventoryWithUsage.Usage> itemUsage(ResultSet rs) throws SQLException {
+        int appointmentID = rs.findColumn("AppointmentID");
+        int quantityUsed = rs.findColumn("QuantityUsed");
+        int date = rs.findColumn("Date");
+        int time = rs.findColumn("Time");
+        int patientName = rs.findColumn("PatientName");
+        int doctorName = rs.findColumn("DoctorName");
+        return r -> new InventoryWithUsage.Usage(
+            r.getInt(appointmentID),
+            r.getInt(quantityUsed),
+            r.getDate(date),
+            r.getTime(time),
+            r.getString(patientName),
+            r.getString(doctorName)
+        );
+    }
+}
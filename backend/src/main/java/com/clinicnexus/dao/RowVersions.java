@@ -0,0 +1,41 @@
+package com.clinicnexus.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.clinicnexus.util.UpdateResult;
+
+/**
+ * Classifies the result of a conditional UPDATE ... WHERE id = ? AND Version = ?.
+ * Writes that match no row re-read the Version to tell a deleted row from a
+ * concurrent edit; the extra read only happens on that failure path.
+ */
+final class RowVersions {
+    
+    private RowVersions() {}
+    
+    /**
+     * @param conn Connection the update ran on
+     * @param updatedRows Update count of the conditional update
+     * @param expectedVersion Version the update was conditioned on
+     * @param versionSql SELECT Version FROM ... WHERE id = ? for the same row
+     * @param id Row ID
+     * @return UPDATED with the new version, CONFLICT with the current version, or NOT_FOUND
+     * @throws SQLException if the version read fails
+     */
+    static UpdateResult afterUpdate(Connection conn, int updatedRows, int expectedVersion, String versionSql, int id) throws SQLException {
+        if (updatedRows > 0) {
+            return UpdateResult.updated(expectedVersion + 1);
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(versionSql)) {
+            pstmt.setInt(1, id);
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                return UpdateResult.conflict(rs.getInt(1));
+            }
+        }
+        return UpdateResult.notFound();
+    }
+}
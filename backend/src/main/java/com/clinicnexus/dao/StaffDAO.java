@@ -1,32 +1,54 @@
 package com.clinicnexus.dao;
 
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import com.clinicnexus.config.DatabaseConnection;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Repository;
+
 import com.clinicnexus.model.Staff;
+import com.clinicnexus.projection.StaffWithAppointments;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 /**
  * Data Access Object for Staff operations
  */
+@Repository
 public class StaffDAO {
     
+    /** Tells MySQL Connector/J to stream rows one at a time instead of buffering the result */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    /** Client downloads hold their connection until the client has read the last row, so they use the read-only report pool */
+    @Autowired
+    @Qualifier("reportDataSource")
+    private DataSource streamDataSource;
+    
+    @Autowired
+    private TransactionRunner transactionRunner;
+    
     /**
      * Add new staff member
-     * @param staff Staff object to add
+     * @param staff Staff object to add; receives the generated staff ID
      * @return true if successful, false otherwise
      */
     public boolean addStaff(Staff staff) {
         String sql = "INSERT INTO Staff (Name, JobType, Specialization, LicenseNumber, Phone, Email, HireDate, WorkingDays, ActiveStatus) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             
             pstmt.setString(1, staff.getName());
             pstmt.setString(2, staff.getJobType());
@@ -38,7 +60,14 @@ public class StaffDAO {
             pstmt.setString(8, staff.getWorkingDays());
             pstmt.setBoolean(9, staff.isActiveStatus());
             
-            return pstmt.executeUpdate() > 0;
+            if (pstmt.executeUpdate() == 0) {
+                return false;
+            }
+            ResultSet rs = pstmt.getGeneratedKeys();
+            if (rs.next()) {
+                staff.setStaffID(rs.getInt(1));
+            }
+            return true;
         } catch (SQLException e) {
             System.err.println("Error adding staff: " + e.getMessage());
             return false;
@@ -53,25 +82,14 @@ public class StaffDAO {
     public Staff getStaff(int staffID) {
         String sql = "SELECT * FROM Staff WHERE StaffID = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, staffID);
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return new Staff(
-                    rs.getInt("StaffID"),
-                    rs.getString("Name"),
-                    rs.getString("JobType"),
-                    rs.getString("Specialization"),
-                    rs.getString("LicenseNumber"),
-                    rs.getString("Phone"),
-                    rs.getString("Email"),
-                    rs.getDate("HireDate"),
-                    rs.getString("WorkingDays"),
-                    rs.getBoolean("ActiveStatus")
-                );
+                return RowMappers.staff(rs).mapRow(rs);
             }
         } catch (SQLException e) {
             System.err.println("Error retrieving staff: " + e.getMessage());
@@ -81,13 +99,15 @@ public class StaffDAO {
     
     /**
      * Update staff member
+     * Applies only if the row still has the caller's version, which it then increments
      * @param staff Staff object with updated information
-     * @return true if successful, false otherwise
+     * @return UPDATED with the new version, CONFLICT with the current version if the row
+     *         changed since it was read, or NOT_FOUND
      */
-    public boolean updateStaff(Staff staff) {
-        String sql = "UPDATE Staff SET Name = ?, JobType = ?, Specialization = ?, LicenseNumber = ?, Phone = ?, Email = ?, HireDate = ?, WorkingDays = ?, ActiveStatus = ? WHERE StaffID = ?";
+    public UpdateResult updateStaff(Staff staff) {
+        String sql = "UPDATE Staff SET Name = ?, JobType = ?, Specialization = ?, LicenseNumber = ?, Phone = ?, Email = ?, HireDate = ?, WorkingDays = ?, ActiveStatus = ?, Version = Version + 1 WHERE StaffID = ? AND Version = ?";
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setString(1, staff.getName());
@@ -100,11 +120,13 @@ public class StaffDAO {
             pstmt.setString(8, staff.getWorkingDays());
             pstmt.setBoolean(9, staff.isActiveStatus());
             pstmt.setInt(10, staff.getStaffID());
+            pstmt.setInt(11, staff.getVersion());
             
-            return pstmt.executeUpdate() > 0;
+            return RowVersions.afterUpdate(conn, pstmt.executeUpdate(), staff.getVersion(),
+                                           "SELECT Version FROM Staff WHERE StaffID = ?", staff.getStaffID());
         } catch (SQLException e) {
             System.err.println("Error updating staff: " + e.getMessage());
-            return false;
+            return UpdateResult.notFound();
         }
     }
     
@@ -114,94 +136,78 @@ public class StaffDAO {
      * @return true if successful, false otherwise
      */
     public boolean deleteStaff(int staffID) {
-        Connection conn = null;
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false); // Start transaction
-            
-            // Delete related records first (in order of dependencies)
-            // 1. Delete feedback records where staff is the doctor
-            String deleteFeedbackSql = "DELETE FROM Feedback WHERE DoctorID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteFeedbackSql)) {
-                pstmt.setInt(1, staffID);
-                pstmt.executeUpdate();
-            }
-            
-            // 2. Delete appointment inventory records for this staff's appointments
-            String deleteAppointmentInventorySql = "DELETE ai FROM Appointment_Inventory ai " +
-                                                  "JOIN Appointment a ON ai.AppointmentID = a.AppointmentID " +
-                                                  "WHERE a.DoctorID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentInventorySql)) {
-                pstmt.setInt(1, staffID);
-                pstmt.executeUpdate();
-            }
-            
-            // 3. Delete billing records for this staff's appointments
-            String deleteBillingSql = "DELETE b FROM Billing b " +
-                                     "JOIN Appointment a ON b.AppointmentID = a.AppointmentID " +
-                                     "WHERE a.DoctorID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteBillingSql)) {
-                pstmt.setInt(1, staffID);
-                pstmt.executeUpdate();
-            }
-            
-            // 4. Delete feedback records for this staff's appointments
-            String deleteAppointmentFeedbackSql = "DELETE f FROM Feedback f " +
-                                                 "JOIN Appointment a ON f.AppointmentID = a.AppointmentID " +
-                                                 "WHERE a.DoctorID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentFeedbackSql)) {
-                pstmt.setInt(1, staffID);
-                pstmt.executeUpdate();
-            }
-            
-            // 5. Delete appointments where staff is the doctor
-            String deleteAppointmentsSql = "DELETE FROM Appointment WHERE DoctorID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentsSql)) {
-                pstmt.setInt(1, staffID);
-                pstmt.executeUpdate();
-            }
-            
-            // 6. Update patients to remove this staff as primary doctor
-            String updatePatientsSql = "UPDATE Patient SET PrimaryDoctorID = NULL WHERE PrimaryDoctorID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(updatePatientsSql)) {
-                pstmt.setInt(1, staffID);
-                pstmt.executeUpdate();
-            }
-            
-            // 7. Finally delete the staff member
-            String deleteStaffSql = "DELETE FROM Staff WHERE StaffID = ?";
-            try (PreparedStatement pstmt = conn.prepareStatement(deleteStaffSql)) {
-                pstmt.setInt(1, staffID);
-                int result = pstmt.executeUpdate();
+            return transactionRunner.inTransaction("deleteStaff", conn -> {
+                // Read what the appointments add to the report rollups before any of it goes
+                List<ReportRollups.Fact> before = ReportRollups.snapshot(conn, ReportRollups.Scope.DOCTOR, staffID);
                 
-                if (result > 0) {
-                    conn.commit(); // Commit transaction
-                    return true;
-                } else {
-                    conn.rollback(); // Rollback if no staff was deleted
-                    return false;
+                // Delete related records first (in order of dependencies)
+                // 1. Delete feedback records where staff is the doctor
+                String deleteFeedbackSql = "DELETE FROM Feedback WHERE DoctorID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteFeedbackSql)) {
+                    pstmt.setInt(1, staffID);
+                    pstmt.executeUpdate();
                 }
-            }
-            
+                
+                // 2. Delete appointment inventory records for this staff's appointments
+                String deleteAppointmentInventorySql = "DELETE ai FROM Appointment_Inventory ai " +
+                                                      "JOIN Appointment a ON ai.AppointmentID = a.AppointmentID " +
+                                                      "WHERE a.DoctorID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentInventorySql)) {
+                    pstmt.setInt(1, staffID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 3. Delete billing records for this staff's appointments
+                String deleteBillingSql = "DELETE b FROM Billing b " +
+                                         "JOIN Appointment a ON b.AppointmentID = a.AppointmentID " +
+                                         "WHERE a.DoctorID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteBillingSql)) {
+                    pstmt.setInt(1, staffID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 4. Delete feedback records for this staff's appointments
+                String deleteAppointmentFeedbackSql = "DELETE f FROM Feedback f " +
+                                                     "JOIN Appointment a ON f.AppointmentID = a.AppointmentID " +
+                                                     "WHERE a.DoctorID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentFeedbackSql)) {
+                    pstmt.setInt(1, staffID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 5. Delete appointments where staff is the doctor
+                String deleteAppointmentsSql = "DELETE FROM Appointment WHERE DoctorID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteAppointmentsSql)) {
+                    pstmt.setInt(1, staffID);
+                    pstmt.executeUpdate();
+                }
+                ReportRollups.apply(conn, before, ReportRollups.NONE);
+                
+                // 6. Update patients to remove this staff as primary doctor
+                String updatePatientsSql = "UPDATE Patient SET PrimaryDoctorID = NULL, Version = Version + 1 WHERE PrimaryDoctorID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(updatePatientsSql)) {
+                    pstmt.setInt(1, staffID);
+                    pstmt.executeUpdate();
+                }
+                
+                // 7. Finally delete the staff member
+                String deleteStaffSql = "DELETE FROM Staff WHERE StaffID = ?";
+                try (PreparedStatement pstmt = conn.prepareStatement(deleteStaffSql)) {
+                    pstmt.setInt(1, staffID);
+                    int result = pstmt.executeUpdate();
+                    
+                    if (result > 0) {
+                        return true;
+                    } else {
+                        conn.rollback(); // Rollback if no staff was deleted
+                        return false;
+                    }
+                }
+            });
         } catch (SQLException e) {
             System.err.println("Error deleting staff: " + e.getMessage());
-            if (conn != null) {
-                try {
-                    conn.rollback(); // Rollback on error
-                } catch (SQLException rollbackEx) {
-                    System.err.println("Error rolling back transaction: " + rollbackEx.getMessage());
-                }
-            }
             return false;
-        } finally {
-            if (conn != null) {
-                try {
-                    conn.setAutoCommit(true); // Reset auto-commit
-                    conn.close();
-                } catch (SQLException e) {
-                    System.err.println("Error closing connection: " + e.getMessage());
-                }
-            }
         }
     }
     
@@ -213,6 +219,60 @@ public class StaffDAO {
      * @return List of Staff objects
      */
     public List<Staff> getStaffList(String jobTypeFilter, String specializationFilter, Boolean activeFilter) {
+        return getStaffPage(jobTypeFilter, specializationFilter, activeFilter, null, 0);
+    }
+    
+    /**
+     * Get one page of staff members ordered by Name, StaffID
+     * Uses a seek predicate on the last row of the previous page instead of OFFSET
+     * @param jobTypeFilter Filter by job type (null for no filter)
+     * @param specializationFilter Filter by specialization (null for no filter)
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param after Last staff member of the previous page (null for the first page)
+     * @param limit Maximum number of rows (0 for no limit)
+     * @return List of Staff objects
+     */
+    public List<Staff> getStaffPage(String jobTypeFilter, String specializationFilter, Boolean activeFilter, Staff after, int limit) {
+        List<Staff> staffList = new ArrayList<>();
+        
+        try {
+            queryStaff(dataSource, jobTypeFilter, specializationFilter, activeFilter, after, limit, 0, staffList::add);
+        } catch (SQLException | IOException e) {
+            System.err.println("Error retrieving staff list: " + e.getMessage());
+        }
+        
+        return staffList;
+    }
+    
+    /**
+     * Stream staff members ordered by Name, StaffID without materializing a list
+     * Rows are read with MySQL row streaming, so the callback runs while the query is still open
+     * @param jobTypeFilter Filter by job type (null for no filter)
+     * @param specializationFilter Filter by specialization (null for no filter)
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void streamStaff(String jobTypeFilter, String specializationFilter, Boolean activeFilter, RowCallback<Staff> callback) throws SQLException, IOException {
+        queryStaff(streamDataSource, jobTypeFilter, specializationFilter, activeFilter, null, 0, STREAMING_FETCH_SIZE, callback);
+    }
+    
+    /**
+     * Stream every row, or only active or inactive ones, to build an in-memory index
+     * Unlike streamStaff, this reads on the main pool: cache loads sit on request paths and are
+     * short, so they must not queue behind report queries and client downloads
+     * @param activeFilter Filter by active status (null for no filter)
+     * @param callback Receives each row in order
+     * @throws SQLException if the query fails
+     * @throws IOException if the callback fails; the read is abandoned
+     */
+    public void loadStaff(Boolean activeFilter, RowCallback<Staff> callback) throws SQLException, IOException {
+        queryStaff(dataSource, null, null, activeFilter, null, 0, STREAMING_FETCH_SIZE, callback);
+    }
+    
+    private void queryStaff(DataSource source, String jobTypeFilter, String specializationFilter, Boolean activeFilter, Staff after, int limit, int fetchSize, RowCallback<Staff> callback)
+            throws SQLException, IOException {
         StringBuilder sql = new StringBuilder("SELECT * FROM Staff WHERE 1=1");
         List<Object> params = new ArrayList<>();
         
@@ -231,84 +291,69 @@ public class StaffDAO {
             params.add(activeFilter);
         }
         
-        sql.append(" ORDER BY Name");
+        if (after != null) {
+            sql.append(" AND (Name > ? OR (Name = ? AND StaffID > ?))");
+            params.add(after.getName());
+            params.add(after.getName());
+            params.add(after.getStaffID());
+        }
         
-        List<Staff> staffList = new ArrayList<>();
+        sql.append(" ORDER BY Name, StaffID");
         
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+        if (limit > 0) {
+            sql.append(" LIMIT ?");
+            params.add(limit);
+        }
+        
+        try (Connection conn = source.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
             
+            pstmt.setFetchSize(fetchSize);
             for (int i = 0; i < params.size(); i++) {
                 pstmt.setObject(i + 1, params.get(i));
             }
             
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Staff> mapper = RowMappers.staff(rs);
             while (rs.next()) {
-                staffList.add(new Staff(
-                    rs.getInt("StaffID"),
-                    rs.getString("Name"),
-                    rs.getString("JobType"),
-                    rs.getString("Specialization"),
-                    rs.getString("LicenseNumber"),
-                    rs.getString("Phone"),
-                    rs.getString("Email"),
-                    rs.getDate("HireDate"),
-                    rs.getString("WorkingDays"),
-                    rs.getBoolean("ActiveStatus")
-                ));
+                callback.accept(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error retrieving staff list: " + e.getMessage());
         }
-        
-        return staffList;
     }
     
     /**
      * Get staff member with their appointments
      * @param staffID ID of staff member
-     * @return Map containing staff info and related appointments
+     * @return StaffWithAppointments or null if the staff member does not exist
      */
-    public Map<String, Object> getStaffWithAppointments(int staffID) {
-        Map<String, Object> result = new HashMap<>();
-        
+    public StaffWithAppointments getStaffWithAppointments(int staffID) {
         Staff staff = getStaff(staffID);
-        if (staff != null) {
-            result.put("staff", staff);
-            
-            String sql = "SELECT a.*, p.Name as PatientName FROM Appointment a " +
-                        "JOIN Patient p ON a.PatientID = p.PatientID " +
-                        "WHERE a.DoctorID = ? ORDER BY a.Date DESC, a.Time DESC";
+        if (staff == null) {
+            return null;
+        }
+        
+        String sql = "SELECT a.*, p.Name as PatientName FROM Appointment a " +
+                    "JOIN Patient p ON a.PatientID = p.PatientID " +
+                    "WHERE a.DoctorID = ? ORDER BY a.Date DESC, a.Time DESC";
+        
+        List<StaffWithAppointments.Visit> appointments = new ArrayList<>();
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            List<Map<String, Object>> appointments = new ArrayList<>();
+            pstmt.setInt(1, staffID);
+            ResultSet rs = pstmt.executeQuery();
             
-            try (Connection conn = DatabaseConnection.getConnection();
-                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                
-                pstmt.setInt(1, staffID);
-                ResultSet rs = pstmt.executeQuery();
-                
-                while (rs.next()) {
-                    Map<String, Object> appointment = new HashMap<>();
-                    appointment.put("appointmentID", rs.getInt("AppointmentID"));
-                    appointment.put("patientName", rs.getString("PatientName"));
-                    appointment.put("date", rs.getDate("Date"));
-                    appointment.put("time", rs.getTime("Time"));
-                    appointment.put("duration", rs.getInt("Duration"));
-                    appointment.put("visitType", rs.getString("VisitType"));
-                    appointment.put("status", rs.getString("Status"));
-                    appointment.put("notes", rs.getString("Notes"));
-                    appointments.add(appointment);
-                }
-            } catch (SQLException e) {
-                System.err.println("Error retrieving staff appointments: " + e.getMessage());
+            RowMapper<StaffWithAppointments.Visit> mapper = RowMappers.staffVisit(rs);
+            while (rs.next()) {
+                appointments.add(mapper.mapRow(rs));
             }
-            
-            result.put("appointments", appointments);
+        } catch (SQLException e) {
+            System.err.println("Error retrieving staff appointments: " + e.getMessage());
         }
         
-        return result;
+        return new StaffWithAppointments(staff, appointments);
     }
     
     /**
@@ -327,63 +372,4 @@ public class StaffDAO {
     public List<Staff> getActiveStaff() {
         return getStaffList(null, null, true);
     }
-    
-    /**
-     * Search staff by name
-     * @param name Name to search for
-     * @return List of Staff objects matching the name
-     */
-    public List<Staff> searchStaffByName(String name) {
-        StringBuilder sql = new StringBuilder("SELECT * FROM Staff WHERE Name LIKE ? ORDER BY Name");
-        List<Staff> staffList = new ArrayList<>();
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
-            
-            pstmt.setString(1, "%" + name + "%");
-            ResultSet rs = pstmt.executeQuery();
-            
-            while (rs.next()) {
-                staffList.add(new Staff(
-                    rs.getInt("StaffID"),
-                    rs.getString("Name"),
-                    rs.getString("JobType"),
-                    rs.getString("Specialization"),
-                    rs.getString("LicenseNumber"),
-                    rs.getString("Phone"),
-                    rs.getString("Email"),
-                    rs.getDate("HireDate"),
-                    rs.getString("WorkingDays"),
-                    rs.getBoolean("ActiveStatus")
-                ));
-            }
-        } catch (SQLException e) {
-            System.err.println("Error searching staff by name: " + e.getMessage());
-        }
-        
-        return staffList;
-    }
-    
-    /**
-     * Get staff ID by name
-     * @param name Name of staff member
-     * @return Staff ID or -1 if not found
-     */
-    public int getStaffIdByName(String name) {
-        String sql = "SELECT StaffID FROM Staff WHERE Name = ?";
-        
-        try (Connection conn = DatabaseConnection.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setString(1, name);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return rs.getInt("StaffID");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error getting staff ID by name: " + e.getMessage());
-        }
-        return -1;
-    }
 }
\ No newline at end of file
@@ -0,0 +1,92 @@
+package com.clinicnexus.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Stock changes that run on the caller's connection, so they commit or roll
+ * back with the rest of the transaction.
+ * Multi-item writes are sent as one JDBC batch; with rewriteBatchedStatements
+ * the driver turns each batch into a single round trip.
+ */
+public final class StockUpdates {
+
+    private static final String DECREMENT_SQL = "UPDATE Inventory SET StockQuantity = StockQuantity - ?, Version = Version + 1 WHERE ItemID = ? AND ActiveStatus = true AND StockQuantity >= ?";
+
+    // VALUES() instead of a placeholder in the UPDATE clause keeps the statement rewritable as one multi-row INSERT
+    private static final String RECORD_USAGE_SQL = "INSERT INTO Appointment_Inventory (AppointmentID, ItemID, QuantityUsed) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE QuantityUsed = QuantityUsed + VALUES(QuantityUsed)";
+
+    private StockUpdates() {}
+
+    /**
+     * Decrement stock for every item with one conditional UPDATE per item, sent as a batch.
+     * Items are updated in ascending ItemID order so concurrent transactions lock
+     * Inventory rows in the same order. The check and the write are one statement,
+     * so two visits cannot both pass the check and lose an update.
+     * An item that is missing, inactive or short matches no row; the caller
+     * must roll back to undo the items that were decremented.
+     * @param conn Connection with auto-commit off
+     * @param usage Map of item ID to quantity used
+     * @return ID of the first item that could not be decremented, or null if all were
+     * @throws SQLException if a quantity is missing or not positive (nothing is sent), or the batch fails
+     */
+    public static Integer decrementStock(Connection conn, Map<Integer, Integer> usage) throws SQLException {
+        if (usage.isEmpty()) {
+            return null;
+        }
+
+        Integer[] itemIDs = new TreeMap<>(usage).keySet().toArray(new Integer[0]);
+        // A negative quantity would pass the stock check and add stock instead
+        for (Integer itemID : itemIDs) {
+            Integer quantity = usage.get(itemID);
+            if (quantity == null || quantity <= 0) {
+                throw new SQLException("Invalid quantity for item ID: " + itemID);
+            }
+        }
+        int[] counts;
+        try (PreparedStatement pstmt = conn.prepareStatement(DECREMENT_SQL)) {
+            for (Integer itemID : itemIDs) {
+                int quantity = usage.get(itemID);
+                pstmt.setInt(1, quantity);
+                pstmt.setInt(2, itemID);
+                pstmt.setInt(3, quantity);
+                pstmt.addBatch();
+            }
+            counts = pstmt.executeBatch();
+        }
+
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                return itemIDs[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Record usage rows for an appointment in one batch, adding to any quantity already recorded.
+     * Rows are written in ascending ItemID order, matching decrementStock.
+     * @param conn Connection with auto-commit off
+     * @param appointmentID Appointment the items were used in
+     * @param usage Map of item ID to quantity used
+     * @throws SQLException if the batch fails
+     */
+    public static void recordUsage(Connection conn, int appointmentID, Map<Integer, Integer> usage) throws SQLException {
+        if (usage.isEmpty()) {
+            return;
+        }
+
+        try (PreparedStatement pstmt = conn.prepareStatement(RECORD_USAGE_SQL)) {
+            for (Map.Entry<Integer, Integer> entry : new TreeMap<>(usage).entrySet()) {
+                pstmt.setInt(1, appointmentID);
+                pstmt.setInt(2, entry.getKey());
+                pstmt.setInt(3, entry.getValue());
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+}
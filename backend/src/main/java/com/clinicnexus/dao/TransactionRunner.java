@@ -0,0 +1,150 @@
+package com.clinicnexus.dao;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Runs multi-statement transactions on a pooled connection and retries them when
+ * MySQL picks them as a deadlock victim (1213) or their lock wait times out (1205).
+ * Any other error, including an unchecked exception from the work, is rolled back and rethrown at once.
+ * Retries back off exponentially with full jitter, up to clinic.tx.max-attempts attempts.
+ * Per-transaction counters are published as clinic.tx.retries and clinic.tx.retries.exhausted,
+ * tagged with the transaction name.
+ */
+@Component
+public class TransactionRunner {
+
+    /** ER_LOCK_DEADLOCK: InnoDB rolled the whole transaction back */
+    static final int ER_LOCK_DEADLOCK = 1213;
+
+    /** ER_LOCK_WAIT_TIMEOUT: only the statement was rolled back; the rest is rolled back here */
+    static final int ER_LOCK_WAIT_TIMEOUT = 1205;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${clinic.tx.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${clinic.tx.backoff-ms:20}")
+    private long backoffMillis;
+
+    @Value("${clinic.tx.max-backoff-ms:500}")
+    private long maxBackoffMillis;
+
+    /**
+     * Work done inside one transaction attempt. It may run more than once, so side
+     * effects outside the connection belong after inTransaction returns.
+     * @param <T> Result type
+     */
+    @FunctionalInterface
+    public interface Work<T> {
+        T execute(Connection conn) throws SQLException;
+    }
+
+    /**
+     * Run work in a transaction, committing when it returns
+     * @param name Transaction name used as the metrics tag
+     * @param work Statements to run; may roll back itself before returning
+     * @return Result of the attempt that committed
+     * @throws SQLException from the work if it is not retryable or attempts are exhausted
+     */
+    public <T> T inTransaction(String name, Work<T> work) throws SQLException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(work);
+            } catch (SQLException e) {
+                if (!isRetryable(e)) {
+                    throw e;
+                }
+                if (attempt >= maxAttempts) {
+                    counter("clinic.tx.retries.exhausted", name).increment();
+                    throw e;
+                }
+                counter("clinic.tx.retries", name).increment();
+                System.err.println("Retrying " + name + " after lock conflict (attempt " + attempt + "): " + e.getMessage());
+                if (!backOff(attempt)) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    private <T> T attempt(Work<T> work) throws SQLException {
+        Connection conn = null;
+        try {
+            conn = dataSource.getConnection();
+            conn.setAutoCommit(false);
+
+            T result = work.execute(conn);
+            conn.commit();
+            return result;
+
+        } catch (SQLException | RuntimeException | Error e) {
+            // Roll back before the finally block: setAutoCommit(true) would commit the half-done work
+            try {
+                if (conn != null) {
+                    conn.rollback();
+                }
+            } catch (SQLException rollbackEx) {
+                System.err.println("Rollback error: " + rollbackEx.getMessage());
+            }
+            throw e;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                System.err.println("Error closing connection: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Deadlock and lock-wait timeout, possibly wrapped (e.g. by a batch update)
+     */
+    static boolean isRetryable(SQLException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof SQLException) {
+                int code = ((SQLException) t).getErrorCode();
+                if (code == ER_LOCK_DEADLOCK || code == ER_LOCK_WAIT_TIMEOUT) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sleep a random time up to backoff * 2^(attempt - 1), capped
+     * @return false if interrupted; the interrupt flag is restored
+     */
+    private boolean backOff(int attempt) {
+        long ceiling = Math.min(maxBackoffMillis, backoffMillis << Math.min(attempt - 1, 20));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private Counter counter(String metric, String name) {
+        return meterRegistry.counter(metric, "transaction", name);
+    }
+}
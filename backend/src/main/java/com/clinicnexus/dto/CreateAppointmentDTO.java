@@ -7,7 +7,6 @@ public class CreateAppointmentDTO {
     private String time;
     private Integer duration;
     private String visitType;
-    private String status;
     private String notes;
 
     // Constructors
@@ -15,14 +14,13 @@ public class CreateAppointmentDTO {
 
     public CreateAppointmentDTO(String patientName, String doctorName, String date, 
                                String time, Integer duration, String visitType, 
-                               String status, String notes) {
+                               String notes) {
         this.patientName = patientName;
         this.doctorName = doctorName;
         this.date = date;
         this.time = time;
         this.duration = duration;
         this.visitType = visitType;
-        this.status = status;
         this.notes = notes;
     }
 
@@ -75,14 +73,6 @@ public class CreateAppointmentDTO {
         this.visitType = visitType;
     }
 
-    public String getStatus() {
-        return status;
-    }
-
-    public void setStatus(String status) {
-        this.status = status;
-    }
-
     public String getNotes() {
         return notes;
     }
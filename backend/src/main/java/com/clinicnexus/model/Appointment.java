@@ -7,6 +7,9 @@ import java.sql.Time;
  * Appointment model class representing appointments in the clinic
  */
 public class Appointment {
+    /** Duration in minutes assumed when none is recorded */
+    public static final int DEFAULT_DURATION = 30;
+    
     private int appointmentID;
     private int patientID;
     private int doctorID;
@@ -16,6 +19,7 @@ public class Appointment {
     private String visitType;
     private String status;
     private String notes;
+    private int version;
     
     /**
      * Default constructor
@@ -66,6 +70,9 @@ public class Appointment {
     public String getNotes() { return notes; }
     public void setNotes(String notes) { this.notes = notes; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     /**
      * Check if appointment is completed
      * @return true if status is "Done"
@@ -102,6 +109,7 @@ public class Appointment {
                 ", visitType='" + visitType + '\'' +
                 ", status='" + status + '\'' +
                 ", notes='" + notes + '\'' +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -11,6 +11,7 @@ public class Billing {
     private double amount;
     private boolean paid;
     private Date paymentDate;
+    private int version;
     
     /**
      * Default constructor
@@ -44,6 +45,9 @@ public class Billing {
     public Date getPaymentDate() { return paymentDate; }
     public void setPaymentDate(Date paymentDate) { this.paymentDate = paymentDate; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     /**
      * Check if billing is overdue (unpaid)
      * @return true if not paid
@@ -60,6 +64,7 @@ public class Billing {
                 ", amount=" + amount +
                 ", paid=" + paid +
                 ", paymentDate=" + paymentDate +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -16,6 +16,7 @@ public class Inventory {
     private String supplierInfo;
     private Date expiryDate;
     private boolean activeStatus;
+    private int version;
     
     /**
      * Default constructor
@@ -71,6 +72,9 @@ public class Inventory {
     public boolean isActiveStatus() { return activeStatus; }
     public void setActiveStatus(boolean activeStatus) { this.activeStatus = activeStatus; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     /**
      * Check if item needs reordering
      * @return true if stock is at or below reorder threshold
@@ -101,6 +105,7 @@ public class Inventory {
                 ", supplierInfo='" + supplierInfo + '\'' +
                 ", expiryDate=" + expiryDate +
                 ", activeStatus=" + activeStatus +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -15,6 +15,7 @@ public class Patient {
     private Date firstVisitDate;
     private int primaryDoctorID;
     private boolean activeStatus;
+    private int version;
     
     /**
      * Default constructor
@@ -66,6 +67,9 @@ public class Patient {
     public boolean isActiveStatus() { return activeStatus; }
     public void setActiveStatus(boolean activeStatus) { this.activeStatus = activeStatus; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     @Override
     public String toString() {
         return "Patient{" +
@@ -78,6 +82,7 @@ public class Patient {
                 ", firstVisitDate=" + firstVisitDate +
                 ", primaryDoctorID=" + primaryDoctorID +
                 ", activeStatus=" + activeStatus +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
@@ -16,6 +16,7 @@ public class Staff {
     private Date hireDate;
     private String workingDays;
     private boolean activeStatus;
+    private int version;
     
     /**
      * Default constructor
@@ -71,6 +72,9 @@ public class Staff {
     public boolean isActiveStatus() { return activeStatus; }
     public void setActiveStatus(boolean activeStatus) { this.activeStatus = activeStatus; }
     
+    public int getVersion() { return version; }
+    public void setVersion(int version) { this.version = version; }
+    
     @Override
     public String toString() {
         return "Staff{" +
@@ -81,6 +85,7 @@ public class Staff {
                 ", phone='" + phone + '\'' +
                 ", email='" + email + '\'' +
                 ", activeStatus=" + activeStatus +
+                ", version=" + version +
                 '}';
     }
 }
\ No newline at end of file
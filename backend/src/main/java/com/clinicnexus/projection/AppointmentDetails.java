@@ -0,0 +1,19 @@
+package com.clinicnexus.projection;
+
+import java.sql.Date;
+import java.sql.Time;
+
+/**
+ * Appointment with the contact details of its patient and doctor
+ */
+public record AppointmentDetails(Visit appointment, PatientContact patient, DoctorContact doctor) {
+
+    public record Visit(int appointmentID, Date date, Time time, int duration, String visitType, String status, String notes) {
+    }
+
+    public record PatientContact(int patientID, String name, String phone, String email) {
+    }
+
+    public record DoctorContact(int doctorID, String name, String specialization, String phone) {
+    }
+}
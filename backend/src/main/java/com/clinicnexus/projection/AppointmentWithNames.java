@@ -0,0 +1,11 @@
+package com.clinicnexus.projection;
+
+import java.sql.Date;
+import java.sql.Time;
+
+/**
+ * Appointment row joined with patient and doctor names
+ */
+public record AppointmentWithNames(int appointmentID, String patientName, String doctorName, Date date, Time time,
+                                   int duration, String visitType, String status, String notes) {
+}
@@ -0,0 +1,9 @@
+package com.clinicnexus.projection;
+
+/**
+ * Report 5.2 row: one doctor's activity over a quarter
+ */
+public record DoctorPerformance(int doctorID, String doctorName, String specialization, int totalAppointments,
+                                int completedAppointments, int canceledAppointments, int uniquePatients,
+                                double averageRating, int totalFeedbacks, double totalRevenue, double successRate) {
+}
@@ -0,0 +1,11 @@
+package com.clinicnexus.projection;
+
+import java.sql.Date;
+
+/**
+ * Report 5.3 row: billing totals for one day
+ */
+public record FinancialOperations(Date reportDate, int totalBills, double totalRevenue, double averageRevenue,
+                                  double paidRevenue, double unpaidRevenue, int paidBills, int unpaidBills,
+                                  double paymentRate) {
+}
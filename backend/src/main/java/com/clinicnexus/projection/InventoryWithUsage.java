@@ -0,0 +1,16 @@
+package com.clinicnexus.projection;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.List;
+
+import com.clinicnexus.model.Inventory;
+
+/**
+ * Inventory item with its usage history, newest first
+ */
+public record InventoryWithUsage(Inventory inventory, List<Usage> usageHistory) {
+
+    public record Usage(int appointmentID, int quantityUsed, Date date, Time time, String patientName, String doctorName) {
+    }
+}
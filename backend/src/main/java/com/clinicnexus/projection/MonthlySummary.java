@@ -0,0 +1,23 @@
+package com.clinicnexus.projection;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clinic-wide totals for one month
+ * missingSections names the parts that failed or missed the deadline; their fields are zero or empty
+ */
+public record MonthlySummary(int year, int month,
+                             int totalAppointments, Map<String, Integer> appointmentsByStatus,
+                             Map<String, Integer> appointmentsByVisitType,
+                             double totalRevenue, double paidRevenue, double unpaidRevenue,
+                             int totalPatients, int newPatients, int returningPatients,
+                             double inventorySpend, List<TopDoctor> topDoctors,
+                             List<String> missingSections) {
+
+    /**
+     * Doctor ranked by completed visits in the month
+     */
+    public record TopDoctor(int staffID, String doctorName, int completedAppointments, double revenue) {
+    }
+}
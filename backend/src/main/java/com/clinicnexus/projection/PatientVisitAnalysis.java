@@ -0,0 +1,7 @@
+package com.clinicnexus.projection;
+
+/**
+ * Report 5.1 row: completed visits of one patient in one week
+ */
+public record PatientVisitAnalysis(int patientID, String patientName, int age, int weekNumber, int visitCount, String visitTypes) {
+}
@@ -0,0 +1,17 @@
+package com.clinicnexus.projection;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.List;
+
+import com.clinicnexus.model.Patient;
+
+/**
+ * Patient with their appointments, newest first
+ */
+public record PatientWithAppointments(Patient patient, List<Visit> appointments) {
+
+    public record Visit(int appointmentID, String doctorName, Date date, Time time, int duration,
+                        String visitType, String status, String notes) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.clinicnexus.projection;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Report 5.4 row: one inventory item's usage over a year.
+ * utilizationFrequency is only reported for equipment.
+ */
+public record ResourceUtilization(int itemID, String itemName, String itemType, String purpose, int currentStock,
+                                  int reorderThreshold, double unitPrice, int totalUsed, int appointmentsUsed,
+                                  double totalCost, double monthlyUsageRate, String stockStatus,
+                                  @JsonInclude(JsonInclude.Include.NON_NULL) Double utilizationFrequency) {
+}
@@ -0,0 +1,10 @@
+package com.clinicnexus.projection;
+
+import java.sql.Date;
+import java.sql.Time;
+
+/**
+ * One scheduled slot of a staff member; date and time are null when the member has nothing booked
+ */
+public record StaffScheduleEntry(int staffID, String name, String jobType, Date date, Time time) {
+}
@@ -0,0 +1,17 @@
+package com.clinicnexus.projection;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.List;
+
+import com.clinicnexus.model.Staff;
+
+/**
+ * Staff member with the appointments they attend, newest first
+ */
+public record StaffWithAppointments(Staff staff, List<Visit> appointments) {
+
+    public record Visit(int appointmentID, String patientName, Date date, Time time, int duration,
+                        String visitType, String status, String notes) {
+    }
+}
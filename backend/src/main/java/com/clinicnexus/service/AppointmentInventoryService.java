@@ -2,6 +2,7 @@ package com.clinicnexus.service;
 
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.clinicnexus.dao.AppointmentInventoryDAO;
@@ -9,11 +10,9 @@ import com.clinicnexus.model.AppointmentInventory;
 
 @Service
 public class AppointmentInventoryService {
-    private final AppointmentInventoryDAO appointmentInventoryDAO;
-
-    public AppointmentInventoryService() {
-        this.appointmentInventoryDAO = new AppointmentInventoryDAO();
-    }
+    
+    @Autowired
+    private AppointmentInventoryDAO appointmentInventoryDAO;
 
     public boolean createAppointmentInventory(AppointmentInventory appointmentInventory) {
         return appointmentInventoryDAO.addAppointmentInventory(appointmentInventory);
@@ -1,82 +1,138 @@
 package com.clinicnexus.service;
 
+import java.io.IOException;
 import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.PatientNameIndex;
+import com.clinicnexus.cache.StaffDirectory;
 import com.clinicnexus.dao.AppointmentDAO;
 import com.clinicnexus.model.Appointment;
+import com.clinicnexus.projection.AppointmentDetails;
+import com.clinicnexus.projection.AppointmentWithNames;
+import com.clinicnexus.util.AppointmentResult;
+import com.clinicnexus.util.Page;
+import com.clinicnexus.util.PageCursor;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 @Service
 public class AppointmentService {
-    private final AppointmentDAO appointmentDAO;
+    
+    @Autowired
+    private AppointmentDAO appointmentDAO;
+    
+    @Autowired
+    private AppointmentIntervalIndex appointmentIndex;
+    
+    @Autowired
+    private PatientNameIndex patientNameIndex;
+    
+    @Autowired
+    private StaffDirectory staffDirectory;
 
-    public AppointmentService() {
-        this.appointmentDAO = new AppointmentDAO();
-    }
-
-    public int createAppointment(Appointment appointment) {
-        return appointmentDAO.addAppointment(appointment);
-    }
+    @Autowired
+    private AppointmentTransactionService appointmentTransactionService;
 
     public Appointment getAppointment(int appointmentID) {
         return appointmentDAO.getAppointment(appointmentID);
     }
 
-    public boolean updateAppointment(Appointment appointment) {
-        return appointmentDAO.updateAppointment(appointment);
+    /**
+     * Save changes to an appointment; a new slot is checked and locked like a booking
+     * @see AppointmentTransactionService#updateAppointment(Appointment)
+     */
+    public UpdateResult updateAppointment(Appointment appointment) {
+        return appointmentTransactionService.updateAppointment(appointment);
     }
 
     public boolean deleteAppointment(int appointmentID) {
-        return appointmentDAO.deleteAppointment(appointmentID);
+        boolean deleted = appointmentDAO.deleteAppointment(appointmentID);
+        if (deleted) {
+            appointmentIndex.onAppointmentDeleted(appointmentID);
+        }
+        return deleted;
     }
 
     public List<Appointment> listAppointments(Date dateFilter, Integer doctorID, String statusFilter, String visitTypeFilter) {
         return appointmentDAO.getAppointmentList(dateFilter, doctorID, statusFilter, visitTypeFilter);
     }
 
-    public Map<String, Object> getAppointmentWithRelatedRecords(int appointmentID) {
+    public void streamAppointments(Date dateFilter, Integer doctorID, String statusFilter, String visitTypeFilter,
+                                   RowCallback<Appointment> callback) throws SQLException, IOException {
+        appointmentDAO.streamAppointments(dateFilter, doctorID, statusFilter, visitTypeFilter, callback);
+    }
+
+    /**
+     * List one page of appointments, newest first
+     * @param after Cursor returned with the previous page (null for the first page)
+     * @param limit Page size (null for default)
+     * @return Page of appointments
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Appointment> listAppointmentPage(Date dateFilter, Integer doctorID, String statusFilter, String visitTypeFilter,
+                                                 String after, Integer limit) {
+        Appointment last = null;
+        if (after != null) {
+            String[] key = PageCursor.decode(after, 3);
+            last = new Appointment();
+            last.setDate(Date.valueOf(key[0]));
+            last.setTime(Time.valueOf(key[1]));
+            last.setAppointmentID(Integer.parseInt(key[2]));
+        }
+        int pageSize = Page.clampLimit(limit);
+        List<Appointment> rows = appointmentDAO.getAppointmentPage(dateFilter, doctorID, statusFilter, visitTypeFilter, last, pageSize + 1);
+        return Page.of(rows, pageSize, a -> PageCursor.encode(a.getDate(), a.getTime(), a.getAppointmentID()));
+    }
+
+    public AppointmentDetails getAppointmentWithRelatedRecords(int appointmentID) {
         return appointmentDAO.getAppointmentWithRelatedRecords(appointmentID);
     }
     
-    public List<Map<String, Object>> getAppointmentsWithNames() {
+    public List<AppointmentWithNames> getAppointmentsWithNames() {
         return appointmentDAO.getAppointmentsWithNames();
     }
+
+    public void streamAppointmentsWithNames(RowCallback<AppointmentWithNames> callback) throws SQLException, IOException {
+        appointmentDAO.streamAppointmentsWithNames(callback);
+    }
     
-    public int createAppointmentWithNames(String patientName, String doctorName, String date, 
-                                         String time, Integer duration, String visitType, 
-                                         String status, String notes) {
+    /**
+     * Create an appointment from patient and doctor names
+     * Names resolve through the in-memory name indexes; a name that matches no one,
+     * or more than one person, fails with a message listing the candidate IDs.
+     * The appointment is then booked like any other, starting as "Not Done"
+     * @return AppointmentResult with the new ID, or the reason it was not created
+     */
+    public AppointmentResult createAppointmentWithNames(String patientName, String doctorName, String date, 
+                                                        String time, Integer duration, String visitType, 
+                                                        String notes) {
         try {
             // Validate required fields
             if (patientName == null || patientName.trim().isEmpty()) {
-                System.err.println("Patient name is required");
-                return -1;
+                return new AppointmentResult(false, -1, "Patient name is required");
             }
             if (doctorName == null || doctorName.trim().isEmpty()) {
-                System.err.println("Doctor name is required");
-                return -1;
+                return new AppointmentResult(false, -1, "Doctor name is required");
             }
             if (date == null || date.trim().isEmpty()) {
-                System.err.println("Date is required");
-                return -1;
+                return new AppointmentResult(false, -1, "Date is required");
             }
             if (time == null || time.trim().isEmpty()) {
-                System.err.println("Time is required");
-                return -1;
+                return new AppointmentResult(false, -1, "Time is required");
             }
             if (duration == null || duration <= 0) {
-                System.err.println("Duration must be greater than 0");
-                return -1;
+                return new AppointmentResult(false, -1, "Duration must be greater than 0");
             }
             if (visitType == null || visitType.trim().isEmpty()) {
-                System.err.println("Visit type is required");
-                return -1;
-            }
-            if (status == null || status.trim().isEmpty()) {
-                System.err.println("Status is required");
-                return -1;
+                return new AppointmentResult(false, -1, "Visit type is required");
             }
             
             // Convert string date and time to Date and Time objects
@@ -89,14 +145,31 @@ public class AppointmentService {
             }
             java.sql.Time sqlTime = java.sql.Time.valueOf(timeWithSeconds);
             
-            return appointmentDAO.addAppointmentWithNames(patientName, doctorName, sqlDate, sqlTime, duration, visitType, status, notes);
+            int[] patientIDs = patientNameIndex.getPatientIds(patientName);
+            if (patientIDs.length != 1) {
+                return new AppointmentResult(false, -1, nameProblem("patient", patientName, patientIDs));
+            }
+            int[] doctorIDs = staffDirectory.getStaffIdsByName(doctorName, "Doctor");
+            if (doctorIDs.length != 1) {
+                return new AppointmentResult(false, -1, nameProblem("doctor", doctorName, doctorIDs));
+            }
+            
+            Appointment appointment = new Appointment(0, patientIDs[0], doctorIDs[0], sqlDate, sqlTime, duration, visitType, "Not Done", notes);
+            return appointmentTransactionService.scheduleAppointment(appointment);
         } catch (IllegalArgumentException e) {
             System.err.println("Invalid date or time format: " + e.getMessage());
-            return -1;
+            return new AppointmentResult(false, -1, "Invalid date or time format");
         } catch (Exception e) {
             System.err.println("Error creating appointment with names: " + e.getMessage());
             e.printStackTrace();
-            return -1;
+            return new AppointmentResult(false, -1, "Error creating appointment");
+        }
+    }
+    
+    private static String nameProblem(String role, String name, int[] ids) {
+        if (ids.length == 0) {
+            return "No " + role + " named '" + name + "'";
         }
+        return "Ambiguous " + role + " name '" + name + "' matches IDs " + Arrays.toString(ids);
     }
 } 
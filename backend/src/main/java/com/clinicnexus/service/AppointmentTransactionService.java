@@ -5,21 +5,23 @@ import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLTransientException;
 import java.sql.Statement;
-import java.sql.Time;
-import java.util.ArrayList;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.clinicnexus.config.DatabaseConnection;
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.StaffDirectory;
 import com.clinicnexus.dao.AppointmentDAO;
-import com.clinicnexus.dao.PatientDAO;
-import com.clinicnexus.dao.StaffDAO;
+import com.clinicnexus.dao.ReportRollups;
+import com.clinicnexus.dao.TransactionRunner;
 import com.clinicnexus.model.Appointment;
+import com.clinicnexus.model.Staff;
 import com.clinicnexus.util.AppointmentResult;
+import com.clinicnexus.util.UpdateResult;
+import com.clinicnexus.util.WorkingDays;
 
 /**
  * Transaction service for appointment scheduling operations
@@ -28,161 +30,249 @@ import com.clinicnexus.util.AppointmentResult;
 @Service
 public class AppointmentTransactionService {
     
+    @Autowired
+    private TransactionRunner transactionRunner;
+    
+    @Autowired
     private AppointmentDAO appointmentDAO;
-    private PatientDAO patientDAO;
-    private StaffDAO staffDAO;
     
-    public AppointmentTransactionService() {
-        this.appointmentDAO = new AppointmentDAO();
-        this.patientDAO = new PatientDAO();
-        this.staffDAO = new StaffDAO();
-    }
+    @Autowired
+    private AppointmentIntervalIndex appointmentIndex;
+    
+    @Autowired
+    private StaffDirectory staffDirectory;
+    
+    @Autowired
+    private AvailabilityService availabilityService;
+    
+    /**
+     * Conflict predicate shared by the guarded insert and the rejection diagnosis:
+     * an active appointment other than the one being saved (0 for a new one)
+     * overlapping [time, time + duration)
+     */
+    private static final String CONFLICT_PREDICATE =
+        "a.DoctorID = ? AND a.Date = ? AND a.Status != 'Canceled' AND a.AppointmentID <> ? " +
+        "AND TIME_TO_SEC(a.Time) < ? AND TIME_TO_SEC(a.Time) + COALESCE(NULLIF(a.Duration, 0), ?) * 60 > ?";
+    
+    /**
+     * Inserts only when the patient is active, the doctor is an active doctor whose WorkingDays
+     * still hold the value checked against the appointment's weekday, and no active appointment
+     * overlaps; otherwise inserts nothing. WorkingDays is free text, so the weekday itself is
+     * checked in Java with WorkingDays.parse
+     */
+    private static final String GUARDED_INSERT_SQL =
+        "INSERT INTO Appointment (PatientID, DoctorID, Date, Time, Duration, VisitType, Status, Notes) " +
+        "SELECT p.PatientID, s.StaffID, ?, ?, ?, ?, 'Not Done', ? " +
+        "FROM Patient p JOIN Staff s ON s.StaffID = ? AND s.JobType = 'Doctor' AND s.ActiveStatus = true AND s.WorkingDays = ? " +
+        "WHERE p.PatientID = ? AND p.ActiveStatus = true " +
+        "AND NOT EXISTS (SELECT 1 FROM Appointment a WHERE " + CONFLICT_PREDICATE + ")";
+    
+    /**
+     * Confirms a conflict reported by the node-local interval index, which can be up to its TTL
+     * stale when another instance canceled or moved the appointment; a plain read, no lock
+     */
+    private static final String CONFLICT_SQL =
+        "SELECT 1 FROM Appointment a WHERE " + CONFLICT_PREDICATE + " LIMIT 1";
+    
+    private static final String REJECTION_SQL =
+        "SELECT (SELECT COUNT(*) FROM Appointment a WHERE " + CONFLICT_PREDICATE + ") AS Conflicts, " +
+        "(SELECT WorkingDays FROM Staff WHERE StaffID = ? AND JobType = 'Doctor' AND ActiveStatus = true) AS WorkingDays, " +
+        "(SELECT COUNT(*) FROM Patient WHERE PatientID = ? AND ActiveStatus = true) AS ActivePatients";
+    
+    /**
+     * Locks the doctor's calendar row for the day, creating it on first booking
+     */
+    private static final String LOCK_CALENDAR_SQL =
+        "INSERT INTO DoctorCalendar (DoctorID, Date) VALUES (?, ?) ON DUPLICATE KEY UPDATE LastBookedAt = CURRENT_TIMESTAMP";
+    
+    private static final String CURRENT_BOOKING_SQL =
+        "SELECT PatientID, DoctorID, Date, Time, Duration, Status FROM Appointment WHERE AppointmentID = ?";
     
     /**
      * Schedule a new appointment with full validation
+     * The doctor-day calendar row is locked first, so concurrent bookings for the same doctor
+     * and day are serialized even across application instances. Validation, conflict check
+     * and insert are then one guarded INSERT ... SELECT, followed by the billing INSERT
      * @param appointment Appointment object with details
-     * @return AppointmentResult with success status and appointment ID
+     * @return AppointmentResult with success status and the created appointment
      */
     public AppointmentResult scheduleAppointment(Appointment appointment) {
-        Connection conn = null;
+        if (appointment.getDate() == null || appointment.getTime() == null) {
+            return new AppointmentResult(false, -1, "Date and time are required");
+        }
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
+            int duration = appointment.getDuration() > 0 ? appointment.getDuration() : Appointment.DEFAULT_DURATION;
+            Appointment booked = new Appointment(0, appointment.getPatientID(), appointment.getDoctorID(),
+                                                 appointment.getDate(), appointment.getTime(), duration,
+                                                 appointment.getVisitType(), "Not Done", appointment.getNotes());
             
-            // Step 1: Check doctor availability
-            if (!isDoctorAvailable(conn, appointment.getDoctorID(), appointment.getDate(), appointment.getTime())) {
+            // Step 1: Reject unknown or inactive doctors and days they do not work before touching the database;
+            // an overlap in the local index is only a hint, confirmed with one read before rejecting
+            Staff doctor = staffDirectory.isBookableDoctor(booked.getDoctorID()) ? staffDirectory.getStaff(booked.getDoctorID()) : null;
+            if (doctor == null || !worksOn(doctor.getWorkingDays(), booked.getDate())
+                    || (appointmentIndex.hasConflict(booked.getDoctorID(), booked.getDate(), booked.getTime(), duration, null)
+                        && confirmConflict(booked))) {
                 throw new SQLException("Doctor is not available at the requested time");
             }
             
-            // Step 2: Validate patient exists and is active
-            if (!isPatientValid(conn, appointment.getPatientID())) {
-                throw new SQLException("Patient does not exist or is inactive");
-            }
-            
-            // Step 3: Validate doctor exists and is active
-            if (!isDoctorValid(conn, appointment.getDoctorID())) {
-                throw new SQLException("Doctor does not exist or is inactive");
-            }
-            
-            // Step 4: Create appointment record
-            int appointmentID = createAppointmentRecord(conn, appointment);
-            if (appointmentID == -1) {
-                throw new SQLException("Failed to create appointment record");
-            }
-            
-            // Step 5: Create initial billing record
-            createInitialBillingRecord(conn, appointmentID, appointment.getVisitType());
-            
-            // Step 6: Update doctor calendar (mark timeslot as booked)
-            updateDoctorCalendar(conn, appointment.getDoctorID(), appointment.getDate(), appointment.getTime());
+            int appointmentID = transactionRunner.inTransaction("scheduleAppointment", conn -> {
+                // Step 2: Lock the doctor's calendar for the day (held until commit or rollback)
+                lockDoctorCalendar(conn, booked.getDoctorID(), booked.getDate());
+                
+                // Step 3: Validate patient, doctor and availability while inserting; the database remains the final arbiter
+                int id = insertIfBookable(conn, booked, doctor.getWorkingDays());
+                if (id == -1) {
+                    throw new SQLException(explainRejection(conn, booked));
+                }
+                
+                // Step 4: Create initial billing record
+                createInitialBillingRecord(conn, id, booked);
+                return id;
+            });
+            booked.setAppointmentID(appointmentID);
+            appointmentIndex.onAppointmentSaved(booked);
             
-            // Step 7: Send notification to patient
-            sendPatientNotification(conn, appointment.getPatientID(), appointmentID, appointment);
+            // Step 5: Send notification to patient
+            sendPatientNotification(booked);
             
-            conn.commit();
-            return new AppointmentResult(true, appointmentID, "Appointment scheduled successfully");
+            return new AppointmentResult(true, booked, "Appointment scheduled successfully");
             
         } catch (SQLException e) {
-            try {
-                if (conn != null) {
-                    conn.rollback();
-                }
-            } catch (SQLException rollbackEx) {
-                System.err.println("Rollback error: " + rollbackEx.getMessage());
-            }
             System.err.println("Error scheduling appointment: " + e.getMessage());
             return new AppointmentResult(false, -1, e.getMessage());
-        } finally {
-            try {
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
-            }
         }
     }
     
     /**
-     * Check if doctor is available at specified time
-     * @param conn Database connection
-     * @param doctorID Doctor ID
-     * @param date Appointment date
-     * @param time Appointment time
-     * @return true if available, false otherwise
+     * Save changes to an existing appointment
+     * When the patient, doctor, date, time or duration change, or a canceled appointment is
+     * reactivated, the new slot goes through the same checks as a booking: the doctor-day
+     * calendar row is locked, then patient, doctor and overlaps (ignoring the appointment's own
+     * interval) are checked before the versioned update. Other edits, such as marking an
+     * appointment done or canceling it, go straight to the versioned update
+     * @param appointment Appointment with its ID, the client's Version and the new values
+     * @return UPDATED, CONFLICT or NOT_FOUND as for any versioned update, REJECTED with the reason,
+     *         BUSY if no connection or lock could be had in time, or ERROR for any other database failure
      */
-    private boolean isDoctorAvailable(Connection conn, int doctorID, Date date, Time time) throws SQLException {
-        // Check for existing appointments at the same time
-        String sql = "SELECT COUNT(*) FROM Appointment WHERE DoctorID = ? AND Date = ? AND Time = ? AND Status != 'Canceled'";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, doctorID);
-            pstmt.setDate(2, date);
-            pstmt.setTime(3, time);
-            
-            ResultSet rs = pstmt.executeQuery();
-            if (rs.next() && rs.getInt(1) > 0) {
-                return false; // Doctor has existing appointment
-            }
+    public UpdateResult updateAppointment(Appointment appointment) {
+        if (appointment.getDate() == null || appointment.getTime() == null) {
+            return UpdateResult.rejected("Date and time are required");
         }
-        
-        // Check if doctor is working on this day
-        String workingDaysSql = "SELECT WorkingDays FROM Staff WHERE StaffID = ? AND JobType = 'Doctor' AND ActiveStatus = true";
-        try (PreparedStatement pstmt = conn.prepareStatement(workingDaysSql)) {
-            pstmt.setInt(1, doctorID);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                String workingDays = rs.getString("WorkingDays");
-                // Simple check - in real implementation, you'd parse working days and check against appointment date
-                return workingDays != null && !workingDays.trim().isEmpty();
+        if (appointment.getDuration() <= 0) {
+            appointment.setDuration(Appointment.DEFAULT_DURATION);
+        }
+        try {
+            UpdateResult result = transactionRunner.inTransaction("updateAppointment", conn -> {
+                Appointment current = currentBooking(conn, appointment.getAppointmentID());
+                if (current == null) {
+                    return UpdateResult.notFound();
+                }
+                if (!appointment.isCanceled() && !sameBooking(current, appointment)) {
+                    lockDoctorCalendar(conn, appointment.getDoctorID(), appointment.getDate());
+                    String reason = rejectionReason(conn, appointment, appointment.getAppointmentID());
+                    if (reason != null) {
+                        return UpdateResult.rejected(reason);
+                    }
+                }
+                return appointmentDAO.updateAppointment(conn, appointment);
+            });
+            if (result.isUpdated()) {
+                appointment.setVersion(result.getVersion());
+                appointmentIndex.onAppointmentSaved(appointment);
             }
+            return result;
+        } catch (SQLTransientException e) {
+            System.err.println("Error updating appointment: " + e.getMessage());
+            return UpdateResult.busy(e.getMessage());
+        } catch (SQLException e) {
+            System.err.println("Error updating appointment: " + e.getMessage());
+            return UpdateResult.error(e.getMessage());
         }
-        
-        return false;
     }
     
     /**
-     * Validate if patient exists and is active
+     * Read the booking fields of an appointment as they are before the update
+     * @return Appointment with those fields set, or null if it does not exist
      */
-    private boolean isPatientValid(Connection conn, int patientID) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM Patient WHERE PatientID = ? AND ActiveStatus = true";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, patientID);
+    private Appointment currentBooking(Connection conn, int appointmentID) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(CURRENT_BOOKING_SQL)) {
+            pstmt.setInt(1, appointmentID);
             ResultSet rs = pstmt.executeQuery();
-            return rs.next() && rs.getInt(1) > 0;
+            if (!rs.next()) {
+                return null;
+            }
+            Appointment current = new Appointment();
+            current.setPatientID(rs.getInt("PatientID"));
+            current.setDoctorID(rs.getInt("DoctorID"));
+            current.setDate(rs.getDate("Date"));
+            current.setTime(rs.getTime("Time"));
+            current.setDuration(rs.getInt("Duration"));
+            current.setStatus(rs.getString("Status"));
+            return current;
         }
     }
     
     /**
-     * Validate if doctor exists and is active
+     * True if the update keeps an active appointment in the slot it already holds
      */
-    private boolean isDoctorValid(Connection conn, int doctorID) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM Staff WHERE StaffID = ? AND JobType = 'Doctor' AND ActiveStatus = true";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+    private static boolean sameBooking(Appointment current, Appointment updated) {
+        return !current.isCanceled()
+            && current.getPatientID() == updated.getPatientID()
+            && current.getDoctorID() == updated.getDoctorID()
+            && updated.getDate().equals(current.getDate())
+            && updated.getTime().equals(current.getTime())
+            && current.getDuration() == updated.getDuration();
+    }
+    
+    /**
+     * Lock the doctor's calendar row for the day
+     * The upsert takes an exclusive row lock even when the row already exists, and InnoDB
+     * releases it only at commit or rollback
+     */
+    private void lockDoctorCalendar(Connection conn, int doctorID, Date date) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(LOCK_CALENDAR_SQL)) {
             pstmt.setInt(1, doctorID);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() && rs.getInt(1) > 0;
+            pstmt.setDate(2, date);
+            pstmt.executeUpdate();
+        }
+    }
+    
+    /**
+     * Check an overlap the interval index reported against the database; a stale day is
+     * evicted so the index reloads it, and the guarded insert still decides the booking
+     * @return true if an active appointment really overlaps
+     */
+    private boolean confirmConflict(Appointment appointment) throws SQLException {
+        boolean conflict = transactionRunner.inTransaction("confirmConflict", conn -> {
+            try (PreparedStatement pstmt = conn.prepareStatement(CONFLICT_SQL)) {
+                bindConflict(pstmt, 1, appointment, 0);
+                return pstmt.executeQuery().next();
+            }
+        });
+        if (!conflict) {
+            appointmentIndex.evictDate(appointment.getDate());
         }
+        return conflict;
     }
     
     /**
-     * Create appointment record in database
+     * Insert the appointment if the patient and doctor are valid and the slot is free
+     * @param workingDays Doctor's WorkingDays as checked against the appointment's weekday
+     * @return Generated appointment ID, or -1 if the guard matched nothing
      */
-    private int createAppointmentRecord(Connection conn, Appointment appointment) throws SQLException {
-        String sql = "INSERT INTO Appointment (PatientID, DoctorID, Date, Time, Duration, VisitType, Status, Notes) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
-            pstmt.setInt(1, appointment.getPatientID());
-            pstmt.setInt(2, appointment.getDoctorID());
-            pstmt.setDate(3, appointment.getDate());
-            pstmt.setTime(4, appointment.getTime());
-            pstmt.setInt(5, appointment.getDuration() > 0 ? appointment.getDuration() : 30); // Default 30 minutes
-            pstmt.setString(6, appointment.getVisitType());
-            pstmt.setString(7, "Not Done"); // Default status
-            pstmt.setString(8, appointment.getNotes());
+    private int insertIfBookable(Connection conn, Appointment appointment, String workingDays) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(GUARDED_INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+            pstmt.setDate(1, appointment.getDate());
+            pstmt.setTime(2, appointment.getTime());
+            pstmt.setInt(3, appointment.getDuration());
+            pstmt.setString(4, appointment.getVisitType());
+            pstmt.setString(5, appointment.getNotes());
+            pstmt.setInt(6, appointment.getDoctorID());
+            pstmt.setString(7, workingDays);
+            pstmt.setInt(8, appointment.getPatientID());
+            bindConflict(pstmt, 9, appointment, 0);
             
-            int affectedRows = pstmt.executeUpdate();
-            if (affectedRows > 0) {
+            if (pstmt.executeUpdate() > 0) {
                 ResultSet rs = pstmt.getGeneratedKeys();
                 if (rs.next()) {
                     return rs.getInt(1);
@@ -193,16 +283,79 @@ public class AppointmentTransactionService {
     }
     
     /**
-     * Create initial billing record for the appointment
+     * Work out why the guarded insert matched nothing; only runs on the failure path
+     * @return Error message for the caller
+     */
+    private String explainRejection(Connection conn, Appointment appointment) throws SQLException {
+        String reason = rejectionReason(conn, appointment, 0);
+        if (reason == null) {
+            // Nothing wrong with the row as stored, so the cached WorkingDays were out of date
+            staffDirectory.invalidate();
+            return "Doctor's working days have changed, try again";
+        }
+        return reason;
+    }
+    
+    /**
+     * Check the patient, the doctor and the slot for an appointment being saved
+     * @param excludeAppointmentID Appointment whose own interval is ignored, 0 for a new one
+     * @return Why it cannot be booked, or null if it can
+     */
+    private String rejectionReason(Connection conn, Appointment appointment, int excludeAppointmentID) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(REJECTION_SQL)) {
+            int index = bindConflict(pstmt, 1, appointment, excludeAppointmentID);
+            pstmt.setInt(index++, appointment.getDoctorID());
+            pstmt.setInt(index, appointment.getPatientID());
+            
+            ResultSet rs = pstmt.executeQuery();
+            if (rs.next()) {
+                if (rs.getInt("Conflicts") > 0 || !worksOn(rs.getString("WorkingDays"), appointment.getDate())) {
+                    return "Doctor is not available at the requested time";
+                }
+                if (rs.getInt("ActivePatients") == 0) {
+                    return "Patient does not exist or is inactive";
+                }
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * @param workingDays Doctor's WorkingDays; null or blank means no working days
+     * @return true if the date falls on one of them
      */
-    private void createInitialBillingRecord(Connection conn, int appointmentID, String visitType) throws SQLException {
-        double amount = calculateAppointmentFee(visitType);
+    private static boolean worksOn(String workingDays, Date date) {
+        return WorkingDays.parse(workingDays).contains(date.toLocalDate().getDayOfWeek());
+    }
+    
+    /**
+     * Bind the CONFLICT_PREDICATE parameters starting at the given index
+     * @return Next free parameter index
+     */
+    private int bindConflict(PreparedStatement pstmt, int index, Appointment appointment, int excludeAppointmentID) throws SQLException {
+        int startSeconds = appointment.getTime().toLocalTime().toSecondOfDay();
+        pstmt.setInt(index++, appointment.getDoctorID());
+        pstmt.setDate(index++, appointment.getDate());
+        pstmt.setInt(index++, excludeAppointmentID);
+        pstmt.setInt(index++, startSeconds + appointment.getDuration() * 60);
+        pstmt.setInt(index++, Appointment.DEFAULT_DURATION);
+        pstmt.setInt(index++, startSeconds);
+        return index;
+    }
+    
+    /**
+     * Create initial billing record for the appointment and add both to the report rollups
+     */
+    private void createInitialBillingRecord(Connection conn, int appointmentID, Appointment booked) throws SQLException {
+        double amount = calculateAppointmentFee(booked.getVisitType());
         String sql = "INSERT INTO Billing (AppointmentID, Amount, Paid) VALUES (?, ?, false)";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setInt(1, appointmentID);
             pstmt.setDouble(2, amount);
             pstmt.executeUpdate();
         }
+        ReportRollups.apply(conn, ReportRollups.NONE, List.of(ReportRollups.newAppointment(
+            booked.getDoctorID(), booked.getPatientID(), booked.getDate(), booked.getStatus(), amount)));
     }
     
     /**
@@ -217,76 +370,22 @@ public class AppointmentTransactionService {
         }
     }
     
-    /**
-     * Update doctor calendar (placeholder for calendar management)
-     */
-    private void updateDoctorCalendar(Connection conn, int doctorID, Date date, Time time) throws SQLException {
-        // In a real implementation, this would update a calendar/schedule table
-        // For now, we'll just log the booking
-        System.out.println("Doctor " + doctorID + " calendar updated for " + date + " at " + time);
-    }
-    
     /**
      * Send notification to patient (placeholder for notification system)
+     * Runs after commit; a real sender would look up contact details outside the booking transaction
      */
-    private void sendPatientNotification(Connection conn, int patientID, int appointmentID, Appointment appointment) throws SQLException {
-        // Get patient contact info
-        String sql = "SELECT Name, Phone, Email FROM Patient WHERE PatientID = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, patientID);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                String patientName = rs.getString("Name");
-                String phone = rs.getString("Phone");
-                String email = rs.getString("Email");
-                
-                // Placeholder for actual notification sending
-                System.out.println("Notification sent to " + patientName + " (" + email + "):");
-                System.out.println("Appointment ID: " + appointmentID);
-                System.out.println("Date: " + appointment.getDate() + " at " + appointment.getTime());
-                System.out.println("Visit Type: " + appointment.getVisitType());
-            }
-        }
+    private void sendPatientNotification(Appointment appointment) {
+        System.out.println("Notification queued for patient " + appointment.getPatientID() + ":");
+        System.out.println("Appointment ID: " + appointment.getAppointmentID());
+        System.out.println("Date: " + appointment.getDate() + " at " + appointment.getTime());
+        System.out.println("Visit Type: " + appointment.getVisitType());
     }
     
     /**
      * Get available time slots for a doctor on a specific date
+     * Slots are 30-minute starts within clinic hours that do not overlap any booked interval
      */
     public List<String> getAvailableTimeSlots(int doctorID, Date date) {
-        List<String> availableSlots = new ArrayList<>();
-        
-        // Standard working hours (9 AM to 5 PM)
-        String[] standardSlots = {
-            "09:00:00", "09:30:00", "10:00:00", "10:30:00", "11:00:00", "11:30:00",
-            "13:00:00", "13:30:00", "14:00:00", "14:30:00", "15:00:00", "15:30:00", "16:00:00", "16:30:00"
-        };
-        
-        try (Connection conn = DatabaseConnection.getConnection()) {
-            String sql = "SELECT Time FROM Appointment WHERE DoctorID = ? AND Date = ? AND Status != 'Canceled'";
-            Set<String> bookedSlots = new HashSet<>();
-            
-            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                pstmt.setInt(1, doctorID);
-                pstmt.setDate(2, date);
-                ResultSet rs = pstmt.executeQuery();
-                
-                while (rs.next()) {
-                    bookedSlots.add(rs.getTime("Time").toString());
-                }
-            }
-            
-            // Filter out booked slots
-            for (String slot : standardSlots) {
-                if (!bookedSlots.contains(slot)) {
-                    availableSlots.add(slot);
-                }
-            }
-            
-        } catch (SQLException e) {
-            System.err.println("Error getting available time slots: " + e.getMessage());
-        }
-        
-        return availableSlots;
+        return availabilityService.getOpenStartTimes(doctorID, date.toLocalDate(), Appointment.DEFAULT_DURATION, 30);
     }
 }
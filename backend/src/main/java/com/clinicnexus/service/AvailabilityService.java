@@ -0,0 +1,208 @@
+package com.clinicnexus.service;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.StaffDirectory;
+import com.clinicnexus.model.Appointment;
+import com.clinicnexus.model.Staff;
+import com.clinicnexus.util.AvailableSlot;
+import com.clinicnexus.util.WorkingDays;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Finds open appointment slots across doctors and dates.
+ * Each doctor-day is represented as a minute-of-day bitmap of free time,
+ * built from clinic hours, Staff.WorkingDays and the booked intervals
+ * held by the appointment interval index.
+ * Doctors are scanned in parallel on a small pool of its own rather than the common
+ * ForkJoinPool, since a day missing from the index is read from the database.
+ */
+@Service
+public class AvailabilityService {
+
+    private static final int MINUTES_PER_DAY = 24 * 60;
+
+    /** Slots start on this minute boundary */
+    public static final int SLOT_STEP = 15;
+
+    /** Clinic hours: 09:00-12:00 and 13:00-17:00 */
+    private static final BitSet CLINIC_HOURS = new BitSet(MINUTES_PER_DAY);
+    static {
+        CLINIC_HOURS.set(9 * 60, 12 * 60);
+        CLINIC_HOURS.set(13 * 60, 17 * 60);
+    }
+
+    private static final Comparator<AvailableSlot> EARLIEST_FIRST =
+        Comparator.comparing(AvailableSlot::getDate)
+                  .thenComparing(AvailableSlot::getTime)
+                  .thenComparingInt(AvailableSlot::getDoctorID);
+
+    @Autowired
+    private StaffDirectory staffDirectory;
+
+    @Autowired
+    private AppointmentIntervalIndex appointmentIndex;
+
+    @Value("${clinic.availability.threads:4}")
+    private int threads;
+
+    private ExecutorService scanExecutor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger count = new AtomicInteger();
+        scanExecutor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "availability-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        scanExecutor.shutdownNow();
+    }
+
+    /**
+     * Find the earliest open slots across all active doctors of a specialization
+     * @param specialization Specialization filter (null for all doctors)
+     * @param startDate First date to search
+     * @param horizonDays Number of days to search, including startDate
+     * @param duration Visit duration in minutes
+     * @param count Maximum number of slots to return
+     * @return Slots ordered by date, time and doctor
+     */
+    public List<AvailableSlot> findEarliestSlots(String specialization, LocalDate startDate, int horizonDays, int duration, int count) {
+        if (horizonDays <= 0 || count <= 0) {
+            return new ArrayList<>();
+        }
+        int visitLength = duration > 0 ? duration : Appointment.DEFAULT_DURATION;
+        LocalDate endDate = startDate.plusDays(horizonDays - 1L);
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Staff> doctors = staffDirectory.getActiveDoctors(specialization);
+
+        // One query for every uncached day, so the parallel scan below normally stays in memory
+        appointmentIndex.preload(startDate, endDate);
+
+        List<CompletableFuture<List<AvailableSlot>>> scans = doctors.stream()
+            .map(doctor -> CompletableFuture.supplyAsync(() -> findDoctorSlots(doctor, startDate, endDate, visitLength, count, now), scanExecutor))
+            .collect(Collectors.toList());
+        return scans.stream()
+                    .flatMap(scan -> scan.join().stream())
+                    .sorted(EARLIEST_FIRST)
+                    .limit(count)
+                    .collect(Collectors.toList());
+    }
+
+    /**
+     * Get open slot start times for one doctor on one date
+     * @param doctorID Doctor ID
+     * @param date Date to check
+     * @param duration Visit duration in minutes
+     * @param step Minutes between candidate start times
+     * @return Start times in HH:mm:ss form; empty for a past date, a day the doctor does not work
+     *         or a doctor who cannot be booked, and only times still ahead for today
+     */
+    public List<String> getOpenStartTimes(int doctorID, LocalDate date, int duration, int step) {
+        List<String> times = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        Staff doctor = staffDirectory.isBookableDoctor(doctorID) ? staffDirectory.getStaff(doctorID) : null;
+        if (doctor == null || date.isBefore(now.toLocalDate())
+                || !WorkingDays.parse(doctor.getWorkingDays()).contains(date.getDayOfWeek())) {
+            return times;
+        }
+        BitSet free = freeMinutes(doctorID, date, date.equals(now.toLocalDate()) ? now.toLocalTime() : null);
+        forEachFit(free, duration, step, start -> {
+            times.add(LocalTime.ofSecondOfDay(start * 60L).toString() + ":00");
+            return true;
+        });
+        return times;
+    }
+
+    /**
+     * Scan one doctor's horizon, stopping once 'count' slots are found
+     */
+    private List<AvailableSlot> findDoctorSlots(Staff doctor, LocalDate startDate, LocalDate endDate,
+                                                int duration, int count, LocalDateTime now) {
+        List<AvailableSlot> slots = new ArrayList<>();
+        Set<DayOfWeek> workingDays = WorkingDays.parse(doctor.getWorkingDays());
+
+        for (LocalDate date = startDate; !date.isAfter(endDate) && slots.size() < count; date = date.plusDays(1)) {
+            if (!workingDays.contains(date.getDayOfWeek()) || date.isBefore(now.toLocalDate())) {
+                continue;
+            }
+
+            BitSet free = freeMinutes(doctor.getStaffID(), date, date.equals(now.toLocalDate()) ? now.toLocalTime() : null);
+            Date sqlDate = Date.valueOf(date);
+            forEachFit(free, duration, SLOT_STEP, start -> {
+                slots.add(new AvailableSlot(doctor.getStaffID(), doctor.getName(), doctor.getSpecialization(),
+                                            sqlDate, Time.valueOf(LocalTime.ofSecondOfDay(start * 60L)), duration));
+                return slots.size() < count;
+            });
+        }
+
+        return slots;
+    }
+
+    /**
+     * Build the free-minute bitmap for a doctor-day
+     * @param notBefore Earliest usable time (null for the whole day)
+     */
+    private BitSet freeMinutes(int doctorID, LocalDate date, LocalTime notBefore) {
+        BitSet free = (BitSet) CLINIC_HOURS.clone();
+        if (notBefore != null) {
+            free.clear(0, notBefore.toSecondOfDay() / 60 + 1);
+        }
+        for (int[] interval : appointmentIndex.getBookedIntervals(doctorID, date)) {
+            free.clear(interval[0], Math.min(interval[1], MINUTES_PER_DAY));
+        }
+        return free;
+    }
+
+    /**
+     * Visit every step-aligned start whose [start, start + duration) is entirely free.
+     * Walks runs of set bits, so cost is proportional to the number of free runs.
+     */
+    private static void forEachFit(BitSet free, int duration, int step, SlotVisitor visitor) {
+        int runStart = free.nextSetBit(0);
+        while (runStart >= 0) {
+            int runEnd = free.nextClearBit(runStart);
+            int start = ((runStart + step - 1) / step) * step;
+            for (; start + duration <= runEnd; start += step) {
+                if (!visitor.visit(start)) {
+                    return;
+                }
+            }
+            runStart = free.nextSetBit(runEnd);
+        }
+    }
+
+    @FunctionalInterface
+    private interface SlotVisitor {
+        /** @return false to stop scanning */
+        boolean visit(int startMinute);
+    }
+}
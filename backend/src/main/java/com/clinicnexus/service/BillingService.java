@@ -1,19 +1,24 @@
 package com.clinicnexus.service;
 
+import java.io.IOException;
+import java.sql.SQLException;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.clinicnexus.dao.BillingDAO;
 import com.clinicnexus.model.Billing;
+import com.clinicnexus.util.Page;
+import com.clinicnexus.util.PageCursor;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 @Service
 public class BillingService {
-    private final BillingDAO billingDAO;
-
-    public BillingService() {
-        this.billingDAO = new BillingDAO();
-    }
+    
+    @Autowired
+    private BillingDAO billingDAO;
 
     public int createBilling(Billing billing) {
         return billingDAO.addBilling(billing);
@@ -23,7 +28,7 @@ public class BillingService {
         return billingDAO.getBilling(billingID);
     }
 
-    public boolean updateBilling(Billing billing) {
+    public UpdateResult updateBilling(Billing billing) {
         return billingDAO.updateBilling(billing);
     }
 
@@ -35,6 +40,24 @@ public class BillingService {
         return billingDAO.getBillingList(appointmentID, paidFilter);
     }
 
+    public void streamBilling(Integer appointmentID, Boolean paidFilter, RowCallback<Billing> callback) throws SQLException, IOException {
+        billingDAO.streamBilling(appointmentID, paidFilter, callback);
+    }
+
+    /**
+     * List one page of billing records, newest first
+     * @param after Cursor returned with the previous page (null for the first page)
+     * @param limit Page size (null for default)
+     * @return Page of billing records
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Billing> listBillingPage(Integer appointmentID, Boolean paidFilter, String after, Integer limit) {
+        Integer lastID = after != null ? Integer.valueOf(PageCursor.decode(after, 1)[0]) : null;
+        int pageSize = Page.clampLimit(limit);
+        List<Billing> rows = billingDAO.getBillingPage(appointmentID, paidFilter, lastID, pageSize + 1);
+        return Page.of(rows, pageSize, b -> PageCursor.encode(b.getBillingID()));
+    }
+
     public Billing getBillingByAppointment(int appointmentID) {
         return billingDAO.getBillingByAppointment(appointmentID);
     }
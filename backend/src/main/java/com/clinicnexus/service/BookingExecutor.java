@@ -0,0 +1,101 @@
+package com.clinicnexus.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.clinicnexus.model.Appointment;
+import com.clinicnexus.util.AppointmentResult;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Optional in-process booking mode that routes each booking to a single-threaded
+ * mailbox chosen by DoctorID. Bookings for one doctor run one at a time, so they
+ * never wait on each other's calendar row lock, while different doctors proceed in
+ * parallel on different mailboxes.
+ * Enabled with clinic.booking.partitions > 0; otherwise bookings run on the caller's thread.
+ * The calendar row lock still guards bookings made by other application instances.
+ */
+@Service
+public class BookingExecutor {
+
+    @Autowired
+    private AppointmentTransactionService appointmentTransactionService;
+
+    @Value("${clinic.booking.partitions:0}")
+    private int partitions;
+
+    @Value("${clinic.booking.queue-capacity:1000}")
+    private int queueCapacity;
+
+    private ExecutorService[] mailboxes;
+
+    @PostConstruct
+    void start() {
+        if (partitions <= 0) {
+            return;
+        }
+        mailboxes = new ExecutorService[partitions];
+        for (int i = 0; i < partitions; i++) {
+            String name = "booking-" + i;
+            mailboxes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread thread = new Thread(r, name);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (mailboxes == null) {
+            return;
+        }
+        for (ExecutorService mailbox : mailboxes) {
+            mailbox.shutdown();
+        }
+        for (ExecutorService mailbox : mailboxes) {
+            mailbox.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Schedule an appointment, on its doctor's mailbox when partitioned
+     * @param appointment Appointment object with details
+     * @return Future completed with the booking result; already complete when not partitioned
+     */
+    public CompletableFuture<AppointmentResult> submit(Appointment appointment) {
+        if (mailboxes == null) {
+            return CompletableFuture.completedFuture(appointmentTransactionService.scheduleAppointment(appointment));
+        }
+        try {
+            return CompletableFuture.supplyAsync(() -> appointmentTransactionService.scheduleAppointment(appointment),
+                                                 mailboxes[partitionOf(appointment.getDoctorID(), mailboxes.length)]);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(AppointmentResult.busy("Booking queue is full, try again"));
+        }
+    }
+
+    /**
+     * @return true if bookings are routed through per-doctor mailboxes
+     */
+    public boolean isPartitioned() {
+        return mailboxes != null;
+    }
+
+    /**
+     * Mailbox for a doctor; doctor IDs are sequential, so plain modulo spreads them evenly
+     */
+    static int partitionOf(int doctorID, int partitions) {
+        return Math.floorMod(doctorID, partitions);
+    }
+}
@@ -0,0 +1,214 @@
+package com.clinicnexus.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.clinicnexus.dao.IdempotencyKeyDAO;
+import com.clinicnexus.util.StoredResponse;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Records the first successful response for each Idempotency-Key so that a retried
+ * POST is answered from the record instead of running its transaction again.
+ * Keys are scoped by endpoint and stored hashed in the IdempotencyKey table, which
+ * every application instance shares; recently completed keys are also kept in a
+ * bounded in-memory LRU so most replays need no database round trip.
+ * Each key remembers a hash of the request body that claimed it, and the same key
+ * with another body is refused. A claim's lease is renewed every half lease for as
+ * long as its request is queued or running, so it cannot expire and be taken over
+ * before the response is recorded.
+ * A request that fails releases its key, since it wrote nothing a retry could duplicate.
+ * Expired keys are deleted in batches by a background sweeper.
+ */
+@Service
+public class IdempotencyService {
+
+    @Autowired
+    private IdempotencyKeyDAO idempotencyKeyDAO;
+
+    @Value("${clinic.idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${clinic.idempotency.lease-seconds:60}")
+    private long leaseSeconds;
+
+    @Value("${clinic.idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${clinic.idempotency.sweep-interval-ms:60000}")
+    private long sweepIntervalMillis;
+
+    @Value("${clinic.idempotency.sweep-batch:1000}")
+    private int sweepBatch;
+
+    private Map<String, Completed> recent;
+    private final Map<String, Lease> leases = new ConcurrentHashMap<>();
+    private ScheduledExecutorService scheduler;
+
+    private static final class Completed {
+        final StoredResponse response;
+        final long expiresAt;
+
+        Completed(StoredResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * A key claimed by a request on this instance that has not completed yet
+     */
+    private static final class Lease {
+        final byte[] requestHash;
+        final ScheduledFuture<?> renewal;
+
+        Lease(byte[] requestHash, ScheduledFuture<?> renewal) {
+            this.requestHash = requestHash;
+            this.renewal = renewal;
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        int capacity = cacheSize;
+        recent = Collections.synchronizedMap(new LinkedHashMap<String, Completed>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Completed> eldest) {
+                return size() > capacity;
+            }
+        });
+        scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "idempotency-scheduler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (sweepIntervalMillis > 0) {
+            scheduler.scheduleWithFixedDelay(this::sweepExpired, sweepIntervalMillis, sweepIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Claim a key before running the request it guards
+     * @param scope Endpoint the key belongs to, e.g. "POST /api/billing"
+     * @param key Client-supplied Idempotency-Key
+     * @param requestBody Request body, serialized the same way for every attempt
+     * @return null if the caller owns the key and must run the request, then complete or release it;
+     *         otherwise the recorded response, the in-progress placeholder while the first request runs,
+     *         or the mismatch placeholder if the key was first used with a different body
+     * @throws SQLException if the key table cannot be reached
+     */
+    public StoredResponse claim(String scope, String key, String requestBody) throws SQLException {
+        String cacheKey = scope + '\n' + key;
+        byte[] requestHash = hash(requestBody);
+        long now = System.currentTimeMillis();
+        Completed cached = recent.get(cacheKey);
+        if (cached != null && cached.expiresAt > now) {
+            return cached.response.matches(requestHash) ? cached.response : StoredResponse.mismatch();
+        }
+
+        byte[] hash = hash(cacheKey);
+        long leaseMillis = TimeUnit.SECONDS.toMillis(leaseSeconds);
+        if (idempotencyKeyDAO.claim(hash, requestHash, new Timestamp(now), new Timestamp(now + leaseMillis))) {
+            long period = Math.max(leaseMillis / 2, 1);
+            ScheduledFuture<?> renewal = scheduler.scheduleAtFixedRate(
+                () -> idempotencyKeyDAO.renew(hash, new Timestamp(System.currentTimeMillis() + leaseMillis)),
+                period, period, TimeUnit.MILLISECONDS);
+            leases.put(cacheKey, new Lease(requestHash, renewal));
+            return null;
+        }
+        StoredResponse stored = idempotencyKeyDAO.find(hash);
+        if (stored == null) {
+            // Swept between the two statements; the client retries
+            return StoredResponse.inProgress();
+        }
+        if (!stored.matches(requestHash)) {
+            return StoredResponse.mismatch();
+        }
+        if (!stored.isInProgress()) {
+            recent.put(cacheKey, new Completed(stored, now + TimeUnit.HOURS.toMillis(ttlHours)));
+        }
+        return stored;
+    }
+
+    /**
+     * Record the response of a claimed request
+     * @param scope Endpoint the key belongs to
+     * @param key Client-supplied Idempotency-Key
+     * @param status HTTP status to replay
+     * @param headers Response headers to replay, as a JSON object, or null
+     * @param body Response body to replay, as JSON
+     */
+    public void complete(String scope, String key, int status, String headers, String body) {
+        String cacheKey = scope + '\n' + key;
+        Lease lease = endLease(cacheKey);
+        StoredResponse response = new StoredResponse(status, headers, body, lease != null ? lease.requestHash : null);
+        long expiresAt = System.currentTimeMillis() + TimeUnit.HOURS.toMillis(ttlHours);
+        if (idempotencyKeyDAO.complete(hash(cacheKey), response, new Timestamp(expiresAt))) {
+            recent.put(cacheKey, new Completed(response, expiresAt));
+        }
+    }
+
+    /**
+     * Give up a claimed key without recording a response
+     * @param scope Endpoint the key belongs to
+     * @param key Client-supplied Idempotency-Key
+     */
+    public void release(String scope, String key) {
+        String cacheKey = scope + '\n' + key;
+        endLease(cacheKey);
+        idempotencyKeyDAO.release(hash(cacheKey));
+    }
+
+    private Lease endLease(String cacheKey) {
+        Lease lease = leases.remove(cacheKey);
+        if (lease != null) {
+            lease.renewal.cancel(false);
+        }
+        return lease;
+    }
+
+    /**
+     * Delete expired keys in batches until a batch comes back short
+     * @return Number of keys deleted
+     */
+    int sweepExpired() {
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        int total = 0;
+        int deleted;
+        do {
+            deleted = idempotencyKeyDAO.deleteExpired(now, sweepBatch);
+            total += deleted;
+        } while (deleted == sweepBatch && !Thread.currentThread().isInterrupted());
+        return total;
+    }
+
+    static byte[] hash(String value) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
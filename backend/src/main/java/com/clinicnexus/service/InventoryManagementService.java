@@ -7,11 +7,18 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.clinicnexus.config.DatabaseConnection;
+import com.clinicnexus.cache.InventoryCatalog;
 import com.clinicnexus.dao.InventoryDAO;
+import com.clinicnexus.dao.RowMapper;
+import com.clinicnexus.dao.RowMappers;
+import com.clinicnexus.dao.StockUpdates;
+import com.clinicnexus.dao.TransactionRunner;
 import com.clinicnexus.model.Inventory;
 import com.clinicnexus.util.InventoryManagementResult;
 import com.clinicnexus.util.RestockResult;
@@ -24,11 +31,17 @@ import com.clinicnexus.util.UsageResult;
 @Service
 public class InventoryManagementService {
     
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
     private InventoryDAO inventoryDAO;
     
-    public InventoryManagementService() {
-        this.inventoryDAO = new InventoryDAO();
-    }
+    @Autowired
+    private TransactionRunner transactionRunner;
+    
+    @Autowired
+    private InventoryCatalog inventoryCatalog;
     
     /**
      * Process inventory management operations including low-stock auto-order
@@ -40,7 +53,7 @@ public class InventoryManagementService {
         List<String> errors = new ArrayList<>();
         
         try {
-            conn = DatabaseConnection.getConnection();
+            conn = dataSource.getConnection();
             conn.setAutoCommit(false);
             
             // Step 1: Check for low-stock items and auto-order
@@ -94,50 +107,32 @@ public class InventoryManagementService {
      * @return RestockResult with success status
      */
     public RestockResult processRestocking(int itemID, int quantityReceived, String supplierInfo) {
-        Connection conn = null;
+        boolean supplierChanged = supplierInfo != null && !supplierInfo.trim().isEmpty();
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-            
-            // Step 1: Validate item exists
-            Inventory item = getInventoryItem(conn, itemID);
-            if (item == null) {
-                throw new SQLException("Inventory item not found");
-            }
-            
-            // Step 2: Update stock quantity
-            updateStockQuantity(conn, itemID, item.getStockQuantity() + quantityReceived);
-            
-            // Step 3: Update supplier info if provided
-            if (supplierInfo != null && !supplierInfo.trim().isEmpty()) {
-                updateSupplierInfo(conn, itemID, supplierInfo);
+            transactionRunner.inTransaction("processRestocking", conn -> {
+                // Step 1: Add the received quantity in place; no row means the item does not exist
+                if (!addStockQuantity(conn, itemID, quantityReceived)) {
+                    throw new SQLException("Inventory item not found");
+                }
+                
+                // Step 2: Update supplier info if provided
+                if (supplierChanged) {
+                    updateSupplierInfo(conn, itemID, supplierInfo);
+                }
+                
+                // Step 3: Log restocking activity
+                logRestockingActivity(conn, itemID, quantityReceived, supplierInfo);
+                return null;
+            });
+            if (supplierChanged) {
+                inventoryCatalog.invalidate();
             }
-            
-            // Step 4: Log restocking activity
-            logRestockingActivity(conn, itemID, quantityReceived, supplierInfo);
-            
-            conn.commit();
-            return new RestockResult(true, "Successfully restocked " + item.getName() + " with " + quantityReceived + " units");
+            String itemName = inventoryCatalog.getName(itemID);
+            return new RestockResult(true, "Successfully restocked " + (itemName != null ? itemName : "Item ID " + itemID) + " with " + quantityReceived + " units");
             
         } catch (SQLException e) {
-            try {
-                if (conn != null) {
-                    conn.rollback();
-                }
-            } catch (SQLException rollbackEx) {
-                System.err.println("Rollback error: " + rollbackEx.getMessage());
-            }
             System.err.println("Error processing restocking: " + e.getMessage());
             return new RestockResult(false, e.getMessage());
-        } finally {
-            try {
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
-            }
         }
     }
     
@@ -148,69 +143,40 @@ public class InventoryManagementService {
      * @return UsageResult with processing status
      */
     public UsageResult processInventoryUsage(int appointmentID, Map<Integer, Integer> inventoryUsage) {
-        Connection conn = null;
+        List<String> processedItems = new ArrayList<>();
+        List<String> reorderAlerts = new ArrayList<>();
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-            
-            // Step 1: Validate appointment exists
-            if (!appointmentExists(conn, appointmentID)) {
-                throw new SQLException("Appointment not found");
-            }
-            
-            // Step 2: Validate all items have sufficient stock
-            for (Map.Entry<Integer, Integer> entry : inventoryUsage.entrySet()) {
-                int itemID = entry.getKey();
-                int quantityUsed = entry.getValue();
+            transactionRunner.inTransaction("processInventoryUsage", conn -> {
+                processedItems.clear();
+                reorderAlerts.clear();
                 
-                if (!hasSufficientStock(conn, itemID, quantityUsed)) {
-                    Inventory item = getInventoryItem(conn, itemID);
-                    String itemName = item != null ? item.getName() : "Item ID " + itemID;
-                    throw new SQLException("Insufficient stock for " + itemName);
+                // Step 1: Validate appointment exists
+                if (!appointmentExists(conn, appointmentID)) {
+                    throw new SQLException("Appointment not found");
                 }
-            }
-            
-            // Step 3: Record usage and update stock
-            List<String> processedItems = new ArrayList<>();
-            for (Map.Entry<Integer, Integer> entry : inventoryUsage.entrySet()) {
-                int itemID = entry.getKey();
-                int quantityUsed = entry.getValue();
                 
-                // Record usage
-                recordInventoryUsage(conn, appointmentID, itemID, quantityUsed);
+                // Step 2: Decrement stock; the row count tells us which item was short
+                Integer shortItemID = StockUpdates.decrementStock(conn, inventoryUsage);
+                if (shortItemID != null) {
+                    String itemName = inventoryCatalog.getName(shortItemID);
+                    if (itemName == null) {
+                        itemName = "Item ID " + shortItemID;
+                    }
+                    throw new SQLException("Insufficient stock for " + itemName);
+                }
                 
-                // Update stock
-                Inventory item = getInventoryItem(conn, itemID);
-                updateStockQuantity(conn, itemID, item.getStockQuantity() - quantityUsed);
+                // Step 3: Record usage in the same ItemID order as the stock updates
+                StockUpdates.recordUsage(conn, appointmentID, inventoryUsage);
                 
-                processedItems.add(item.getName() + " (Used: " + quantityUsed + ")");
-            }
-            
-            // Step 4: Check for items that now need reordering
-            List<String> reorderAlerts = checkForReorderAlerts(conn, new ArrayList<>(inventoryUsage.keySet()));
-            
-            conn.commit();
+                // Step 4: Read back names and flag items that now need reordering
+                summarizeUsage(conn, new TreeMap<>(inventoryUsage), processedItems, reorderAlerts);
+                return null;
+            });
             return new UsageResult(true, "Inventory usage processed successfully", processedItems, reorderAlerts);
             
         } catch (SQLException e) {
-            try {
-                if (conn != null) {
-                    conn.rollback();
-                }
-            } catch (SQLException rollbackEx) {
-                System.err.println("Rollback error: " + rollbackEx.getMessage());
-            }
             System.err.println("Error processing inventory usage: " + e.getMessage());
             return new UsageResult(false, e.getMessage(), new ArrayList<>(), new ArrayList<>());
-        } finally {
-            try {
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
-            }
         }
     }
     
@@ -224,19 +190,9 @@ public class InventoryManagementService {
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Inventory> mapper = RowMappers.inventory(rs);
             while (rs.next()) {
-                lowStockItems.add(new Inventory(
-                    rs.getInt("ItemID"),
-                    rs.getString("Name"),
-                    rs.getString("Type"),
-                    rs.getString("Purpose"),
-                    rs.getInt("StockQuantity"),
-                    rs.getInt("ReorderThreshold"),
-                    rs.getDouble("UnitPrice"),
-                    rs.getString("SupplierInfo"),
-                    rs.getDate("ExpiryDate"),
-                    rs.getBoolean("ActiveStatus")
-                ));
+                lowStockItems.add(mapper.mapRow(rs));
             }
         }
         
@@ -306,41 +262,16 @@ public class InventoryManagementService {
     }
     
     /**
-     * Get inventory item
-     */
-    private Inventory getInventoryItem(Connection conn, int itemID) throws SQLException {
-        String sql = "SELECT * FROM Inventory WHERE ItemID = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, itemID);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                return new Inventory(
-                    rs.getInt("ItemID"),
-                    rs.getString("Name"),
-                    rs.getString("Type"),
-                    rs.getString("Purpose"),
-                    rs.getInt("StockQuantity"),
-                    rs.getInt("ReorderThreshold"),
-                    rs.getDouble("UnitPrice"),
-                    rs.getString("SupplierInfo"),
-                    rs.getDate("ExpiryDate"),
-                    rs.getBoolean("ActiveStatus")
-                );
-            }
-        }
-        return null;
-    }
-    
-    /**
-     * Update stock quantity
+     * Add to stock quantity
+     * Incrementing in SQL keeps concurrent restocks and visit usage from overwriting each other
+     * @return true if the item exists
      */
-    private void updateStockQuantity(Connection conn, int itemID, int newQuantity) throws SQLException {
-        String sql = "UPDATE Inventory SET StockQuantity = ? WHERE ItemID = ?";
+    private boolean addStockQuantity(Connection conn, int itemID, int quantity) throws SQLException {
+        String sql = "UPDATE Inventory SET StockQuantity = StockQuantity + ?, Version = Version + 1 WHERE ItemID = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, newQuantity);
+            pstmt.setInt(1, quantity);
             pstmt.setInt(2, itemID);
-            pstmt.executeUpdate();
+            return pstmt.executeUpdate() > 0;
         }
     }
     
@@ -348,7 +279,7 @@ public class InventoryManagementService {
      * Update supplier info
      */
     private void updateSupplierInfo(Connection conn, int itemID, String supplierInfo) throws SQLException {
-        String sql = "UPDATE Inventory SET SupplierInfo = ? WHERE ItemID = ?";
+        String sql = "UPDATE Inventory SET SupplierInfo = ?, Version = Version + 1 WHERE ItemID = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, supplierInfo);
             pstmt.setInt(2, itemID);
@@ -377,57 +308,35 @@ public class InventoryManagementService {
     }
     
     /**
-     * Check if item has sufficient stock
+     * Describe used items and collect reorder alerts with one query
      */
-    private boolean hasSufficientStock(Connection conn, int itemID, int quantityNeeded) throws SQLException {
-        String sql = "SELECT StockQuantity FROM Inventory WHERE ItemID = ? AND ActiveStatus = true";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, itemID);
-            ResultSet rs = pstmt.executeQuery();
-            
-            if (rs.next()) {
-                int currentStock = rs.getInt("StockQuantity");
-                return currentStock >= quantityNeeded;
-            }
+    private void summarizeUsage(Connection conn, Map<Integer, Integer> orderedUsage, List<String> processedItems, List<String> reorderAlerts) throws SQLException {
+        if (orderedUsage.isEmpty()) {
+            return;
         }
-        return false;
-    }
-    
-    /**
-     * Record inventory usage
-     */
-    private void recordInventoryUsage(Connection conn, int appointmentID, int itemID, int quantityUsed) throws SQLException {
-        String sql = "INSERT INTO Appointment_Inventory (AppointmentID, ItemID, QuantityUsed) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE QuantityUsed = QuantityUsed + ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, appointmentID);
-            pstmt.setInt(2, itemID);
-            pstmt.setInt(3, quantityUsed);
-            pstmt.setInt(4, quantityUsed);
-            pstmt.executeUpdate();
+        
+        StringBuilder sql = new StringBuilder("SELECT ItemID, Name, StockQuantity, ReorderThreshold FROM Inventory WHERE ItemID IN (");
+        for (int i = 0; i < orderedUsage.size(); i++) {
+            sql.append(i == 0 ? "?" : ", ?");
         }
-    }
-    
-    /**
-     * Check for reorder alerts
-     */
-    private List<String> checkForReorderAlerts(Connection conn, List<Integer> itemIDs) throws SQLException {
-        List<String> alerts = new ArrayList<>();
+        sql.append(") ORDER BY ItemID");
         
-        String sql = "SELECT Name, StockQuantity, ReorderThreshold FROM Inventory WHERE ItemID = ? AND StockQuantity <= ReorderThreshold";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            for (Integer itemID : itemIDs) {
-                pstmt.setInt(1, itemID);
-                ResultSet rs = pstmt.executeQuery();
-                
-                if (rs.next()) {
-                    String name = rs.getString("Name");
-                    int stock = rs.getInt("StockQuantity");
-                    int threshold = rs.getInt("ReorderThreshold");
-                    alerts.add("REORDER ALERT: " + name + " (Stock: " + stock + ", Threshold: " + threshold + ")");
+        try (PreparedStatement pstmt = conn.prepareStatement(sql.toString())) {
+            int index = 1;
+            for (Integer itemID : orderedUsage.keySet()) {
+                pstmt.setInt(index++, itemID);
+            }
+            ResultSet rs = pstmt.executeQuery();
+            
+            while (rs.next()) {
+                String name = rs.getString("Name");
+                int stock = rs.getInt("StockQuantity");
+                int threshold = rs.getInt("ReorderThreshold");
+                processedItems.add(name + " (Used: " + orderedUsage.get(rs.getInt("ItemID")) + ")");
+                if (stock <= threshold) {
+                    reorderAlerts.add("REORDER ALERT: " + name + " (Stock: " + stock + ", Threshold: " + threshold + ")");
                 }
             }
         }
-        
-        return alerts;
     }
 }
@@ -1,42 +1,95 @@
 package com.clinicnexus.service;
 
+import java.io.IOException;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.clinicnexus.cache.InventoryCatalog;
+import com.clinicnexus.cache.SuggestIndex;
 import com.clinicnexus.dao.InventoryDAO;
 import com.clinicnexus.model.Inventory;
+import com.clinicnexus.projection.InventoryWithUsage;
+import com.clinicnexus.util.Page;
+import com.clinicnexus.util.PageCursor;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 @Service
 public class InventoryService {
-    private final InventoryDAO inventoryDAO;
+    
+    @Autowired
+    private InventoryDAO inventoryDAO;
 
-    public InventoryService() {
-        this.inventoryDAO = new InventoryDAO();
-    }
+    @Autowired
+    private InventoryCatalog inventoryCatalog;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
 
     public boolean createInventory(Inventory inventory) {
-        return inventoryDAO.addInventory(inventory);
+        boolean created = inventoryDAO.addInventory(inventory);
+        if (created) {
+            inventoryCatalog.invalidate();
+            suggestIndex.onInventorySaved(inventory);
+        }
+        return created;
     }
 
     public Inventory getInventory(int itemID) {
         return inventoryDAO.getInventory(itemID);
     }
 
-    public boolean updateInventory(Inventory inventory) {
-        return inventoryDAO.updateInventory(inventory);
+    public UpdateResult updateInventory(Inventory inventory) {
+        UpdateResult result = inventoryDAO.updateInventory(inventory);
+        if (result.isUpdated()) {
+            inventoryCatalog.invalidate();
+            suggestIndex.onInventorySaved(inventory);
+        }
+        return result;
     }
 
     public boolean deleteInventory(int itemID) {
-        return inventoryDAO.deleteInventory(itemID);
+        boolean deleted = inventoryDAO.deleteInventory(itemID);
+        if (deleted) {
+            inventoryCatalog.invalidate();
+            suggestIndex.onInventoryDeleted(itemID);
+        }
+        return deleted;
     }
 
     public List<Inventory> listInventory(String nameFilter, String typeFilter, Boolean activeFilter) {
         return inventoryDAO.getInventoryList(nameFilter, typeFilter, activeFilter);
     }
 
-    public Map<String, Object> getInventoryWithUsage(int itemID) {
+    public void streamInventory(String nameFilter, String typeFilter, Boolean activeFilter,
+                                RowCallback<Inventory> callback) throws SQLException, IOException {
+        inventoryDAO.streamInventory(nameFilter, typeFilter, activeFilter, callback);
+    }
+
+    /**
+     * List one page of inventory items, ordered by name
+     * @param after Cursor returned with the previous page (null for the first page)
+     * @param limit Page size (null for default)
+     * @return Page of inventory items
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Inventory> listInventoryPage(String nameFilter, String typeFilter, Boolean activeFilter, String after, Integer limit) {
+        Inventory last = null;
+        if (after != null) {
+            String[] key = PageCursor.decode(after, 2);
+            last = new Inventory();
+            last.setName(key[0]);
+            last.setItemID(Integer.parseInt(key[1]));
+        }
+        int pageSize = Page.clampLimit(limit);
+        List<Inventory> rows = inventoryDAO.getInventoryPage(nameFilter, typeFilter, activeFilter, last, pageSize + 1);
+        return Page.of(rows, pageSize, i -> PageCursor.encode(i.getName(), i.getItemID()));
+    }
+
+    public InventoryWithUsage getInventoryWithUsage(int itemID) {
         return inventoryDAO.getInventoryWithUsage(itemID);
     }
 
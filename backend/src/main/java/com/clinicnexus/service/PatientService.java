@@ -1,49 +1,133 @@
 package com.clinicnexus.service;
 
+import java.io.IOException;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.PatientNameIndex;
+import com.clinicnexus.cache.PatientSearchIndex;
+import com.clinicnexus.cache.SuggestIndex;
 import com.clinicnexus.dao.PatientDAO;
 import com.clinicnexus.model.Patient;
+import com.clinicnexus.projection.PatientWithAppointments;
+import com.clinicnexus.util.Page;
+import com.clinicnexus.util.PageCursor;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 @Service
 public class PatientService {
     
     @Autowired
     private PatientDAO patientDAO;
+    
+    @Autowired
+    private AppointmentIntervalIndex appointmentIndex;
+
+    @Autowired
+    private PatientNameIndex patientNameIndex;
+
+    @Autowired
+    private PatientSearchIndex patientSearchIndex;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
 
     public boolean createPatient(Patient patient) {
-        return patientDAO.addPatient(patient);
+        boolean created = patientDAO.addPatient(patient);
+        if (created) {
+            patientNameIndex.onPatientSaved(patient.getPatientID(), patient.getName());
+            patientSearchIndex.onPatientSaved(patient);
+            suggestIndex.onPatientSaved(patient);
+        }
+        return created;
     }
 
     public Patient getPatient(int patientID) {
         return patientDAO.getPatient(patientID);
     }
 
-    public boolean updatePatient(Patient patient) {
-        return patientDAO.updatePatient(patient);
+    public UpdateResult updatePatient(Patient patient) {
+        UpdateResult result = patientDAO.updatePatient(patient);
+        if (result.isUpdated()) {
+            patientNameIndex.onPatientSaved(patient.getPatientID(), patient.getName());
+            patientSearchIndex.onPatientSaved(patient);
+            suggestIndex.onPatientSaved(patient);
+        }
+        return result;
     }
 
     public boolean deletePatient(int patientID) {
-        return patientDAO.deletePatient(patientID);
+        boolean deleted = patientDAO.deletePatient(patientID);
+        if (deleted) {
+            patientNameIndex.onPatientDeleted(patientID);
+            patientSearchIndex.onPatientDeleted(patientID);
+            suggestIndex.onPatientDeleted(patientID);
+            // Cascading delete removed appointments we cannot enumerate here
+            appointmentIndex.clear();
+        }
+        return deleted;
     }
 
     public List<Patient> listPatients(String nameFilter, String insuranceFilter, Boolean activeFilter) {
         return patientDAO.getPatientList(nameFilter, insuranceFilter, activeFilter);
     }
 
-    public Map<String, Object> getPatientWithAppointments(int patientID) {
+    public void streamPatients(String nameFilter, String insuranceFilter, Boolean activeFilter,
+                               RowCallback<Patient> callback) throws SQLException, IOException {
+        patientDAO.streamPatients(nameFilter, insuranceFilter, activeFilter, callback);
+    }
+
+    /**
+     * List one page of patients, ordered by name
+     * @param after Cursor returned with the previous page (null for the first page)
+     * @param limit Page size (null for default)
+     * @return Page of patients
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Patient> listPatientPage(String nameFilter, String insuranceFilter, Boolean activeFilter, String after, Integer limit) {
+        Patient last = null;
+        if (after != null) {
+            String[] key = PageCursor.decode(after, 2);
+            last = new Patient();
+            last.setName(key[0]);
+            last.setPatientID(Integer.parseInt(key[1]));
+        }
+        int pageSize = Page.clampLimit(limit);
+        List<Patient> rows = patientDAO.getPatientPage(nameFilter, insuranceFilter, activeFilter, last, pageSize + 1);
+        return Page.of(rows, pageSize, p -> PageCursor.encode(p.getName(), p.getPatientID()));
+    }
+
+    public PatientWithAppointments getPatientWithAppointments(int patientID) {
         return patientDAO.getPatientWithAppointments(patientID);
     }
     
-    public List<Patient> searchPatientsByName(String name) {
-        return patientDAO.searchPatientsByName(name);
+    /**
+     * Search patients by any part of their name, phone, email or insurance, tolerating small typos
+     * Falls back to a name LIKE query for one- and two-character searches and while the index is building
+     * @param limit Maximum number of results (null for default)
+     * @return Best matches first
+     */
+    public List<Patient> searchPatients(String query, Integer limit) {
+        int maxResults = Page.clampLimit(limit);
+        List<Patient> patients = patientSearchIndex.search(query, maxResults);
+        if (patients == null) {
+            patients = patientDAO.searchPatientsByName(query);
+            if (patients.size() > maxResults) {
+                patients = patients.subList(0, maxResults);
+            }
+        }
+        return patients;
     }
     
-    public int getPatientIdByName(String name) {
-        return patientDAO.getPatientIdByName(name);
+    /**
+     * @return IDs of every patient with this name, ignoring case, accents and extra spaces
+     */
+    public int[] getPatientIdsByName(String name) {
+        return patientNameIndex.getPatientIds(name);
     }
 } 
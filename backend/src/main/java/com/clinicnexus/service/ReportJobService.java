@@ -0,0 +1,182 @@
+package com.clinicnexus.service;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.clinicnexus.util.ReportJob;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs reports as background jobs on a small bounded executor. Each report thread
+ * holds at most one connection from the report pool, so reports queue behind each
+ * other instead of competing with booking traffic for the main pool.
+ * Identical requests (same type and parameters) made while a job is queued or running
+ * are given that job instead of starting another. Finished jobs are kept for
+ * clinic.reports.result-ttl-seconds so clients can poll and fetch the result.
+ */
+@Service
+public class ReportJobService {
+
+    public static final String PATIENT_VISITS = "patient-visits";
+    public static final String DOCTOR_PERFORMANCE = "doctor-performance";
+    public static final String FINANCIAL_OPERATIONS = "financial-operations";
+    public static final String RESOURCE_UTILIZATION = "resource-utilization";
+    public static final String MONTHLY_SUMMARY = "monthly-summary";
+
+    @Autowired
+    private ReportService reportService;
+
+    @Value("${clinic.reports.threads:2}")
+    private int threads;
+
+    @Value("${clinic.reports.queue-capacity:20}")
+    private int queueCapacity;
+
+    @Value("${clinic.reports.result-ttl-seconds:600}")
+    private long resultTtlSeconds;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob> inFlight = new ConcurrentHashMap<>();
+
+    private ThreadPoolExecutor executor;
+
+    /**
+     * One report run; a query failure propagates so the job ends FAILED
+     */
+    @FunctionalInterface
+    private interface Report {
+        List<?> generate() throws SQLException;
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger count = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, "report-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Start a report, or join the identical one already queued or running
+     * @param type Report type, e.g. financial-operations
+     * @param year Report year
+     * @param month Month (1-12) for monthly reports, otherwise ignored
+     * @param quarter Quarter (1-4) for quarterly reports, otherwise ignored
+     * @return Job to poll for status and result
+     * @throws IllegalArgumentException if the type is unknown or a parameter is missing or out of range
+     * @throws RejectedExecutionException if the report queue is full
+     */
+    public ReportJob submit(String type, Integer year, Integer month, Integer quarter) {
+        Map<String, Integer> parameters = parameters(type, year, month, quarter);
+        Report report = report(type, parameters);
+        purgeExpired();
+
+        String key = type + parameters;
+        return inFlight.compute(key, (k, existing) -> {
+            if (existing != null && !existing.isFinished()) {
+                return existing;
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), type, parameters);
+            // Rejection propagates out of compute and leaves the mapping unchanged
+            executor.execute(() -> run(key, job, report));
+            jobs.put(job.getJobID(), job);
+            return job;
+        });
+    }
+
+    /**
+     * @param jobID Job ID returned by submit
+     * @return The job, or null if unknown or expired
+     */
+    public ReportJob getJob(String jobID) {
+        return jobs.get(jobID);
+    }
+
+    private void run(String key, ReportJob job, Report report) {
+        job.markRunning();
+        try {
+            job.markDone(report.generate());
+        } catch (SQLException | RuntimeException e) {
+            System.err.println("Error running report " + job.getType() + ": " + e.getMessage());
+            job.markFailed(e.getMessage());
+        } finally {
+            inFlight.remove(key, job);
+        }
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minusSeconds(resultTtlSeconds);
+        jobs.values().removeIf(job -> job.isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    /**
+     * Validate and keep only the parameters the report type uses, in a fixed order,
+     * so requests that differ only in ignored parameters share a job
+     */
+    static Map<String, Integer> parameters(String type, Integer year, Integer month, Integer quarter) {
+        Map<String, Integer> parameters = new LinkedHashMap<>();
+        parameters.put("year", require("year", year, 1900, 9999));
+        switch (type) {
+            case PATIENT_VISITS:
+            case FINANCIAL_OPERATIONS:
+            case MONTHLY_SUMMARY:
+                parameters.put("month", require("month", month, 1, 12));
+                break;
+            case DOCTOR_PERFORMANCE:
+                parameters.put("quarter", require("quarter", quarter, 1, 4));
+                break;
+            case RESOURCE_UTILIZATION:
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown report type: " + type);
+        }
+        return parameters;
+    }
+
+    private Report report(String type, Map<String, Integer> parameters) {
+        int year = parameters.get("year");
+        switch (type) {
+            case PATIENT_VISITS:
+                return () -> reportService.generatePatientVisitAnalysis(year, parameters.get("month"));
+            case FINANCIAL_OPERATIONS:
+                return () -> reportService.generateFinancialOperationsReport(year, parameters.get("month"));
+            case DOCTOR_PERFORMANCE:
+                return () -> reportService.generateDoctorPerformanceMetrics(year, parameters.get("quarter"));
+            case MONTHLY_SUMMARY:
+                return () -> List.of(reportService.generateMonthlySummaryReport(year, parameters.get("month")));
+            default:
+                return () -> reportService.generateResourceUtilizationReport(year);
+        }
+    }
+
+    private static int require(String name, Integer value, int min, int max) {
+        if (value == null || value < min || value > max) {
+            throw new IllegalArgumentException("Invalid " + name + ": " + value);
+        }
+        return value;
+    }
+}
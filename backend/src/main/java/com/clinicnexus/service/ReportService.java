@@ -1,32 +1,158 @@
 package com.clinicnexus.service;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.clinicnexus.config.DatabaseConnection;
+import com.clinicnexus.dao.ReportRollups;
+import com.clinicnexus.dao.RowMapper;
+import com.clinicnexus.dao.TransactionRunner;
+import com.clinicnexus.projection.DoctorPerformance;
+import com.clinicnexus.projection.FinancialOperations;
+import com.clinicnexus.projection.MonthlySummary;
+import com.clinicnexus.projection.PatientVisitAnalysis;
+import com.clinicnexus.projection.ResourceUtilization;
+import com.clinicnexus.util.ExportWriter;
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
 /**
  * Service for generating all reports as specified in the project requirements
+ * Report queries run on the separate report pool; rollup rebuilds write through the main pool
  */
 @Service
 public class ReportService {
     
+    /** Tells MySQL Connector/J to stream rows one at a time instead of buffering the result */
+    private static final int STREAMING_FETCH_SIZE = Integer.MIN_VALUE;
+    
+    public static final String EXPORT_APPOINTMENTS = "appointments";
+    public static final String EXPORT_BILLING = "billing";
+    public static final String EXPORT_UTILIZATION = "utilization";
+    
+    private static final Map<String, String> EXPORT_QUERIES = Map.of(
+        EXPORT_APPOINTMENTS,
+            "SELECT a.AppointmentID, a.Date, a.Time, a.Duration, a.VisitType, a.Status, " +
+            "a.PatientID, p.Name as PatientName, a.DoctorID, s.Name as DoctorName " +
+            "FROM Appointment a " +
+            "JOIN Patient p ON p.PatientID = a.PatientID " +
+            "JOIN Staff s ON s.StaffID = a.DoctorID " +
+            "WHERE a.Date >= ? AND a.Date < ? " +
+            "ORDER BY a.Date, a.Time, a.AppointmentID",
+        EXPORT_BILLING,
+            "SELECT b.BillingID, b.AppointmentID, a.Date as AppointmentDate, a.PatientID, a.DoctorID, " +
+            "b.Amount, b.Paid, b.PaymentDate " +
+            "FROM Billing b " +
+            "JOIN Appointment a ON a.AppointmentID = b.AppointmentID " +
+            "WHERE a.Date >= ? AND a.Date < ? " +
+            "ORDER BY a.Date, b.BillingID",
+        EXPORT_UTILIZATION,
+            "SELECT a.Date, ai.AppointmentID, ai.ItemID, i.Name as ItemName, i.Type as ItemType, " +
+            "ai.QuantityUsed, i.UnitPrice, ai.QuantityUsed * i.UnitPrice as Cost " +
+            "FROM Appointment_Inventory ai " +
+            "JOIN Appointment a ON a.AppointmentID = ai.AppointmentID " +
+            "JOIN Inventory i ON i.ItemID = ai.ItemID " +
+            "WHERE a.Date >= ? AND a.Date < ? " +
+            "ORDER BY a.Date, ai.AppointmentID, ai.ItemID");
+    
+    @Autowired
+    @Qualifier("reportDataSource")
+    private DataSource dataSource;
+    
+    @Autowired
+    private TransactionRunner transactionRunner;
+    
+    @Value("${clinic.report-rollups.reconcile-interval-ms:0}")
+    private long reconcileIntervalMillis;
+    
+    @Value("${clinic.report-rollups.reconcile-days:35}")
+    private int reconcileDays;
+    
+    @Value("${clinic.reports.summary-threads:3}")
+    private int summaryThreads;
+    
+    @Value("${clinic.reports.summary-deadline-ms:10000}")
+    private long summaryDeadlineMillis;
+    
+    @Value("${clinic.reports.summary-top-doctors:5}")
+    private int summaryTopDoctors;
+    
+    @Value("${clinic.reports.export-buffer-bytes:65536}")
+    private int exportBufferBytes;
+    
+    private ScheduledExecutorService reconciler;
+    
+    private ExecutorService summaryExecutor;
+    
+    @PostConstruct
+    void start() {
+        // Each summary thread holds a report pool connection; with all of them taken, other report jobs and downloads wait
+        if (dataSource instanceof HikariDataSource pool && pool.getMaximumPoolSize() <= summaryThreads) {
+            System.err.println("Report pool has " + pool.getMaximumPoolSize() + " connections for " + summaryThreads
+                + " monthly summary threads; other reports and downloads will wait while summaries run");
+        }
+        AtomicInteger summaryThreadCount = new AtomicInteger();
+        summaryExecutor = Executors.newFixedThreadPool(summaryThreads, r -> {
+            Thread thread = new Thread(r, "report-summary-" + summaryThreadCount.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (reconcileIntervalMillis > 0 && reconcileDays > 0) {
+            reconciler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "report-rollup-reconciler");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reconciler.scheduleWithFixedDelay(this::reconcileRecentRollups, reconcileIntervalMillis, reconcileIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @PreDestroy
+    void stop() {
+        summaryExecutor.shutdownNow();
+        if (reconciler != null) {
+            reconciler.shutdownNow();
+        }
+    }
+    
     /**
      * Generate Patient Visit Analysis Report (Report 5.1)
      * Group Member 1 - Patient Records and Appointment Records
      * @param year Year for the report
      * @param month Month for the report
      * @return List of patient visit analysis data
+     * @throws SQLException if the query fails
      */
-    public List<Map<String, Object>> generatePatientVisitAnalysis(int year, int month) {
+    public List<PatientVisitAnalysis> generatePatientVisitAnalysis(int year, int month) throws SQLException {
         String sql = "SELECT " +
                     "p.PatientID, p.Name as PatientName, " +
                     "YEAR(CURDATE()) - YEAR(p.BirthDate) as Age, " +
@@ -35,32 +161,25 @@ public class ReportService {
                     "GROUP_CONCAT(DISTINCT a.VisitType) as VisitTypes " +
                     "FROM Patient p " +
                     "JOIN Appointment a ON p.PatientID = a.PatientID " +
-                    "WHERE YEAR(a.Date) = ? AND MONTH(a.Date) = ? " +
+                    "WHERE a.Date >= ? AND a.Date < ? " +
                     "AND a.Status = 'Done' " +
                     "GROUP BY p.PatientID, WEEK(a.Date) " +
                     "ORDER BY p.Name, WeekNumber";
         
-        List<Map<String, Object>> reports = new ArrayList<>();
+        List<PatientVisitAnalysis> reports = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, year);
-            pstmt.setInt(2, month);
+            LocalDate monthStart = LocalDate.of(year, month, 1);
+            pstmt.setDate(1, Date.valueOf(monthStart));
+            pstmt.setDate(2, Date.valueOf(monthStart.plusMonths(1)));
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<PatientVisitAnalysis> mapper = patientVisitAnalysis(rs);
             while (rs.next()) {
-                Map<String, Object> report = new HashMap<>();
-                report.put("patientID", rs.getInt("PatientID"));
-                report.put("patientName", rs.getString("PatientName"));
-                report.put("age", rs.getInt("Age"));
-                report.put("weekNumber", rs.getInt("WeekNumber"));
-                report.put("visitCount", rs.getInt("VisitCount"));
-                report.put("visitTypes", rs.getString("VisitTypes"));
-                reports.add(report);
+                reports.add(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error generating patient visit analysis: " + e.getMessage());
         }
         
         return reports;
@@ -69,66 +188,42 @@ public class ReportService {
     /**
      * Generate Doctor Performance Metrics (Report 5.2)
      * Group Member 2 - Doctor Records, Appointment Records, and Patient Feedback
+     * Reads the DoctorQuarterStats rollup, one row per active doctor with appointments in the quarter
      * @param year Year for the report
      * @param quarter Quarter (1-4) for the report
      * @return List of doctor performance data
+     * @throws SQLException if the query fails
      */
-    public List<Map<String, Object>> generateDoctorPerformanceMetrics(int year, int quarter) {
-        // Calculate month range for quarter
-        int startMonth = (quarter - 1) * 3 + 1;
-        int endMonth = quarter * 3;
+    public List<DoctorPerformance> generateDoctorPerformanceMetrics(int year, int quarter) throws SQLException {
+        LocalDate quarterStart = LocalDate.of(year, (quarter - 1) * 3 + 1, 1);
         
         String sql = "SELECT " +
                     "s.StaffID, s.Name as DoctorName, s.Specialization, " +
-                    "COUNT(a.AppointmentID) as TotalAppointments, " +
-                    "SUM(CASE WHEN a.Status = 'Done' THEN 1 ELSE 0 END) as CompletedAppointments, " +
-                    "SUM(CASE WHEN a.Status = 'Canceled' THEN 1 ELSE 0 END) as CanceledAppointments, " +
-                    "COUNT(DISTINCT a.PatientID) as UniquePatients, " +
-                    "AVG(CASE WHEN f.Rating IS NOT NULL THEN f.Rating ELSE 0 END) as AverageRating, " +
-                    "COUNT(f.FeedbackID) as TotalFeedbacks, " +
-                    "SUM(b.Amount) as TotalRevenue " +
-                    "FROM Staff s " +
-                    "LEFT JOIN Appointment a ON s.StaffID = a.DoctorID " +
-                    "LEFT JOIN Feedback f ON a.AppointmentID = f.AppointmentID " +
-                    "LEFT JOIN Billing b ON a.AppointmentID = b.AppointmentID " +
-                    "WHERE s.JobType = 'Doctor' AND s.ActiveStatus = true " +
-                    "AND YEAR(a.Date) = ? AND MONTH(a.Date) BETWEEN ? AND ? " +
-                    "GROUP BY s.StaffID, s.Name, s.Specialization " +
+                    "q.Appointments as TotalAppointments, " +
+                    "q.Completed as CompletedAppointments, " +
+                    "q.Canceled as CanceledAppointments, " +
+                    "q.UniquePatients, " +
+                    "CASE WHEN q.Ratings > 0 THEN q.RatingSum / q.Ratings ELSE 0 END as AverageRating, " +
+                    "q.Feedbacks as TotalFeedbacks, " +
+                    "q.Revenue as TotalRevenue " +
+                    "FROM DoctorQuarterStats q " +
+                    "JOIN Staff s ON s.StaffID = q.DoctorID " +
+                    "WHERE q.QuarterStart = ? AND q.Appointments > 0 " +
+                    "AND s.JobType = 'Doctor' AND s.ActiveStatus = true " +
                     "ORDER BY TotalAppointments DESC";
         
-        List<Map<String, Object>> reports = new ArrayList<>();
+        List<DoctorPerformance> reports = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, year);
-            pstmt.setInt(2, startMonth);
-            pstmt.setInt(3, endMonth);
+            pstmt.setDate(1, Date.valueOf(quarterStart));
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<DoctorPerformance> mapper = doctorPerformance(rs);
             while (rs.next()) {
-                Map<String, Object> report = new HashMap<>();
-                report.put("doctorID", rs.getInt("StaffID"));
-                report.put("doctorName", rs.getString("DoctorName"));
-                report.put("specialization", rs.getString("Specialization"));
-                report.put("totalAppointments", rs.getInt("TotalAppointments"));
-                report.put("completedAppointments", rs.getInt("CompletedAppointments"));
-                report.put("canceledAppointments", rs.getInt("CanceledAppointments"));
-                report.put("uniquePatients", rs.getInt("UniquePatients"));
-                report.put("averageRating", rs.getDouble("AverageRating"));
-                report.put("totalFeedbacks", rs.getInt("TotalFeedbacks"));
-                report.put("totalRevenue", rs.getDouble("TotalRevenue"));
-                
-                // Calculate success rate
-                int total = rs.getInt("TotalAppointments");
-                int completed = rs.getInt("CompletedAppointments");
-                double successRate = total > 0 ? (double) completed / total * 100 : 0;
-                report.put("successRate", successRate);
-                
-                reports.add(report);
+                reports.add(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error generating doctor performance metrics: " + e.getMessage());
         }
         
         return reports;
@@ -137,68 +232,122 @@ public class ReportService {
     /**
      * Generate Financial Operations Report (Report 5.3)
      * Group Member 3 - Appointment Records and Billing Transactions
+     * Reads the DailyRevenue rollup, summing each day's per-doctor rows (at most 31 x doctors primary-key rows)
      * @param year Year for the report
      * @param month Month for the report
      * @return List of financial operations data
+     * @throws SQLException if the query fails
      */
-    public List<Map<String, Object>> generateFinancialOperationsReport(int year, int month) {
+    public List<FinancialOperations> generateFinancialOperationsReport(int year, int month) throws SQLException {
         String sql = "SELECT " +
-                    "DATE(a.Date) as ReportDate, " +
-                    "COUNT(b.BillingID) as TotalBills, " +
-                    "SUM(b.Amount) as TotalRevenue, " +
-                    "AVG(b.Amount) as AverageRevenue, " +
-                    "SUM(CASE WHEN b.Paid = true THEN b.Amount ELSE 0 END) as PaidRevenue, " +
-                    "SUM(CASE WHEN b.Paid = false THEN b.Amount ELSE 0 END) as UnpaidRevenue, " +
-                    "COUNT(CASE WHEN b.Paid = true THEN 1 END) as PaidBills, " +
-                    "COUNT(CASE WHEN b.Paid = false THEN 1 END) as UnpaidBills " +
-                    "FROM Appointment a " +
-                    "JOIN Billing b ON a.AppointmentID = b.AppointmentID " +
-                    "WHERE YEAR(a.Date) = ? AND MONTH(a.Date) = ? " +
-                    "GROUP BY DATE(a.Date) " +
-                    "ORDER BY ReportDate";
+                    "Date as ReportDate, " +
+                    "SUM(TotalBills) as TotalBills, " +
+                    "SUM(TotalRevenue) as TotalRevenue, " +
+                    "SUM(TotalRevenue) / SUM(TotalBills) as AverageRevenue, " +
+                    "SUM(PaidRevenue) as PaidRevenue, " +
+                    "SUM(TotalRevenue) - SUM(PaidRevenue) as UnpaidRevenue, " +
+                    "SUM(PaidBills) as PaidBills, " +
+                    "SUM(TotalBills) - SUM(PaidBills) as UnpaidBills " +
+                    "FROM DailyRevenue " +
+                    "WHERE Date >= ? AND Date < ? " +
+                    "GROUP BY Date " +
+                    "HAVING SUM(TotalBills) > 0 " +
+                    "ORDER BY Date";
         
-        List<Map<String, Object>> reports = new ArrayList<>();
+        List<FinancialOperations> reports = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, year);
-            pstmt.setInt(2, month);
+            LocalDate monthStart = LocalDate.of(year, month, 1);
+            pstmt.setDate(1, Date.valueOf(monthStart));
+            pstmt.setDate(2, Date.valueOf(monthStart.plusMonths(1)));
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<FinancialOperations> mapper = financialOperations(rs);
             while (rs.next()) {
-                Map<String, Object> report = new HashMap<>();
-                report.put("reportDate", rs.getDate("ReportDate"));
-                report.put("totalBills", rs.getInt("TotalBills"));
-                report.put("totalRevenue", rs.getDouble("TotalRevenue"));
-                report.put("averageRevenue", rs.getDouble("AverageRevenue"));
-                report.put("paidRevenue", rs.getDouble("PaidRevenue"));
-                report.put("unpaidRevenue", rs.getDouble("UnpaidRevenue"));
-                report.put("paidBills", rs.getInt("PaidBills"));
-                report.put("unpaidBills", rs.getInt("UnpaidBills"));
-                
-                // Calculate payment rate
-                int totalBills = rs.getInt("TotalBills");
-                int paidBills = rs.getInt("PaidBills");
-                double paymentRate = totalBills > 0 ? (double) paidBills / totalBills * 100 : 0;
-                report.put("paymentRate", paymentRate);
-                
-                reports.add(report);
+                reports.add(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error generating financial operations report: " + e.getMessage());
         }
         
         return reports;
     }
     
+    /**
+     * Recompute the DailyRevenue rollup from Billing and Appointment, one month per transaction
+     * Used to backfill days written before the rollup existed, or to repair them. Each month
+     * runs at READ COMMITTED, so the source rows are read from a snapshot instead of being
+     * share-locked; only that month's DailyRevenue rows are locked until it commits
+     * @param from First day, inclusive
+     * @param to Last day, exclusive
+     * @return Number of doctor-days with bills that were rebuilt, or -1 if a month failed
+     */
+    public int rebuildDailyRevenue(LocalDate from, LocalDate to) {
+        int days = 0;
+        try {
+            for (LocalDate start = from; start.isBefore(to); ) {
+                LocalDate end = start.withDayOfMonth(1).plusMonths(1);
+                if (end.isAfter(to)) {
+                    end = to;
+                }
+                Date monthFrom = Date.valueOf(start);
+                Date monthTo = Date.valueOf(end);
+                days += transactionRunner.inTransaction("rebuildDailyRevenue", conn -> {
+                    conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    return ReportRollups.rebuildRevenue(conn, monthFrom, monthTo);
+                });
+                start = end;
+            }
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding daily revenue: " + e.getMessage());
+            return -1;
+        }
+        return days;
+    }
+    
+    /**
+     * Recompute the DoctorQuarterStats rollup, one quarter per transaction, for every
+     * quarter that overlaps the given days; reads at READ COMMITTED like rebuildDailyRevenue
+     * @param from First day, inclusive
+     * @param to Last day, exclusive
+     * @return Number of doctor quarters that were rebuilt, or -1 if a quarter failed
+     */
+    public int rebuildDoctorQuarters(LocalDate from, LocalDate to) {
+        int doctors = 0;
+        try {
+            for (LocalDate start = ReportRollups.quarterStart(Date.valueOf(from)).toLocalDate(); start.isBefore(to); start = start.plusMonths(3)) {
+                Date quarterStart = Date.valueOf(start);
+                doctors += transactionRunner.inTransaction("rebuildDoctorQuarters", conn -> {
+                    conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                    return ReportRollups.rebuildDoctorQuarter(conn, quarterStart);
+                });
+            }
+        } catch (SQLException e) {
+            System.err.println("Error rebuilding doctor quarters: " + e.getMessage());
+            return -1;
+        }
+        return doctors;
+    }
+    
+    /**
+     * Rebuild the DailyRevenue days around today, where bookings, visits and payments land, so rows
+     * written outside the DAOs (a manual fix, an import) are picked up within one interval
+     * Off unless clinic.report-rollups.reconcile-interval-ms is set; the write paths keep the rollups current.
+     * Doctor quarters are not rebuilt here (a whole quarter per run); POST /api/reports/rollups/doctor-quarters repairs them
+     */
+    private void reconcileRecentRollups() {
+        LocalDate today = LocalDate.now();
+        rebuildDailyRevenue(today.minusDays(reconcileDays), today.plusDays(reconcileDays));
+    }
+    
     /**
      * Generate Resource Utilization Report (Report 5.4)
      * Group Member 4 - Inventory Records and Appointment Records
      * @param year Year for the report
      * @return List of resource utilization data
+     * @throws SQLException if the query fails
      */
-    public List<Map<String, Object>> generateResourceUtilizationReport(int year) {
+    public List<ResourceUtilization> generateResourceUtilizationReport(int year) throws SQLException {
         String sql = "SELECT " +
                     "i.ItemID, i.Name as ItemName, i.Type as ItemType, " +
                     "i.Purpose, i.StockQuantity as CurrentStock, " +
@@ -210,94 +359,411 @@ public class ReportService {
                     "LEFT JOIN Appointment_Inventory ai ON i.ItemID = ai.ItemID " +
                     "LEFT JOIN Appointment a ON ai.AppointmentID = a.AppointmentID " +
                     "WHERE i.ActiveStatus = true " +
-                    "AND (YEAR(a.Date) = ? OR a.Date IS NULL) " +
+                    "AND ((a.Date >= ? AND a.Date < ?) OR a.Date IS NULL) " +
                     "GROUP BY i.ItemID, i.Name, i.Type, i.Purpose, i.StockQuantity, i.ReorderThreshold, i.UnitPrice " +
                     "ORDER BY TotalUsed DESC, i.Name";
         
-        List<Map<String, Object>> reports = new ArrayList<>();
+        List<ResourceUtilization> reports = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection();
+        try (Connection conn = dataSource.getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
-            pstmt.setInt(1, year);
+            pstmt.setDate(1, Date.valueOf(LocalDate.of(year, 1, 1)));
+            pstmt.setDate(2, Date.valueOf(LocalDate.of(year + 1, 1, 1)));
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<ResourceUtilization> mapper = resourceUtilization(rs);
             while (rs.next()) {
-                Map<String, Object> report = new HashMap<>();
-                report.put("itemID", rs.getInt("ItemID"));
-                report.put("itemName", rs.getString("ItemName"));
-                report.put("itemType", rs.getString("ItemType"));
-                report.put("purpose", rs.getString("Purpose"));
-                report.put("currentStock", rs.getInt("CurrentStock"));
-                report.put("reorderThreshold", rs.getInt("ReorderThreshold"));
-                report.put("unitPrice", rs.getDouble("UnitPrice"));
-                report.put("totalUsed", rs.getInt("TotalUsed"));
-                report.put("appointmentsUsed", rs.getInt("AppointmentsUsed"));
-                report.put("totalCost", rs.getDouble("TotalCost"));
-                
-                // Calculate utilization metrics
-                int currentStock = rs.getInt("CurrentStock");
-                int totalUsed = rs.getInt("TotalUsed");
-                int reorderThreshold = rs.getInt("ReorderThreshold");
-                
-                // Usage rate (monthly average)
-                double monthlyUsageRate = totalUsed > 0 ? (double) totalUsed / 12 : 0;
-                report.put("monthlyUsageRate", monthlyUsageRate);
-                
-                // Stock status
-                String stockStatus;
-                if (currentStock <= reorderThreshold) {
-                    stockStatus = "Low Stock";
-                } else if (currentStock <= reorderThreshold * 2) {
-                    stockStatus = "Medium Stock";
-                } else {
-                    stockStatus = "High Stock";
-                }
-                report.put("stockStatus", stockStatus);
-                
-                // Equipment utilization frequency (for equipment items)
-                if ("Equipment".equals(rs.getString("ItemType"))) {
-                    int appointmentsUsed = rs.getInt("AppointmentsUsed");
-                    double utilizationFrequency = appointmentsUsed > 0 ? (double) appointmentsUsed / 52 : 0; // Weekly average
-                    report.put("utilizationFrequency", utilizationFrequency);
-                }
-                
-                reports.add(report);
+                reports.add(mapper.mapRow(rs));
             }
-        } catch (SQLException e) {
-            System.err.println("Error generating resource utilization report: " + e.getMessage());
         }
         
         return reports;
     }
+    
     /**
      * Generate monthly summary report
+     * The five sections are independent, so each runs on its own report pool connection
+     * and they are merged once all finish; a section that fails or is still running at
+     * the deadline is listed in missingSections instead of holding up the rest.
+     * Sections run on the summary-threads shared by all summaries, so concurrent summaries
+     * queue for those threads rather than each taking five connections
+     * @param year Year for the report
+     * @param month Month for the report
+     * @return Clinic-wide totals for the month
+     * @throws SQLException if no section completed, rather than a summary of zeros
+     */
+    public MonthlySummary generateMonthlySummaryReport(int year, int month) throws SQLException {
+        LocalDate monthStart = LocalDate.of(year, month, 1);
+        Date from = Date.valueOf(monthStart);
+        Date to = Date.valueOf(monthStart.plusMonths(1));
+        
+        CompletableFuture<AppointmentCounts> appointments = summarySection(conn -> appointmentCounts(conn, from, to));
+        CompletableFuture<double[]> revenue = summarySection(conn -> revenueTotals(conn, from, to));
+        CompletableFuture<int[]> patients = summarySection(conn -> patientCounts(conn, from, to));
+        CompletableFuture<Double> inventory = summarySection(conn -> inventorySpend(conn, from, to));
+        CompletableFuture<List<MonthlySummary.TopDoctor>> doctors = summarySection(conn -> topDoctors(conn, from, to));
+        
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(summaryDeadlineMillis);
+        List<String> missing = new ArrayList<>();
+        AppointmentCounts appointmentCounts = awaitSection(appointments, "appointments", deadline, missing,
+                new AppointmentCounts(0, new LinkedHashMap<>(), new LinkedHashMap<>()));
+        double[] revenueTotals = awaitSection(revenue, "revenue", deadline, missing, new double[2]);
+        int[] patientCounts = awaitSection(patients, "patients", deadline, missing, new int[2]);
+        double inventorySpend = awaitSection(inventory, "inventory", deadline, missing, 0.0);
+        List<MonthlySummary.TopDoctor> topDoctors = awaitSection(doctors, "topDoctors", deadline, missing, List.of());
+        if (missing.size() == 5) {
+            throw new SQLException("No monthly summary section completed for " + monthStart);
+        }
+        
+        return new MonthlySummary(year, month,
+            appointmentCounts.total(), appointmentCounts.byStatus(), appointmentCounts.byVisitType(),
+            revenueTotals[0], revenueTotals[1], revenueTotals[0] - revenueTotals[1],
+            patientCounts[0], patientCounts[1], patientCounts[0] - patientCounts[1],
+            inventorySpend, topDoctors, missing);
+    }
+    
+    private record AppointmentCounts(int total, Map<String, Integer> byStatus, Map<String, Integer> byVisitType) {
+    }
+    
+    private <T> CompletableFuture<T> summarySection(TransactionRunner.Work<T> section) {
+        return CompletableFuture.supplyAsync(() -> {
+            try (Connection conn = dataSource.getConnection()) {
+                return section.execute(conn);
+            } catch (SQLException e) {
+                throw new CompletionException(e);
+            }
+        }, summaryExecutor);
+    }
+    
+    private static <T> T awaitSection(CompletableFuture<T> section, String name, long deadline, List<String> missing, T empty) {
+        try {
+            return section.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // Still queued behind other summaries' sections: drop it rather than run it for nobody
+            section.cancel(false);
+            System.err.println("Monthly summary section " + name + " missed the deadline");
+        } catch (ExecutionException e) {
+            System.err.println("Error generating monthly summary section " + name + ": " + e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        missing.add(name);
+        return empty;
+    }
+    
+    /**
+     * Statement timeout for summary sections, so a query abandoned at the deadline
+     * gives its connection back soon after instead of running to completion
      */
-    public Map<String, Object> generateMonthlySummaryReport(int year, int month) {
-        Map<String, Object> summary = new HashMap<>();
+    private int summaryQueryTimeout() {
+        return (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(summaryDeadlineMillis + 999));
+    }
+    
+    private AppointmentCounts appointmentCounts(Connection conn, Date from, Date to) throws SQLException {
+        String sql = "SELECT Status, VisitType, COUNT(*) as Appointments " +
+                    "FROM Appointment " +
+                    "WHERE Date >= ? AND Date < ? " +
+                    "GROUP BY Status, VisitType";
         
-        // Add summary data
-        summary.put("year", year);
-        summary.put("month", month);
-        summary.put("totalAppointments", 0);
-        summary.put("totalRevenue", 0.0);
-        summary.put("totalPatients", 0);
+        int total = 0;
+        Map<String, Integer> byStatus = new LinkedHashMap<>();
+        Map<String, Integer> byVisitType = new LinkedHashMap<>();
+        for (String status : new String[] {"Done", "Not Done", "Canceled"}) {
+            byStatus.put(status, 0);
+        }
+        for (String visitType : new String[] {"Check-up", "Procedure", "Emergency"}) {
+            byVisitType.put(visitType, 0);
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setQueryTimeout(summaryQueryTimeout());
+            pstmt.setDate(1, from);
+            pstmt.setDate(2, to);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                int count = rs.getInt("Appointments");
+                total += count;
+                byStatus.merge(rs.getString("Status"), count, Integer::sum);
+                byVisitType.merge(rs.getString("VisitType"), count, Integer::sum);
+            }
+        }
+        return new AppointmentCounts(total, byStatus, byVisitType);
+    }
+    
+    /**
+     * @return {total, paid} billed for appointments in the month, from the DailyRevenue rollup
+     */
+    private double[] revenueTotals(Connection conn, Date from, Date to) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(TotalRevenue), 0) as TotalRevenue, " +
+                    "COALESCE(SUM(PaidRevenue), 0) as PaidRevenue " +
+                    "FROM DailyRevenue " +
+                    "WHERE Date >= ? AND Date < ?";
         
-        // You can add more detailed implementation here
-        return summary;
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setQueryTimeout(summaryQueryTimeout());
+            pstmt.setDate(1, from);
+            pstmt.setDate(2, to);
+            ResultSet rs = pstmt.executeQuery();
+            rs.next();
+            return new double[] {rs.getDouble("TotalRevenue"), rs.getDouble("PaidRevenue")};
+        }
+    }
+    
+    /**
+     * @return {seen, new} patients with a non-canceled appointment in the month; new means
+     *         their FirstVisitDate falls in the month
+     */
+    private int[] patientCounts(Connection conn, Date from, Date to) throws SQLException {
+        String sql = "SELECT COUNT(DISTINCT a.PatientID) as TotalPatients, " +
+                    "COUNT(DISTINCT CASE WHEN p.FirstVisitDate >= ? AND p.FirstVisitDate < ? THEN a.PatientID END) as NewPatients " +
+                    "FROM Appointment a " +
+                    "JOIN Patient p ON p.PatientID = a.PatientID " +
+                    "WHERE a.Date >= ? AND a.Date < ? " +
+                    "AND a.Status <> 'Canceled'";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setQueryTimeout(summaryQueryTimeout());
+            pstmt.setDate(1, from);
+            pstmt.setDate(2, to);
+            pstmt.setDate(3, from);
+            pstmt.setDate(4, to);
+            ResultSet rs = pstmt.executeQuery();
+            rs.next();
+            return new int[] {rs.getInt("TotalPatients"), rs.getInt("NewPatients")};
+        }
+    }
+    
+    private double inventorySpend(Connection conn, Date from, Date to) throws SQLException {
+        String sql = "SELECT COALESCE(SUM(ai.QuantityUsed * i.UnitPrice), 0) as InventorySpend " +
+                    "FROM Appointment a " +
+                    "JOIN Appointment_Inventory ai ON ai.AppointmentID = a.AppointmentID " +
+                    "JOIN Inventory i ON i.ItemID = ai.ItemID " +
+                    "WHERE a.Date >= ? AND a.Date < ?";
+        
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setQueryTimeout(summaryQueryTimeout());
+            pstmt.setDate(1, from);
+            pstmt.setDate(2, to);
+            ResultSet rs = pstmt.executeQuery();
+            rs.next();
+            return rs.getDouble("InventorySpend");
+        }
+    }
+    
+    private List<MonthlySummary.TopDoctor> topDoctors(Connection conn, Date from, Date to) throws SQLException {
+        String sql = "SELECT s.StaffID, s.Name as DoctorName, " +
+                    "COUNT(*) as CompletedAppointments, " +
+                    "COALESCE(SUM(b.Amount), 0) as Revenue " +
+                    "FROM Appointment a " +
+                    "JOIN Staff s ON s.StaffID = a.DoctorID " +
+                    "LEFT JOIN Billing b ON b.AppointmentID = a.AppointmentID " +
+                    "WHERE a.Status = 'Done' " +
+                    "AND a.Date >= ? AND a.Date < ? " +
+                    "GROUP BY s.StaffID, s.Name " +
+                    "ORDER BY CompletedAppointments DESC, Revenue DESC, s.StaffID " +
+                    "LIMIT ?";
+        
+        List<MonthlySummary.TopDoctor> doctors = new ArrayList<>();
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setQueryTimeout(summaryQueryTimeout());
+            pstmt.setDate(1, from);
+            pstmt.setDate(2, to);
+            pstmt.setInt(3, summaryTopDoctors);
+            ResultSet rs = pstmt.executeQuery();
+            while (rs.next()) {
+                doctors.add(new MonthlySummary.TopDoctor(
+                    rs.getInt("StaffID"),
+                    rs.getString("DoctorName"),
+                    rs.getInt("CompletedAppointments"),
+                    rs.getDouble("Revenue")
+                ));
+            }
+        }
+        return doctors;
     }
 
     /**
-     * Export report data to CSV file
+     * Export raw appointment, billing or supply usage rows for a date range, streamed
+     * from a forward-only result set, so exports spanning years run in constant memory
+     * @param dataset EXPORT_APPOINTMENTS, EXPORT_BILLING or EXPORT_UTILIZATION
+     * @param from First appointment date, inclusive
+     * @param to Last appointment date, exclusive
+     * @param format CSV or NDJSON
+     * @param gzip true to gzip the output
+     * @param out Channel to write to, e.g. a FileChannel or the wrapped response stream; it is not closed
+     * @return Number of rows exported
+     * @throws IllegalArgumentException if the dataset is unknown
      */
-    public boolean exportReportToCSV(List<Map<String, Object>> data, String filename) {
-        try {
-            // Add your CSV export logic here
-            System.out.println("Exporting " + data.size() + " records to " + filename);
-            return true;
-        } catch (Exception e) {
-            System.err.println("Error exporting to CSV: " + e.getMessage());
-            return false;
+    public long exportReport(String dataset, LocalDate from, LocalDate to, ExportWriter.Format format, boolean gzip,
+                             WritableByteChannel out) throws SQLException, IOException {
+        String sql = EXPORT_QUERIES.get(dataset);
+        if (sql == null) {
+            throw new IllegalArgumentException("Unknown export: " + dataset);
         }
+        
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            
+            pstmt.setFetchSize(STREAMING_FETCH_SIZE);
+            pstmt.setDate(1, Date.valueOf(from));
+            pstmt.setDate(2, Date.valueOf(to));
+            ResultSet rs = pstmt.executeQuery();
+            
+            return new ExportWriter(format, gzip, exportBufferBytes, out).writeAll(rs);
+        }
+    }
+    
+    /**
+     * Export to a file, replacing it if it exists
+     * @see #exportReport(String, LocalDate, LocalDate, ExportWriter.Format, boolean, WritableByteChannel)
+     */
+    public long exportReportToFile(String dataset, LocalDate from, LocalDate to, ExportWriter.Format format, boolean gzip,
+                                   Path file) throws SQLException, IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return exportReport(dataset, from, to, format, gzip, channel);
+        }
+    }
+    
+    /**
+     * @return true if dataset names an export
+     */
+    public static boolean isExportDataset(String dataset) {
+        return EXPORT_QUERIES.containsKey(dataset);
+    }
+
+    private static RowMapper<PatientVisitAnalysis> patientVisitAnalysis(ResultSet rs) throws SQLException {
+        int patientID = rs.findColumn("PatientID");
+        int patientName = rs.findColumn("PatientName");
+        int age = rs.findColumn("Age");
+        int weekNumber = rs.findColumn("WeekNumber");
+        int visitCount = rs.findColumn("VisitCount");
+        int visitTypes = rs.findColumn("VisitTypes");
+        return r -> new PatientVisitAnalysis(
+            r.getInt(patientID),
+            r.getString(patientName),
+            r.getInt(age),
+            r.getInt(weekNumber),
+            r.getInt(visitCount),
+            r.getString(visitTypes)
+        );
+    }
+
+    private static RowMapper<DoctorPerformance> doctorPerformance(ResultSet rs) throws SQLException {
+        int staffID = rs.findColumn("StaffID");
+        int doctorName = rs.findColumn("DoctorName");
+        int specialization = rs.findColumn("Specialization");
+        int totalAppointments = rs.findColumn("TotalAppointments");
+        int completedAppointments = rs.findColumn("CompletedAppointments");
+        int canceledAppointments = rs.findColumn("CanceledAppointments");
+        int uniquePatients = rs.findColumn("UniquePatients");
+        int averageRating = rs.findColumn("AverageRating");
+        int totalFeedbacks = rs.findColumn("TotalFeedbacks");
+        int totalRevenue = rs.findColumn("TotalRevenue");
+        return r -> {
+            int total = r.getInt(totalAppointments);
+            int completed = r.getInt(completedAppointments);
+            
+            // Calculate success rate
+            double successRate = total > 0 ? (double) completed / total * 100 : 0;
+            
+            return new DoctorPerformance(
+                r.getInt(staffID),
+                r.getString(doctorName),
+                r.getString(specialization),
+                total,
+                completed,
+                r.getInt(canceledAppointments),
+                r.getInt(uniquePatients),
+                r.getDouble(averageRating),
+                r.getInt(totalFeedbacks),
+                r.getDouble(totalRevenue),
+                successRate
+            );
+        };
+    }
+
+    private static RowMapper<FinancialOperations> financialOperations(ResultSet rs) throws SQLException {
+        int reportDate = rs.findColumn("ReportDate");
+        int totalBills = rs.findColumn("TotalBills");
+        int totalRevenue = rs.findColumn("TotalRevenue");
+        int averageRevenue = rs.findColumn("AverageRevenue");
+        int paidRevenue = rs.findColumn("PaidRevenue");
+        int unpaidRevenue = rs.findColumn("UnpaidRevenue");
+        int paidBills = rs.findColumn("PaidBills");
+        int unpaidBills = rs.findColumn("UnpaidBills");
+        return r -> {
+            int bills = r.getInt(totalBills);
+            int paid = r.getInt(paidBills);
+            
+            // Calculate payment rate
+            double paymentRate = bills > 0 ? (double) paid / bills * 100 : 0;
+            
+            return new FinancialOperations(
+                r.getDate(reportDate),
+                bills,
+                r.getDouble(totalRevenue),
+                r.getDouble(averageRevenue),
+                r.getDouble(paidRevenue),
+                r.getDouble(unpaidRevenue),
+                paid,
+                r.getInt(unpaidBills),
+                paymentRate
+            );
+        };
+    }
+
+    private static RowMapper<ResourceUtilization> resourceUtilization(ResultSet rs) throws SQLException {
+        int itemID = rs.findColumn("ItemID");
+        int itemName = rs.findColumn("ItemName");
+        int itemType = rs.findColumn("ItemType");
+        int purpose = rs.findColumn("Purpose");
+        int currentStock = rs.findColumn("CurrentStock");
+        int reorderThreshold = rs.findColumn("ReorderThreshold");
+        int unitPrice = rs.findColumn("UnitPrice");
+        int totalUsed = rs.findColumn("TotalUsed");
+        int appointmentsUsed = rs.findColumn("AppointmentsUsed");
+        int totalCost = rs.findColumn("TotalCost");
+        return r -> {
+            String type = r.getString(itemType);
+            int stock = r.getInt(currentStock);
+            int threshold = r.getInt(reorderThreshold);
+            int used = r.getInt(totalUsed);
+            int appointments = r.getInt(appointmentsUsed);
+            
+            // Usage rate (monthly average)
+            double monthlyUsageRate = used > 0 ? (double) used / 12 : 0;
+            
+            // Stock status
+            String stockStatus;
+            if (stock <= threshold) {
+                stockStatus = "Low Stock";
+            } else if (stock <= threshold * 2) {
+                stockStatus = "Medium Stock";
+            } else {
+                stockStatus = "High Stock";
+            }
+            
+            // Equipment utilization frequency (for equipment items)
+            Double utilizationFrequency = null;
+            if ("Equipment".equals(type)) {
+                utilizationFrequency = appointments > 0 ? (double) appointments / 52 : 0; // Weekly average
+            }
+            
+            return new ResourceUtilization(
+                r.getInt(itemID),
+                r.getString(itemName),
+                type,
+                r.getString(purpose),
+                stock,
+                threshold,
+                r.getDouble(unitPrice),
+                used,
+                appointments,
+                r.getDouble(totalCost),
+                monthlyUsageRate,
+                stockStatus,
+                utilizationFrequency
+            );
+        };
     }
-} 
+}
@@ -0,0 +1,62 @@
+package com.clinicnexus.service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.Predicate;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.clinicnexus.cache.SuggestIndex;
+import com.clinicnexus.util.Suggestion;
+
+@Service
+public class SearchService {
+
+    /**
+     * Suggest type for staff with JobType Doctor, alongside the Suggestion types
+     */
+    public static final String DOCTOR = "doctor";
+
+    static final int DEFAULT_SUGGESTIONS = 10;
+    static final int MAX_SUGGESTIONS = 50;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
+
+    /**
+     * Type-ahead over patient names, staff names and specializations, and inventory names and purposes
+     * @param query Prefix typed so far
+     * @param types Any of patient, staff, doctor and inventory (null or empty for all but doctor, which staff covers)
+     * @param limit Maximum number of suggestions (null for default)
+     * @return Best matches first
+     * @throws IllegalArgumentException if a type is not recognized
+     */
+    public List<Suggestion> suggest(String query, List<String> types, Integer limit) {
+        Set<String> requested = new HashSet<>();
+        if (types == null || types.isEmpty()) {
+            requested.add(Suggestion.PATIENT);
+            requested.add(Suggestion.STAFF);
+            requested.add(Suggestion.INVENTORY);
+        } else {
+            for (String type : types) {
+                String normalized = type.trim().toLowerCase(Locale.ROOT);
+                if (!normalized.equals(Suggestion.PATIENT) && !normalized.equals(Suggestion.STAFF)
+                        && !normalized.equals(DOCTOR) && !normalized.equals(Suggestion.INVENTORY)) {
+                    throw new IllegalArgumentException("Unknown suggestion type: " + type);
+                }
+                requested.add(normalized);
+            }
+        }
+        boolean doctorsOnly = requested.remove(DOCTOR) && !requested.contains(Suggestion.STAFF);
+        if (doctorsOnly) {
+            requested.add(Suggestion.STAFF);
+        }
+        Predicate<Suggestion> filter = suggestion -> !doctorsOnly
+            || !Suggestion.STAFF.equals(suggestion.getType()) || "Doctor".equals(suggestion.getCategory());
+        int maxResults = limit == null ? DEFAULT_SUGGESTIONS : Math.max(1, Math.min(limit, MAX_SUGGESTIONS));
+        return suggestIndex.suggest(query, requested, filter, maxResults);
+    }
+}
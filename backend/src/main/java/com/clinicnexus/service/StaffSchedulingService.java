@@ -11,12 +11,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import javax.sql.DataSource;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.clinicnexus.config.DatabaseConnection;
+import com.clinicnexus.cache.StaffDirectory;
 import com.clinicnexus.dao.AppointmentDAO;
 import com.clinicnexus.dao.StaffDAO;
+import com.clinicnexus.dao.RowMapper;
+import com.clinicnexus.dao.RowMappers;
 import com.clinicnexus.model.Appointment;
+import com.clinicnexus.projection.StaffScheduleEntry;
 import com.clinicnexus.util.CoverageResult;
 import com.clinicnexus.util.SchedulingResult;
 import com.clinicnexus.util.TimeOffResult;
@@ -28,13 +33,17 @@ import com.clinicnexus.util.TimeOffResult;
 @Service
 public class StaffSchedulingService {
     
-    private final StaffDAO staffDAO;
-    private final AppointmentDAO appointmentDAO;
+    @Autowired
+    private DataSource dataSource;
     
-    public StaffSchedulingService() {
-        this.staffDAO = new StaffDAO();
-        this.appointmentDAO = new AppointmentDAO();
-    }
+    @Autowired
+    private StaffDAO staffDAO;
+    
+    @Autowired
+    private AppointmentDAO appointmentDAO;
+    
+    @Autowired
+    private StaffDirectory staffDirectory;
     
     /**
      * Schedule staff shift with validation
@@ -47,7 +56,7 @@ public class StaffSchedulingService {
     public SchedulingResult scheduleStaffShift(int staffID, Date shiftDate, Time startTime, Time endTime) {
         Connection conn = null;
         try {
-            conn = DatabaseConnection.getConnection();
+            conn = dataSource.getConnection();
             conn.setAutoCommit(false);
             
             // Step 1: Prevent double-booking - validate against existing schedules
@@ -56,7 +65,7 @@ public class StaffSchedulingService {
             }
             
             // Step 2: Validate staff member exists and is active
-            if (!isStaffValid(conn, staffID)) {
+            if (!staffDirectory.isActiveStaff(staffID)) {
                 throw new SQLException("Staff member not found or inactive");
             }
             
@@ -104,11 +113,11 @@ public class StaffSchedulingService {
     public TimeOffResult processTimeOffRequest(int staffID, Date startDate, Date endDate, String reason) {
         Connection conn = null;
         try {
-            conn = DatabaseConnection.getConnection();
+            conn = dataSource.getConnection();
             conn.setAutoCommit(false);
             
             // Step 1: Validate staff member
-            if (!isStaffValid(conn, staffID)) {
+            if (!staffDirectory.isActiveStaff(staffID)) {
                 throw new SQLException("Staff member not found or inactive");
             }
             
@@ -163,7 +172,7 @@ public class StaffSchedulingService {
     public CoverageResult checkStaffCoverage(Date date, String shift) {
         Connection conn = null;
         try {
-            conn = DatabaseConnection.getConnection();
+            conn = dataSource.getConnection();
             
             // Get current staff scheduled for the date
             List<Map<String, Object>> scheduledStaff = getScheduledStaff(conn, date, shift);
@@ -233,18 +242,6 @@ public class StaffSchedulingService {
         return startTime.before(endTime);
     }
     
-    /**
-     * Validate staff member
-     */
-    private boolean isStaffValid(Connection conn, int staffID) throws SQLException {
-        String sql = "SELECT COUNT(*) FROM Staff WHERE StaffID = ? AND ActiveStatus = true";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, staffID);
-            ResultSet rs = pstmt.executeQuery();
-            return rs.next() && rs.getInt(1) > 0;
-        }
-    }
-    
     /**
      * Create shift schedule record
      */
@@ -276,18 +273,9 @@ public class StaffSchedulingService {
             pstmt.setDate(3, endDate);
             ResultSet rs = pstmt.executeQuery();
             
+            RowMapper<Appointment> mapper = RowMappers.appointment(rs);
             while (rs.next()) {
-                conflicts.add(new Appointment(
-                    rs.getInt("AppointmentID"),
-                    rs.getInt("PatientID"),
-                    rs.getInt("DoctorID"),
-                    rs.getDate("Date"),
-                    rs.getTime("Time"),
-                    rs.getInt("Duration"),
-                    rs.getString("VisitType"),
-                    rs.getString("Status"),
-                    rs.getString("Notes")
-                ));
+                conflicts.add(mapper.mapRow(rs));
             }
         }
         
@@ -348,10 +336,10 @@ public class StaffSchedulingService {
     /**
      * Get staff schedule for a date range
      */
-    public List<Map<String, Object>> getStaffSchedule(Date startDate, Date endDate) {
-        List<Map<String, Object>> schedule = new ArrayList<>();
+    public List<StaffScheduleEntry> getStaffSchedule(Date startDate, Date endDate) {
+        List<StaffScheduleEntry> schedule = new ArrayList<>();
         
-        try (Connection conn = DatabaseConnection.getConnection()) {
+        try (Connection conn = dataSource.getConnection()) {
             String sql = "SELECT s.StaffID, s.Name, s.JobType, a.Date, a.Time " +
                         "FROM Staff s " +
                         "LEFT JOIN Appointment a ON s.StaffID = a.DoctorID " +
@@ -364,14 +352,9 @@ public class StaffSchedulingService {
                 pstmt.setDate(2, endDate);
                 ResultSet rs = pstmt.executeQuery();
                 
+                // Columns are selected in record order, so they can be read by position
                 while (rs.next()) {
-                    Map<String, Object> scheduleItem = new HashMap<>();
-                    scheduleItem.put("staffID", rs.getInt("StaffID"));
-                    scheduleItem.put("name", rs.getString("Name"));
-                    scheduleItem.put("jobType", rs.getString("JobType"));
-                    scheduleItem.put("date", rs.getDate("Date"));
-                    scheduleItem.put("time", rs.getTime("Time"));
-                    schedule.add(scheduleItem);
+                    schedule.add(new StaffScheduleEntry(rs.getInt(1), rs.getString(2), rs.getString(3), rs.getDate(4), rs.getTime(5)));
                 }
             }
         } catch (SQLException e) {
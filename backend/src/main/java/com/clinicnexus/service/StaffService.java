@@ -1,50 +1,112 @@
 package com.clinicnexus.service;
 
+import java.io.IOException;
+import java.sql.SQLException;
 import java.util.List;
-import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.StaffDirectory;
+import com.clinicnexus.cache.SuggestIndex;
 import com.clinicnexus.dao.StaffDAO;
 import com.clinicnexus.model.Staff;
+import com.clinicnexus.projection.StaffWithAppointments;
+import com.clinicnexus.util.Page;
+import com.clinicnexus.util.PageCursor;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.UpdateResult;
 
 @Service
 public class StaffService {
-    private final StaffDAO staffDAO;
+    
+    @Autowired
+    private StaffDAO staffDAO;
+    
+    @Autowired
+    private AppointmentIntervalIndex appointmentIndex;
 
-    public StaffService() {
-        this.staffDAO = new StaffDAO();
-    }
+    @Autowired
+    private StaffDirectory staffDirectory;
+
+    @Autowired
+    private SuggestIndex suggestIndex;
 
     public boolean createStaff(Staff staff) {
-        return staffDAO.addStaff(staff);
+        boolean created = staffDAO.addStaff(staff);
+        if (created) {
+            staffDirectory.invalidate();
+            suggestIndex.onStaffSaved(staff);
+        }
+        return created;
     }
 
     public Staff getStaff(int staffID) {
-        return staffDAO.getStaff(staffID);
+        return staffDirectory.getStaff(staffID);
     }
 
-    public boolean updateStaff(Staff staff) {
-        return staffDAO.updateStaff(staff);
+    public UpdateResult updateStaff(Staff staff) {
+        UpdateResult result = staffDAO.updateStaff(staff);
+        if (result.isUpdated()) {
+            staffDirectory.invalidate();
+            suggestIndex.onStaffSaved(staff);
+        }
+        return result;
     }
 
     public boolean deleteStaff(int staffID) {
-        return staffDAO.deleteStaff(staffID);
+        boolean deleted = staffDAO.deleteStaff(staffID);
+        if (deleted) {
+            staffDirectory.invalidate();
+            suggestIndex.onStaffDeleted(staffID);
+            // Cascading delete removed appointments we cannot enumerate here
+            appointmentIndex.clear();
+        }
+        return deleted;
     }
 
     public List<Staff> listStaff(String jobTypeFilter, String specializationFilter, Boolean activeFilter) {
         return staffDAO.getStaffList(jobTypeFilter, specializationFilter, activeFilter);
     }
 
-    public Map<String, Object> getStaffWithAppointments(int staffID) {
+    public void streamStaff(String jobTypeFilter, String specializationFilter, Boolean activeFilter,
+                            RowCallback<Staff> callback) throws SQLException, IOException {
+        staffDAO.streamStaff(jobTypeFilter, specializationFilter, activeFilter, callback);
+    }
+
+    /**
+     * List one page of staff members, ordered by name
+     * @param after Cursor returned with the previous page (null for the first page)
+     * @param limit Page size (null for default)
+     * @return Page of staff members
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public Page<Staff> listStaffPage(String jobTypeFilter, String specializationFilter, Boolean activeFilter, String after, Integer limit) {
+        Staff last = null;
+        if (after != null) {
+            String[] key = PageCursor.decode(after, 2);
+            last = new Staff();
+            last.setName(key[0]);
+            last.setStaffID(Integer.parseInt(key[1]));
+        }
+        int pageSize = Page.clampLimit(limit);
+        List<Staff> rows = staffDAO.getStaffPage(jobTypeFilter, specializationFilter, activeFilter, last, pageSize + 1);
+        return Page.of(rows, pageSize, s -> PageCursor.encode(s.getName(), s.getStaffID()));
+    }
+
+    public StaffWithAppointments getStaffWithAppointments(int staffID) {
         return staffDAO.getStaffWithAppointments(staffID);
     }
     
     public List<Staff> searchStaffByName(String name) {
-        return staffDAO.searchStaffByName(name);
+        return staffDirectory.searchByName(name);
     }
     
-    public int getStaffIdByName(String name) {
-        return staffDAO.getStaffIdByName(name);
+    /**
+     * @return IDs of every staff member with this name, ignoring case, accents and extra spaces
+     */
+    public int[] getStaffIdsByName(String name) {
+        return staffDirectory.getStaffIdsByName(name, null);
     }
 } 
@@ -4,14 +4,20 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.List;
 import java.util.Map;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
-import com.clinicnexus.config.DatabaseConnection;
+import com.clinicnexus.cache.InventoryCatalog;
 import com.clinicnexus.dao.AppointmentDAO;
 import com.clinicnexus.dao.InventoryDAO;
 import com.clinicnexus.dao.PatientDAO;
+import com.clinicnexus.dao.ReportRollups;
+import com.clinicnexus.dao.RowMappers;
+import com.clinicnexus.dao.StockUpdates;
+import com.clinicnexus.dao.TransactionRunner;
 import com.clinicnexus.model.Appointment;
 import com.clinicnexus.util.AppointmentResult;
 import com.clinicnexus.util.VisitProcessingData;
@@ -24,73 +30,77 @@ import com.clinicnexus.util.VisitResult;
 @Service
 public class VisitProcessingService {
     
-    private final AppointmentDAO appointmentDAO;
-    private final PatientDAO patientDAO;
-    private final InventoryDAO inventoryDAO;
-    private final AppointmentTransactionService appointmentService;
+    @Autowired
+    private TransactionRunner transactionRunner;
     
-    public VisitProcessingService() {
-        this.appointmentDAO = new AppointmentDAO();
-        this.patientDAO = new PatientDAO();
-        this.inventoryDAO = new InventoryDAO();
-        this.appointmentService = new AppointmentTransactionService();
-    }
+    @Autowired
+    private AppointmentDAO appointmentDAO;
+    
+    @Autowired
+    private PatientDAO patientDAO;
+    
+    @Autowired
+    private InventoryDAO inventoryDAO;
+    
+    @Autowired
+    private InventoryCatalog inventoryCatalog;
+    
+    @Autowired
+    private AppointmentTransactionService appointmentService;
     
     /**
      * Process a patient visit with all related operations
+     * The bill is priced from the inventory catalog before the transaction opens, and a
+     * follow-up is booked only after the visit has committed, as its own booking transaction
      * @param visitData Visit processing data
      * @return VisitResult with success status and details
      */
     public VisitResult processPatientVisit(VisitProcessingData visitData) {
-        Connection conn = null;
+        String invalid = invalidUsage(visitData.getInventoryUsage());
+        if (invalid != null) {
+            return new VisitResult(false, invalid);
+        }
         try {
-            conn = DatabaseConnection.getConnection();
-            conn.setAutoCommit(false);
-            
-            // Step 1: Update appointment status to 'Done'
-            updateAppointmentStatus(conn, visitData.getAppointmentID(), "Done");
-            
-            // Step 2: Record health metrics (vital signs)
-            recordHealthMetrics(conn, visitData);
+            double totalAmount = calculateTotalAmount(visitData);
             
-            // Step 3: Log diagnosis and treatment
-            logDiagnosisAndTreatment(conn, visitData);
-            
-            // Step 4: Process medication/inventory usage
-            if (visitData.getInventoryUsage() != null && !visitData.getInventoryUsage().isEmpty()) {
-                processInventoryUsage(conn, visitData.getAppointmentID(), visitData.getInventoryUsage());
-            }
-            
-            // Step 5: Generate/update bill
-            generateBill(conn, visitData);
+            Appointment followUp = transactionRunner.inTransaction("processPatientVisit", conn -> {
+                List<ReportRollups.Fact> before = ReportRollups.snapshot(conn, ReportRollups.Scope.APPOINTMENT, visitData.getAppointmentID());
+                
+                // Step 1: Update appointment status to 'Done'
+                updateAppointmentStatus(conn, visitData.getAppointmentID(), "Done");
+                
+                // Step 2: Record health metrics (vital signs)
+                recordHealthMetrics(conn, visitData);
+                
+                // Step 3: Log diagnosis and treatment
+                logDiagnosisAndTreatment(conn, visitData);
+                
+                // Step 4: Process medication/inventory usage
+                if (visitData.getInventoryUsage() != null && !visitData.getInventoryUsage().isEmpty()) {
+                    processInventoryUsage(conn, visitData.getAppointmentID(), visitData.getInventoryUsage());
+                }
+                
+                // Step 5: Generate/update bill
+                generateBill(conn, visitData.getAppointmentID(), totalAmount);
+                
+                // Step 6: Apply the status and bill changes to the report rollups
+                ReportRollups.apply(conn, before, ReportRollups.snapshot(conn, ReportRollups.Scope.APPOINTMENT, visitData.getAppointmentID()));
+                
+                // Step 7: Prepare the follow-up appointment if needed; it is booked after commit
+                return visitData.isScheduleFollowUp() ? prepareFollowUpAppointment(conn, visitData) : null;
+            });
             
-            // Step 6: Schedule follow-up appointment if needed
-            if (visitData.isScheduleFollowUp()) {
-                scheduleFollowUpAppointment(conn, visitData);
+            if (followUp != null) {
+                AppointmentResult result = appointmentService.scheduleAppointment(followUp);
+                if (!result.isSuccess()) {
+                    return new VisitResult(true, "Patient visit processed, but the follow-up appointment was not scheduled: " + result.getMessage());
+                }
             }
-            
-            conn.commit();
             return new VisitResult(true, "Patient visit processed successfully");
             
         } catch (SQLException e) {
-            try {
-                if (conn != null) {
-                    conn.rollback();
-                }
-            } catch (SQLException rollbackEx) {
-                System.err.println("Rollback error: " + rollbackEx.getMessage());
-            }
             System.err.println("Error processing patient visit: " + e.getMessage());
             return new VisitResult(false, e.getMessage());
-        } finally {
-            try {
-                if (conn != null) {
-                    conn.setAutoCommit(true);
-                    conn.close();
-                }
-            } catch (SQLException e) {
-                System.err.println("Error closing connection: " + e.getMessage());
-            }
         }
     }
     
@@ -98,7 +108,7 @@ public class VisitProcessingService {
      * Update appointment status
      */
     private void updateAppointmentStatus(Connection conn, int appointmentID, String newStatus) throws SQLException {
-        String sql = "UPDATE Appointment SET Status = ? WHERE AppointmentID = ?";
+        String sql = "UPDATE Appointment SET Status = ?, Version = Version + 1 WHERE AppointmentID = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, newStatus);
             pstmt.setInt(2, appointmentID);
@@ -120,7 +130,7 @@ public class VisitProcessingService {
         String vitalSigns = formatVitalSigns(visitData.getVitalSigns());
         String updatedNotes = currentNotes + "\n\nVital Signs: " + vitalSigns;
         
-        String sql = "UPDATE Appointment SET Notes = ? WHERE AppointmentID = ?";
+        String sql = "UPDATE Appointment SET Notes = ?, Version = Version + 1 WHERE AppointmentID = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, updatedNotes);
             pstmt.setInt(2, visitData.getAppointmentID());
@@ -169,7 +179,7 @@ public class VisitProcessingService {
         String treatmentInfo = "\nTreatment: " + visitData.getTreatment();
         String updatedNotes = currentNotes + diagnosisInfo + treatmentInfo;
         
-        String sql = "UPDATE Appointment SET Notes = ? WHERE AppointmentID = ?";
+        String sql = "UPDATE Appointment SET Notes = ?, Version = Version + 1 WHERE AppointmentID = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
             pstmt.setString(1, updatedNotes);
             pstmt.setInt(2, visitData.getAppointmentID());
@@ -181,119 +191,61 @@ public class VisitProcessingService {
      * Process inventory usage during the visit
      */
     private void processInventoryUsage(Connection conn, int appointmentID, Map<Integer, Integer> inventoryUsage) throws SQLException {
-        // Check inventory availability
-        for (Map.Entry<Integer, Integer> entry : inventoryUsage.entrySet()) {
-            int itemID = entry.getKey();
-            int quantityUsed = entry.getValue();
-            
-            if (!checkInventoryAvailability(conn, itemID, quantityUsed)) {
-                throw new SQLException("Insufficient inventory for item ID: " + itemID);
-            }
+        // Conditionally decrement stock, in ItemID order
+        Integer shortItemID = StockUpdates.decrementStock(conn, inventoryUsage);
+        if (shortItemID != null) {
+            throw new SQLException("Insufficient inventory for item ID: " + shortItemID);
         }
         
-        // Record usage and update inventory
-        for (Map.Entry<Integer, Integer> entry : inventoryUsage.entrySet()) {
-            int itemID = entry.getKey();
-            int quantityUsed = entry.getValue();
-            
-            // Record usage in appointment_inventory table
-            recordInventoryUsage(conn, appointmentID, itemID, quantityUsed);
-            
-            // Update inventory stock
-            updateInventoryStock(conn, itemID, quantityUsed);
-        }
+        // Record usage in appointment_inventory table, in the same order
+        StockUpdates.recordUsage(conn, appointmentID, inventoryUsage);
     }
     
     /**
-     * Check if inventory is available
+     * Generate or update bill for the visit
      */
-    private boolean checkInventoryAvailability(Connection conn, int itemID, int quantityNeeded) throws SQLException {
-        String sql = "SELECT StockQuantity FROM Inventory WHERE ItemID = ? AND ActiveStatus = true";
+    private void generateBill(Connection conn, int appointmentID, double totalAmount) throws SQLException {
+        // Update existing billing record
+        String sql = "UPDATE Billing SET Amount = ?, Version = Version + 1 WHERE AppointmentID = ?";
         try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, itemID);
-            ResultSet rs = pstmt.executeQuery();
+            pstmt.setDouble(1, totalAmount);
+            pstmt.setInt(2, appointmentID);
             
-            if (rs.next()) {
-                int currentStock = rs.getInt("StockQuantity");
-                return currentStock >= quantityNeeded;
+            int rowsAffected = pstmt.executeUpdate();
+            if (rowsAffected == 0) {
+                // Create new billing record if it doesn't exist
+                createBillingRecord(conn, appointmentID, totalAmount);
             }
         }
-        return false;
     }
     
     /**
-     * Record inventory usage
+     * Check the used quantities before anything is priced or written; StockUpdates rejects the
+     * same quantities inside the transaction, but pricing runs first and cannot take a null
+     * @return Why the usage is invalid, or null if it is valid or absent
      */
-    private void recordInventoryUsage(Connection conn, int appointmentID, int itemID, int quantityUsed) throws SQLException {
-        String sql = "INSERT INTO Appointment_Inventory (AppointmentID, ItemID, QuantityUsed) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE QuantityUsed = QuantityUsed + ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, appointmentID);
-            pstmt.setInt(2, itemID);
-            pstmt.setInt(3, quantityUsed);
-            pstmt.setInt(4, quantityUsed);
-            pstmt.executeUpdate();
+    private static String invalidUsage(Map<Integer, Integer> inventoryUsage) {
+        if (inventoryUsage == null) {
+            return null;
         }
-    }
-    
-    /**
-     * Update inventory stock
-     */
-    private void updateInventoryStock(Connection conn, int itemID, int quantityUsed) throws SQLException {
-        String sql = "UPDATE Inventory SET StockQuantity = StockQuantity - ? WHERE ItemID = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setInt(1, quantityUsed);
-            pstmt.setInt(2, itemID);
-            pstmt.executeUpdate();
-        }
-    }
-    
-    /**
-     * Generate or update bill for the visit
-     */
-    private void generateBill(Connection conn, VisitProcessingData visitData) throws SQLException {
-        double totalAmount = calculateTotalAmount(conn, visitData);
-        
-        // Update existing billing record
-        String sql = "UPDATE Billing SET Amount = ? WHERE AppointmentID = ?";
-        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            pstmt.setDouble(1, totalAmount);
-            pstmt.setInt(2, visitData.getAppointmentID());
-            
-            int rowsAffected = pstmt.executeUpdate();
-            if (rowsAffected == 0) {
-                // Create new billing record if it doesn't exist
-                createBillingRecord(conn, visitData.getAppointmentID(), totalAmount);
+        for (Map.Entry<Integer, Integer> entry : inventoryUsage.entrySet()) {
+            if (entry.getKey() == null || entry.getValue() == null || entry.getValue() <= 0) {
+                return "Invalid quantity for item ID: " + entry.getKey();
             }
         }
+        return null;
     }
     
     /**
      * Calculate total amount for the visit
+     * Unit prices come from the inventory catalog, so pricing needs no query
      */
-    private double calculateTotalAmount(Connection conn, VisitProcessingData visitData) throws SQLException {
-        double baseAmount = visitData.getBaseAmount();
-        double inventoryAmount = 0.0;
-        
-        // Calculate inventory costs
-        if (visitData.getInventoryUsage() != null) {
-            for (Map.Entry<Integer, Integer> entry : visitData.getInventoryUsage().entrySet()) {
-                int itemID = entry.getKey();
-                int quantityUsed = entry.getValue();
-                
-                String sql = "SELECT UnitPrice FROM Inventory WHERE ItemID = ?";
-                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
-                    pstmt.setInt(1, itemID);
-                    ResultSet rs = pstmt.executeQuery();
-                    
-                    if (rs.next()) {
-                        double unitPrice = rs.getDouble("UnitPrice");
-                        inventoryAmount += unitPrice * quantityUsed;
-                    }
-                }
-            }
+    private double calculateTotalAmount(VisitProcessingData visitData) {
+        Map<Integer, Integer> inventoryUsage = visitData.getInventoryUsage();
+        if (inventoryUsage == null || inventoryUsage.isEmpty()) {
+            return visitData.getBaseAmount();
         }
-        
-        return baseAmount + inventoryAmount;
+        return visitData.getBaseAmount() + inventoryCatalog.priceOf(inventoryUsage);
     }
     
     /**
@@ -309,29 +261,26 @@ public class VisitProcessingService {
     }
     
     /**
-     * Schedule follow-up appointment
+     * Build the follow-up appointment from the original one
+     * @return Follow-up to book, or null if the original is missing or no follow-up date was given
      */
-    private void scheduleFollowUpAppointment(Connection conn, VisitProcessingData visitData) throws SQLException {
+    private Appointment prepareFollowUpAppointment(Connection conn, VisitProcessingData visitData) throws SQLException {
         // Get original appointment details
         Appointment originalAppointment = getAppointmentDetails(conn, visitData.getAppointmentID());
         
-        if (originalAppointment != null && visitData.getFollowUpDate() != null) {
-            Appointment followUpAppointment = new Appointment();
-            followUpAppointment.setPatientID(originalAppointment.getPatientID());
-            followUpAppointment.setDoctorID(originalAppointment.getDoctorID());
-            followUpAppointment.setDate(visitData.getFollowUpDate());
-            followUpAppointment.setTime(visitData.getFollowUpTime());
-            followUpAppointment.setDuration(30); // Default duration
-            followUpAppointment.setVisitType("Check-up"); // Default follow-up type
-            followUpAppointment.setStatus("Not Done");
-            followUpAppointment.setNotes("Follow-up for appointment #" + visitData.getAppointmentID());
-            
-            // Use appointment service to schedule follow-up
-            AppointmentResult result = appointmentService.scheduleAppointment(followUpAppointment);
-            if (!result.isSuccess()) {
-                throw new SQLException("Failed to schedule follow-up appointment: " + result.getMessage());
-            }
+        if (originalAppointment == null || visitData.getFollowUpDate() == null) {
+            return null;
         }
+        Appointment followUpAppointment = new Appointment();
+        followUpAppointment.setPatientID(originalAppointment.getPatientID());
+        followUpAppointment.setDoctorID(originalAppointment.getDoctorID());
+        followUpAppointment.setDate(visitData.getFollowUpDate());
+        followUpAppointment.setTime(visitData.getFollowUpTime());
+        followUpAppointment.setDuration(30); // Default duration
+        followUpAppointment.setVisitType("Check-up"); // Default follow-up type
+        followUpAppointment.setStatus("Not Done");
+        followUpAppointment.setNotes("Follow-up for appointment #" + visitData.getAppointmentID());
+        return followUpAppointment;
     }
     
     /**
@@ -344,17 +293,7 @@ public class VisitProcessingService {
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                return new Appointment(
-                    rs.getInt("AppointmentID"),
-                    rs.getInt("PatientID"),
-                    rs.getInt("DoctorID"),
-                    rs.getDate("Date"),
-                    rs.getTime("Time"),
-                    rs.getInt("Duration"),
-                    rs.getString("VisitType"),
-                    rs.getString("Status"),
-                    rs.getString("Notes")
-                );
+                return RowMappers.appointment(rs).mapRow(rs);
             }
         }
         return null;
@@ -1,21 +1,47 @@
 package com.clinicnexus.util;
 
+import com.clinicnexus.model.Appointment;
+
 /**
  * Result class for appointment operations
  */
 public class AppointmentResult {
     private final boolean success;
     private final int appointmentID;
+    private final Appointment appointment;
     private final String message;
+    private final boolean busy;
     
     public AppointmentResult(boolean success, int appointmentID, String message) {
+        this(success, appointmentID, message, false);
+    }
+    
+    private AppointmentResult(boolean success, int appointmentID, String message, boolean busy) {
         this.success = success;
         this.message = message;
         this.appointmentID = appointmentID;
+        this.appointment = null;
+        this.busy = busy;
+    }
+    
+    public AppointmentResult(boolean success, Appointment appointment, String message) {
+        this.success = success;
+        this.message = message;
+        this.appointmentID = appointment.getAppointmentID();
+        this.appointment = appointment;
+        this.busy = false;
+    }
+    
+    /**
+     * Booking not attempted because the server is overloaded; the client should retry later
+     */
+    public static AppointmentResult busy(String message) {
+        return new AppointmentResult(false, -1, message, true);
     }
     
     public boolean isSuccess() { return success; }
     public int getAppointmentID() { return appointmentID; }
+    public Appointment getAppointment() { return appointment; }
     public String getMessage() { return message; }
+    public boolean isBusy() { return busy; }
 }
-
@@ -0,0 +1,32 @@
+package com.clinicnexus.util;
+
+import java.sql.Date;
+import java.sql.Time;
+
+/**
+ * An open appointment slot for a specific doctor
+ */
+public class AvailableSlot {
+    private final int doctorID;
+    private final String doctorName;
+    private final String specialization;
+    private final Date date;
+    private final Time time;
+    private final int duration;
+    
+    public AvailableSlot(int doctorID, String doctorName, String specialization, Date date, Time time, int duration) {
+        this.doctorID = doctorID;
+        this.doctorName = doctorName;
+        this.specialization = specialization;
+        this.date = date;
+        this.time = time;
+        this.duration = duration;
+    }
+    
+    public int getDoctorID() { return doctorID; }
+    public String getDoctorName() { return doctorName; }
+    public String getSpecialization() { return specialization; }
+    public Date getDate() { return date; }
+    public Time getTime() { return time; }
+    public int getDuration() { return duration; }
+}
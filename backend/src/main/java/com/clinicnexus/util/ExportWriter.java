@@ -0,0 +1,366 @@
+package com.clinicnexus.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes the rows of a forward-only ResultSet as CSV or NDJSON straight into one
+ * reused direct ByteBuffer as UTF-8, draining it to the target channel (a FileChannel
+ * or the servlet output stream) each time it fills. Memory use is the buffer plus
+ * the current row's values, however many rows are exported.
+ * Column names come from the result set labels; CSV gets a header line, NDJSON one
+ * object per line with numbers and booleans unquoted.
+ */
+public final class ExportWriter {
+
+    public enum Format {
+        CSV("csv", "text/csv"),
+        NDJSON("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String contentType;
+
+        Format(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() { return extension; }
+        public String getContentType() { return contentType; }
+    }
+
+    private static final int TEXT = 0;
+    private static final int NUMBER = 1;
+    private static final int BOOLEAN = 2;
+    private static final int MIN_BUFFER_SIZE = 16;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TRUE = "true".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] FALSE = "false".getBytes(StandardCharsets.US_ASCII);
+
+    private final Format format;
+    private final ByteBuffer buffer;
+    private final WritableByteChannel channel;
+    private final GZIPOutputStream gzip;
+
+    /**
+     * @param format CSV or NDJSON
+     * @param gzip true to gzip the output; the target then receives a complete .gz stream
+     * @param bufferSize Size of the direct buffer (at least 16 bytes), and of the gzip buffer when compressing
+     * @param target Channel to write to; it is not closed
+     * @throws IOException if the gzip header cannot be written
+     */
+    public ExportWriter(Format format, boolean gzip, int bufferSize, WritableByteChannel target) throws IOException {
+        this.format = format;
+        // Room for the longest single write: a JSON escape sequence
+        this.buffer = ByteBuffer.allocateDirect(Math.max(bufferSize, MIN_BUFFER_SIZE));
+        if (gzip) {
+            this.gzip = new GZIPOutputStream(new NonClosingOutputStream(Channels.newOutputStream(target)), bufferSize);
+            this.channel = Channels.newChannel(this.gzip);
+        } else {
+            this.gzip = null;
+            this.channel = target;
+        }
+    }
+
+    /**
+     * Write every remaining row, then flush (and finish the gzip stream)
+     * The gzip stream is closed either way, which frees its native Deflater; the target is not
+     * @param rs Result set positioned before the first row
+     * @return Number of rows written
+     */
+    public long writeAll(ResultSet rs) throws SQLException, IOException {
+        boolean written = false;
+        try {
+            long rows = writeRows(rs);
+            written = true;
+            return rows;
+        } finally {
+            if (gzip != null) {
+                closeGzip(written);
+            }
+        }
+    }
+
+    private long writeRows(ResultSet rs) throws SQLException, IOException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int columns = meta.getColumnCount();
+        int[] kinds = new int[columns + 1];
+        byte[][] keys = new byte[columns + 1][];
+        for (int i = 1; i <= columns; i++) {
+            kinds[i] = kind(meta.getColumnType(i));
+            keys[i] = key(meta.getColumnLabel(i), i == 1);
+        }
+
+        if (format == Format.CSV) {
+            for (int i = 1; i <= columns; i++) {
+                if (i > 1) {
+                    put((byte) ',');
+                }
+                csvText(meta.getColumnLabel(i));
+            }
+            put((byte) '\n');
+        }
+
+        long rows = 0;
+        while (rs.next()) {
+            if (format == Format.CSV) {
+                csvRow(rs, columns, kinds);
+            } else {
+                jsonRow(rs, columns, kinds, keys);
+            }
+            rows++;
+        }
+        drain();
+        if (gzip != null) {
+            gzip.finish();
+            gzip.flush();
+        }
+        return rows;
+    }
+
+    /**
+     * @param written false when the write already failed; a close error then must not hide that failure
+     */
+    private void closeGzip(boolean written) throws IOException {
+        try {
+            gzip.close();
+        } catch (IOException e) {
+            if (written) {
+                throw e;
+            }
+        }
+    }
+
+    private void csvRow(ResultSet rs, int columns, int[] kinds) throws SQLException, IOException {
+        for (int i = 1; i <= columns; i++) {
+            if (i > 1) {
+                put((byte) ',');
+            }
+            if (kinds[i] == BOOLEAN) {
+                boolean value = rs.getBoolean(i);
+                if (!rs.wasNull()) {
+                    put(value ? TRUE : FALSE);
+                }
+                continue;
+            }
+            String value = rs.getString(i);
+            if (value == null) {
+                continue;
+            }
+            if (kinds[i] == NUMBER) {
+                ascii(value);
+            } else {
+                csvText(value);
+            }
+        }
+        put((byte) '\n');
+    }
+
+    private void jsonRow(ResultSet rs, int columns, int[] kinds, byte[][] keys) throws SQLException, IOException {
+        for (int i = 1; i <= columns; i++) {
+            put(keys[i]);
+            if (kinds[i] == BOOLEAN) {
+                boolean value = rs.getBoolean(i);
+                put(rs.wasNull() ? NULL : value ? TRUE : FALSE);
+                continue;
+            }
+            String value = rs.getString(i);
+            if (value == null) {
+                put(NULL);
+            } else if (kinds[i] == NUMBER) {
+                ascii(value);
+            } else {
+                jsonText(value);
+            }
+        }
+        put((byte) '}');
+        put((byte) '\n');
+    }
+
+    /**
+     * Quote a CSV field only when it holds a separator, quote or line break (RFC 4180)
+     */
+    private void csvText(String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            utf8(value);
+            return;
+        }
+        put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                put((byte) '"');
+            }
+            i = utf8(value, i);
+        }
+        put((byte) '"');
+    }
+
+    private void jsonText(String value) throws IOException {
+        put((byte) '"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                put((byte) '\\');
+                put((byte) c);
+            } else if (c == '\n') {
+                put((byte) '\\');
+                put((byte) 'n');
+            } else if (c == '\r') {
+                put((byte) '\\');
+                put((byte) 'r');
+            } else if (c == '\t') {
+                put((byte) '\\');
+                put((byte) 't');
+            } else if (c < 0x20) {
+                ensure(6);
+                buffer.put((byte) '\\').put((byte) 'u').put((byte) '0').put((byte) '0')
+                      .put(HEX[c >> 4]).put(HEX[c & 0xF]);
+            } else {
+                i = utf8(value, i);
+            }
+        }
+        put((byte) '"');
+    }
+
+    /**
+     * Numbers from the driver are plain ASCII digits, signs, points and exponents
+     */
+    private void ascii(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            put((byte) value.charAt(i));
+        }
+    }
+
+    private void utf8(String value) throws IOException {
+        for (int i = 0; i < value.length(); i++) {
+            i = utf8(value, i);
+        }
+    }
+
+    /**
+     * Encode the char at index i, or the surrogate pair starting there
+     * @return Index of the last char consumed
+     */
+    private int utf8(String value, int i) throws IOException {
+        ensure(4);
+        char c = value.charAt(i);
+        if (c < 0x80) {
+            buffer.put((byte) c);
+        } else if (c < 0x800) {
+            buffer.put((byte) (0xC0 | c >> 6)).put((byte) (0x80 | c & 0x3F));
+        } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+            int cp = Character.toCodePoint(c, value.charAt(++i));
+            buffer.put((byte) (0xF0 | cp >> 18)).put((byte) (0x80 | cp >> 12 & 0x3F))
+                  .put((byte) (0x80 | cp >> 6 & 0x3F)).put((byte) (0x80 | cp & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            buffer.put((byte) '?');
+        } else {
+            buffer.put((byte) (0xE0 | c >> 12)).put((byte) (0x80 | c >> 6 & 0x3F)).put((byte) (0x80 | c & 0x3F));
+        }
+        return i;
+    }
+
+    private void put(byte b) throws IOException {
+        if (!buffer.hasRemaining()) {
+            drain();
+        }
+        buffer.put(b);
+    }
+
+    private void put(byte[] bytes) throws IOException {
+        ensure(bytes.length);
+        if (bytes.length <= buffer.remaining()) {
+            buffer.put(bytes);
+        } else {
+            for (byte b : bytes) {
+                put(b);
+            }
+        }
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (buffer.remaining() < bytes) {
+            drain();
+        }
+    }
+
+    private void drain() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Lets the gzip stream be closed without closing the target channel, which belongs to the caller
+     */
+    private static final class NonClosingOutputStream extends FilterOutputStream {
+
+        NonClosingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+
+    private static int kind(int sqlType) {
+        switch (sqlType) {
+            case Types.BIT:
+            case Types.BOOLEAN:
+                return BOOLEAN;
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return NUMBER;
+            default:
+                return TEXT;
+        }
+    }
+
+    /**
+     * NDJSON key prefix for a column, e.g. {"AppointmentID": or ,"Date":
+     */
+    private static byte[] key(String label, boolean first) {
+        StringBuilder key = new StringBuilder(first ? "{\"" : ",\"");
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (c == '"' || c == '\\') {
+                key.append('\\');
+            }
+            key.append(c);
+        }
+        return key.append("\":").toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,52 @@
+package com.clinicnexus.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated list
+ * @param <T> Row type
+ */
+public class Page<T> {
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+    
+    private final List<T> items;
+    private final String nextCursor;
+    
+    public Page(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+    
+    public List<T> getItems() { return items; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean hasMore() { return nextCursor != null; }
+    
+    /**
+     * Build a page from rows fetched with LIMIT limit + 1
+     * @param rows Rows returned by the DAO, at most limit + 1
+     * @param limit Requested page size
+     * @param cursorOf Encodes the sort key of a row as a cursor
+     * @return Page holding at most limit rows, with a cursor if more rows exist
+     */
+    public static <T> Page<T> of(List<T> rows, int limit, Function<T, String> cursorOf) {
+        if (rows.size() <= limit) {
+            return new Page<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new Page<>(items, cursorOf.apply(items.get(limit - 1)));
+    }
+    
+    /**
+     * Clamp a requested page size to [1, MAX_LIMIT]
+     * @param limit Requested size (null for default)
+     * @return Effective page size
+     */
+    public static int clampLimit(Integer limit) {
+        if (limit == null) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.max(1, Math.min(limit, MAX_LIMIT));
+    }
+}
@@ -0,0 +1,47 @@
+package com.clinicnexus.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque cursor tokens for keyset pagination
+ * A cursor holds the sort-key values of the last row of a page
+ */
+public final class PageCursor {
+    
+    private static final String SEPARATOR = "\u001F";
+    
+    private PageCursor() {}
+    
+    /**
+     * Encode sort-key values into a URL-safe token
+     * @param values Sort-key values in ORDER BY order
+     * @return Cursor token
+     */
+    public static String encode(Object... values) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(values[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * Decode a cursor token
+     * @param token Cursor token
+     * @param expectedParts Number of sort-key values expected
+     * @return Sort-key values as strings
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static String[] decode(String token, int expectedParts) {
+        String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        String[] parts = decoded.split(SEPARATOR, -1);
+        if (parts.length != expectedParts) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        return parts;
+    }
+}
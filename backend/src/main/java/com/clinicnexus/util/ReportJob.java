@@ -0,0 +1,80 @@
+package com.clinicnexus.util;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One asynchronous report run, shared by every request that asked for the same
+ * report type and parameters while it was queued or running.
+ * Getters describe the job's status; the finished rows are read through rows()
+ * so they stay out of the status response.
+ */
+public class ReportJob {
+    public static final String QUEUED = "QUEUED";
+    public static final String RUNNING = "RUNNING";
+    public static final String DONE = "DONE";
+    public static final String FAILED = "FAILED";
+
+    private final String jobID;
+    private final String type;
+    private final Map<String, Integer> parameters;
+    private final Instant submittedAt;
+    private volatile String status = QUEUED;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+    private volatile List<?> rows;
+
+    public ReportJob(String jobID, String type, Map<String, Integer> parameters) {
+        this.jobID = jobID;
+        this.type = type;
+        this.parameters = parameters;
+        this.submittedAt = Instant.now();
+    }
+
+    public String getJobID() { return jobID; }
+    public String getType() { return type; }
+    public Map<String, Integer> getParameters() { return parameters; }
+    public String getStatus() { return status; }
+    public Instant getSubmittedAt() { return submittedAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public String getError() { return error; }
+
+    /**
+     * @return Number of result rows, or null until the job is done
+     */
+    public Integer getRowCount() {
+        List<?> result = rows;
+        return result != null ? result.size() : null;
+    }
+
+    /**
+     * @return Result rows, or null until the job is done
+     */
+    public List<?> rows() {
+        return rows;
+    }
+
+    public boolean isFinished() {
+        return DONE.equals(status) || FAILED.equals(status);
+    }
+
+    public void markRunning() {
+        startedAt = Instant.now();
+        status = RUNNING;
+    }
+
+    public void markDone(List<?> result) {
+        rows = result;
+        finishedAt = Instant.now();
+        status = DONE;
+    }
+
+    public void markFailed(String message) {
+        error = message;
+        finishedAt = Instant.now();
+        status = FAILED;
+    }
+}
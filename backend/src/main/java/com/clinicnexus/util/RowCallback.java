@@ -0,0 +1,18 @@
+package com.clinicnexus.util;
+
+import java.io.IOException;
+
+/**
+ * Receives rows one at a time from a streaming DAO read
+ * @param <T> Row type
+ */
+@FunctionalInterface
+public interface RowCallback<T> {
+    
+    /**
+     * Handle one row
+     * @param row Row mapped from the current result set position
+     * @throws IOException if the row cannot be written downstream; aborts the read
+     */
+    void accept(T row) throws IOException;
+}
@@ -0,0 +1,70 @@
+package com.clinicnexus.util;
+
+import java.util.Arrays;
+
+/**
+ * Response recorded for an idempotency key
+ */
+public class StoredResponse {
+    
+    private static final StoredResponse IN_PROGRESS = new StoredResponse(0, null, null, null);
+    private static final StoredResponse MISMATCH = new StoredResponse(-1, null, null, null);
+    
+    private final int status;
+    private final String headers;
+    private final String body;
+    private final byte[] requestHash;
+    
+    public StoredResponse(int status, String body) {
+        this(status, null, body, null);
+    }
+    
+    /**
+     * @param status HTTP status
+     * @param headers Response headers as a JSON object of name to values, or null
+     * @param body Response body as JSON
+     * @param requestHash SHA-256 of the request body that produced the response, or null if unknown
+     */
+    public StoredResponse(int status, String headers, String body, byte[] requestHash) {
+        this.status = status;
+        this.headers = headers;
+        this.body = body;
+        this.requestHash = requestHash;
+    }
+    
+    /**
+     * @return Placeholder for a key whose first request has not finished yet
+     */
+    public static StoredResponse inProgress() {
+        return IN_PROGRESS;
+    }
+    
+    /**
+     * @param requestHash SHA-256 of the body of the request holding the key
+     * @return Placeholder for a key whose first request has not finished yet
+     */
+    public static StoredResponse inProgress(byte[] requestHash) {
+        return new StoredResponse(0, null, null, requestHash);
+    }
+    
+    /**
+     * @return Placeholder for a key that was first used with a different request body
+     */
+    public static StoredResponse mismatch() {
+        return MISMATCH;
+    }
+    
+    public boolean isInProgress() { return status == 0; }
+    public boolean isMismatch() { return status == -1; }
+    public int getStatus() { return status; }
+    public String getHeaders() { return headers; }
+    public String getBody() { return body; }
+    
+    /**
+     * @return true if this response was recorded for a request with the given body hash;
+     *         rows recorded without a hash match any request
+     */
+    public boolean matches(byte[] otherRequestHash) {
+        return requestHash == null || otherRequestHash == null || Arrays.equals(requestHash, otherRequestHash);
+    }
+}
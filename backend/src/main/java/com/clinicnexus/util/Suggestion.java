@@ -0,0 +1,37 @@
+package com.clinicnexus.util;
+
+/**
+ * One type-ahead match: a patient, staff member or inventory item
+ */
+public class Suggestion {
+
+    public static final String PATIENT = "patient";
+    public static final String STAFF = "staff";
+    public static final String INVENTORY = "inventory";
+
+    private final String type;
+    private final int id;
+    private final String label;
+    private final String detail;
+    private final String category;
+
+    /**
+     * @param type PATIENT, STAFF or INVENTORY
+     * @param label Name shown in the list
+     * @param detail Specialization or purpose, also matched against (may be null)
+     * @param category Job type or item type (null for patients)
+     */
+    public Suggestion(String type, int id, String label, String detail, String category) {
+        this.type = type;
+        this.id = id;
+        this.label = label;
+        this.detail = detail;
+        this.category = category;
+    }
+
+    public String getType() { return type; }
+    public int getId() { return id; }
+    public String getLabel() { return label; }
+    public String getDetail() { return detail; }
+    public String getCategory() { return category; }
+}
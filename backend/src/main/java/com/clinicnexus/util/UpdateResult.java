@@ -0,0 +1,72 @@
+package com.clinicnexus.util;
+
+/**
+ * Outcome of a versioned update
+ */
+public class UpdateResult {
+    
+    public enum Status { UPDATED, NOT_FOUND, CONFLICT, REJECTED, BUSY, ERROR }
+    
+    private final Status status;
+    private final int version;
+    private final String message;
+    
+    private UpdateResult(Status status, int version, String message) {
+        this.status = status;
+        this.version = version;
+        this.message = message;
+    }
+    
+    /**
+     * @param version Version of the row after the update
+     */
+    public static UpdateResult updated(int version) {
+        return new UpdateResult(Status.UPDATED, version, null);
+    }
+    
+    public static UpdateResult notFound() {
+        return new UpdateResult(Status.NOT_FOUND, -1, null);
+    }
+    
+    /**
+     * @param currentVersion Version of the row that the update did not match
+     */
+    public static UpdateResult conflict(int currentVersion) {
+        return new UpdateResult(Status.CONFLICT, currentVersion, null);
+    }
+    
+    /**
+     * @param message Why the row could not take the new values, e.g. the new slot is taken
+     */
+    public static UpdateResult rejected(String message) {
+        return new UpdateResult(Status.REJECTED, -1, message);
+    }
+    
+    /**
+     * Update not made because the database was briefly unavailable (no pooled connection,
+     * lock conflicts until retries ran out); the client may retry the same request
+     */
+    public static UpdateResult busy(String message) {
+        return new UpdateResult(Status.BUSY, -1, message);
+    }
+    
+    /**
+     * @param message Database error that stopped the update
+     */
+    public static UpdateResult error(String message) {
+        return new UpdateResult(Status.ERROR, -1, message);
+    }
+    
+    public Status getStatus() { return status; }
+    public boolean isUpdated() { return status == Status.UPDATED; }
+    
+    /**
+     * @return New version when updated, current version on conflict, -1 otherwise
+     */
+    public int getVersion() { return version; }
+    
+    /**
+     * @return Reason for a rejection or failure, null for the other outcomes
+     */
+    public String getMessage() { return message; }
+}
@@ -0,0 +1,71 @@
+package com.clinicnexus.util;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Parser for the free-text Staff.WorkingDays column
+ * Accepts ranges ("Mon-Fri"), lists ("Mon, Wed, Fri") and "Daily"
+ */
+public final class WorkingDays {
+    
+    private static final Set<DayOfWeek> WEEKDAYS = EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY);
+    private static final Pattern DASH = Pattern.compile("\\s*-\\s*");
+    private static final Pattern SEPARATORS = Pattern.compile("[,;/\\s]+");
+    
+    private WorkingDays() {}
+    
+    /**
+     * Parse a WorkingDays value
+     * @param workingDays Value of Staff.WorkingDays
+     * @return Days of week worked; empty if none recorded, Mon-Fri if the value is not understood
+     */
+    public static Set<DayOfWeek> parse(String workingDays) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        if (workingDays == null || workingDays.trim().isEmpty()) {
+            return days;
+        }
+        
+        String value = workingDays.trim().toLowerCase(Locale.ROOT);
+        if (value.equals("daily") || value.equals("all") || value.equals("everyday")) {
+            return EnumSet.allOf(DayOfWeek.class);
+        }
+        
+        // "Mon - Fri" is one range, so spaces around a dash are dropped before splitting on separators
+        for (String token : SEPARATORS.split(DASH.matcher(value).replaceAll("-"))) {
+            String[] range = token.split("-");
+            if (token.isEmpty() || range.length == 0) {
+                continue;
+            }
+            DayOfWeek first = toDay(range[0]);
+            DayOfWeek last = range.length > 1 ? toDay(range[range.length - 1]) : first;
+            if (first == null || last == null) {
+                continue;
+            }
+            // Ranges may wrap around the week, e.g. "Sat-Mon"
+            for (DayOfWeek day = first; ; day = day.plus(1)) {
+                days.add(day);
+                if (day == last) {
+                    break;
+                }
+            }
+        }
+        
+        return days.isEmpty() ? EnumSet.copyOf(WEEKDAYS) : days;
+    }
+    
+    private static DayOfWeek toDay(String token) {
+        if (token.length() < 2) {
+            return null;
+        }
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if (day.name().toLowerCase(Locale.ROOT).startsWith(token)) {
+                return day;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,46 @@
+-- Secondary indexes for the hot read paths. Each table is altered once, in place and
+-- without blocking writes, so the migration is safe to run against a live database.
+-- InnoDB appends the primary key to every secondary index, so ID tie-breakers in
+-- ORDER BY / keyset predicates are covered without listing them.
+
+-- Conflict checks, doctor schedules and availability: DoctorID = ? AND Date = ?/BETWEEN, ORDER BY Date, Time
+-- Patient history: PatientID = ? ORDER BY Date DESC, Time DESC
+-- Appointment list, date-range preload and keyset pages: ORDER BY Date DESC, Time DESC, AppointmentID DESC
+-- Patient visit analysis: Status = 'Done' AND Date in month, grouped by PatientID (covering)
+ALTER TABLE Appointment
+    ADD INDEX idx_appointment_doctor_date_time (DoctorID, Date, Time),
+    ADD INDEX idx_appointment_patient_date_time (PatientID, Date, Time),
+    ADD INDEX idx_appointment_date_time (Date, Time),
+    ADD INDEX idx_appointment_status_date (Status, Date, PatientID, VisitType),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Name = ? lookups and ORDER BY Name, PatientID pages
+ALTER TABLE Patient
+    ADD INDEX idx_patient_name (Name),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Name = ? lookups and ORDER BY Name, StaffID pages
+-- Doctor listings and reports: JobType = 'Doctor' AND ActiveStatus AND Specialization = ?
+ALTER TABLE Staff
+    ADD INDEX idx_staff_name (Name),
+    ADD INDEX idx_staff_jobtype_active_spec (JobType, ActiveStatus, Specialization),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Low-stock scans: ActiveStatus = true AND StockQuantity <= ReorderThreshold (index-only)
+-- Expired items: ActiveStatus = true AND ExpiryDate < CURDATE() ORDER BY ExpiryDate
+-- ORDER BY Name, ItemID pages
+ALTER TABLE Inventory
+    ADD INDEX idx_inventory_active_stock (ActiveStatus, StockQuantity, ReorderThreshold),
+    ADD INDEX idx_inventory_active_expiry (ActiveStatus, ExpiryDate),
+    ADD INDEX idx_inventory_name (Name),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Paid = ? filters with ORDER BY BillingID DESC pages; AppointmentID is already UNIQUE
+ALTER TABLE Billing
+    ADD INDEX idx_billing_paid (Paid),
+    ALGORITHM=INPLACE, LOCK=NONE;
+
+-- Item usage: ItemID = ? joins and per-item totals (covering)
+ALTER TABLE Appointment_Inventory
+    ADD INDEX idx_appointment_inventory_item (ItemID, AppointmentID, QuantityUsed),
+    ALGORITHM=INPLACE, LOCK=NONE;
@@ -0,0 +1,11 @@
+-- Booking guard: one row per doctor and day that has been booked.
+-- scheduleAppointment upserts the row before its conflict check, which takes the row's
+-- exclusive lock, so bookings for the same doctor and day are serialized across every
+-- application instance until the booking transaction commits or rolls back.
+-- Bookings for other doctors or days lock other rows and are not affected.
+CREATE TABLE DoctorCalendar (
+    DoctorID INT NOT NULL,
+    Date DATE NOT NULL,
+    LastBookedAt TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (DoctorID, Date)
+);
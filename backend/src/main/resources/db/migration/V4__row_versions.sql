@@ -0,0 +1,24 @@
+-- Row versions for optimistic concurrency on the editable tables.
+-- A PUT carries the Version it read and updates with WHERE ... AND Version = ?;
+-- every write to the row increments Version, so an edit based on a stale read
+-- matches no row and is answered with 409 instead of overwriting the newer data.
+-- Adding a column with a default is an instant metadata change in MySQL 8.
+ALTER TABLE Appointment
+    ADD COLUMN Version INT NOT NULL DEFAULT 0,
+    ALGORITHM=INSTANT;
+
+ALTER TABLE Patient
+    ADD COLUMN Version INT NOT NULL DEFAULT 0,
+    ALGORITHM=INSTANT;
+
+ALTER TABLE Staff
+    ADD COLUMN Version INT NOT NULL DEFAULT 0,
+    ALGORITHM=INSTANT;
+
+ALTER TABLE Inventory
+    ADD COLUMN Version INT NOT NULL DEFAULT 0,
+    ALGORITHM=INSTANT;
+
+ALTER TABLE Billing
+    ADD COLUMN Version INT NOT NULL DEFAULT 0,
+    ALGORITHM=INSTANT;
@@ -0,0 +1,14 @@
+-- Idempotency-Key store for retried POSTs.
+-- KeyHash is SHA-256 of the endpoint and the client's key, so rows stay fixed-size
+-- whatever the client sends. A row with a NULL ResponseStatus is a claim held by the
+-- request that is still running; ExpiresAt is then the end of its lease, after which
+-- another request may take it over. Completed rows keep the first 2xx response
+-- until ExpiresAt and are deleted in batches by the sweeper using the ExpiresAt index.
+CREATE TABLE IdempotencyKey (
+    KeyHash BINARY(32) NOT NULL,
+    ResponseStatus SMALLINT NULL,
+    ResponseBody MEDIUMTEXT NULL,
+    ExpiresAt TIMESTAMP NOT NULL,
+    PRIMARY KEY (KeyHash),
+    INDEX idx_idempotency_expires (ExpiresAt)
+);
@@ -0,0 +1,21 @@
+-- Per-day billing totals for the financial operations report, keyed by appointment date.
+-- Every write that adds, changes or removes a bill, or moves its appointment to another
+-- day, adds its signed difference to the affected days in the same transaction, so a
+-- month of the report is at most 31 primary-key rows. Unpaid figures are the totals
+-- minus the paid ones. A day whose bills are all gone keeps a row of zeros.
+CREATE TABLE DailyRevenue (
+    Date DATE NOT NULL,
+    TotalBills INT NOT NULL DEFAULT 0,
+    PaidBills INT NOT NULL DEFAULT 0,
+    TotalRevenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PaidRevenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (Date)
+);
+
+-- Backfill from the bills already recorded
+INSERT INTO DailyRevenue (Date, TotalBills, PaidBills, TotalRevenue, PaidRevenue)
+SELECT a.Date, COUNT(*), COUNT(CASE WHEN b.Paid = true THEN 1 END),
+       SUM(b.Amount), COALESCE(SUM(CASE WHEN b.Paid = true THEN b.Amount END), 0)
+FROM Billing b
+JOIN Appointment a ON a.AppointmentID = b.AppointmentID
+GROUP BY a.Date;
@@ -0,0 +1,48 @@
+-- Per doctor and quarter counters for the doctor performance report, keyed by the first
+-- day of the quarter of the appointment date. Maintained like DailyRevenue: every write
+-- to an appointment, its bill or its feedback adds its signed difference in the same
+-- transaction. Rating average is RatingSum / Ratings; Revenue is the sum of the bills.
+CREATE TABLE DoctorQuarterStats (
+    QuarterStart DATE NOT NULL,
+    DoctorID INT NOT NULL,
+    Appointments INT NOT NULL DEFAULT 0,
+    Completed INT NOT NULL DEFAULT 0,
+    Canceled INT NOT NULL DEFAULT 0,
+    UniquePatients INT NOT NULL DEFAULT 0,
+    Feedbacks INT NOT NULL DEFAULT 0,
+    RatingSum INT NOT NULL DEFAULT 0,
+    Ratings INT NOT NULL DEFAULT 0,
+    Revenue DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (QuarterStart, DoctorID)
+);
+
+-- Appointments per patient behind UniquePatients: a row is inserted when a patient's first
+-- visit in the quarter is counted and deleted when the last one goes, and UniquePatients
+-- moves with it. Distinct counts cannot be kept as a plain counter.
+CREATE TABLE DoctorQuarterPatient (
+    QuarterStart DATE NOT NULL,
+    DoctorID INT NOT NULL,
+    PatientID INT NOT NULL,
+    Visits INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (QuarterStart, DoctorID, PatientID)
+);
+
+-- Backfill from the appointments already recorded
+INSERT INTO DoctorQuarterPatient (QuarterStart, DoctorID, PatientID, Visits)
+SELECT MAKEDATE(YEAR(a.Date), 1) + INTERVAL QUARTER(a.Date) - 1 QUARTER, a.DoctorID, a.PatientID, COUNT(*)
+FROM Appointment a
+GROUP BY 1, a.DoctorID, a.PatientID;
+
+INSERT INTO DoctorQuarterStats (QuarterStart, DoctorID, Appointments, Completed, Canceled, UniquePatients, Feedbacks, RatingSum, Ratings, Revenue)
+SELECT MAKEDATE(YEAR(a.Date), 1) + INTERVAL QUARTER(a.Date) - 1 QUARTER, a.DoctorID, COUNT(*),
+       COUNT(CASE WHEN a.Status = 'Done' THEN 1 END),
+       COUNT(CASE WHEN a.Status = 'Canceled' THEN 1 END),
+       COUNT(DISTINCT a.PatientID),
+       COALESCE(SUM(f.Feedbacks), 0), COALESCE(SUM(f.RatingSum), 0), COALESCE(SUM(f.Ratings), 0),
+       COALESCE(SUM(b.Amount), 0)
+FROM Appointment a
+LEFT JOIN Billing b ON b.AppointmentID = a.AppointmentID
+LEFT JOIN (SELECT AppointmentID, COUNT(*) as Feedbacks, SUM(Rating) as RatingSum, COUNT(Rating) as Ratings
+           FROM Feedback
+           GROUP BY AppointmentID) f ON f.AppointmentID = a.AppointmentID
+GROUP BY 1, a.DoctorID;
@@ -0,0 +1,7 @@
+-- Fingerprint of the request that claimed a key, so a retry with the same key but a
+-- different body is refused instead of being answered with the first request's response
+-- (NULL on rows written before this column, which then match any body), and the
+-- response headers (ETag, Location, ...) replayed along with the recorded body, as JSON.
+ALTER TABLE IdempotencyKey
+    ADD COLUMN RequestHash BINARY(32) NULL AFTER KeyHash,
+    ADD COLUMN ResponseHeaders TEXT NULL AFTER ResponseStatus;
@@ -0,0 +1,19 @@
+-- DailyRevenue gains DoctorID in its key. Every booking adds its bill to the day's
+-- totals inside the booking transaction, and with one row per day that row's lock
+-- serialized all bookings for the day across doctors, undoing the per-doctor calendar
+-- lock. Per doctor-day rows are locked only by bookings that already share the doctor's
+-- calendar lock; reports sum a day's rows, still a bounded primary-key range.
+DELETE FROM DailyRevenue;
+
+ALTER TABLE DailyRevenue
+    ADD COLUMN DoctorID INT NOT NULL AFTER Date,
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (Date, DoctorID);
+
+-- Backfill from the bills already recorded
+INSERT INTO DailyRevenue (Date, DoctorID, TotalBills, PaidBills, TotalRevenue, PaidRevenue)
+SELECT a.Date, a.DoctorID, COUNT(*), COUNT(CASE WHEN b.Paid = true THEN 1 END),
+       SUM(b.Amount), COALESCE(SUM(CASE WHEN b.Paid = true THEN b.Amount END), 0)
+FROM Billing b
+JOIN Appointment a ON a.AppointmentID = b.AppointmentID
+GROUP BY a.Date, a.DoctorID;
@@ -0,0 +1,38 @@
+-- Development sample data. Load manually after the application has applied the migrations:
+--   mysql clinic_db < sample-data.sql
+
+-- Sample Data to be Inserted in the Database
+
+-- a. Sample Data for Staff Table
+ INSERT INTO Staff (Name, JobType, Specialization, LicenseNumber, Phone, Email, HireDate, WorkingDays)
+VALUES 
+('Dr. Santos', 'Doctor', 'Pediatrics', 'DOC1234', '09171234567', 'santos@clinic.com', '2020-01-15', 'Mon-Fri'),
+('Nurse Dela Cruz', 'Nurse', NULL, NULL, '09179876543', 'delacruz@clinic.com', '2021-06-01', 'Mon-Sat');
+
+-- b. Sample Data for Patient Table
+INSERT INTO Patient (Name, BirthDate, Phone, Email, InsuranceInfo, FirstVisitDate, PrimaryDoctorID)
+VALUES 
+('Juan Dela Cruz', '1990-05-12', '09201234567', 'juan@gmail.com', 'Maxicare', '2024-05-01', 1);
+
+-- c. Sample Data for Inventory Table
+INSERT INTO Inventory (Name, Type, Purpose, StockQuantity, ReorderThreshold, UnitPrice, SupplierInfo, ExpiryDate)
+VALUES 
+('Paracetamol', 'Medicine', 'Pain relief', 100, 20, 5.00, 'MediPharma Inc.', '2025-12-31'),
+('Stethoscope', 'Equipment', 'Vital check', 10, 2, 1500.00, 'HealthEquip Co.', NULL);
+
+-- d. Sample Data for Appointment Table
+INSERT INTO Appointment (PatientID, DoctorID, Date, Time, Duration, VisitType, Status, Notes)
+VALUES 
+(1, 1, '2025-06-10', '09:00:00', 30, 'Check-up', 'Not Done', 'Routine check-up');
+
+-- e. Sample Data for Billing Table 
+INSERT INTO Billing (AppointmentID, Amount, Paid)
+VALUES (1, 500.00, FALSE);
+
+-- f. Sample Data for Usage Of Inventory Table
+INSERT INTO Appointment_Inventory (AppointmentID, ItemID, QuantityUsed)
+VALUES (1, 1, 2);
+
+-- g. Sample Data for Feedback Table
+INSERT INTO Feedback (AppointmentID, DoctorID, PatientID, Rating, Comments)
+VALUES (1, 1, 1, 5, 'Very professional and helpful!');
@@ -0,0 +1,181 @@
+package com.clinicnexus.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.StaffDirectory;
+import com.clinicnexus.dao.TransactionRunner;
+import com.clinicnexus.model.Appointment;
+import com.clinicnexus.service.AppointmentTransactionService;
+import com.clinicnexus.service.BookingExecutor;
+import com.clinicnexus.util.AppointmentResult;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Compares the morning booking burst on the direct path, where concurrent bookings
+ * for a doctor queue on the doctor's calendar row lock, with the partitioned
+ * mailbox mode, where they are serialized in process first.
+ *
+ * 64 threads book random 30-minute slots for a handful of popular doctors.
+ * Throughput mode reports bookings per millisecond; SampleTime mode reports the
+ * latency distribution, including p0.99.
+ * Needs a MySQL database it may write to; pass the same properties as
+ * BookingContentionTest and run the main method on the test classpath:
+ *   -Dclinic.it.jdbc-url=jdbc:mysql://localhost:3306/clinic_it -Dclinic.it.username=app -Dclinic.it.password=password
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(64)
+public class BookingExecutorBenchmark {
+
+	private static final int DOCTORS = 4;
+	private static final int DAYS = 365;
+
+	@Param({"direct", "partitioned"})
+	private String mode;
+
+	private HikariDataSource dataSource;
+	private BookingExecutor executor;
+	private int[] doctorIDs;
+	private int patientID;
+	private LocalDate firstDay;
+
+	@Setup(Level.Trial)
+	public void setUp() throws Exception {
+		dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl(System.getProperty("clinic.it.jdbc-url"));
+		dataSource.setUsername(System.getProperty("clinic.it.username", "app"));
+		dataSource.setPassword(System.getProperty("clinic.it.password", "password"));
+		dataSource.setMaximumPoolSize(32);
+		Flyway.configure().dataSource(dataSource).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+		doctorIDs = new int[DOCTORS];
+		try (Connection conn = dataSource.getConnection()) {
+			for (int i = 0; i < DOCTORS; i++) {
+				doctorIDs[i] = insert(conn, "INSERT INTO Staff (Name, JobType, Specialization, WorkingDays, ActiveStatus) VALUES ('Benchmark Doctor " + i + "', 'Doctor', 'General', 'Mon-Fri', true)");
+			}
+			patientID = insert(conn, "INSERT INTO Patient (Name, ActiveStatus) VALUES ('Benchmark Patient', true)");
+		}
+		firstDay = LocalDate.of(2097, 1, 1);
+
+		AppointmentTransactionService service = new AppointmentTransactionService();
+		ReflectionTestUtils.setField(service, "transactionRunner", transactionRunner(dataSource));
+		ReflectionTestUtils.setField(service, "appointmentIndex", mock(AppointmentIntervalIndex.class));
+		ReflectionTestUtils.setField(service, "staffDirectory", bookableDoctors());
+
+		executor = new BookingExecutor();
+		ReflectionTestUtils.setField(executor, "appointmentTransactionService", service);
+		ReflectionTestUtils.setField(executor, "partitions", "partitioned".equals(mode) ? Runtime.getRuntime().availableProcessors() : 0);
+		ReflectionTestUtils.setField(executor, "queueCapacity", 10_000);
+		ReflectionTestUtils.invokeMethod(executor, "start");
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws Exception {
+		ReflectionTestUtils.invokeMethod(executor, "stop");
+		try (Connection conn = dataSource.getConnection()) {
+			for (int doctorID : doctorIDs) {
+				execute(conn, "DELETE b FROM Billing b JOIN Appointment a ON b.AppointmentID = a.AppointmentID WHERE a.DoctorID = ?", doctorID);
+				execute(conn, "DELETE FROM Appointment WHERE DoctorID = ?", doctorID);
+				execute(conn, "DELETE FROM DoctorCalendar WHERE DoctorID = ?", doctorID);
+				execute(conn, "DELETE FROM Staff WHERE StaffID = ?", doctorID);
+			}
+			execute(conn, "DELETE FROM Patient WHERE PatientID = ?", patientID);
+		}
+		dataSource.close();
+	}
+
+	@Benchmark
+	public AppointmentResult book() {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		Appointment appointment = new Appointment(0, patientID, doctorIDs[random.nextInt(DOCTORS)],
+			Date.valueOf(firstDay.plusDays(random.nextInt(DAYS))),
+			Time.valueOf(LocalTime.of(8, 0).plusMinutes(15L * random.nextInt(36))),
+			30, "Check-up", "Not Done", null);
+		return executor.submit(appointment).join();
+	}
+
+	private static int insert(Connection conn, String sql) throws Exception {
+		try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			pstmt.executeUpdate();
+			ResultSet rs = pstmt.getGeneratedKeys();
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	private static void execute(Connection conn, String sql, int id) throws Exception {
+		try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			pstmt.setInt(1, id);
+			pstmt.executeUpdate();
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(BookingExecutorBenchmark.class.getSimpleName())
+			.jvmArgsAppend(
+				"-Dclinic.it.jdbc-url=" + System.getProperty("clinic.it.jdbc-url"),
+				"-Dclinic.it.username=" + System.getProperty("clinic.it.username", "app"),
+				"-Dclinic.it.password=" + System.getProperty("clinic.it.password", "password"))
+			.build()).run();
+	}
+
+	private static StaffDirectory bookableDoctors() {
+		// The guarded insert still checks the doctor against the Staff table
+		StaffDirectory directory = mock(StaffDirectory.class);
+		when(directory.isBookableDoctor(anyInt())).thenReturn(true);
+		return directory;
+	}
+
+	private static TransactionRunner transactionRunner(DataSource dataSource) {
+		TransactionRunner runner = new TransactionRunner();
+		ReflectionTestUtils.setField(runner, "dataSource", dataSource);
+		ReflectionTestUtils.setField(runner, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(runner, "maxAttempts", 3);
+		ReflectionTestUtils.setField(runner, "backoffMillis", 5L);
+		ReflectionTestUtils.setField(runner, "maxBackoffMillis", 50L);
+		return runner;
+	}
+}
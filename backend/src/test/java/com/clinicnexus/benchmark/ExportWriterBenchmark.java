@@ -0,0 +1,150 @@
+package com.clinicnexus.benchmark;
+
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.clinicnexus.util.ExportWriter;
+
+/**
+ * Export throughput of ExportWriter over appointment-shaped rows, for each format
+ * with and without gzip. Each operation is one row, so the score is rows per second.
+ *
+ * Run the main method (test classpath) and read gc.alloc.rate.norm, which is
+ * bytes allocated per row; it stays flat as 'rows' grows because nothing is
+ * kept between rows.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExportWriterBenchmark {
+
+	private static final int ROWS = 200_000;
+
+	private static final String[] LABELS = {
+		"AppointmentID", "Date", "Time", "Duration", "VisitType", "Status", "PatientID", "PatientName", "DoctorID", "DoctorName"
+	};
+	private static final int[] TYPES = {
+		Types.INTEGER, Types.DATE, Types.TIME, Types.INTEGER, Types.CHAR, Types.CHAR, Types.INTEGER, Types.VARCHAR, Types.INTEGER, Types.VARCHAR
+	};
+
+	@Param({"CSV", "NDJSON"})
+	private ExportWriter.Format format;
+
+	@Param({"false", "true"})
+	private boolean gzip;
+
+	@Param({"65536"})
+	private int bufferSize;
+
+	private String[][] data;
+
+	@Setup
+	public void setUp() {
+		// A few thousand distinct rows cycled through, so the data set itself stays small
+		data = new String[4096][];
+		for (int i = 0; i < data.length; i++) {
+			data[i] = new String[] {
+				Integer.toString(100_000 + i), "2024-0" + (1 + i % 9) + "-1" + i % 10, "09:" + (10 + i % 50) + ":00", "30",
+				i % 7 == 0 ? "Emergency" : "Check-up", i % 5 == 0 ? "Canceled" : "Done", Integer.toString(1000 + i % 700),
+				"Patient " + i + (i % 11 == 0 ? ", Jr." : ""), Integer.toString(1 + i % 12), "Dr. Doctor " + i % 12
+			};
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(ROWS)
+	public long export(Blackhole blackhole) throws Exception {
+		return new ExportWriter(format, gzip, bufferSize, new DiscardingChannel(blackhole)).writeAll(resultSet(data, ROWS));
+	}
+
+	/**
+	 * Minimal forward-only ResultSet that returns 'rows' rows cycling over the data
+	 */
+	private static ResultSet resultSet(String[][] data, int rows) {
+		ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+			new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+				switch (method.getName()) {
+					case "getColumnCount":
+						return LABELS.length;
+					case "getColumnLabel":
+						return LABELS[(Integer) args[0] - 1];
+					case "getColumnType":
+						return TYPES[(Integer) args[0] - 1];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+				}
+			});
+		int[] cursor = {-1};
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+			(proxy, method, args) -> {
+				switch (method.getName()) {
+					case "getMetaData":
+						return meta;
+					case "next":
+						return ++cursor[0] < rows;
+					case "getString":
+						return data[cursor[0] % data.length][(Integer) args[0] - 1];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+				}
+			});
+	}
+
+	private static final class DiscardingChannel implements WritableByteChannel {
+		private final Blackhole blackhole;
+
+		DiscardingChannel(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public int write(ByteBuffer src) {
+			int bytes = src.remaining();
+			blackhole.consume(bytes);
+			src.position(src.limit());
+			return bytes;
+		}
+
+		@Override
+		public boolean isOpen() {
+			return true;
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(ExportWriterBenchmark.class.getSimpleName())
+			.addProfiler(GCProfiler.class)
+			.build()).run();
+	}
+}
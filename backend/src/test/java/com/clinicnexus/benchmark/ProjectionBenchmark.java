@@ -0,0 +1,172 @@
+package com.clinicnexus.benchmark;
+
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.clinicnexus.dao.RowMapper;
+import com.clinicnexus.dao.RowMappers;
+import com.clinicnexus.projection.AppointmentWithNames;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Compares the old HashMap-per-row shape of getAppointmentsWithNames with the
+ * AppointmentWithNames record read through a column-index RowMapper.
+ *
+ * Run the main method (test classpath) and read gc.alloc.rate.norm, which is
+ * bytes allocated per operation; divide by 'rows' for bytes per row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectionBenchmark {
+
+	private static final String[] COLUMNS = {
+		"AppointmentID", "PatientID", "DoctorID", "Date", "Time", "Duration", "VisitType", "Status", "Notes",
+		"PatientName", "DoctorName"
+	};
+
+	@Param({"1000"})
+	private int rows;
+
+	private Object[][] data;
+	private List<Map<String, Object>> maps;
+	private List<AppointmentWithNames> records;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Setup
+	public void setUp() throws Exception {
+		data = new Object[rows][];
+		for (int i = 0; i < rows; i++) {
+			data[i] = new Object[] {
+				i + 1, 1000 + i % 50, 1 + i % 8, Date.valueOf("2025-06-10"), Time.valueOf("09:00:00"), 30,
+				"Check-up", "Not Done", "Routine check-up", "Patient " + i, "Dr. Doctor " + i % 8
+			};
+		}
+		maps = mapRowsToMaps();
+		records = mapRowsToRecords();
+	}
+
+	@Benchmark
+	public List<Map<String, Object>> mapRowsToMaps() throws Exception {
+		ResultSet rs = resultSet(data);
+		List<Map<String, Object>> appointments = new ArrayList<>();
+		while (rs.next()) {
+			Map<String, Object> appointment = new HashMap<>();
+			appointment.put("appointmentID", rs.getInt("AppointmentID"));
+			appointment.put("patientName", rs.getString("PatientName"));
+			appointment.put("doctorName", rs.getString("DoctorName"));
+			appointment.put("date", rs.getDate("Date"));
+			appointment.put("time", rs.getTime("Time"));
+			appointment.put("duration", rs.getInt("Duration"));
+			appointment.put("visitType", rs.getString("VisitType"));
+			appointment.put("status", rs.getString("Status"));
+			appointment.put("notes", rs.getString("Notes"));
+			appointments.add(appointment);
+		}
+		return appointments;
+	}
+
+	@Benchmark
+	public List<AppointmentWithNames> mapRowsToRecords() throws Exception {
+		ResultSet rs = resultSet(data);
+		List<AppointmentWithNames> appointments = new ArrayList<>();
+		RowMapper<AppointmentWithNames> mapper = RowMappers.appointmentWithNames(rs);
+		while (rs.next()) {
+			appointments.add(mapper.mapRow(rs));
+		}
+		return appointments;
+	}
+
+	@Benchmark
+	public void serializeMaps(Blackhole blackhole) throws Exception {
+		objectMapper.writeValue(new DiscardingStream(blackhole), maps);
+	}
+
+	@Benchmark
+	public void serializeRecords(Blackhole blackhole) throws Exception {
+		objectMapper.writeValue(new DiscardingStream(blackhole), records);
+	}
+
+	/**
+	 * Minimal forward-only ResultSet over in-memory rows. Label lookups are
+	 * case-insensitive map lookups, as in the MySQL driver.
+	 */
+	private static ResultSet resultSet(Object[][] data) {
+		Map<String, Integer> labels = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+		for (int i = 0; i < COLUMNS.length; i++) {
+			labels.put(COLUMNS[i], i + 1);
+		}
+		int[] cursor = {-1};
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+			(proxy, method, args) -> {
+				switch (method.getName()) {
+					case "next":
+						return ++cursor[0] < data.length;
+					case "findColumn":
+						return labels.get((String) args[0]);
+					case "getInt":
+					case "getString":
+					case "getDate":
+					case "getTime":
+						int column = args[0] instanceof Integer ? (Integer) args[0] : labels.get((String) args[0]);
+						return data[cursor[0]][column - 1];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+				}
+			});
+	}
+
+	private static final class DiscardingStream extends OutputStream {
+		private final Blackhole blackhole;
+
+		DiscardingStream(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void write(int b) {
+			blackhole.consume(b);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) {
+			blackhole.consume(len);
+		}
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder()
+			.include(ProjectionBenchmark.class.getSimpleName())
+			.addProfiler(GCProfiler.class)
+			.build()).run();
+	}
+}
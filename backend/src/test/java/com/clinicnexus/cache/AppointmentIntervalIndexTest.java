@@ -0,0 +1,99 @@
+package com.clinicnexus.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.dao.AppointmentDAO;
+import com.clinicnexus.model.Appointment;
+
+class AppointmentIntervalIndexTest {
+
+	private static final Date DAY = Date.valueOf("2099-06-10");
+
+	private AppointmentDAO appointmentDAO;
+	private AppointmentIntervalIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		appointmentDAO = mock(AppointmentDAO.class);
+		when(appointmentDAO.getAppointmentsByDateRange(any(), any())).thenReturn(List.of(
+			appointment(1, 7, "09:00:00", 60, "Not Done"),
+			appointment(2, 7, "13:00:00", 30, "Canceled")
+		));
+		index = new AppointmentIntervalIndex();
+		ReflectionTestUtils.setField(index, "appointmentDAO", appointmentDAO);
+		ReflectionTestUtils.setField(index, "ttlSeconds", 60L);
+	}
+
+	@Test
+	void longAppointmentBlocksLaterStartWithinItsDuration() {
+		assertTrue(index.hasConflict(7, DAY, Time.valueOf("09:30:00"), 30, null));
+		assertTrue(index.hasConflict(7, DAY, Time.valueOf("08:45:00"), 30, null));
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("10:00:00"), 30, null));
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("08:30:00"), 30, null));
+		assertFalse(index.hasConflict(8, DAY, Time.valueOf("09:30:00"), 30, null));
+	}
+
+	@Test
+	void canceledAndExcludedAppointmentsDoNotConflict() {
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("13:00:00"), 30, null));
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("09:15:00"), 30, 1));
+	}
+
+	@Test
+	void writesKeepLoadedDayInSync() throws Exception {
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("11:00:00"), 30, null));
+
+		index.onAppointmentSaved(appointment(3, 7, "10:45:00", 30, "Not Done"));
+		assertTrue(index.hasConflict(7, DAY, Time.valueOf("11:00:00"), 30, null));
+
+		index.onAppointmentSaved(appointment(3, 7, "10:45:00", 30, "Canceled"));
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("11:00:00"), 30, null));
+
+		index.onAppointmentDeleted(1);
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("09:30:00"), 30, null));
+
+		verify(appointmentDAO, times(1)).getAppointmentsByDateRange(any(), any());
+	}
+
+	@Test
+	void failedLoadLeavesTheDayUnloaded() throws Exception {
+		when(appointmentDAO.getAppointmentsByDateRange(any(), any()))
+			.thenThrow(new SQLException("Communications link failure"))
+			.thenReturn(List.of(appointment(1, 7, "09:00:00", 60, "Not Done")));
+
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("09:30:00"), 30, null));
+		assertTrue(index.hasConflict(7, DAY, Time.valueOf("09:30:00"), 30, null));
+		verify(appointmentDAO, times(2)).getAppointmentsByDateRange(any(), any());
+	}
+
+	@Test
+	void expiredDayIsReadAgain() throws Exception {
+		ReflectionTestUtils.setField(index, "ttlSeconds", 0L);
+		when(appointmentDAO.getAppointmentsByDateRange(any(), any()))
+			.thenReturn(List.of())
+			.thenReturn(List.of(appointment(4, 7, "15:00:00", 30, "Not Done")));
+
+		assertFalse(index.hasConflict(7, DAY, Time.valueOf("15:00:00"), 30, null));
+		// Booked by another instance in the meantime
+		assertTrue(index.hasConflict(7, DAY, Time.valueOf("15:00:00"), 30, null));
+	}
+
+	private static Appointment appointment(int id, int doctorID, String time, int duration, String status) {
+		return new Appointment(id, 1, doctorID, DAY, Time.valueOf(time), duration, "Check-up", status, null);
+	}
+}
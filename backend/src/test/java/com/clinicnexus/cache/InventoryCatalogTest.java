@@ -0,0 +1,112 @@
+package com.clinicnexus.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.dao.InventoryDAO;
+import com.clinicnexus.model.Inventory;
+import com.clinicnexus.util.RowCallback;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InventoryCatalogTest {
+
+	private final List<Inventory> items = new ArrayList<>();
+	private InventoryDAO inventoryDAO;
+	private SimpleMeterRegistry meterRegistry;
+	private InventoryCatalog catalog;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		// Ordered by name like the DAO query, not by ID
+		items.add(item(30, "Bandage", 1.25, true));
+		items.add(item(7, "Ibuprofen", 0.40, true));
+		items.add(item(12, "Syringe", 0.90, false));
+		inventoryDAO = mock(InventoryDAO.class);
+		doAnswer(invocation -> {
+			RowCallback<Inventory> callback = invocation.getArgument(1);
+			for (Inventory item : new ArrayList<>(items)) {
+				callback.accept(item);
+			}
+			return null;
+		}).when(inventoryDAO).loadInventory(any(), any());
+
+		catalog = new InventoryCatalog();
+		ReflectionTestUtils.setField(catalog, "inventoryDAO", inventoryDAO);
+		meterRegistry = new SimpleMeterRegistry();
+		ReflectionTestUtils.setField(catalog, "meterRegistry", meterRegistry);
+		ReflectionTestUtils.setField(catalog, "ttlSeconds", 300L);
+		ReflectionTestUtils.setField(catalog, "missReloadMillis", 60_000L);
+		catalog.registerMeters();
+	}
+
+	@Test
+	void looksUpItemsByID() {
+		assertEquals("Ibuprofen", catalog.getName(7));
+		assertEquals("Bandage", catalog.getName(30));
+		assertEquals(0.90, catalog.getUnitPrice(12));
+		assertTrue(catalog.isActive(7));
+		assertFalse(catalog.isActive(12));
+		assertNull(catalog.getName(8));
+	}
+
+	@Test
+	void unknownItemIsNotCountedAsAHit() {
+		catalog.getName(7);
+		catalog.getName(7);
+		catalog.getName(8);
+
+		assertEquals(1.0, meterRegistry.counter("cache.gets", "cache", "inventory", "result", "hit").count());
+		assertEquals(1.0, meterRegistry.counter("cache.gets", "cache", "inventory", "result", "miss").count());
+	}
+
+	@Test
+	void pricesUsageInMemoryIgnoringUnknownItems() throws Exception {
+		double total = catalog.priceOf(Map.of(7, 10, 30, 2, 99, 5));
+
+		assertEquals(6.50, total, 1e-9);
+		verify(inventoryDAO, times(1)).loadInventory(any(), any());
+	}
+
+	@Test
+	void missingQuantityPricesAsNothing() {
+		Map<Integer, Integer> usage = new HashMap<>();
+		usage.put(7, 10);
+		usage.put(30, null);
+
+		assertEquals(4.00, catalog.priceOf(usage), 1e-9);
+	}
+
+	@Test
+	void invalidationReloadsChangedPrices() throws Exception {
+		assertEquals(0.40, catalog.getUnitPrice(7));
+
+		items.set(1, item(7, "Ibuprofen", 0.55, true));
+		assertEquals(0.40, catalog.getUnitPrice(7));
+		catalog.invalidate();
+
+		assertEquals(0.55, catalog.getUnitPrice(7));
+		verify(inventoryDAO, times(2)).loadInventory(any(), any());
+	}
+
+	private static Inventory item(int id, String name, double unitPrice, boolean active) {
+		return new Inventory(id, name, "Medicine", null, 100, 10, unitPrice, "Acme", null, active);
+	}
+}
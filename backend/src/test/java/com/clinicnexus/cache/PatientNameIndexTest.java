@@ -0,0 +1,135 @@
+package com.clinicnexus.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.dao.PatientDAO;
+import com.clinicnexus.model.Patient;
+import com.clinicnexus.util.RowCallback;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PatientNameIndexTest {
+
+	private final List<Patient> patients = new ArrayList<>();
+	private PatientDAO patientDAO;
+	private SimpleMeterRegistry registry;
+	private PatientNameIndex index;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		patients.add(patient(3, "Jos\u00e9 Garc\u00eda"));
+		patients.add(patient(8, "Mia Park"));
+		patients.add(patient(11, "mia  park"));
+		patientDAO = mock(PatientDAO.class);
+		doAnswer(invocation -> {
+			RowCallback<Patient> callback = invocation.getArgument(1);
+			for (Patient patient : new ArrayList<>(patients)) {
+				callback.accept(patient);
+			}
+			return null;
+		}).when(patientDAO).loadPatients(any(), any());
+
+		registry = new SimpleMeterRegistry();
+		index = new PatientNameIndex();
+		ReflectionTestUtils.setField(index, "patientDAO", patientDAO);
+		ReflectionTestUtils.setField(index, "meterRegistry", registry);
+		ReflectionTestUtils.setField(index, "ttlSeconds", 300L);
+		index.registerMeters();
+	}
+
+	@Test
+	void namesFoldAccentsCaseAndSpacing() {
+		assertArrayEquals(new int[] {3}, index.getPatientIds("jose garcia"));
+		assertArrayEquals(new int[] {3}, index.getPatientIds(" JOS\u00c9 GARC\u00cdA "));
+	}
+
+	@Test
+	void duplicateNamesReturnEveryID() {
+		assertArrayEquals(new int[] {8, 11}, index.getPatientIds("Mia Park"));
+	}
+
+	@Test
+	void unknownNameIsNotCountedAsAHit() {
+		index.getPatientIds("Mia Park");
+		index.getPatientIds("Mia Park");
+		index.getPatientIds("Nobody");
+
+		assertEquals(1.0, registry.counter("cache.gets", "cache", "patient-names", "result", "hit").count());
+		// The first load and the lookup for the unknown name
+		assertEquals(2.0, registry.counter("cache.gets", "cache", "patient-names", "result", "miss").count());
+	}
+
+	@Test
+	void writesAreAppliedWithoutReloading() throws Exception {
+		index.getPatientIds("Mia Park");
+
+		index.onPatientSaved(20, "Mia Park");
+		index.onPatientSaved(11, "Mia Parker");
+		index.onPatientDeleted(3);
+
+		assertArrayEquals(new int[] {8, 20}, index.getPatientIds("mia park"));
+		assertArrayEquals(new int[] {11}, index.getPatientIds("Mia Parker"));
+		assertArrayEquals(new int[0], index.getPatientIds("Jose Garcia"));
+		verify(patientDAO, times(1)).loadPatients(any(), any());
+	}
+
+	@Test
+	void unknownNameIsLookedUpByNameAndMerged() throws Exception {
+		index.getPatientIds("Mia Park");
+		stubNameLookup(patient(30, "Noah Ibe"), patient(31, "No\u00e1h  Ib\u00e9"), patient(32, "Noah Ibe-Smith"));
+
+		assertArrayEquals(new int[] {30, 31}, index.getPatientIds("  noah   ibe"));
+		assertArrayEquals(new int[] {30, 31}, index.getPatientIds("Noah Ibe"));
+		verify(patientDAO).loadPatientsByName(eq("noah ibe"), any());
+		verify(patientDAO, times(1)).loadPatientsByName(any(), any());
+		verify(patientDAO, times(1)).loadPatients(any(), any());
+	}
+
+	@Test
+	void missQueryThatRacedADeleteIsNotMerged() throws Exception {
+		index.getPatientIds("Mia Park");
+		doAnswer(invocation -> {
+			index.onPatientDeleted(30);
+			RowCallback<Patient> callback = invocation.getArgument(1);
+			callback.accept(patient(30, "Noah Ibe"));
+			return null;
+		}).when(patientDAO).loadPatientsByName(any(), any());
+
+		assertArrayEquals(new int[] {30}, index.getPatientIds("Noah Ibe"));
+		index.getPatientIds("Noah Ibe");
+		verify(patientDAO, times(2)).loadPatientsByName(any(), any());
+	}
+
+	@SuppressWarnings("unchecked")
+	private void stubNameLookup(Patient... rows) throws Exception {
+		doAnswer(invocation -> {
+			RowCallback<Patient> callback = invocation.getArgument(1);
+			for (Patient patient : rows) {
+				callback.accept(patient);
+			}
+			return null;
+		}).when(patientDAO).loadPatientsByName(any(), any());
+	}
+
+	private static Patient patient(int id, String name) {
+		Patient patient = new Patient();
+		patient.setPatientID(id);
+		patient.setName(name);
+		return patient;
+	}
+}
@@ -0,0 +1,114 @@
+package com.clinicnexus.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.dao.PatientDAO;
+import com.clinicnexus.model.Patient;
+import com.clinicnexus.util.RowCallback;
+
+class PatientSearchIndexTest {
+
+	private final List<Patient> patients = new ArrayList<>();
+	private PatientSearchIndex index;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		patients.add(patient(3, "Jos\u00e9 Garc\u00eda", "555-0101", "jgarcia@example.com", "BlueCross"));
+		patients.add(patient(5, "Mara Lee", "555-0199", null, "Aetna"));
+		patients.add(patient(6, "Maria Lee", null, "maria.lee@example.com", null));
+		patients.add(patient(8, "Jonathan Reyes", "555-0142", null, "BlueCross"));
+		PatientDAO patientDAO = mock(PatientDAO.class);
+		doAnswer(invocation -> {
+			RowCallback<Patient> callback = invocation.getArgument(1);
+			for (Patient patient : new ArrayList<>(patients)) {
+				callback.accept(patient);
+			}
+			return null;
+		}).when(patientDAO).loadPatients(any(), any());
+		// Rows as they are now, so renames and deletes made after indexing show up at the row check
+		when(patientDAO.getPatientsByIds(any())).thenAnswer(invocation -> {
+			int[] ids = invocation.getArgument(0);
+			return patients.stream()
+				.filter(p -> Arrays.stream(ids).anyMatch(id -> id == p.getPatientID()))
+				.collect(Collectors.toList());
+		});
+
+		index = new PatientSearchIndex();
+		ReflectionTestUtils.setField(index, "patientDAO", patientDAO);
+		index.rebuild();
+	}
+
+	@Test
+	void substringsMatchAnyIndexedField() {
+		assertEquals(List.of(3), ids(index.search("garcia", 10)));
+		assertEquals(List.of(5), ids(index.search("0199", 10)));
+		assertEquals(List.of(6), ids(index.search("a.lee@", 10)));
+		assertEquals(List.of(8, 3), ids(index.search("bluecross", 10)));
+	}
+
+	@Test
+	void oneTypoIsToleratedInLongerQueries() {
+		assertEquals(List.of(8), ids(index.search("Jonathon", 10)));
+		assertEquals(0, index.search("Jxxxxxon", 10).size());
+	}
+
+	@Test
+	void exactSubstringsRankAboveTypoMatches() {
+		assertEquals(List.of(6, 5), ids(index.search("Maria Lee", 10)));
+		assertEquals(List.of(6), ids(index.search("Maria Lee", 1)));
+	}
+
+	@Test
+	void shortQueriesAndUnbuiltIndexFallBackToTheCaller() {
+		assertNull(index.search("le", 10));
+		assertNull(new PatientSearchIndex().search("maria", 10));
+	}
+
+	@Test
+	void savesAndDeletesApplyWithoutARebuild() {
+		Patient added = patient(12, "Priya Natarajan", null, null, null);
+		patients.add(added);
+		index.onPatientSaved(added);
+		assertEquals(List.of(12), ids(index.search("natara", 10)));
+
+		// The old grams stay in the index, but the current row no longer matches them
+		patients.set(1, patient(5, "Mara Stone", "555-0199", null, "Aetna"));
+		index.onPatientSaved(patients.get(1));
+		assertEquals(List.of(6), ids(index.search("lee", 10)));
+		assertEquals(List.of(5), ids(index.search("stone", 10)));
+
+		patients.remove(0);
+		index.onPatientDeleted(3);
+		assertTrue(ids(index.search("garcia", 10)).isEmpty());
+	}
+
+	private static List<Integer> ids(List<Patient> results) {
+		return results.stream().map(Patient::getPatientID).collect(Collectors.toList());
+	}
+
+	private static Patient patient(int id, String name, String phone, String email, String insurance) {
+		Patient patient = new Patient();
+		patient.setPatientID(id);
+		patient.setName(name);
+		patient.setPhone(phone);
+		patient.setEmail(email);
+		patient.setInsuranceInfo(insurance);
+		return patient;
+	}
+}
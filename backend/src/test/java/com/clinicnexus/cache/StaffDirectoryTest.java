@@ -0,0 +1,142 @@
+package com.clinicnexus.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.dao.StaffDAO;
+import com.clinicnexus.model.Staff;
+import com.clinicnexus.util.RowCallback;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class StaffDirectoryTest {
+
+	private final List<Staff> roster = new ArrayList<>();
+	private StaffDAO staffDAO;
+	private SimpleMeterRegistry registry;
+	private StaffDirectory directory;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		// Ordered by Name, StaffID like the DAO query
+		roster.add(staff(4, "Ana Lima", "Doctor", "Pediatrics", "Mon-Fri", true));
+		roster.add(staff(2, "Ben Cho", "Doctor", "Cardiology", "", true));
+		roster.add(staff(9, "ben cho", "Nurse", null, "Mon-Fri", true));
+		roster.add(staff(5, "Cora Diaz", "Doctor", "Pediatric Surgery", "Tue", false));
+		staffDAO = mock(StaffDAO.class);
+		doAnswer(invocation -> {
+			RowCallback<Staff> callback = invocation.getArgument(1);
+			for (Staff staff : new ArrayList<>(roster)) {
+				callback.accept(staff);
+			}
+			return null;
+		}).when(staffDAO).loadStaff(any(), any());
+
+		registry = new SimpleMeterRegistry();
+		directory = new StaffDirectory();
+		ReflectionTestUtils.setField(directory, "staffDAO", staffDAO);
+		ReflectionTestUtils.setField(directory, "meterRegistry", registry);
+		ReflectionTestUtils.setField(directory, "ttlSeconds", 300L);
+		ReflectionTestUtils.setField(directory, "missReloadMillis", 0L);
+		directory.registerMeters();
+	}
+
+	@Test
+	void nameLookupFoldsCaseAndReturnsEveryMatch() {
+		assertArrayEquals(new int[] {4}, directory.getStaffIdsByName("  ANA   LIMA ", null));
+		assertArrayEquals(new int[] {2, 9}, directory.getStaffIdsByName("Ben Cho", null));
+		assertArrayEquals(new int[] {2}, directory.getStaffIdsByName("ben cho", "Doctor"));
+		assertEquals(0, directory.getStaffIdsByName("Nobody", null).length);
+	}
+
+	@Test
+	void nameSearchMatchesFoldedSubstrings() {
+		List<Staff> matches = directory.searchByName("CHO");
+
+		assertEquals(2, matches.size());
+		assertEquals(2, matches.get(0).getStaffID());
+		assertEquals(9, matches.get(1).getStaffID());
+		assertEquals(1, directory.searchByName("a  lim").size());
+	}
+
+	@Test
+	void onlyActiveDoctorsWithWorkingDaysAreBookable() {
+		assertTrue(directory.isBookableDoctor(4));
+		assertFalse(directory.isBookableDoctor(2));
+		assertFalse(directory.isBookableDoctor(5));
+		assertFalse(directory.isBookableDoctor(9));
+		assertTrue(directory.isActiveStaff(9));
+		assertFalse(directory.isActiveStaff(5));
+	}
+
+	@Test
+	void activeDoctorsMatchSpecializationSubstrings() {
+		List<Staff> doctors = directory.getActiveDoctors("pediatric");
+
+		assertEquals(1, doctors.size());
+		assertEquals(4, doctors.get(0).getStaffID());
+		assertEquals(2, directory.getActiveDoctors(null).size());
+		assertEquals(3, directory.getDoctors().size());
+	}
+
+	@Test
+	void readsAreServedFromOneLoadUntilInvalidated() throws Exception {
+		directory.getStaff(4);
+		directory.getStaffIdsByName("Ana Lima", null);
+		directory.isBookableDoctor(4);
+		verify(staffDAO, times(1)).loadStaff(any(), any());
+
+		roster.set(0, staff(4, "Ana Lima", "Doctor", "Pediatrics", "Mon-Fri", false));
+		directory.invalidate();
+
+		assertFalse(directory.isBookableDoctor(4));
+		verify(staffDAO, times(2)).loadStaff(any(), any());
+		assertEquals(1.0, registry.counter("cache.evictions", "cache", "staff").count());
+		assertEquals(2.0, registry.counter("cache.gets", "cache", "staff", "result", "miss").count());
+	}
+
+	@Test
+	void unknownIDReloadsOnceToFindStaffAddedElsewhere() throws Exception {
+		directory.getStaff(4);
+		roster.add(staff(12, "Dan Ortiz", "Doctor", "General", "Mon-Fri", true));
+
+		assertTrue(directory.isBookableDoctor(12));
+		verify(staffDAO, times(2)).loadStaff(any(), any());
+	}
+
+	@Test
+	void unknownIDIsNotCountedAsAHit() {
+		directory.isActiveStaff(4);
+		directory.isActiveStaff(4);
+		directory.isActiveStaff(99);
+
+		assertEquals(1.0, registry.counter("cache.gets", "cache", "staff", "result", "hit").count());
+		assertEquals(2.0, registry.counter("cache.gets", "cache", "staff", "result", "miss").count());
+	}
+
+	@Test
+	void returnedStaffAreCopies() {
+		directory.getStaff(4).setActiveStatus(false);
+
+		assertTrue(directory.isBookableDoctor(4));
+	}
+
+	private static Staff staff(int id, String name, String jobType, String specialization, String workingDays, boolean active) {
+		return new Staff(id, name, jobType, specialization, null, null, null, null, workingDays, active);
+	}
+}
@@ -0,0 +1,152 @@
+package com.clinicnexus.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.dao.InventoryDAO;
+import com.clinicnexus.dao.PatientDAO;
+import com.clinicnexus.dao.StaffDAO;
+import com.clinicnexus.model.Inventory;
+import com.clinicnexus.model.Patient;
+import com.clinicnexus.model.Staff;
+import com.clinicnexus.util.RowCallback;
+import com.clinicnexus.util.Suggestion;
+
+class SuggestIndexTest {
+
+	private static final Set<String> ALL = Set.of(Suggestion.PATIENT, Suggestion.STAFF, Suggestion.INVENTORY);
+
+	private final List<Patient> patients = new ArrayList<>();
+	private PatientDAO patientDAO;
+	private SuggestIndex index;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() throws Exception {
+		patients.add(patient(1, "Carla Gonz\u00e1lez", true));
+		patients.add(patient(2, "Oscar Carter", true));
+		patients.add(patient(3, "Carmen Ruiz", false));
+		List<Staff> staff = List.of(
+			new Staff(4, "Dana Carr", "Doctor", "Cardiology", null, null, null, null, "Mon-Fri", true),
+			new Staff(5, "Ed Stone", "Nurse", null, null, null, null, null, "Mon-Fri", true));
+		List<Inventory> items = List.of(
+			new Inventory(6, "Carbamazepine", "Medicine", "Seizure control", 10, 2, 0.5, null, null, true),
+			new Inventory(7, "Gauze", "Equipment", "Wound care", 10, 2, 0.1, null, null, true));
+
+		patientDAO = mock(PatientDAO.class);
+		doAnswer(invocation -> {
+			Boolean active = invocation.getArgument(0);
+			RowCallback<Patient> callback = invocation.getArgument(1);
+			for (Patient patient : new ArrayList<>(patients)) {
+				if (active == null || patient.isActiveStatus() == active) {
+					callback.accept(patient);
+				}
+			}
+			return null;
+		}).when(patientDAO).loadPatients(any(), any());
+		StaffDAO staffDAO = mock(StaffDAO.class);
+		doAnswer(invocation -> {
+			RowCallback<Staff> callback = invocation.getArgument(1);
+			for (Staff member : staff) {
+				callback.accept(member);
+			}
+			return null;
+		}).when(staffDAO).loadStaff(any(), any());
+		InventoryDAO inventoryDAO = mock(InventoryDAO.class);
+		doAnswer(invocation -> {
+			RowCallback<Inventory> callback = invocation.getArgument(1);
+			for (Inventory item : items) {
+				callback.accept(item);
+			}
+			return null;
+		}).when(inventoryDAO).loadInventory(any(), any());
+
+		index = new SuggestIndex();
+		ReflectionTestUtils.setField(index, "patientDAO", patientDAO);
+		ReflectionTestUtils.setField(index, "staffDAO", staffDAO);
+		ReflectionTestUtils.setField(index, "inventoryDAO", inventoryDAO);
+		ReflectionTestUtils.setField(index, "compactThreshold", 10_000);
+	}
+
+	@Test
+	void namePrefixesRankBeforeLaterWords() throws Exception {
+		assertEquals(List.of("Carbamazepine", "Carla Gonz\u00e1lez", "Dana Carr", "Oscar Carter", "Gauze"), labels("car", ALL));
+		assertEquals(List.of("Carla Gonz\u00e1lez", "Oscar Carter"), labels("CAR", Set.of(Suggestion.PATIENT)));
+		verify(patientDAO, times(1)).loadPatients(any(), any());
+	}
+
+	@Test
+	void everyQueryWordMustStartAWord() {
+		assertEquals(List.of("Carla Gonz\u00e1lez"), labels("ca gonz", ALL));
+		assertEquals(List.of("Oscar Carter"), labels("carter osc", ALL));
+		assertTrue(labels("carla carter", ALL).isEmpty());
+	}
+
+	@Test
+	void specializationAndPurposeAreMatchedToo() {
+		assertEquals(List.of("Dana Carr"), labels("cardio", ALL));
+		assertEquals(List.of("Gauze"), labels("wound", ALL));
+	}
+
+	@Test
+	void filterAndLimitApply() {
+		List<Suggestion> doctors = index.suggest("car", ALL, s -> "Doctor".equals(s.getCategory()), 10);
+		assertEquals(1, doctors.size());
+		assertEquals(4, doctors.get(0).getId());
+		assertEquals(Suggestion.STAFF, doctors.get(0).getType());
+		assertEquals(2, index.suggest("car", ALL, s -> true, 2).size());
+	}
+
+	@Test
+	void savesAndDeletesApplyWithoutAReload() throws Exception {
+		labels("car", ALL);
+		index.onPatientSaved(patient(9, "Carlos Mendez", true));
+		index.onPatientSaved(patient(1, "Lena Gonz\u00e1lez", true));
+		index.onPatientDeleted(2);
+		index.onStaffSaved(new Staff(4, "Dana Carr", "Doctor", "Cardiology", null, null, null, null, "Mon-Fri", false));
+
+		assertEquals(List.of("Carlos Mendez"), labels("carl", ALL));
+		assertEquals(List.of("Lena Gonz\u00e1lez"), labels("gonz", ALL));
+		assertTrue(labels("oscar", ALL).isEmpty());
+		assertTrue(labels("dana", ALL).isEmpty());
+		verify(patientDAO, times(1)).loadPatients(any(), any());
+	}
+
+	@Test
+	void compactionKeepsOverlaySaves() {
+		labels("car", ALL);
+		index.onPatientSaved(patient(9, "Carlos Mendez", true));
+		index.onPatientSaved(patient(1, "Lena Gonz\u00e1lez", true));
+		index.compact();
+		index.onPatientSaved(patient(10, "Carlota Diaz", true));
+
+		assertEquals(List.of("Carlota Diaz", "Carlos Mendez"), labels("carl", ALL));
+		assertEquals(List.of("Lena Gonz\u00e1lez"), labels("gonz", ALL));
+	}
+
+	private List<String> labels(String query, Set<String> types) {
+		return index.suggest(query, types, s -> true, 10).stream().map(Suggestion::getLabel).collect(Collectors.toList());
+	}
+
+	private static Patient patient(int id, String name, boolean active) {
+		Patient patient = new Patient();
+		patient.setPatientID(id);
+		patient.setName(name);
+		patient.setActiveStatus(active);
+		return patient;
+	}
+}
@@ -0,0 +1,83 @@
+package com.clinicnexus.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.SQLException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import com.clinicnexus.model.Billing;
+import com.clinicnexus.service.IdempotencyService;
+import com.clinicnexus.util.StoredResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class IdempotentRequestsTest {
+
+	private static final String SCOPE = "POST /api/billing";
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final IdempotencyService service = mock(IdempotencyService.class);
+	private final Billing billing = new Billing(0, 10, 80.5, false, null);
+
+	@Test
+	void firstResponseIsRecordedWithItsHeaders() throws Exception {
+		Billing created = new Billing(7, 10, 80.5, false, Date.valueOf("2025-01-02"));
+
+		ResponseEntity<?> response = IdempotentRequests.run(service, objectMapper, SCOPE, "k1", billing,
+			() -> ResponseEntity.ok().eTag("0").body(created));
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		verify(service).claim(SCOPE, "k1", objectMapper.writeValueAsString(billing));
+		verify(service).complete(SCOPE, "k1", 200, "{\"ETag\":[\"\\\"0\\\"\"]}", objectMapper.writeValueAsString(created));
+	}
+
+	@Test
+	void replayCarriesTheRecordedHeaders() throws Exception {
+		when(service.claim(eq(SCOPE), eq("k1"), anyString()))
+			.thenReturn(new StoredResponse(200, "{\"ETag\":[\"\\\"0\\\"\"]}", "{\"billingID\":7}", null));
+
+		ResponseEntity<?> response = IdempotentRequests.run(service, objectMapper, SCOPE, "k1", billing, () -> {
+			throw new AssertionError("request ran again");
+		});
+
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertEquals("\"0\"", response.getHeaders().getETag());
+		assertEquals("true", response.getHeaders().getFirst(IdempotentRequests.REPLAYED_HEADER));
+		assertEquals("{\"billingID\":7}", response.getBody());
+	}
+
+	@Test
+	void keyReusedWithAnotherBodyIsUnprocessable() throws Exception {
+		when(service.claim(eq(SCOPE), eq("k1"), anyString())).thenReturn(StoredResponse.mismatch());
+
+		ResponseEntity<?> response = IdempotentRequests.run(service, objectMapper, SCOPE, "k1", billing, () -> {
+			throw new AssertionError("request ran");
+		});
+
+		assertEquals(HttpStatus.UNPROCESSABLE_ENTITY, response.getStatusCode());
+	}
+
+	@Test
+	void unreachableKeyStoreIsUnavailableNotInProgress() throws Exception {
+		when(service.claim(eq(SCOPE), eq("k1"), anyString())).thenThrow(new SQLException("Connection is not available"));
+
+		ResponseEntity<?> response = IdempotentRequests.run(service, objectMapper, SCOPE, "k1", billing, () -> {
+			throw new AssertionError("request ran");
+		});
+
+		assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+		verify(service, never()).complete(any(), any(), anyInt(), any(), any());
+	}
+}
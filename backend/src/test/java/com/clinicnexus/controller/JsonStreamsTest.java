@@ -0,0 +1,53 @@
+package com.clinicnexus.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.SQLException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.clinicnexus.model.Billing;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class JsonStreamsTest {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Test
+	void streamedArrayMatchesSerializedList() throws Exception {
+		List<Billing> rows = List.of(
+			new Billing(2, 11, 120.0, true, Date.valueOf("2025-01-02")),
+			new Billing(1, 10, 80.5, false, null));
+
+		StreamingResponseBody body = JsonStreams.<Billing>array(objectMapper, callback -> {
+			for (Billing row : rows) {
+				callback.accept(row);
+			}
+		}).getBody();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		body.writeTo(out);
+
+		assertEquals(objectMapper.writeValueAsString(rows), out.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void failedReadLeavesArrayUnterminated() throws Exception {
+		StreamingResponseBody body = JsonStreams.<Billing>array(objectMapper, callback -> {
+			callback.accept(new Billing(1, 10, 80.5, false, null));
+			throw new SQLException("connection lost");
+		}).getBody();
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+		assertThrows(IOException.class, () -> body.writeTo(out));
+		String written = out.toString(StandardCharsets.UTF_8);
+		assertEquals('[', written.charAt(0));
+		assertEquals('}', written.charAt(written.length() - 1));
+	}
+}
@@ -0,0 +1,346 @@
+package com.clinicnexus.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.mockito.stubbing.Answer;
+
+class ReportRollupsTest {
+
+	private static final Date MAY_2 = Date.valueOf("2025-05-02");
+	private static final Date MAY_9 = Date.valueOf("2025-05-09");
+	private static final String[] STATUSES = {"Not Done", "Done", "Canceled"};
+
+	@Test
+	void snapshotReadsOneFactPerAppointment() throws Exception {
+		Connection conn = mock(Connection.class);
+		PreparedStatement pstmt = mock(PreparedStatement.class);
+		ResultSet rs = mock(ResultSet.class);
+		when(conn.prepareStatement(anyString())).thenReturn(pstmt);
+		when(pstmt.executeQuery()).thenReturn(rs);
+		when(rs.next()).thenReturn(true, false);
+		when(rs.getInt(1)).thenReturn(4);
+		when(rs.getInt(2)).thenReturn(12);
+		when(rs.getDate(3)).thenReturn(MAY_9);
+		when(rs.getString(4)).thenReturn("Done");
+		when(rs.getBigDecimal(5)).thenReturn(new BigDecimal("500.00"));
+		when(rs.getInt(7)).thenReturn(2);
+		when(rs.getInt(8)).thenReturn(9);
+		when(rs.getInt(9)).thenReturn(2);
+
+		List<ReportRollups.Fact> facts = ReportRollups.snapshot(conn, ReportRollups.Scope.PATIENT, 12);
+
+		assertEquals(1, facts.size());
+		assertEquals(4, facts.get(0).doctorID);
+		assertEquals(9, facts.get(0).ratingSum);
+		assertTrue(facts.get(0).appointment);
+		verify(pstmt).setInt(1, 12);
+	}
+
+	@Test
+	void rescheduledBillMovesBetweenDaysInDateOrder() throws Exception {
+		Connection conn = mock(Connection.class);
+		PreparedStatement pstmt = mock(PreparedStatement.class);
+		when(conn.prepareStatement(anyString())).thenReturn(pstmt);
+
+		ReportRollups.apply(conn, List.of(bill(MAY_9, "500.00", false)), List.of(bill(MAY_2, "500.00", false)));
+
+		InOrder order = inOrder(pstmt);
+		order.verify(pstmt).setDate(1, MAY_2);
+		order.verify(pstmt).setInt(3, 1);
+		order.verify(pstmt).setBigDecimal(5, new BigDecimal("500.00"));
+		order.verify(pstmt).addBatch();
+		order.verify(pstmt).setDate(1, MAY_9);
+		order.verify(pstmt).setInt(3, -1);
+		order.verify(pstmt).setBigDecimal(5, new BigDecimal("-500.00"));
+		order.verify(pstmt).addBatch();
+		order.verify(pstmt).executeBatch();
+		// Same doctor and quarter: nothing to write for the doctor rollup
+		assertTrue(ReportRollups.doctorChanges(List.of(bill(MAY_9, "500.00", false)), List.of(bill(MAY_2, "500.00", false))).isEmpty());
+	}
+
+	@Test
+	void unchangedFactsWriteNothing() throws Exception {
+		Connection conn = mock(Connection.class);
+
+		ReportRollups.apply(conn, List.of(bill(MAY_2, "500.00", true)), List.of(bill(MAY_2, "500.0", true)));
+		ReportRollups.apply(conn, ReportRollups.NONE, ReportRollups.NONE);
+
+		verify(conn, never()).prepareStatement(anyString());
+	}
+
+	@Test
+	void incrementalRollupsMatchAFullRecompute() throws Exception {
+		Random random = new Random(42);
+		Tables tables = new Tables();
+		Connection conn = tables.connection();
+		Map<Integer, Visit> visits = new TreeMap<>();
+		int nextID = 1;
+
+		for (int step = 0; step < 3000; step++) {
+			int op = random.nextInt(9);
+			List<Visit> existing = new ArrayList<>(visits.values());
+			if (op <= 2 || existing.isEmpty()) {
+				Visit booked = new Visit(nextID++, 1 + random.nextInt(4), 1 + random.nextInt(6), randomDate(random), "Not Done");
+				booked.amount = new BigDecimal(500 + 500 * random.nextInt(3));
+				visits.put(booked.id, booked);
+				ReportRollups.apply(conn, ReportRollups.NONE, List.of(ReportRollups.newAppointment(
+					booked.doctorID, booked.patientID, booked.date, booked.status, booked.amount.doubleValue())));
+				continue;
+			}
+
+			Visit visit = existing.get(random.nextInt(existing.size()));
+			if (op == 7 && random.nextInt(4) == 0) {
+				// Patient delete: every appointment of the patient goes at once
+				int patientID = visit.patientID;
+				Predicate<Visit> scope = v -> v.patientID == patientID;
+				List<ReportRollups.Fact> before = facts(visits, scope, true);
+				visits.values().removeIf(scope);
+				ReportRollups.apply(conn, before, ReportRollups.NONE);
+				continue;
+			}
+			if (op == 5 || op == 6) {
+				// Bill-only write: pay, re-price or add the missing bill
+				if (visit.amount == null) {
+					visit.amount = new BigDecimal("750.50");
+					ReportRollups.apply(conn, ReportRollups.NONE, List.of(visit.fact(false)));
+				} else {
+					List<ReportRollups.Fact> before = List.of(visit.fact(false));
+					if (random.nextBoolean()) {
+						visit.paid = !visit.paid;
+					} else {
+						visit.amount = visit.amount.add(new BigDecimal("120.25"));
+					}
+					ReportRollups.apply(conn, before, List.of(visit.fact(false)));
+				}
+				continue;
+			}
+
+			List<ReportRollups.Fact> before = List.of(visit.fact(true));
+			switch (op) {
+				case 3:
+					visit.status = STATUSES[random.nextInt(STATUSES.length)];
+					visit.amount = visit.amount == null ? new BigDecimal("900.00") : visit.amount.add(BigDecimal.TEN);
+					visit.ratings.add(random.nextBoolean() ? 1 + random.nextInt(5) : null);
+					break;
+				case 4:
+					visit.date = randomDate(random);
+					visit.doctorID = 1 + random.nextInt(4);
+					break;
+				case 7:
+					visit.patientID = 1 + random.nextInt(6);
+					break;
+				default:
+					visits.remove(visit.id);
+					ReportRollups.apply(conn, before, ReportRollups.NONE);
+					continue;
+			}
+			ReportRollups.apply(conn, before, List.of(visit.fact(true)));
+		}
+
+		Tables expected = recompute(visits.values());
+		assertEquals(expected.revenueRows(), tables.revenueRows());
+		assertEquals(expected.doctorRows(), tables.doctorRows());
+		assertEquals(expected.visits, tables.visits);
+	}
+
+	private static Date randomDate(Random random) {
+		// Spans a quarter boundary so moves cross doctor-quarter rows
+		return Date.valueOf(java.time.LocalDate.of(2025, 3, 15).plusDays(random.nextInt(40)));
+	}
+
+	private static List<ReportRollups.Fact> facts(Map<Integer, Visit> visits, Predicate<Visit> scope, boolean appointment) {
+		return visits.values().stream().filter(scope).map(v -> v.fact(appointment)).collect(Collectors.toList());
+	}
+
+	private static ReportRollups.Fact bill(Date day, String amount, boolean paid) {
+		return new ReportRollups.Fact(1, 1, day, "Not Done", false, new BigDecimal(amount), paid, 0, 0, 0);
+	}
+
+	/**
+	 * The rollups as a full rebuild would compute them
+	 */
+	private static Tables recompute(Iterable<Visit> visits) {
+		Tables tables = new Tables();
+		Map<String, Set<Integer>> patients = new TreeMap<>();
+		for (Visit visit : visits) {
+			ReportRollups.Fact fact = visit.fact(true);
+			if (visit.amount != null) {
+				tables.add(tables.revenue, visit.date + "/" + visit.doctorID, 1, visit.paid ? 1 : 0, visit.amount, visit.paid ? visit.amount : BigDecimal.ZERO);
+			}
+			String doctor = ReportRollups.quarterStart(visit.date) + "/" + visit.doctorID;
+			tables.add(tables.doctors, doctor, 1, "Done".equals(visit.status) ? 1 : 0, "Canceled".equals(visit.status) ? 1 : 0, 0,
+			           fact.feedbacks, fact.ratingSum, fact.ratings, visit.amount != null ? visit.amount : BigDecimal.ZERO);
+			patients.computeIfAbsent(doctor, k -> new HashSet<>()).add(visit.patientID);
+			tables.visits.merge(doctor + "/" + visit.patientID, 1, Integer::sum);
+		}
+		for (Map.Entry<String, Set<Integer>> entry : patients.entrySet()) {
+			tables.doctors.get(entry.getKey())[3] = new BigDecimal(entry.getValue().size());
+		}
+		return tables;
+	}
+
+	private static final class Visit {
+		final int id;
+		int doctorID;
+		int patientID;
+		Date date;
+		String status;
+		BigDecimal amount;
+		boolean paid;
+		final List<Integer> ratings = new ArrayList<>();
+
+		Visit(int id, int doctorID, int patientID, Date date, String status) {
+			this.id = id;
+			this.doctorID = doctorID;
+			this.patientID = patientID;
+			this.date = date;
+			this.status = status;
+		}
+
+		ReportRollups.Fact fact(boolean appointment) {
+			int sum = 0;
+			int count = 0;
+			for (Integer rating : ratings) {
+				if (rating != null) {
+					sum += rating;
+					count++;
+				}
+			}
+			return new ReportRollups.Fact(doctorID, patientID, date, status, appointment, amount, paid,
+			                              appointment ? ratings.size() : 0, appointment ? sum : 0, appointment ? count : 0);
+		}
+	}
+
+	/**
+	 * In-memory DailyRevenue, DoctorQuarterStats and DoctorQuarterPatient behind a mocked
+	 * connection that runs the rollup statements the way MySQL would
+	 */
+	private static final class Tables {
+		final Map<String, BigDecimal[]> revenue = new TreeMap<>();
+		final Map<String, BigDecimal[]> doctors = new TreeMap<>();
+		final Map<String, Integer> visits = new TreeMap<>();
+
+		Connection connection() throws Exception {
+			Connection conn = mock(Connection.class);
+			when(conn.prepareStatement(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+			return conn;
+		}
+
+		private PreparedStatement statement(String sql) throws Exception {
+			PreparedStatement pstmt = mock(PreparedStatement.class);
+			Object[] params = new Object[11];
+			List<Object[]> batch = new ArrayList<>();
+			Answer<Void> set = invocation -> {
+				params[(Integer) invocation.getArgument(0)] = invocation.getArgument(1);
+				return null;
+			};
+			doAnswer(set).when(pstmt).setInt(anyInt(), anyInt());
+			doAnswer(set).when(pstmt).setDate(anyInt(), any());
+			doAnswer(set).when(pstmt).setBigDecimal(anyInt(), any());
+			doAnswer(invocation -> batch.add(params.clone())).when(pstmt).addBatch();
+			when(pstmt.executeBatch()).thenAnswer(invocation -> {
+				for (Object[] row : batch) {
+					execute(sql, row);
+				}
+				batch.clear();
+				return new int[0];
+			});
+			when(pstmt.executeUpdate()).thenAnswer(invocation -> execute(sql, params));
+			return pstmt;
+		}
+
+		private int execute(String sql, Object[] p) {
+			if (sql.startsWith("INSERT INTO DailyRevenue")) {
+				add(revenue, p[1] + "/" + p[2], p[3], p[4], p[5], p[6]);
+				return 1;
+			}
+			if (sql.startsWith("INSERT INTO DoctorQuarterStats")) {
+				add(doctors, p[1] + "/" + p[2], p[3], p[4], p[5], p[6], p[7], p[8], p[9], p[10]);
+				return 1;
+			}
+			if (sql.startsWith("INSERT INTO DoctorQuarterPatient")) {
+				String key = p[1] + "/" + p[2] + "/" + p[3];
+				boolean existed = visits.containsKey(key);
+				visits.merge(key, (Integer) p[4], Integer::sum);
+				return existed ? 2 : 1;
+			}
+			if (sql.startsWith("UPDATE DoctorQuarterPatient")) {
+				String key = p[2] + "/" + p[3] + "/" + p[4];
+				return visits.computeIfPresent(key, (k, v) -> v - (Integer) p[1]) != null ? 1 : 0;
+			}
+			if (sql.startsWith("DELETE FROM DoctorQuarterPatient")) {
+				String key = p[1] + "/" + p[2] + "/" + p[3];
+				Integer count = visits.get(key);
+				if (count != null && count <= 0) {
+					visits.remove(key);
+					return 1;
+				}
+				return 0;
+			}
+			throw new IllegalStateException("Unexpected statement: " + sql);
+		}
+
+		void add(Map<String, BigDecimal[]> table, String key, Object... values) {
+			BigDecimal[] row = table.computeIfAbsent(key, k -> {
+				BigDecimal[] zeros = new BigDecimal[values.length];
+				java.util.Arrays.fill(zeros, BigDecimal.ZERO);
+				return zeros;
+			});
+			for (int i = 0; i < values.length; i++) {
+				row[i] = row[i].add(values[i] instanceof BigDecimal ? (BigDecimal) values[i] : new BigDecimal((Integer) values[i]));
+			}
+		}
+
+		Map<String, String> revenueRows() {
+			return rows(revenue);
+		}
+
+		Map<String, String> doctorRows() {
+			return rows(doctors);
+		}
+
+		/** Rows as strings, leaving out all-zero rows that the rollup keeps but a rebuild does not write */
+		private static Map<String, String> rows(Map<String, BigDecimal[]> table) {
+			Map<String, String> rows = new TreeMap<>();
+			for (Map.Entry<String, BigDecimal[]> entry : table.entrySet()) {
+				List<String> values = new ArrayList<>();
+				boolean zero = true;
+				for (BigDecimal value : entry.getValue()) {
+					values.add(value.stripTrailingZeros().toPlainString());
+					zero &= value.signum() == 0;
+				}
+				if (!zero) {
+					rows.put(entry.getKey(), String.join(",", values));
+				}
+			}
+			return rows;
+		}
+	}
+}
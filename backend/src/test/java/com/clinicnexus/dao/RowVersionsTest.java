@@ -0,0 +1,65 @@
+package com.clinicnexus.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.clinicnexus.util.UpdateResult;
+
+class RowVersionsTest {
+
+	private static final String VERSION_SQL = "SELECT Version FROM Patient WHERE PatientID = ?";
+
+	private Connection conn;
+	private PreparedStatement pstmt;
+	private ResultSet rs;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		conn = mock(Connection.class);
+		pstmt = mock(PreparedStatement.class);
+		rs = mock(ResultSet.class);
+		when(conn.prepareStatement(anyString())).thenReturn(pstmt);
+		when(pstmt.executeQuery()).thenReturn(rs);
+	}
+
+	@Test
+	void matchedRowReturnsTheNextVersionWithoutReading() throws Exception {
+		UpdateResult result = RowVersions.afterUpdate(conn, 1, 4, VERSION_SQL, 12);
+
+		assertEquals(UpdateResult.Status.UPDATED, result.getStatus());
+		assertEquals(5, result.getVersion());
+		verify(conn, never()).prepareStatement(anyString());
+	}
+
+	@Test
+	void staleVersionReportsTheCurrentOne() throws Exception {
+		when(rs.next()).thenReturn(true);
+		when(rs.getInt(1)).thenReturn(7);
+
+		UpdateResult result = RowVersions.afterUpdate(conn, 0, 4, VERSION_SQL, 12);
+
+		assertEquals(UpdateResult.Status.CONFLICT, result.getStatus());
+		assertEquals(7, result.getVersion());
+		verify(pstmt).setInt(1, 12);
+	}
+
+	@Test
+	void missingRowIsNotFound() throws Exception {
+		when(rs.next()).thenReturn(false);
+
+		UpdateResult result = RowVersions.afterUpdate(conn, 0, 4, VERSION_SQL, 12);
+
+		assertEquals(UpdateResult.Status.NOT_FOUND, result.getStatus());
+	}
+}
@@ -0,0 +1,92 @@
+package com.clinicnexus.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+class StockUpdatesTest {
+
+	private Connection conn;
+	private PreparedStatement pstmt;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		conn = mock(Connection.class);
+		pstmt = mock(PreparedStatement.class);
+		when(conn.prepareStatement(anyString())).thenReturn(pstmt);
+	}
+
+	@Test
+	void itemsAreDecrementedInItemIdOrder() throws Exception {
+		when(pstmt.executeBatch()).thenReturn(new int[] {1, 1, 1});
+		Map<Integer, Integer> usage = new HashMap<>();
+		usage.put(42, 1);
+		usage.put(7, 3);
+		usage.put(19, 2);
+
+		assertNull(StockUpdates.decrementStock(conn, usage));
+
+		InOrder order = inOrder(pstmt);
+		order.verify(pstmt).setInt(2, 7);
+		order.verify(pstmt).setInt(2, 19);
+		order.verify(pstmt).setInt(2, 42);
+		order.verify(pstmt).executeBatch();
+		verify(pstmt, never()).executeUpdate();
+	}
+
+	@Test
+	void zeroAffectedRowsReportsTheShortItem() throws Exception {
+		when(pstmt.executeBatch()).thenReturn(new int[] {1, 0, 1});
+		Map<Integer, Integer> usage = new HashMap<>();
+		usage.put(3, 5);
+		usage.put(8, 50);
+		usage.put(12, 1);
+
+		assertEquals(8, StockUpdates.decrementStock(conn, usage));
+	}
+
+	@Test
+	void nonPositiveQuantityIsRejectedBeforeAnythingIsSent() throws Exception {
+		Map<Integer, Integer> usage = new HashMap<>();
+		usage.put(3, 5);
+		usage.put(8, -4);
+
+		SQLException e = assertThrows(SQLException.class, () -> StockUpdates.decrementStock(conn, usage));
+
+		assertEquals("Invalid quantity for item ID: 8", e.getMessage());
+		verify(conn, never()).prepareStatement(anyString());
+	}
+
+	@Test
+	void usageRowsAreWrittenAsOneBatch() throws Exception {
+		Map<Integer, Integer> usage = new HashMap<>();
+		usage.put(5, 2);
+		usage.put(1, 4);
+
+		StockUpdates.recordUsage(conn, 77, usage);
+
+		InOrder order = inOrder(pstmt);
+		order.verify(pstmt).setInt(2, 1);
+		order.verify(pstmt).setInt(2, 5);
+		order.verify(pstmt).executeBatch();
+		verify(pstmt, times(2)).addBatch();
+		verify(pstmt, times(2)).setInt(1, 77);
+	}
+}
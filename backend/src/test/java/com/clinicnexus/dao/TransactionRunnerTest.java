@@ -0,0 +1,136 @@
+package com.clinicnexus.dao;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TransactionRunnerTest {
+
+	private Connection conn;
+	private SimpleMeterRegistry registry;
+	private TransactionRunner runner;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		conn = mock(Connection.class);
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(conn);
+		registry = new SimpleMeterRegistry();
+
+		runner = new TransactionRunner();
+		ReflectionTestUtils.setField(runner, "dataSource", dataSource);
+		ReflectionTestUtils.setField(runner, "meterRegistry", registry);
+		ReflectionTestUtils.setField(runner, "maxAttempts", 3);
+		ReflectionTestUtils.setField(runner, "backoffMillis", 1L);
+		ReflectionTestUtils.setField(runner, "maxBackoffMillis", 2L);
+	}
+
+	@Test
+	void deadlockVictimIsRetriedAndCommits() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+
+		String result = runner.inTransaction("booking", c -> {
+			if (calls.incrementAndGet() == 1) {
+				throw new SQLException("Deadlock found", "40001", TransactionRunner.ER_LOCK_DEADLOCK);
+			}
+			return "booked";
+		});
+
+		assertEquals("booked", result);
+		assertEquals(2, calls.get());
+		verify(conn, times(1)).rollback();
+		verify(conn, times(1)).commit();
+		assertEquals(1.0, registry.counter("clinic.tx.retries", "transaction", "booking").count());
+	}
+
+	@Test
+	void otherErrorsAreRolledBackWithoutRetry() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+		SQLException duplicate = new SQLException("Duplicate entry", "23000", 1062);
+
+		SQLException thrown = assertThrows(SQLException.class, () -> runner.inTransaction("booking", c -> {
+			calls.incrementAndGet();
+			throw duplicate;
+		}));
+
+		assertSame(duplicate, thrown);
+		assertEquals(1, calls.get());
+		verify(conn).rollback();
+		verify(conn, never()).commit();
+		assertEquals(0.0, registry.counter("clinic.tx.retries", "transaction", "booking").count());
+	}
+
+	@Test
+	void uncheckedExceptionIsRolledBackBeforeAutoCommitIsRestored() throws Exception {
+		IllegalStateException failure = new IllegalStateException("bad row");
+
+		IllegalStateException thrown = assertThrows(IllegalStateException.class, () -> runner.inTransaction("visit", c -> {
+			throw failure;
+		}));
+
+		assertSame(failure, thrown);
+		InOrder order = inOrder(conn);
+		order.verify(conn).setAutoCommit(false);
+		order.verify(conn).rollback();
+		order.verify(conn).setAutoCommit(true);
+		order.verify(conn).close();
+		verify(conn, never()).commit();
+	}
+
+	@Test
+	void errorIsRolledBackWithoutCommit() throws Exception {
+		assertThrows(OutOfMemoryError.class, () -> runner.inTransaction("visit", c -> {
+			throw new OutOfMemoryError("test");
+		}));
+
+		verify(conn).rollback();
+		verify(conn, never()).commit();
+	}
+
+	@Test
+	void lockWaitTimeoutGivesUpAfterMaxAttempts() throws Exception {
+		AtomicInteger calls = new AtomicInteger();
+
+		assertThrows(SQLException.class, () -> runner.inTransaction("restock", c -> {
+			calls.incrementAndGet();
+			throw new SQLException("Lock wait timeout exceeded", "HY000", TransactionRunner.ER_LOCK_WAIT_TIMEOUT);
+		}));
+
+		assertEquals(3, calls.get());
+		verify(conn, times(3)).rollback();
+		verify(conn, never()).commit();
+		assertEquals(2.0, registry.counter("clinic.tx.retries", "transaction", "restock").count());
+		assertEquals(1.0, registry.counter("clinic.tx.retries.exhausted", "transaction", "restock").count());
+	}
+
+	@Test
+	void wrappedDeadlockIsRetryable() {
+		SQLException wrapped = new BatchUpdateException("batch failed", new int[0],
+			new SQLException("Deadlock found", "40001", TransactionRunner.ER_LOCK_DEADLOCK));
+
+		assertTrue(TransactionRunner.isRetryable(wrapped));
+		assertFalse(TransactionRunner.isRetryable(new SQLException("Duplicate entry", "23000", 1062)));
+	}
+}
@@ -3,7 +3,8 @@ package com.clinicnexus.demo;
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
-@SpringBootTest
+// No database is available to the test context, so migrations are not run
+@SpringBootTest(properties = "spring.flyway.enabled=false")
 class DemoApplicationTests {
 
 	@Test
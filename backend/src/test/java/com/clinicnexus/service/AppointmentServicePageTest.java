@@ -0,0 +1,70 @@
+package com.clinicnexus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.Time;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.dao.AppointmentDAO;
+import com.clinicnexus.model.Appointment;
+import com.clinicnexus.util.Page;
+
+class AppointmentServicePageTest {
+
+	private AppointmentDAO appointmentDAO;
+	private AppointmentService service;
+
+	@BeforeEach
+	void setUp() {
+		appointmentDAO = mock(AppointmentDAO.class);
+		service = new AppointmentService();
+		ReflectionTestUtils.setField(service, "appointmentDAO", appointmentDAO);
+	}
+
+	@Test
+	void cursorCarriesTheLastRowKeyIntoTheNextQuery() {
+		List<Appointment> rows = new ArrayList<>();
+		for (int id = 10; id > 7; id--) {
+			rows.add(new Appointment(id, 1, 2, Date.valueOf("2025-03-0" + (id - 7)), Time.valueOf("09:30:00"), 30, "Checkup", "Not Done", null));
+		}
+		when(appointmentDAO.getAppointmentPage(isNull(), isNull(), isNull(), isNull(), isNull(), eq(3))).thenReturn(rows);
+
+		Page<Appointment> first = service.listAppointmentPage(null, null, null, null, null, 2);
+		assertEquals(2, first.getItems().size());
+		assertTrue(first.hasMore());
+
+		when(appointmentDAO.getAppointmentPage(isNull(), isNull(), isNull(), isNull(), any(Appointment.class), eq(3))).thenReturn(rows.subList(2, 3));
+		Page<Appointment> second = service.listAppointmentPage(null, null, null, null, first.getNextCursor(), 2);
+		assertFalse(second.hasMore());
+		assertNull(second.getNextCursor());
+
+		ArgumentCaptor<Appointment> after = ArgumentCaptor.forClass(Appointment.class);
+		verify(appointmentDAO, times(2)).getAppointmentPage(isNull(), isNull(), isNull(), isNull(), after.capture(), eq(3));
+		assertEquals(9, after.getAllValues().get(1).getAppointmentID());
+		assertEquals(Date.valueOf("2025-03-02"), after.getAllValues().get(1).getDate());
+		assertEquals(Time.valueOf("09:30:00"), after.getAllValues().get(1).getTime());
+	}
+
+	@Test
+	void malformedCursorIsRejected() {
+		assertThrows(IllegalArgumentException.class, () -> service.listAppointmentPage(null, null, null, null, "not-a-cursor", 10));
+	}
+}
@@ -0,0 +1,330 @@
+package com.clinicnexus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Time;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.StaffDirectory;
+import com.clinicnexus.dao.AppointmentDAO;
+import com.clinicnexus.dao.TransactionRunner;
+import com.clinicnexus.model.Appointment;
+import com.clinicnexus.model.Staff;
+import com.clinicnexus.util.AppointmentResult;
+import com.clinicnexus.util.UpdateResult;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AppointmentTransactionServiceTest {
+
+	private Connection conn;
+	private PreparedStatement calendar;
+	private PreparedStatement insert;
+	private PreparedStatement billing;
+	private PreparedStatement revenue;
+	private PreparedStatement visits;
+	private PreparedStatement doctors;
+	private AppointmentDAO appointmentDAO;
+	private AppointmentIntervalIndex index;
+	private StaffDirectory staffDirectory;
+	private DataSource dataSource;
+	private AppointmentTransactionService service;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		conn = mock(Connection.class);
+		calendar = mock(PreparedStatement.class);
+		insert = mock(PreparedStatement.class);
+		billing = mock(PreparedStatement.class);
+		revenue = mock(PreparedStatement.class);
+		visits = mock(PreparedStatement.class);
+		doctors = mock(PreparedStatement.class);
+		when(conn.prepareStatement(startsWith("INSERT INTO DoctorCalendar"))).thenReturn(calendar);
+		when(conn.prepareStatement(startsWith("INSERT INTO Appointment "), anyInt())).thenReturn(insert);
+		when(conn.prepareStatement(startsWith("INSERT INTO Billing"))).thenReturn(billing);
+		when(conn.prepareStatement(startsWith("INSERT INTO DailyRevenue"))).thenReturn(revenue);
+		when(conn.prepareStatement(startsWith("INSERT INTO DoctorQuarterPatient"))).thenReturn(visits);
+		when(conn.prepareStatement(startsWith("INSERT INTO DoctorQuarterStats"))).thenReturn(doctors);
+
+		dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenReturn(conn);
+		appointmentDAO = mock(AppointmentDAO.class);
+		index = mock(AppointmentIntervalIndex.class);
+		staffDirectory = mock(StaffDirectory.class);
+		when(staffDirectory.isBookableDoctor(anyInt())).thenReturn(true);
+		when(staffDirectory.getStaff(anyInt())).thenReturn(doctor("Mon-Fri"));
+
+		service = new AppointmentTransactionService();
+		ReflectionTestUtils.setField(service, "transactionRunner", transactionRunner(dataSource));
+		ReflectionTestUtils.setField(service, "appointmentDAO", appointmentDAO);
+		ReflectionTestUtils.setField(service, "appointmentIndex", index);
+		ReflectionTestUtils.setField(service, "staffDirectory", staffDirectory);
+	}
+
+	@Test
+	void successfulBookingLocksTheCalendarAndReturnsTheRow() throws Exception {
+		ResultSet keys = mock(ResultSet.class);
+		when(keys.next()).thenReturn(true);
+		when(keys.getInt(1)).thenReturn(41);
+		when(insert.executeUpdate()).thenReturn(1);
+		when(insert.getGeneratedKeys()).thenReturn(keys);
+
+		AppointmentResult result = service.scheduleAppointment(request());
+
+		assertTrue(result.isSuccess());
+		assertEquals(41, result.getAppointmentID());
+		assertEquals(41, result.getAppointment().getAppointmentID());
+		assertEquals("Not Done", result.getAppointment().getStatus());
+		assertEquals(45, result.getAppointment().getDuration());
+		InOrder order = inOrder(calendar, insert, billing, revenue, visits, doctors);
+		order.verify(calendar).executeUpdate();
+		order.verify(insert).executeUpdate();
+		order.verify(billing).executeUpdate();
+		order.verify(revenue).executeBatch();
+		order.verify(visits).executeUpdate();
+		order.verify(doctors).executeBatch();
+		verify(conn, times(1)).prepareStatement(anyString(), anyInt());
+		verify(conn, times(5)).prepareStatement(anyString());
+		verify(conn).commit();
+		verify(index).onAppointmentSaved(any(Appointment.class));
+	}
+
+	@Test
+	void indexConflictConfirmedInTheDatabaseIsRejectedWithoutLocking() throws Exception {
+		when(index.hasConflict(anyInt(), any(), any(), anyInt(), any())).thenReturn(true);
+		ResultSet overlap = stubConflictCheck();
+		when(overlap.next()).thenReturn(true);
+
+		AppointmentResult result = service.scheduleAppointment(request());
+
+		assertFalse(result.isSuccess());
+		assertEquals("Doctor is not available at the requested time", result.getMessage());
+		verify(calendar, never()).executeUpdate();
+		verify(insert, never()).executeUpdate();
+		verify(index, never()).evictDate(any());
+	}
+
+	@Test
+	void staleIndexConflictIsEvictedAndBooked() throws Exception {
+		when(index.hasConflict(anyInt(), any(), any(), anyInt(), any())).thenReturn(true);
+		ResultSet overlap = stubConflictCheck();
+		when(overlap.next()).thenReturn(false);
+		ResultSet keys = mock(ResultSet.class);
+		when(keys.next()).thenReturn(true);
+		when(keys.getInt(1)).thenReturn(42);
+		when(insert.executeUpdate()).thenReturn(1);
+		when(insert.getGeneratedKeys()).thenReturn(keys);
+
+		AppointmentResult result = service.scheduleAppointment(request());
+
+		assertTrue(result.isSuccess());
+		assertEquals(42, result.getAppointmentID());
+		verify(index).evictDate(Date.valueOf("2099-06-10"));
+		verify(calendar).executeUpdate();
+	}
+
+	@Test
+	void rejectedBookingIsExplainedAndRolledBack() throws Exception {
+		when(insert.executeUpdate()).thenReturn(0);
+		PreparedStatement diagnosis = mock(PreparedStatement.class);
+		ResultSet counts = mock(ResultSet.class);
+		when(conn.prepareStatement(startsWith("SELECT (SELECT COUNT(*) FROM Appointment"))).thenReturn(diagnosis);
+		when(diagnosis.executeQuery()).thenReturn(counts);
+		when(counts.next()).thenReturn(true);
+		when(counts.getInt("Conflicts")).thenReturn(0);
+		when(counts.getString("WorkingDays")).thenReturn("Mon-Fri");
+		when(counts.getInt("ActivePatients")).thenReturn(0);
+
+		AppointmentResult result = service.scheduleAppointment(request());
+
+		assertFalse(result.isSuccess());
+		assertEquals("Patient does not exist or is inactive", result.getMessage());
+		verify(billing, never()).executeUpdate();
+		verify(revenue, never()).executeBatch();
+		verify(doctors, never()).executeBatch();
+		verify(conn).rollback();
+	}
+
+	@Test
+	void inactiveDoctorIsRejectedWithoutAConnection() throws Exception {
+		when(staffDirectory.isBookableDoctor(eq(7))).thenReturn(false);
+
+		AppointmentResult result = service.scheduleAppointment(request());
+
+		assertFalse(result.isSuccess());
+		assertEquals("Doctor is not available at the requested time", result.getMessage());
+		verify(dataSource, never()).getConnection();
+	}
+
+	@Test
+	void dayOffIsRejectedWithoutAConnection() throws Exception {
+		when(staffDirectory.getStaff(eq(7))).thenReturn(doctor("Mon, Tue, Thu"));
+
+		AppointmentResult result = service.scheduleAppointment(request());
+
+		assertFalse(result.isSuccess());
+		assertEquals("Doctor is not available at the requested time", result.getMessage());
+		verify(dataSource, never()).getConnection();
+	}
+
+	@Test
+	void bookingIsGuardedByTheWorkingDaysThatWereChecked() throws Exception {
+		when(insert.executeUpdate()).thenReturn(0);
+		PreparedStatement diagnosis = mock(PreparedStatement.class);
+		ResultSet counts = mock(ResultSet.class);
+		when(conn.prepareStatement(startsWith("SELECT (SELECT COUNT(*) FROM Appointment"))).thenReturn(diagnosis);
+		when(diagnosis.executeQuery()).thenReturn(counts);
+		when(counts.next()).thenReturn(true);
+		when(counts.getString("WorkingDays")).thenReturn("Sat-Sun");
+		when(counts.getInt("ActivePatients")).thenReturn(1);
+
+		AppointmentResult result = service.scheduleAppointment(request());
+
+		assertFalse(result.isSuccess());
+		assertEquals("Doctor is not available at the requested time", result.getMessage());
+		verify(insert).setString(7, "Mon-Fri");
+		verify(conn).rollback();
+	}
+
+	@Test
+	void missingTimeIsRejectedBeforeTheIndex() throws Exception {
+		Appointment appointment = request();
+		appointment.setTime(null);
+
+		AppointmentResult result = service.scheduleAppointment(appointment);
+
+		assertFalse(result.isSuccess());
+		assertEquals("Date and time are required", result.getMessage());
+		verify(index, never()).hasConflict(anyInt(), any(), any(), anyInt(), any());
+		verify(dataSource, never()).getConnection();
+	}
+
+	@Test
+	void movingAnAppointmentOntoABookedSlotIsRejected() throws Exception {
+		stubCurrentBooking("09:00:00", "Not Done");
+		PreparedStatement diagnosis = mock(PreparedStatement.class);
+		ResultSet counts = mock(ResultSet.class);
+		when(conn.prepareStatement(startsWith("SELECT (SELECT COUNT(*) FROM Appointment"))).thenReturn(diagnosis);
+		when(diagnosis.executeQuery()).thenReturn(counts);
+		when(counts.next()).thenReturn(true);
+		when(counts.getInt("Conflicts")).thenReturn(1);
+
+		UpdateResult result = service.updateAppointment(existing("10:00:00", "Not Done"));
+
+		assertEquals(UpdateResult.Status.REJECTED, result.getStatus());
+		assertEquals("Doctor is not available at the requested time", result.getMessage());
+		InOrder order = inOrder(calendar, diagnosis);
+		order.verify(calendar).executeUpdate();
+		order.verify(diagnosis).setInt(3, 12);
+		order.verify(diagnosis).executeQuery();
+		verify(appointmentDAO, never()).updateAppointment(any(Connection.class), any(Appointment.class));
+		verify(index, never()).onAppointmentSaved(any(Appointment.class));
+	}
+
+	@Test
+	void statusChangeInTheSameSlotSkipsTheBookingChecks() throws Exception {
+		stubCurrentBooking("10:00:00", "Not Done");
+		when(appointmentDAO.updateAppointment(eq(conn), any(Appointment.class))).thenReturn(UpdateResult.updated(5));
+
+		Appointment appointment = existing("10:00:00", "Done");
+		UpdateResult result = service.updateAppointment(appointment);
+
+		assertTrue(result.isUpdated());
+		assertEquals(5, appointment.getVersion());
+		verify(calendar, never()).executeUpdate();
+		verify(conn).commit();
+		verify(index).onAppointmentSaved(appointment);
+	}
+
+	@Test
+	void databaseErrorIsNotReportedAsNotFound() throws Exception {
+		when(conn.prepareStatement(startsWith("SELECT PatientID, DoctorID"))).thenThrow(new SQLException("Table 'Appointment' doesn't exist", "42S02", 1146));
+
+		UpdateResult result = service.updateAppointment(existing("10:00:00", "Not Done"));
+
+		assertEquals(UpdateResult.Status.ERROR, result.getStatus());
+		verify(conn, never()).commit();
+		verify(index, never()).onAppointmentSaved(any(Appointment.class));
+	}
+
+	@Test
+	void poolTimeoutIsBusy() throws Exception {
+		when(dataSource.getConnection()).thenThrow(new SQLTransientConnectionException("Connection is not available"));
+
+		UpdateResult result = service.updateAppointment(existing("10:00:00", "Not Done"));
+
+		assertEquals(UpdateResult.Status.BUSY, result.getStatus());
+	}
+
+	private ResultSet stubConflictCheck() throws Exception {
+		PreparedStatement check = mock(PreparedStatement.class);
+		ResultSet overlap = mock(ResultSet.class);
+		when(conn.prepareStatement(startsWith("SELECT 1 FROM Appointment"))).thenReturn(check);
+		when(check.executeQuery()).thenReturn(overlap);
+		return overlap;
+	}
+
+	private void stubCurrentBooking(String time, String status) throws Exception {
+		PreparedStatement select = mock(PreparedStatement.class);
+		ResultSet current = mock(ResultSet.class);
+		when(conn.prepareStatement(startsWith("SELECT PatientID, DoctorID"))).thenReturn(select);
+		when(select.executeQuery()).thenReturn(current);
+		when(current.next()).thenReturn(true);
+		when(current.getInt("PatientID")).thenReturn(3);
+		when(current.getInt("DoctorID")).thenReturn(7);
+		when(current.getDate("Date")).thenReturn(Date.valueOf("2099-06-10"));
+		when(current.getTime("Time")).thenReturn(Time.valueOf(time));
+		when(current.getInt("Duration")).thenReturn(45);
+		when(current.getString("Status")).thenReturn(status);
+	}
+
+	private static Appointment existing(String time, String status) {
+		Appointment appointment = new Appointment(12, 3, 7, Date.valueOf("2099-06-10"), Time.valueOf(time), 45, "Check-up", status, null);
+		appointment.setVersion(4);
+		return appointment;
+	}
+
+	private static Staff doctor(String workingDays) {
+		return new Staff(7, "Dr. Test", "Doctor", "General", "L-7", null, null, null, workingDays, true);
+	}
+
+	private static Appointment request() {
+		return new Appointment(0, 3, 7, Date.valueOf("2099-06-10"), Time.valueOf("10:00:00"), 45, "Check-up", "Done", null);
+	}
+
+	private static TransactionRunner transactionRunner(DataSource dataSource) {
+		TransactionRunner runner = new TransactionRunner();
+		ReflectionTestUtils.setField(runner, "dataSource", dataSource);
+		ReflectionTestUtils.setField(runner, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(runner, "maxAttempts", 3);
+		ReflectionTestUtils.setField(runner, "backoffMillis", 5L);
+		ReflectionTestUtils.setField(runner, "maxBackoffMillis", 50L);
+		return runner;
+	}
+}
@@ -0,0 +1,123 @@
+package com.clinicnexus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.StaffDirectory;
+import com.clinicnexus.model.Staff;
+import com.clinicnexus.util.AvailableSlot;
+
+class AvailabilityServiceTest {
+
+	// A Monday far enough ahead that "now" never trims the day
+	private static final LocalDate MONDAY = LocalDate.of(2099, 6, 1);
+
+	private StaffDirectory staffDirectory;
+	private AppointmentIntervalIndex index;
+	private AvailabilityService service;
+
+	@BeforeEach
+	void setUp() {
+		staffDirectory = mock(StaffDirectory.class);
+		when(staffDirectory.getActiveDoctors("Pediatrics")).thenReturn(List.of(
+			doctor(1, "Mon-Fri"),
+			doctor(2, "Tue")
+		));
+		index = mock(AppointmentIntervalIndex.class);
+		when(index.getBookedIntervals(anyInt(), any())).thenReturn(List.of());
+
+		service = new AvailabilityService();
+		ReflectionTestUtils.setField(service, "staffDirectory", staffDirectory);
+		ReflectionTestUtils.setField(service, "appointmentIndex", index);
+		ReflectionTestUtils.setField(service, "threads", 2);
+		service.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.stop();
+	}
+
+	@Test
+	void returnsEarliestSlotsAcrossDoctorsSkippingBookedTime() {
+		// Doctor 1 is booked 09:00-10:15 on Monday
+		when(index.getBookedIntervals(eq(1), eq(MONDAY))).thenReturn(List.of(new int[] {9 * 60, 10 * 60 + 15}));
+
+		List<AvailableSlot> slots = service.findEarliestSlots("Pediatrics", MONDAY, 7, 60, 3);
+
+		assertEquals(3, slots.size());
+		assertSlot(slots.get(0), 1, MONDAY, "10:15:00");
+		assertSlot(slots.get(1), 1, MONDAY, "10:30:00");
+		assertSlot(slots.get(2), 1, MONDAY, "10:45:00");
+	}
+
+	@Test
+	void visitsDoNotSpanTheLunchBreak() {
+		when(index.getBookedIntervals(eq(1), any())).thenReturn(List.of(new int[] {9 * 60, 11 * 60 + 30}));
+
+		List<AvailableSlot> slots = service.findEarliestSlots("Pediatrics", MONDAY, 1, 60, 1);
+
+		// 11:30-12:00 is too short for an hour, so Monday resumes after lunch
+		assertSlot(slots.get(0), 1, MONDAY, "13:00:00");
+	}
+
+	@Test
+	void respectsWorkingDays() {
+		when(index.getBookedIntervals(eq(1), any())).thenReturn(List.of(new int[] {9 * 60, 11 * 60 + 30}));
+
+		// Doctor 2 works Tuesdays only and is free all morning
+		List<AvailableSlot> tuesday = service.findEarliestSlots("Pediatrics", MONDAY.plusDays(1), 1, 60, 2);
+		assertSlot(tuesday.get(0), 2, MONDAY.plusDays(1), "09:00:00");
+		assertSlot(tuesday.get(1), 2, MONDAY.plusDays(1), "09:15:00");
+
+		List<AvailableSlot> wednesday = service.findEarliestSlots("Pediatrics", MONDAY.plusDays(2), 1, 60, 1);
+		assertSlot(wednesday.get(0), 1, MONDAY.plusDays(2), "13:00:00");
+	}
+
+	@Test
+	void openStartTimesSkipDaysOff() {
+		when(staffDirectory.isBookableDoctor(2)).thenReturn(true);
+		when(staffDirectory.getStaff(2)).thenReturn(doctor(2, "Tue"));
+
+		assertEquals(List.of(), service.getOpenStartTimes(2, MONDAY, 60, 30));
+		assertEquals("09:00:00", service.getOpenStartTimes(2, MONDAY.plusDays(1), 60, 30).get(0));
+	}
+
+	@Test
+	void openStartTimesOfferNothingInThePast() {
+		when(staffDirectory.isBookableDoctor(1)).thenReturn(true);
+		when(staffDirectory.getStaff(1)).thenReturn(doctor(1, "Daily"));
+
+		assertEquals(List.of(), service.getOpenStartTimes(1, LocalDate.now().minusDays(1), 30, 30));
+		LocalTime now = LocalTime.now();
+		for (String time : service.getOpenStartTimes(1, LocalDate.now(), 30, 30)) {
+			assertTrue(LocalTime.parse(time).isAfter(now));
+		}
+	}
+
+	private static void assertSlot(AvailableSlot slot, int doctorID, LocalDate date, String time) {
+		assertEquals(doctorID, slot.getDoctorID());
+		assertEquals(Date.valueOf(date), slot.getDate());
+		assertEquals(time, slot.getTime().toString());
+	}
+
+	private static Staff doctor(int id, String workingDays) {
+		return new Staff(id, "Dr. " + id, "Doctor", "Pediatrics", null, null, null, null, workingDays, true);
+	}
+}
@@ -0,0 +1,294 @@
+package com.clinicnexus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Time;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.cache.AppointmentIntervalIndex;
+import com.clinicnexus.cache.StaffDirectory;
+import com.clinicnexus.dao.TransactionRunner;
+import com.clinicnexus.model.Appointment;
+import com.clinicnexus.model.Staff;
+import com.clinicnexus.util.AppointmentResult;
+import com.zaxxer.hikari.HikariDataSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Books overlapping slots for one doctor from many threads spread over several
+ * DataSources, each standing in for a separate application instance, and checks
+ * that no two active appointments overlap. The many-doctor run books the same days
+ * for several doctors at once, which only contend if something shared across doctors
+ * (such as a per-day rollup row) is locked by the booking transaction; it prints the
+ * InnoDB row lock waits it caused alongside its throughput.
+ *
+ * Needs a MySQL database it may write to:
+ *   ./mvnw test -Dtest=BookingContentionTest -Dclinic.it.jdbc-url=jdbc:mysql://localhost:3306/clinic_it
+ *     -Dclinic.it.username=app -Dclinic.it.password=password
+ * Throughput for each client count is printed to stdout.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@EnabledIfSystemProperty(named = "clinic.it.jdbc-url", matches = ".+")
+class BookingContentionTest {
+
+	private static final int NODES = 4;
+	private static final int DAYS_PER_RUN = 10;
+	private static final int DURATION = 30;
+	private static final int DOCTORS = 8;
+
+	private HikariDataSource admin;
+	private final int[] doctorIDs = new int[DOCTORS];
+	private int patientID;
+	private LocalDate nextDay = LocalDate.of(2098, 1, 5);
+
+	@BeforeAll
+	void setUp() throws Exception {
+		admin = dataSource(2);
+		Flyway.configure().dataSource(admin).baselineOnMigrate(true).baselineVersion("1").load().migrate();
+
+		try (Connection conn = admin.getConnection()) {
+			for (int i = 0; i < DOCTORS; i++) {
+				doctorIDs[i] = insert(conn, "INSERT INTO Staff (Name, JobType, Specialization, WorkingDays, ActiveStatus) VALUES ('Contention Doctor " + i + "', 'Doctor', 'General', 'Daily', true)");
+			}
+			patientID = insert(conn, "INSERT INTO Patient (Name, ActiveStatus) VALUES ('Contention Patient', true)");
+		}
+	}
+
+	@AfterAll
+	void tearDown() throws Exception {
+		if (admin == null) {
+			return;
+		}
+		try (Connection conn = admin.getConnection()) {
+			for (int doctorID : doctorIDs) {
+				execute(conn, "DELETE b FROM Billing b JOIN Appointment a ON b.AppointmentID = a.AppointmentID WHERE a.DoctorID = ?", doctorID);
+				execute(conn, "DELETE FROM Appointment WHERE DoctorID = ?", doctorID);
+				execute(conn, "DELETE FROM DoctorCalendar WHERE DoctorID = ?", doctorID);
+				execute(conn, "DELETE FROM DailyRevenue WHERE DoctorID = ?", doctorID);
+				execute(conn, "DELETE FROM DoctorQuarterStats WHERE DoctorID = ?", doctorID);
+				execute(conn, "DELETE FROM DoctorQuarterPatient WHERE DoctorID = ?", doctorID);
+			}
+			execute(conn, "DELETE FROM Patient WHERE PatientID = ?", patientID);
+			for (int doctorID : doctorIDs) {
+				execute(conn, "DELETE FROM Staff WHERE StaffID = ?", doctorID);
+			}
+		}
+		admin.close();
+	}
+
+	@Test
+	void oneClient() throws Exception {
+		run(1, 1);
+	}
+
+	@Test
+	void eightClients() throws Exception {
+		run(8, 1);
+	}
+
+	@Test
+	void sixtyFourClients() throws Exception {
+		run(64, 1);
+	}
+
+	@Test
+	void sixtyFourClientsAcrossDoctorsOnTheSameDays() throws Exception {
+		run(64, DOCTORS);
+	}
+
+	private void run(int clients, int doctors) throws Exception {
+		LocalDate firstDay = nextDay;
+		nextDay = nextDay.plusDays(DAYS_PER_RUN);
+
+		// Every 15-minute start from 08:00 to 16:30 on each day; neighbouring 30-minute requests overlap
+		ConcurrentLinkedQueue<Appointment> requests = new ConcurrentLinkedQueue<>(requests(firstDay, doctors));
+		int attempts = requests.size();
+		long lockWaitsBefore = rowLockWaits();
+
+		List<HikariDataSource> nodes = new ArrayList<>();
+		List<AppointmentTransactionService> services = new ArrayList<>();
+		for (int i = 0; i < NODES; i++) {
+			HikariDataSource node = dataSource(Math.max(2, clients / NODES + 1));
+			nodes.add(node);
+			services.add(service(node));
+		}
+
+		AtomicInteger booked = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(clients);
+		try {
+			for (int c = 0; c < clients; c++) {
+				AppointmentTransactionService service = services.get(c % NODES);
+				pool.submit(() -> {
+					start.await();
+					Appointment request;
+					while ((request = requests.poll()) != null) {
+						AppointmentResult result = service.scheduleAppointment(request);
+						if (result.isSuccess()) {
+							booked.incrementAndGet();
+						}
+					}
+					return null;
+				});
+			}
+
+			long began = System.nanoTime();
+			start.countDown();
+			pool.shutdown();
+			assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES));
+			double seconds = (System.nanoTime() - began) / 1e9;
+
+			System.out.printf("%d clients, %d doctors over %d nodes: %d attempts, %d booked, %.1f bookings/sec, %.1f attempts/sec, %d row lock waits%n",
+				clients, doctors, NODES, attempts, booked.get(), booked.get() / seconds, attempts / seconds, rowLockWaits() - lockWaitsBefore);
+		} finally {
+			pool.shutdownNow();
+			nodes.forEach(HikariDataSource::close);
+		}
+
+		long total = 0;
+		for (int i = 0; i < doctors; i++) {
+			assertEquals(0, overlappingPairs(doctorIDs[i], firstDay, nextDay));
+			long doctorBookings = bookingsBetween(doctorIDs[i], firstDay, nextDay);
+			assertTrue(doctorBookings >= DAYS_PER_RUN);
+			// The doctor-day revenue rows add up to exactly the doctor's bookings
+			assertEquals(doctorBookings, billedBetween(doctorIDs[i], firstDay, nextDay));
+			total += doctorBookings;
+		}
+		assertEquals(booked.get(), total);
+	}
+
+	private List<Appointment> requests(LocalDate firstDay, int doctors) {
+		List<Appointment> requests = new ArrayList<>();
+		for (int i = 0; i < doctors; i++) {
+			for (int d = 0; d < DAYS_PER_RUN; d++) {
+				Date date = Date.valueOf(firstDay.plusDays(d));
+				for (LocalTime time = LocalTime.of(8, 0); !time.isAfter(LocalTime.of(16, 30)); time = time.plusMinutes(15)) {
+					requests.add(new Appointment(0, patientID, doctorIDs[i], date, Time.valueOf(time), DURATION, "Check-up", "Not Done", null));
+				}
+			}
+		}
+		Collections.shuffle(requests, new Random(42));
+		return requests;
+	}
+
+	private AppointmentTransactionService service(HikariDataSource node) {
+		// Each node has its own in-memory index, which never sees the other nodes' bookings
+		AppointmentTransactionService service = new AppointmentTransactionService();
+		ReflectionTestUtils.setField(service, "transactionRunner", transactionRunner(node));
+		ReflectionTestUtils.setField(service, "appointmentIndex", mock(AppointmentIntervalIndex.class));
+		ReflectionTestUtils.setField(service, "staffDirectory", bookableDoctors());
+		return service;
+	}
+
+	private long overlappingPairs(int doctorID, LocalDate from, LocalDate to) throws Exception {
+		String sql = "SELECT COUNT(*) FROM Appointment a JOIN Appointment b " +
+			"ON a.DoctorID = b.DoctorID AND a.Date = b.Date AND a.AppointmentID < b.AppointmentID " +
+			"AND TIME_TO_SEC(a.Time) < TIME_TO_SEC(b.Time) + b.Duration * 60 " +
+			"AND TIME_TO_SEC(b.Time) < TIME_TO_SEC(a.Time) + a.Duration * 60 " +
+			"WHERE a.DoctorID = ? AND a.Date >= ? AND a.Date < ? AND a.Status != 'Canceled' AND b.Status != 'Canceled'";
+		return count(sql, doctorID, from, to);
+	}
+
+	private long bookingsBetween(int doctorID, LocalDate from, LocalDate to) throws Exception {
+		return count("SELECT COUNT(*) FROM Appointment a WHERE a.DoctorID = ? AND a.Date >= ? AND a.Date < ?", doctorID, from, to);
+	}
+
+	private long billedBetween(int doctorID, LocalDate from, LocalDate to) throws Exception {
+		return count("SELECT COALESCE(SUM(TotalBills), 0) FROM DailyRevenue WHERE DoctorID = ? AND Date >= ? AND Date < ?", doctorID, from, to);
+	}
+
+	private long rowLockWaits() throws Exception {
+		try (Connection conn = admin.getConnection();
+			 Statement stmt = conn.createStatement()) {
+			ResultSet rs = stmt.executeQuery("SHOW GLOBAL STATUS LIKE 'Innodb_row_lock_waits'");
+			return rs.next() ? rs.getLong(2) : 0;
+		}
+	}
+
+	private long count(String sql, int doctorID, LocalDate from, LocalDate to) throws Exception {
+		try (Connection conn = admin.getConnection();
+			 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			pstmt.setInt(1, doctorID);
+			pstmt.setDate(2, Date.valueOf(from));
+			pstmt.setDate(3, Date.valueOf(to));
+			ResultSet rs = pstmt.executeQuery();
+			rs.next();
+			return rs.getLong(1);
+		}
+	}
+
+	private static HikariDataSource dataSource(int poolSize) {
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setJdbcUrl(System.getProperty("clinic.it.jdbc-url"));
+		dataSource.setUsername(System.getProperty("clinic.it.username", "app"));
+		dataSource.setPassword(System.getProperty("clinic.it.password", "password"));
+		dataSource.setMaximumPoolSize(poolSize);
+		return dataSource;
+	}
+
+	private static int insert(Connection conn, String sql) throws Exception {
+		try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+			pstmt.executeUpdate();
+			ResultSet rs = pstmt.getGeneratedKeys();
+			rs.next();
+			return rs.getInt(1);
+		}
+	}
+
+	private static void execute(Connection conn, String sql, int id) throws Exception {
+		try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+			pstmt.setInt(1, id);
+			pstmt.executeUpdate();
+		}
+	}
+
+	private static StaffDirectory bookableDoctors() {
+		// The guarded insert still checks the doctor, and that WorkingDays is still 'Daily', against the Staff table
+		StaffDirectory directory = mock(StaffDirectory.class);
+		when(directory.isBookableDoctor(anyInt())).thenReturn(true);
+		when(directory.getStaff(anyInt())).thenAnswer(invocation -> new Staff(invocation.getArgument(0), "Contention Doctor", "Doctor",
+			"General", null, null, null, null, "Daily", true));
+		return directory;
+	}
+
+	private static TransactionRunner transactionRunner(DataSource dataSource) {
+		TransactionRunner runner = new TransactionRunner();
+		ReflectionTestUtils.setField(runner, "dataSource", dataSource);
+		ReflectionTestUtils.setField(runner, "meterRegistry", new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(runner, "maxAttempts", 3);
+		ReflectionTestUtils.setField(runner, "backoffMillis", 5L);
+		ReflectionTestUtils.setField(runner, "maxBackoffMillis", 50L);
+		return runner;
+	}
+}
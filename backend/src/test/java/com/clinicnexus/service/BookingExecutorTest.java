@@ -0,0 +1,123 @@
+package com.clinicnexus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.model.Appointment;
+import com.clinicnexus.util.AppointmentResult;
+
+class BookingExecutorTest {
+
+	private BookingExecutor executor;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (executor != null) {
+			executor.stop();
+		}
+	}
+
+	@Test
+	void unpartitionedModeBooksOnTheCallerThread() {
+		AppointmentTransactionService service = mock(AppointmentTransactionService.class);
+		when(service.scheduleAppointment(any())).thenReturn(new AppointmentResult(true, 5, "ok"));
+		executor = executor(service, 0);
+
+		CompletableFuture<AppointmentResult> future = executor.submit(booking(1));
+
+		assertFalse(executor.isPartitioned());
+		assertTrue(future.isDone());
+		assertEquals(5, future.join().getAppointmentID());
+	}
+
+	@Test
+	void bookingsForOneDoctorNeverOverlapButDoctorsRunInParallel() throws Exception {
+		Map<Integer, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+		Map<Integer, Set<String>> threads = new ConcurrentHashMap<>();
+		AtomicInteger maxPerDoctor = new AtomicInteger();
+		AppointmentTransactionService service = mock(AppointmentTransactionService.class);
+		when(service.scheduleAppointment(any())).thenAnswer(invocation -> {
+			int doctorID = invocation.<Appointment>getArgument(0).getDoctorID();
+			int running = inFlight.computeIfAbsent(doctorID, d -> new AtomicInteger()).incrementAndGet();
+			maxPerDoctor.accumulateAndGet(running, Math::max);
+			threads.computeIfAbsent(doctorID, d -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+			Thread.sleep(1);
+			inFlight.get(doctorID).decrementAndGet();
+			return new AppointmentResult(true, doctorID, "ok");
+		});
+		executor = executor(service, 4);
+
+		List<CompletableFuture<AppointmentResult>> futures = new ArrayList<>();
+		for (int i = 0; i < 200; i++) {
+			futures.add(executor.submit(booking(i % 8)));
+		}
+		CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).get(10, TimeUnit.SECONDS);
+
+		assertTrue(executor.isPartitioned());
+		assertEquals(1, maxPerDoctor.get());
+		threads.values().forEach(names -> assertEquals(1, names.size()));
+		assertNotEquals(threads.get(0), threads.get(1));
+	}
+
+	@Test
+	void fullMailboxAnswersBusyWithoutBooking() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AppointmentTransactionService service = mock(AppointmentTransactionService.class);
+		when(service.scheduleAppointment(any())).thenAnswer(invocation -> {
+			started.countDown();
+			release.await();
+			return new AppointmentResult(true, 1, "ok");
+		});
+		executor = executor(service, 1, 1);
+
+		CompletableFuture<AppointmentResult> running = executor.submit(booking(1));
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		CompletableFuture<AppointmentResult> queued = executor.submit(booking(1));
+		AppointmentResult rejected = executor.submit(booking(1)).join();
+		release.countDown();
+
+		assertFalse(rejected.isSuccess());
+		assertTrue(rejected.isBusy());
+		assertTrue(running.get(10, TimeUnit.SECONDS).isSuccess());
+		assertFalse(queued.get(10, TimeUnit.SECONDS).isBusy());
+	}
+
+	private static BookingExecutor executor(AppointmentTransactionService service, int partitions) {
+		return executor(service, partitions, 1000);
+	}
+
+	private static BookingExecutor executor(AppointmentTransactionService service, int partitions, int queueCapacity) {
+		BookingExecutor executor = new BookingExecutor();
+		ReflectionTestUtils.setField(executor, "appointmentTransactionService", service);
+		ReflectionTestUtils.setField(executor, "partitions", partitions);
+		ReflectionTestUtils.setField(executor, "queueCapacity", queueCapacity);
+		executor.start();
+		return executor;
+	}
+
+	private static Appointment booking(int doctorID) {
+		Appointment appointment = new Appointment();
+		appointment.setDoctorID(doctorID);
+		return appointment;
+	}
+}
@@ -0,0 +1,166 @@
+package com.clinicnexus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.dao.IdempotencyKeyDAO;
+import com.clinicnexus.util.StoredResponse;
+
+class IdempotencyServiceTest {
+
+	private static final String SCOPE = "POST /api/billing";
+	private static final String BODY = "{\"appointmentID\":3,\"amount\":500.0}";
+
+	private IdempotencyKeyDAO dao;
+	private IdempotencyService service;
+
+	@BeforeEach
+	void setUp() {
+		dao = mock(IdempotencyKeyDAO.class);
+		service = new IdempotencyService();
+		ReflectionTestUtils.setField(service, "idempotencyKeyDAO", dao);
+		ReflectionTestUtils.setField(service, "ttlHours", 24L);
+		ReflectionTestUtils.setField(service, "leaseSeconds", 60L);
+		ReflectionTestUtils.setField(service, "cacheSize", 2);
+		ReflectionTestUtils.setField(service, "sweepIntervalMillis", 0L);
+		ReflectionTestUtils.setField(service, "sweepBatch", 100);
+		service.start();
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.stop();
+	}
+
+	@Test
+	void firstRequestOwnsTheKey() throws Exception {
+		when(dao.claim(any(), any(), any(), any())).thenReturn(true);
+
+		assertNull(service.claim(SCOPE, "k1", BODY));
+	}
+
+	@Test
+	void completedKeyIsReplayedFromMemory() throws Exception {
+		when(dao.claim(any(), any(), any(), any())).thenReturn(true);
+		when(dao.complete(any(), any(), any())).thenReturn(true);
+
+		assertNull(service.claim(SCOPE, "k1", BODY));
+		service.complete(SCOPE, "k1", 200, "{\"ETag\":[\"\\\"2\\\"\"]}", "{\"billingID\":7}");
+
+		StoredResponse replay = service.claim(SCOPE, "k1", BODY);
+		assertEquals(200, replay.getStatus());
+		assertEquals("{\"ETag\":[\"\\\"2\\\"\"]}", replay.getHeaders());
+		assertEquals("{\"billingID\":7}", replay.getBody());
+		verify(dao, times(1)).claim(any(), any(), any(), any());
+	}
+
+	@Test
+	void keyCompletedElsewhereIsReadFromTheTable() throws Exception {
+		when(dao.claim(any(), any(), any(), any())).thenReturn(false);
+		when(dao.find(any())).thenReturn(new StoredResponse(200, "{\"billingID\":7}"));
+
+		StoredResponse replay = service.claim(SCOPE, "k1", BODY);
+		service.claim(SCOPE, "k1", BODY);
+
+		assertEquals(200, replay.getStatus());
+		assertEquals("{\"billingID\":7}", replay.getBody());
+		verify(dao, times(1)).find(any());
+	}
+
+	@Test
+	void runningKeyIsReportedInProgressAndNotCached() throws Exception {
+		when(dao.claim(any(), any(), any(), any())).thenReturn(false);
+		when(dao.find(any())).thenReturn(StoredResponse.inProgress());
+
+		assertTrue(service.claim(SCOPE, "k1", BODY).isInProgress());
+		assertTrue(service.claim(SCOPE, "k1", BODY).isInProgress());
+		verify(dao, times(2)).find(any());
+	}
+
+	@Test
+	void sameKeyOnAnotherEndpointIsIndependent() {
+		assertEquals(32, IdempotencyService.hash(SCOPE + "\nk1").length);
+		assertFalse(Arrays.equals(IdempotencyService.hash(SCOPE + "\nk1"), IdempotencyService.hash("POST /api/appointments\nk1")));
+	}
+
+	@Test
+	void failedCompletionIsNotCached() throws Exception {
+		when(dao.claim(any(), any(), any(), any())).thenReturn(true);
+		when(dao.complete(any(), any(), any())).thenReturn(false);
+
+		service.claim(SCOPE, "k1", BODY);
+		service.complete(SCOPE, "k1", 200, null, "{}");
+		service.claim(SCOPE, "k1", BODY);
+
+		verify(dao, times(2)).claim(any(), any(), any(), any());
+	}
+
+	@Test
+	void keyReusedWithAnotherBodyIsAMismatch() throws Exception {
+		when(dao.claim(any(), any(), any(), any())).thenReturn(true);
+		when(dao.complete(any(), any(), any())).thenReturn(true);
+
+		service.claim(SCOPE, "k1", BODY);
+		service.complete(SCOPE, "k1", 200, null, "{\"billingID\":7}");
+
+		assertTrue(service.claim(SCOPE, "k1", "{\"appointmentID\":3,\"amount\":900.0}").isMismatch());
+		assertFalse(service.claim(SCOPE, "k1", BODY).isMismatch());
+	}
+
+	@Test
+	void runningKeyHeldForAnotherBodyIsAMismatch() throws Exception {
+		when(dao.claim(any(), any(), any(), any())).thenReturn(false);
+		when(dao.find(any())).thenReturn(StoredResponse.inProgress(IdempotencyService.hash(BODY)));
+
+		assertTrue(service.claim(SCOPE, "k1", BODY).isInProgress());
+		assertTrue(service.claim(SCOPE, "k1", "{}").isMismatch());
+	}
+
+	@Test
+	void databaseErrorIsNotReportedAsInProgress() throws Exception {
+		when(dao.claim(any(), any(), any(), any())).thenThrow(new SQLException("Connection is not available"));
+
+		assertThrows(SQLException.class, () -> service.claim(SCOPE, "k1", BODY));
+		verify(dao, never()).find(any());
+	}
+
+	@Test
+	void leaseIsRenewedUntilTheRequestCompletes() throws Exception {
+		ReflectionTestUtils.setField(service, "leaseSeconds", 1L);
+		when(dao.claim(any(), any(), any(), any())).thenReturn(true);
+
+		service.claim(SCOPE, "k1", BODY);
+		Thread.sleep(1200);
+		service.complete(SCOPE, "k1", 200, null, "{}");
+		Thread.sleep(700);
+
+		verify(dao, times(2)).renew(any(), any());
+	}
+
+	@Test
+	void sweepDeletesInBatchesUntilAShortOne() {
+		when(dao.deleteExpired(any(), anyInt())).thenReturn(100, 100, 40);
+
+		assertEquals(240, service.sweepExpired());
+		verify(dao, times(3)).deleteExpired(any(), anyInt());
+		verify(dao, never()).release(any());
+	}
+}
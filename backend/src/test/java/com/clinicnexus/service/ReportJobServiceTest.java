@@ -0,0 +1,152 @@
+package com.clinicnexus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Date;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.projection.FinancialOperations;
+import com.clinicnexus.util.ReportJob;
+
+class ReportJobServiceTest {
+
+	private ReportJobService jobs;
+
+	@AfterEach
+	void tearDown() throws Exception {
+		if (jobs != null) {
+			jobs.stop();
+		}
+	}
+
+	@Test
+	void identicalRequestsShareOneRun() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ReportService reports = mock(ReportService.class);
+		when(reports.generateFinancialOperationsReport(2025, 3)).thenAnswer(invocation -> {
+			release.await(10, TimeUnit.SECONDS);
+			return List.of(day(1), day(2));
+		});
+		jobs = jobs(reports, 1, 1);
+
+		ReportJob first = jobs.submit(ReportJobService.FINANCIAL_OPERATIONS, 2025, 3, null);
+		// quarter is not a parameter of this report, so it does not make the request different
+		ReportJob second = jobs.submit(ReportJobService.FINANCIAL_OPERATIONS, 2025, 3, 2);
+		assertSame(first, second);
+		release.countDown();
+		awaitFinished(first);
+
+		assertEquals(ReportJob.DONE, first.getStatus());
+		assertEquals(2, first.getRowCount());
+		assertSame(first, jobs.getJob(first.getJobID()));
+		verify(reports, times(1)).generateFinancialOperationsReport(2025, 3);
+
+		// Once finished, the same request runs again
+		ReportJob third = jobs.submit(ReportJobService.FINANCIAL_OPERATIONS, 2025, 3, null);
+		assertNotSame(first, third);
+		awaitFinished(third);
+		verify(reports, times(2)).generateFinancialOperationsReport(2025, 3);
+	}
+
+	@Test
+	void fullQueueIsRejected() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		ReportService reports = mock(ReportService.class);
+		when(reports.generateResourceUtilizationReport(anyInt())).thenAnswer(invocation -> {
+			release.await(10, TimeUnit.SECONDS);
+			return List.of();
+		});
+		jobs = jobs(reports, 1, 1);
+
+		ReportJob running = jobs.submit(ReportJobService.RESOURCE_UTILIZATION, 2023, null, null);
+		ReportJob queued = jobs.submit(ReportJobService.RESOURCE_UTILIZATION, 2024, null, null);
+		assertThrows(RejectedExecutionException.class, () -> jobs.submit(ReportJobService.RESOURCE_UTILIZATION, 2025, null, null));
+		release.countDown();
+		awaitFinished(running);
+		awaitFinished(queued);
+
+		// A rejected request leaves nothing in flight, so it can be retried
+		ReportJob retried = jobs.submit(ReportJobService.RESOURCE_UTILIZATION, 2025, null, null);
+		awaitFinished(retried);
+		assertEquals(ReportJob.DONE, retried.getStatus());
+	}
+
+	@Test
+	void failuresAreReportedOnTheJob() throws Exception {
+		ReportService reports = mock(ReportService.class);
+		when(reports.generateDoctorPerformanceMetrics(2025, 1)).thenThrow(new IllegalStateException("boom"));
+		jobs = jobs(reports, 1, 1);
+
+		ReportJob job = jobs.submit(ReportJobService.DOCTOR_PERFORMANCE, 2025, null, 1);
+		awaitFinished(job);
+
+		assertEquals(ReportJob.FAILED, job.getStatus());
+		assertEquals("boom", job.getError());
+		assertNull(job.rows());
+	}
+
+	@Test
+	void queryFailureEndsTheJobFailedRatherThanEmpty() throws Exception {
+		ReportService reports = mock(ReportService.class);
+		when(reports.generateFinancialOperationsReport(2025, 3)).thenThrow(new SQLException("Communications link failure", "08S01"));
+		jobs = jobs(reports, 1, 1);
+
+		ReportJob job = jobs.submit(ReportJobService.FINANCIAL_OPERATIONS, 2025, 3, null);
+		awaitFinished(job);
+
+		assertEquals(ReportJob.FAILED, job.getStatus());
+		assertEquals("Communications link failure", job.getError());
+	}
+
+	@Test
+	void invalidRequestsAreRejectedBeforeQueueing() {
+		jobs = jobs(mock(ReportService.class), 1, 1);
+
+		assertThrows(IllegalArgumentException.class, () -> jobs.submit("payroll", 2025, 1, null));
+		assertThrows(IllegalArgumentException.class, () -> jobs.submit(ReportJobService.PATIENT_VISITS, 2025, null, null));
+		assertThrows(IllegalArgumentException.class, () -> jobs.submit(ReportJobService.PATIENT_VISITS, 2025, 13, null));
+		assertThrows(IllegalArgumentException.class, () -> jobs.submit(ReportJobService.DOCTOR_PERFORMANCE, 2025, 1, 5));
+		assertThrows(IllegalArgumentException.class, () -> jobs.submit(ReportJobService.RESOURCE_UTILIZATION, null, null, null));
+	}
+
+	private static void awaitFinished(ReportJob job) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+		while (!job.isFinished() && System.nanoTime() < deadline) {
+			Thread.sleep(5);
+		}
+		assertTrue(job.isFinished());
+	}
+
+	private static FinancialOperations day(int day) {
+		return new FinancialOperations(Date.valueOf(LocalDate.of(2025, 3, day)), 1, 10.0, 10.0, 10.0, 0.0, 1, 0, 100.0);
+	}
+
+	private static ReportJobService jobs(ReportService reports, int threads, int queueCapacity) {
+		ReportJobService jobs = new ReportJobService();
+		ReflectionTestUtils.setField(jobs, "reportService", reports);
+		ReflectionTestUtils.setField(jobs, "threads", threads);
+		ReflectionTestUtils.setField(jobs, "queueCapacity", queueCapacity);
+		ReflectionTestUtils.setField(jobs, "resultTtlSeconds", 600L);
+		jobs.start();
+		return jobs;
+	}
+}
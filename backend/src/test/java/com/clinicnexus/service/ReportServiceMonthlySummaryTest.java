@@ -0,0 +1,180 @@
+package com.clinicnexus.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.clinicnexus.projection.MonthlySummary;
+
+class ReportServiceMonthlySummaryTest {
+
+	private static final long SECTION_MILLIS = 300;
+
+	private ReportService reportService;
+	private long inventoryMillis;
+	private boolean topDoctorsFail;
+	private final AtomicInteger open = new AtomicInteger();
+	private final AtomicInteger mostOpen = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		DataSource dataSource = mock(DataSource.class);
+		when(dataSource.getConnection()).thenAnswer(invocation -> connection());
+
+		reportService = new ReportService();
+		ReflectionTestUtils.setField(reportService, "dataSource", dataSource);
+		ReflectionTestUtils.setField(reportService, "summaryThreads", 5);
+		ReflectionTestUtils.setField(reportService, "summaryDeadlineMillis", 2000L);
+		ReflectionTestUtils.setField(reportService, "summaryTopDoctors", 5);
+		reportService.start();
+		inventoryMillis = SECTION_MILLIS;
+	}
+
+	@AfterEach
+	void tearDown() {
+		reportService.stop();
+	}
+
+	@Test
+	void sectionsRunConcurrentlyAndAreMerged() throws Exception {
+		long started = System.nanoTime();
+		MonthlySummary summary = reportService.generateMonthlySummaryReport(2025, 3);
+		long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+		// Five sections of SECTION_MILLIS each would take 1500 ms one after another
+		assertTrue(elapsedMillis < 3 * SECTION_MILLIS, "took " + elapsedMillis + " ms");
+		assertEquals(List.of(), summary.missingSections());
+		assertEquals(7, summary.totalAppointments());
+		assertEquals(Map.of("Done", 5, "Not Done", 0, "Canceled", 2), summary.appointmentsByStatus());
+		assertEquals(Map.of("Check-up", 3, "Procedure", 4, "Emergency", 0), summary.appointmentsByVisitType());
+		assertEquals(900.0, summary.totalRevenue());
+		assertEquals(600.0, summary.paidRevenue());
+		assertEquals(300.0, summary.unpaidRevenue());
+		assertEquals(4, summary.totalPatients());
+		assertEquals(1, summary.newPatients());
+		assertEquals(3, summary.returningPatients());
+		assertEquals(42.5, summary.inventorySpend());
+		assertEquals(List.of(new MonthlySummary.TopDoctor(11, "Dana Carr", 5, 900.0)), summary.topDoctors());
+	}
+
+	@Test
+	void slowAndFailedSectionsAreLeftOut() throws Exception {
+		inventoryMillis = 5000;
+		topDoctorsFail = true;
+
+		long started = System.nanoTime();
+		MonthlySummary summary = reportService.generateMonthlySummaryReport(2025, 3);
+		long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+		assertTrue(elapsedMillis < 4000, "took " + elapsedMillis + " ms");
+		assertEquals(List.of("inventory", "topDoctors"), summary.missingSections());
+		assertEquals(0.0, summary.inventorySpend());
+		assertEquals(List.of(), summary.topDoctors());
+		assertEquals(7, summary.totalAppointments());
+		assertEquals(900.0, summary.totalRevenue());
+	}
+
+	@Test
+	void concurrentSummariesShareTheSummaryThreads() throws Exception {
+		reportService.stop();
+		ReflectionTestUtils.setField(reportService, "summaryThreads", 3);
+		ReflectionTestUtils.setField(reportService, "summaryDeadlineMillis", 5000L);
+		reportService.start();
+
+		ExecutorService jobs = Executors.newFixedThreadPool(2);
+		try {
+			Future<MonthlySummary> march = jobs.submit(() -> reportService.generateMonthlySummaryReport(2025, 3));
+			Future<MonthlySummary> april = jobs.submit(() -> reportService.generateMonthlySummaryReport(2025, 4));
+
+			assertEquals(List.of(), march.get(10, TimeUnit.SECONDS).missingSections());
+			assertEquals(List.of(), april.get(10, TimeUnit.SECONDS).missingSections());
+		} finally {
+			jobs.shutdownNow();
+		}
+		// Ten sections between them, never more than three report pool connections at once
+		assertTrue(mostOpen.get() <= 3, "held " + mostOpen.get() + " connections");
+	}
+
+	@Test
+	void summaryWithNoSectionsFails() throws Exception {
+		DataSource down = mock(DataSource.class);
+		when(down.getConnection()).thenThrow(new SQLException("Communications link failure", "08S01"));
+		ReflectionTestUtils.setField(reportService, "dataSource", down);
+
+		assertThrows(SQLException.class, () -> reportService.generateMonthlySummaryReport(2025, 3));
+	}
+
+	private Connection connection() throws SQLException {
+		Connection conn = mock(Connection.class);
+		when(conn.prepareStatement(anyString())).thenAnswer(invocation -> statement(invocation.getArgument(0)));
+		mostOpen.accumulateAndGet(open.incrementAndGet(), Math::max);
+		doAnswer(invocation -> open.decrementAndGet()).when(conn).close();
+		return conn;
+	}
+
+	private PreparedStatement statement(String sql) throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		long millis = SECTION_MILLIS;
+		if (sql.contains("GROUP BY Status, VisitType")) {
+			when(rs.next()).thenReturn(true, true, true, false);
+			when(rs.getString("Status")).thenReturn("Done", "Done", "Canceled");
+			when(rs.getString("VisitType")).thenReturn("Check-up", "Procedure", "Procedure");
+			when(rs.getInt("Appointments")).thenReturn(3, 2, 2);
+		} else if (sql.contains("FROM DailyRevenue")) {
+			when(rs.next()).thenReturn(true);
+			when(rs.getDouble("TotalRevenue")).thenReturn(900.0);
+			when(rs.getDouble("PaidRevenue")).thenReturn(600.0);
+		} else if (sql.contains("NewPatients")) {
+			when(rs.next()).thenReturn(true);
+			when(rs.getInt("TotalPatients")).thenReturn(4);
+			when(rs.getInt("NewPatients")).thenReturn(1);
+		} else if (sql.contains("InventorySpend")) {
+			millis = inventoryMillis;
+			when(rs.next()).thenReturn(true);
+			when(rs.getDouble("InventorySpend")).thenReturn(42.5);
+		} else if (sql.contains("CompletedAppointments")) {
+			when(rs.next()).thenReturn(true, false);
+			when(rs.getInt("StaffID")).thenReturn(11);
+			when(rs.getString("DoctorName")).thenReturn("Dana Carr");
+			when(rs.getInt("CompletedAppointments")).thenReturn(5);
+			when(rs.getDouble("Revenue")).thenReturn(900.0);
+		} else {
+			throw new AssertionError("unexpected query: " + sql);
+		}
+		boolean fail = topDoctorsFail && sql.contains("CompletedAppointments");
+		long sleep = millis;
+
+		PreparedStatement pstmt = mock(PreparedStatement.class);
+		when(pstmt.executeQuery()).thenAnswer(invocation -> {
+			Thread.sleep(sleep);
+			if (fail) {
+				throw new SQLException("Lock wait timeout exceeded");
+			}
+			return rs;
+		});
+		return pstmt;
+	}
+}
@@ -0,0 +1,117 @@
+package com.clinicnexus.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+class ExportWriterTest {
+
+	private static final String[] LABELS = {"AppointmentID", "PatientName", "Amount", "Paid", "Notes"};
+	private static final int[] TYPES = {Types.INTEGER, Types.VARCHAR, Types.DECIMAL, Types.BIT, Types.LONGVARCHAR};
+
+	private static final Object[][] ROWS = {
+		{1, "Carla Gonz\u00e1lez", "120.50", true, "Routine check-up"},
+		{2, "O'Brien, Sean", null, false, "Said \"fine\"\nfollow up \ud83d\ude42"},
+		{3, null, "0.00", null, "tab\there\u0001"},
+	};
+
+	@Test
+	void csvQuotesOnlyWhenNeeded() throws Exception {
+		assertEquals(
+			"AppointmentID,PatientName,Amount,Paid,Notes\n" +
+			"1,Carla Gonz\u00e1lez,120.50,true,Routine check-up\n" +
+			"2,\"O'Brien, Sean\",,false,\"Said \"\"fine\"\"\nfollow up \ud83d\ude42\"\n" +
+			"3,,0.00,,tab\there\u0001\n",
+			export(ExportWriter.Format.CSV, false, 64));
+	}
+
+	@Test
+	void ndjsonWritesOneTypedObjectPerLine() throws Exception {
+		assertEquals(
+			"{\"AppointmentID\":1,\"PatientName\":\"Carla Gonz\u00e1lez\",\"Amount\":120.50,\"Paid\":true,\"Notes\":\"Routine check-up\"}\n" +
+			"{\"AppointmentID\":2,\"PatientName\":\"O'Brien, Sean\",\"Amount\":null,\"Paid\":false,\"Notes\":\"Said \\\"fine\\\"\\nfollow up \ud83d\ude42\"}\n" +
+			"{\"AppointmentID\":3,\"PatientName\":null,\"Amount\":0.00,\"Paid\":null,\"Notes\":\"tab\\there\\u0001\"}\n",
+			export(ExportWriter.Format.NDJSON, false, 64));
+	}
+
+	@Test
+	void outputDoesNotDependOnBufferSizeOrCompression() throws Exception {
+		String expected = export(ExportWriter.Format.NDJSON, false, 1 << 16);
+		assertEquals(expected, export(ExportWriter.Format.NDJSON, false, 8));
+		assertEquals(expected, export(ExportWriter.Format.NDJSON, true, 8));
+		assertEquals(export(ExportWriter.Format.CSV, false, 1 << 16), export(ExportWriter.Format.CSV, true, 16));
+	}
+
+	@Test
+	void gzipExportLeavesTheTargetOpen() throws Exception {
+		WritableByteChannel target = Channels.newChannel(new ByteArrayOutputStream());
+
+		new ExportWriter(ExportWriter.Format.CSV, true, 16, target).writeAll(resultSet());
+
+		assertTrue(target.isOpen());
+	}
+
+	private static String export(ExportWriter.Format format, boolean gzip, int bufferSize) throws Exception {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		long rows = new ExportWriter(format, gzip, bufferSize, Channels.newChannel(out)).writeAll(resultSet());
+		assertEquals(ROWS.length, rows);
+		byte[] bytes = out.toByteArray();
+		if (gzip) {
+			try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+				bytes = in.readAllBytes();
+			}
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private static ResultSet resultSet() {
+		ResultSetMetaData meta = (ResultSetMetaData) Proxy.newProxyInstance(ResultSetMetaData.class.getClassLoader(),
+			new Class<?>[] {ResultSetMetaData.class}, (proxy, method, args) -> {
+				switch (method.getName()) {
+					case "getColumnCount":
+						return LABELS.length;
+					case "getColumnLabel":
+						return LABELS[(Integer) args[0] - 1];
+					case "getColumnType":
+						return TYPES[(Integer) args[0] - 1];
+					default:
+						throw new UnsupportedOperationException(method.getName());
+				}
+			});
+		int[] cursor = {-1};
+		boolean[] wasNull = {false};
+		return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+			(proxy, method, args) -> {
+				switch (method.getName()) {
+					case "getMetaData":
+						return meta;
+					case "next":
+						return ++cursor[0] < ROWS.length;
+					case "wasNull":
+						return wasNull[0];
+					case "getString":
+					case "getBoolean":
+						Object value = ROWS[cursor[0]][(Integer) args[0] - 1];
+						wasNull[0] = value == null;
+						if (method.getName().equals("getBoolean")) {
+							return value != null && (Boolean) value;
+						}
+						return value == null ? null : value.toString();
+					default:
+						throw new UnsupportedOperationException(method.getName());
+				}
+			});
+	}
+}
@@ -0,0 +1,50 @@
+package com.clinicnexus.util;
+
+import static java.time.DayOfWeek.FRIDAY;
+import static java.time.DayOfWeek.MONDAY;
+import static java.time.DayOfWeek.SATURDAY;
+import static java.time.DayOfWeek.SUNDAY;
+import static java.time.DayOfWeek.THURSDAY;
+import static java.time.DayOfWeek.TUESDAY;
+import static java.time.DayOfWeek.WEDNESDAY;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.DayOfWeek;
+import java.util.EnumSet;
+
+import org.junit.jupiter.api.Test;
+
+class WorkingDaysTest {
+
+	private static final EnumSet<DayOfWeek> WEEKDAYS = EnumSet.range(MONDAY, FRIDAY);
+
+	@Test
+	void rangesMayHaveSpacesAroundTheDash() {
+		assertEquals(WEEKDAYS, WorkingDays.parse("Mon - Fri"));
+		assertEquals(WEEKDAYS, WorkingDays.parse("Mon -Fri"));
+		assertEquals(WEEKDAYS, WorkingDays.parse("monday-friday"));
+	}
+
+	@Test
+	void listsIgnoreSurroundingSpaces() {
+		assertEquals(EnumSet.of(MONDAY), WorkingDays.parse(" Mon"));
+		assertEquals(EnumSet.of(MONDAY, WEDNESDAY, FRIDAY), WorkingDays.parse("Mon, Wed ,Fri"));
+		assertEquals(EnumSet.of(TUESDAY, THURSDAY, SATURDAY, SUNDAY), WorkingDays.parse("Tue/Thu; Sat - Sun"));
+	}
+
+	@Test
+	void rangesWrapAroundTheWeek() {
+		assertEquals(EnumSet.of(SATURDAY, SUNDAY, MONDAY), WorkingDays.parse("Sat-Mon"));
+	}
+
+	@Test
+	void emptyMeansNoDaysAndJunkMeansWeekdays() {
+		assertEquals(EnumSet.noneOf(DayOfWeek.class), WorkingDays.parse(null));
+		assertEquals(EnumSet.noneOf(DayOfWeek.class), WorkingDays.parse("   "));
+		assertEquals(EnumSet.allOf(DayOfWeek.class), WorkingDays.parse("Daily"));
+		assertEquals(WEEKDAYS, WorkingDays.parse("-"));
+		assertEquals(WEEKDAYS, WorkingDays.parse(" - , --"));
+		assertEquals(WEEKDAYS, WorkingDays.parse("x-"));
+		assertEquals(WEEKDAYS, WorkingDays.parse("whenever"));
+	}
+}
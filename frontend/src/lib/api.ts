@@ -1,5 +1,5 @@
 import { Patient, Staff, Appointment, Inventory } from './types';
-import { MedicalRecord, Billing, Feedback } from './types';
+import { MedicalRecord, Billing, Feedback, Suggestion, SuggestionType, ReportJob, ReportType } from './types';
 
 export const API_BASE_URL = import.meta.env.VITE_API_URL || "http://localhost:8080";
 
@@ -8,6 +8,11 @@ async function request<T>(url: string, options?: RequestInit): Promise<T> {
   try {
     const response = await fetch(url, options);
     
+    // 409 on PUT: the record changed since it was loaded; the body is the current record
+    if (response.status === 409 && options?.method === 'PUT') {
+      throw new Error('This record was changed by someone else. Reload it and try again.');
+    }
+    
     if (!response.ok) {
       const error = await response.text();
       throw new Error(error || `HTTP ${response.status}: ${response.statusText}`);
@@ -37,14 +42,19 @@ export function get<T>(path: string) {
   return request<T>(`${API_BASE_URL}${path}`);
 }
 
-export function post<T>(path: string, body: any) {
+export function post<T>(path: string, body: any, headers?: Record<string, string>) {
   return request<T>(`${API_BASE_URL}${path}`, {
     method: "POST",
-    headers: { "Content-Type": "application/json" },
+    headers: { "Content-Type": "application/json", ...headers },
     body: JSON.stringify(body),
   });
 }
 
+// One key per logical create; a retry that reuses it gets the first result instead of a duplicate
+function idempotencyKey() {
+  return { "Idempotency-Key": crypto.randomUUID() };
+}
+
 export function put<T>(path: string, body: any) {
   return request<T>(`${API_BASE_URL}${path}`, {
     method: "PUT",
@@ -82,12 +92,12 @@ export const api = {
   appointments: {
     list: () => get<Appointment[]>("/api/appointments"),
     get: (id: string | number) => get<Appointment>(`/api/appointments/${id}`),
-    create: (data: Omit<Appointment, 'appointmentID'>) => post<Appointment>("/api/appointments", data),
+    create: (data: Omit<Appointment, 'appointmentID'>) => post<Appointment>("/api/appointments", data, idempotencyKey()),
     update: (id: string | number, data: Appointment) => put<Appointment>(`/api/appointments/${id}`, data),
     delete: (id: string | number) => del<void>(`/api/appointments/${id}`),
     listWithNames: () => get<any[]>("/api/appointments/with-names"),
     createWithNames: (data: { patientName: string; doctorName: string; date: string; time: string; duration: number; visitType: string; status: string; notes: string }) => 
-      post<any>("/api/appointments/with-names", data),
+      post<any>("/api/appointments/with-names", data, idempotencyKey()),
   },
   inventory: {
     list: () => get<Inventory[]>("/api/inventory"),
@@ -122,7 +132,7 @@ export const api = {
   billing: {
     list: () => get<Billing[]>("/api/billing"),
     get: (id: string | number) => get<Billing>(`/api/billing/${id}`),
-    create: (data: Omit<Billing, 'billingID'>) => post<Billing>("/api/billing", data),
+    create: (data: Omit<Billing, 'billingID'>) => post<Billing>("/api/billing", data, idempotencyKey()),
     update: (id: string | number, data: Billing) => put<Billing>(`/api/billing/${id}`, data),
     delete: (id: string | number) => del<void>(`/api/billing/${id}`),
   },
@@ -133,6 +143,30 @@ export const api = {
     update: (id: string | number, data: Feedback) => put<Feedback>(`/api/feedback/${id}`, data),
     delete: (id: string | number) => del<void>(`/api/feedback/${id}`),
   },
+  search: {
+    suggest: (q: string, types?: SuggestionType[], limit?: number) => {
+      const params = new URLSearchParams({ q });
+      if (types?.length) params.append('types', types.join(','));
+      if (limit) params.append('limit', limit.toString());
+      return get<Suggestion[]>(`/api/search/suggest?${params.toString()}`);
+    },
+  },
+  reports: {
+    // Identical requests still in progress share one job
+    submit: (type: ReportType, params: { year: number; month?: number; quarter?: number }) => {
+      const query = new URLSearchParams({ year: params.year.toString() });
+      if (params.month) query.append('month', params.month.toString());
+      if (params.quarter) query.append('quarter', params.quarter.toString());
+      return post<ReportJob>(`/api/reports/${type}?${query.toString()}`, {});
+    },
+    status: (jobID: string) => get<ReportJob>(`/api/reports/jobs/${jobID}`),
+    result: <T>(jobID: string) => get<T[]>(`/api/reports/jobs/${jobID}/result`),
+    // Download link; the file is streamed, so hand it to the browser rather than fetching it
+    exportUrl: (dataset: 'appointments' | 'billing' | 'utilization', from: string, to: string, format: 'csv' | 'ndjson' = 'csv', gzip = false) => {
+      const query = new URLSearchParams({ from, to, format, gzip: gzip.toString() });
+      return `${API_BASE_URL}/api/reports/export/${dataset}?${query.toString()}`;
+    },
+  },
   appointmentInventory: {
     list: () => get<any[]>("/api/appointment-inventory"),
     get: (appointmentId: string | number, itemId: string | number) => get<any>(`/api/appointment-inventory/${appointmentId}/${itemId}`),
@@ -10,6 +10,7 @@ export interface Patient {
   firstVisitDate?: string;
   primaryDoctorID?: number;
   activeStatus?: boolean;
+  version?: number;
 }
 
 export interface Staff {
@@ -23,6 +24,7 @@ export interface Staff {
   hireDate?: string;
   workingDays?: string;
   activeStatus?: boolean;
+  version?: number;
 }
 
 export interface Appointment {
@@ -35,6 +37,7 @@ export interface Appointment {
   visitType: 'Check-up' | 'Procedure' | 'Emergency';
   status?: 'Done' | 'Not Done' | 'Canceled';
   notes?: string;
+  version?: number;
 }
 
 export interface Inventory {
@@ -48,6 +51,7 @@ export interface Inventory {
   supplierInfo?: string;
   expiryDate?: string;
   activeStatus?: boolean;
+  version?: number;
 }
 
 export interface MedicalRecord {
@@ -72,6 +76,7 @@ export interface Billing {
   amount: number;
   paid?: boolean;
   paymentDate?: string;
+  version?: number;
 }
 
 export interface Feedback {
@@ -125,6 +130,33 @@ export interface AppointmentInventory {
   quantityUsed: number;
 }
 
+// Type-ahead match from /api/search/suggest
+export interface Suggestion {
+  type: 'patient' | 'staff' | 'inventory';
+  id: number;
+  label: string;
+  detail?: string;
+  category?: string;
+}
+
+export type SuggestionType = 'patient' | 'staff' | 'doctor' | 'inventory';
+
+// Background report run from /api/reports; poll until DONE, then fetch the rows
+export type ReportType = 'patient-visits' | 'doctor-performance' | 'financial-operations' | 'resource-utilization' | 'monthly-summary';
+
+export interface ReportJob {
+  jobID: string;
+  type: ReportType;
+  parameters: { year: number; month?: number; quarter?: number };
+  status: 'QUEUED' | 'RUNNING' | 'DONE' | 'FAILED';
+  submittedAt: string;
+  startedAt?: string;
+  finishedAt?: string;
+  error?: string;
+  rowCount?: number;
+  finished: boolean;
+}
+
 export interface ApiResponse<T> {
   success: boolean;
   data?: T;
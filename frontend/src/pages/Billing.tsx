@@ -155,7 +155,8 @@ const Billing = () => {
         appointmentID: billing.appointmentID,
         amount: billing.amount,
         paid: true, 
-        paymentDate: new Date().toISOString().split('T')[0] 
+        paymentDate: new Date().toISOString().split('T')[0],
+        version: billing.version
       }
     });
   };
@@ -13,6 +13,10 @@ import { api } from "@/lib/api";
 import { Patient, Appointment, Staff, Inventory } from "@/lib/types";
 import { Autocomplete } from "@/components/ui/autocomplete";
 
+// Defined once so the Autocomplete search effect does not rerun on every render
+const suggestPatients = (query: string) => api.search.suggest(query, ['patient']);
+const suggestDoctors = (query: string) => api.search.suggest(query, ['doctor']);
+
 const Dashboard = () => {
   const { toast } = useToast();
   const queryClient = useQueryClient();
@@ -378,12 +382,12 @@ const Dashboard = () => {
                       onChange={(value) => setNewAppointment({ ...newAppointment, patientName: value })}
                       onSelect={(patient) => {
                         if (patient) {
-                          setNewAppointment({ ...newAppointment, patientName: patient.name });
+                          setNewAppointment({ ...newAppointment, patientName: patient.label });
                         }
                       }}
                       placeholder="Search for patient..."
-                      searchFunction={api.patients.searchByName}
-                      displayKey="name"
+                      searchFunction={suggestPatients}
+                      displayKey="label"
                     />
                   </div>
                   <div>
@@ -393,12 +397,12 @@ const Dashboard = () => {
                       onChange={(value) => setNewAppointment({ ...newAppointment, doctorName: value })}
                       onSelect={(doctor) => {
                         if (doctor) {
-                          setNewAppointment({ ...newAppointment, doctorName: doctor.name });
+                          setNewAppointment({ ...newAppointment, doctorName: doctor.label });
                         }
                       }}
                       placeholder="Search for doctor..."
-                      searchFunction={api.staff.searchByName}
-                      displayKey="name"
+                      searchFunction={suggestDoctors}
+                      displayKey="label"
                     />
                   </div>
                   <div>